@@ -0,0 +1,161 @@
+package org.molgenis.vibe.cli;
+
+import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
+import org.molgenis.vibe.cli.io.output.target.OutputWriter;
+import org.molgenis.vibe.core.GeneDiseaseCollectionRetrievalRunner;
+import org.molgenis.vibe.core.PhenotypesRetrievalRunner;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache;
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneDiseaseCollectionBuilder;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalHighestDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the complete gene prioritization (optional related phenotypes retrieval, database retrieval, prioritization and
+ * writing the output) for a single set of {@link Phenotype}{@code s} using already loaded data. The loaded data is not
+ * closed afterwards, so that it can be reused for other sets of {@link Phenotype}{@code s}.
+ */
+public class GenePrioritizationRunner implements Callable<Void> {
+    private ModelReader modelReader;
+    private GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory = GenesForPhenotypeRetrieverFactory.SPARQL;
+    private HpoGraph hpoGraph;
+    private PhenotypesRetrieverFactory phenotypesRetrieverFactory;
+    private Integer ontologyMaxDistance;
+    private Set<Phenotype> phenotypes;
+    private GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory;
+    private OutputWriter outputWriter;
+    private PhenotypeResultCache resultCache;
+    private GdaFilter filter = GdaFilter.NONE;
+    private int topGenes = 0;
+
+    /**
+     * @param modelReader an opened {@link ModelReader} for the vibe database
+     * @param phenotypes the input {@link Phenotype}{@code s}
+     * @param outputFormatWriterFactory the output format to use
+     * @param outputWriter the output target to write to
+     */
+    public GenePrioritizationRunner(ModelReader modelReader, Set<Phenotype> phenotypes,
+                                    GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory,
+                                    OutputWriter outputWriter) {
+        this.modelReader = requireNonNull(modelReader);
+        this.phenotypes = requireNonNull(phenotypes);
+        this.outputFormatWriterFactory = requireNonNull(outputFormatWriterFactory);
+        this.outputWriter = requireNonNull(outputWriter);
+    }
+
+    /**
+     * Includes related {@link Phenotype}{@code s} retrieved through the {@link PhenotypesRetrieverFactory} before
+     * retrieving the data from the database.
+     * @param hpoGraph the loaded Human Phenotype Ontology
+     * @param phenotypesRetrieverFactory the algorithm to use for retrieving related {@link Phenotype}{@code s}
+     * @param ontologyMaxDistance the maximum distance used by the algorithm
+     * @return itself for fluent programming
+     */
+    public GenePrioritizationRunner withRelatedPhenotypes(HpoGraph hpoGraph,
+                                                          PhenotypesRetrieverFactory phenotypesRetrieverFactory,
+                                                          Integer ontologyMaxDistance) {
+        this.hpoGraph = requireNonNull(hpoGraph);
+        this.phenotypesRetrieverFactory = requireNonNull(phenotypesRetrieverFactory);
+        this.ontologyMaxDistance = requireNonNull(ontologyMaxDistance);
+        return this;
+    }
+
+    /**
+     * Retrieves the data from the database using the given {@link GenesForPhenotypeRetrieverFactory} (default:
+     * {@link GenesForPhenotypeRetrieverFactory#SPARQL}).
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to use
+     * @return itself for fluent programming
+     */
+    public GenePrioritizationRunner withGenesForPhenotypeRetrieverFactory(GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) {
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
+        return this;
+    }
+
+    /**
+     * Reuses the data of {@link Phenotype}{@code s} retrieved earlier.
+     * @param resultCache the {@link PhenotypeResultCache} to use (can be shared with other runners)
+     * @return itself for fluent programming
+     * @see GeneDiseaseCollectionRetrievalRunner#withResultCache(PhenotypeResultCache)
+     */
+    public GenePrioritizationRunner withResultCache(PhenotypeResultCache resultCache) {
+        this.resultCache = requireNonNull(resultCache);
+        return this;
+    }
+
+    /**
+     * Only retrieves the gene-disease associations that pass {@code filter}.
+     * @param filter the {@link GdaFilter} to use (default: {@link GdaFilter#NONE})
+     * @return itself for fluent programming
+     * @see GeneDiseaseCollectionRetrievalRunner#withFilter(GdaFilter)
+     */
+    public GenePrioritizationRunner withFilter(GdaFilter filter) {
+        this.filter = requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Only writes the {@code topGenes} {@link Gene}{@code s} with the highest priority (see {@link TopGenesPrioritizer}).
+     * @param topGenes the maximum number of {@link Gene}{@code s} to write (default: all)
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code topGenes < 1}
+     */
+    public GenePrioritizationRunner withTopGenes(int topGenes) {
+        if(topGenes < 1) {
+            throw new IllegalArgumentException("topGenes must be >= 1: " + topGenes);
+        }
+        this.topGenes = topGenes;
+        return this;
+    }
+
+    @Override
+    public Void call() throws IOException {
+        Set<Phenotype> searchPhenotypes = phenotypes;
+        if(phenotypesRetrieverFactory != null) {
+            searchPhenotypes = new PhenotypesRetrievalRunner(hpoGraph, phenotypesRetrieverFactory,
+                    phenotypes, ontologyMaxDistance).call().getPhenotypes();
+        }
+
+        GeneDiseaseCollectionRetrievalRunner retrievalRunner = new GeneDiseaseCollectionRetrievalRunner(modelReader,
+                searchPhenotypes, genesForPhenotypeRetrieverFactory).withFilter(filter);
+
+        // Without a cache (which stores all data per phenotype), only the data of the top genes is retrieved.
+        if(topGenes > 0 && resultCache == null) {
+            GeneDiseaseCollectionBuilder collectionBuilder = new GeneDiseaseCollectionBuilder();
+            retrievalRunner.streamTopGenes(collectionBuilder, topGenes);
+            GeneDiseaseCollection geneDiseaseCollection = collectionBuilder.getGeneDiseaseCollection();
+            outputFormatWriterFactory.create(outputWriter, geneDiseaseCollection,
+                    new TopGenesPrioritizer(topGenes).sort(geneDiseaseCollection)).run();
+            return null;
+        }
+
+        if(resultCache != null) {
+            retrievalRunner.withResultCache(resultCache);
+        }
+        // Without a limit, the genes are prioritized while the data is retrieved.
+        IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+        if(topGenes == 0) {
+            retrievalRunner.withPrioritizer(prioritizer);
+        }
+        GeneDiseaseCollection geneDiseaseCollection = retrievalRunner.call();
+        List<Gene> genePriority = topGenes > 0 ? new TopGenesPrioritizer(topGenes).sort(geneDiseaseCollection) :
+                prioritizer.getPriority();
+
+        outputFormatWriterFactory.create(outputWriter, geneDiseaseCollection, genePriority).run();
+        return null;
+    }
+}
@@ -1,17 +1,32 @@
 package org.molgenis.vibe.cli;
 
 import org.apache.jena.ext.com.google.common.base.Stopwatch;
+import org.molgenis.vibe.cli.batch.BatchRunner;
 import org.molgenis.vibe.cli.io.options_digestion.CommandLineOptionsParser;
 import org.molgenis.vibe.cli.properties.VibeProperties;
+import org.molgenis.vibe.cli.server.GenePrioritizationHandler;
+import org.molgenis.vibe.cli.server.VibeServer;
 import org.molgenis.vibe.core.GeneDiseaseCollectionRetrievalRunner;
 import org.molgenis.vibe.core.PhenotypesRetrievalRunner;
+import org.molgenis.vibe.core.database_processing.GdaIndexWriter;
+import org.molgenis.vibe.core.database_processing.result_cache.LruPhenotypeResultCache;
+import org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache;
+import org.molgenis.vibe.core.database_processing.result_cache.TieredPhenotypeResultCache;
 import org.molgenis.vibe.cli.io.options_digestion.VibeOptions;
 import org.molgenis.vibe.core.formats.Gene;
 import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
 import org.molgenis.vibe.core.formats.Phenotype;
 import org.molgenis.vibe.core.formats.PhenotypeNetworkCollection;
-import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.GenePrioritizer;
-import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.HighestSingleDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.io.input.HdtIndexBuilder;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+import org.molgenis.vibe.core.ontology_processing.InformationContentTable;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRowConsumer;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneDiseaseCollectionBuilder;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.HighestScorePerGeneTracker;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalHighestDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
 
 import java.io.IOException;
 import java.util.List;
@@ -34,18 +49,31 @@ public enum RunMode {
     }, GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES("Retrieves genes for input phenotypes and phenotypes associated to input phenotypes.") {
         @Override
         protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws IOException {
-            PhenotypeNetworkCollection phenotypeNetworkCollection = retrieveAssociatedPhenotypes(vibeOptions, stopwatch);
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDatasetOutput(vibeOptions, stopwatch, phenotypeNetworkCollection.getPhenotypes());
-            List<Gene> genePriority = orderGenes(vibeOptions, stopwatch, geneDiseaseCollection);
+            vibeOptions.printVerbose("# " + vibeOptions.getPhenotypesRetrieverFactory().getDescription());
+            resetTimer(stopwatch);
+            // Read once, as it is also used when prioritizing on phenotype similarity.
+            HpoGraph hpoGraph = HpoGraph.read(vibeOptions.getHpoOntology());
+            PhenotypeNetworkCollection phenotypeNetworkCollection = retrieveAssociatedPhenotypes(vibeOptions, stopwatch,
+                    hpoGraph);
+            if(vibeOptions.getGenePrioritizerFactory().usesInformationContent()) {
+                prioritizeOnPhenotypeSimilarity(vibeOptions, stopwatch, phenotypeNetworkCollection.getPhenotypes(),
+                        hpoGraph);
+                return;
+            }
+            if(vibeOptions.isLowMemory()) {
+                streamPrioritizedGenesOutput(vibeOptions, stopwatch, phenotypeNetworkCollection.getPhenotypes());
+                return;
+            }
+            IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+            GeneDiseaseCollection geneDiseaseCollection = retrieveDatasetOutput(vibeOptions, stopwatch, phenotypeNetworkCollection.getPhenotypes(), prioritizer);
+            List<Gene> genePriority = orderGenes(vibeOptions, stopwatch, geneDiseaseCollection, prioritizer);
             writePrioritizedGenesOutput(vibeOptions, stopwatch, geneDiseaseCollection, genePriority);
         }
 
-        private PhenotypeNetworkCollection retrieveAssociatedPhenotypes(VibeOptions vibeOptions, Stopwatch stopwatch) {
-            vibeOptions.printVerbose("# " + vibeOptions.getPhenotypesRetrieverFactory().getDescription());
-
-            resetTimer(stopwatch);
+        private PhenotypeNetworkCollection retrieveAssociatedPhenotypes(VibeOptions vibeOptions, Stopwatch stopwatch,
+                                                                        HpoGraph hpoGraph) {
             PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypesRetrievalRunner(
-                    vibeOptions.getHpoOntology(), vibeOptions.getPhenotypesRetrieverFactory(),
+                    hpoGraph, vibeOptions.getPhenotypesRetrieverFactory(),
                     vibeOptions.getPhenotypes(), vibeOptions.getOntologyMaxDistance()).call();
             printElapsedTime(vibeOptions, stopwatch);
 
@@ -54,33 +82,184 @@ public enum RunMode {
     }, GENES_FOR_PHENOTYPES("Retrieves genes for input phenotypes.") {
         @Override
         protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws Exception {
-            GeneDiseaseCollection geneDiseaseCollection = retrieveDatasetOutput(vibeOptions, stopwatch, retrieveInputPhenotypes(vibeOptions));
-            List<Gene> genePriority = orderGenes(vibeOptions, stopwatch, geneDiseaseCollection);
+            if(vibeOptions.getGenePrioritizerFactory().usesInformationContent()) {
+                prioritizeOnPhenotypeSimilarity(vibeOptions, stopwatch, retrieveInputPhenotypes(vibeOptions), null);
+                return;
+            }
+            if(vibeOptions.isLowMemory()) {
+                streamPrioritizedGenesOutput(vibeOptions, stopwatch, retrieveInputPhenotypes(vibeOptions));
+                return;
+            }
+            IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+            GeneDiseaseCollection geneDiseaseCollection = retrieveDatasetOutput(vibeOptions, stopwatch, retrieveInputPhenotypes(vibeOptions), prioritizer);
+            List<Gene> genePriority = orderGenes(vibeOptions, stopwatch, geneDiseaseCollection, prioritizer);
             writePrioritizedGenesOutput(vibeOptions, stopwatch, geneDiseaseCollection, genePriority);
         }
 
         private Set<Phenotype> retrieveInputPhenotypes(VibeOptions vibeOptions) {
             return vibeOptions.getPhenotypes();
         }
+    }, SERVER("Keeps the database and ontology loaded while answering gene prioritization requests over HTTP.") {
+        @Override
+        protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws Exception {
+            vibeOptions.printVerbose("# Loading main dataset and ontology.");
+
+            resetTimer(stopwatch);
+            HpoGraph hpoGraph = HpoGraph.read(vibeOptions.getHpoOntology());
+            try ( ModelReader modelReader = vibeOptions.getVibeDatabase().getModelReader();
+                  VibeServer server = new VibeServer(vibeOptions.getServerPort(), createHandler(vibeOptions,
+                          modelReader, hpoGraph)) ) {
+                printElapsedTime(vibeOptions, stopwatch);
+
+                // Stops the server (and with that releases the loaded data) when the application is terminated.
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+                server.start();
+                System.out.println("Listening on " + server.getAddress());
+                server.awaitClose();
+            }
+        }
+
+        private GenePrioritizationHandler createHandler(VibeOptions vibeOptions, ModelReader modelReader,
+                                                        HpoGraph hpoGraph) {
+            GenePrioritizationHandler handler = new GenePrioritizationHandler(modelReader, hpoGraph,
+                    vibeOptions.getGenePrioritizedOutputFormatWriterFactory(),
+                    vibeOptions.getVibeDatabase().getGenesForPhenotypeRetrieverFactory())
+                    .withFilter(vibeOptions.getGdaFilter()).withVerbose(vibeOptions.isVerbose());
+            PhenotypeResultCache resultCache = createResultCache(vibeOptions);
+            if(resultCache != null) {
+                handler.withResultCache(resultCache);
+            }
+            if(vibeOptions.getTopGenes() > 0) {
+                handler.withTopGenes(vibeOptions.getTopGenes());
+            }
+            return handler;
+        }
+    }, BATCH("Retrieves prioritized genes for each patient within a batch file.") {
+        @Override
+        protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws Exception {
+            vibeOptions.printVerbose("# Loading main dataset" +
+                    (vibeOptions.getPhenotypesRetrieverFactory() == null ? "." : " and ontology."));
+
+            resetTimer(stopwatch);
+            HpoGraph hpoGraph = vibeOptions.getPhenotypesRetrieverFactory() == null ? null :
+                    HpoGraph.read(vibeOptions.getHpoOntology());
+            try ( ModelReader modelReader = vibeOptions.getVibeDatabase().getModelReader() ) {
+                printElapsedTime(vibeOptions, stopwatch);
+
+                BatchRunner batchRunner = new BatchRunner(modelReader, vibeOptions.getBatchEntries(),
+                        vibeOptions.getThreads(), vibeOptions.getGenePrioritizedOutputFormatWriterFactory())
+                        .withGenesForPhenotypeRetrieverFactory(vibeOptions.getVibeDatabase().getGenesForPhenotypeRetrieverFactory())
+                        .withFilter(vibeOptions.getGdaFilter());
+                if(hpoGraph != null) {
+                    batchRunner.withRelatedPhenotypes(hpoGraph,
+                            vibeOptions.getPhenotypesRetrieverFactory(), vibeOptions.getOntologyMaxDistance());
+                }
+                PhenotypeResultCache resultCache = createResultCache(vibeOptions);
+                if(resultCache != null) {
+                    batchRunner.withResultCache(resultCache);
+                }
+                if(vibeOptions.getTopGenes() > 0) {
+                    batchRunner.withTopGenes(vibeOptions.getTopGenes());
+                }
+
+                vibeOptions.printVerbose("# Processing " + vibeOptions.getBatchEntries().size() + " patients using " +
+                        vibeOptions.getThreads() + " threads.");
+                resetTimer(stopwatch);
+                if(vibeOptions.getOutputDirectory() != null) {
+                    batchRunner.run(vibeOptions.getOutputDirectory());
+                } else {
+                    batchRunner.run(vibeOptions.getOutputWriter());
+                }
+                printElapsedTime(vibeOptions, stopwatch);
+            }
+        }
+    }, BUILD_INDEX("Builds (if missing) and verifies the index of the main dataset.") {
+        @Override
+        protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws Exception {
+            HdtIndexBuilder indexBuilder = vibeOptions.getVibeDatabase().getIndexBuilder();
+
+            vibeOptions.printVerbose("# Building index.");
+            resetTimer(stopwatch);
+            indexBuilder.build();
+            printElapsedTime(vibeOptions, stopwatch);
+
+            vibeOptions.printVerbose("# Verifying index.");
+            resetTimer(stopwatch);
+            indexBuilder.verify();
+            printElapsedTime(vibeOptions, stopwatch);
+
+            System.out.println("Index available at " + indexBuilder.getIndexFile());
+        }
+    }, BUILD_GDA_INDEX("Writes the gene-disease associations of all phenotypes within the main dataset to an index file.") {
+        @Override
+        protected void runMode(VibeOptions vibeOptions, Stopwatch stopwatch) throws Exception {
+            vibeOptions.printVerbose("# Loading main dataset.");
+            resetTimer(stopwatch);
+            try ( ModelReader modelReader = vibeOptions.getVibeDatabase().getModelReader() ) {
+                printElapsedTime(vibeOptions, stopwatch);
+
+                vibeOptions.printVerbose("# Writing gene-disease association index.");
+                resetTimer(stopwatch);
+                new GdaIndexWriter(modelReader, vibeOptions.getGdaIndexFile()).run();
+                printElapsedTime(vibeOptions, stopwatch);
+            }
+
+            System.out.println("Index available at " + vibeOptions.getGdaIndexFile());
+        }
     };
 
-    private static GeneDiseaseCollection retrieveDatasetOutput(VibeOptions vibeOptions, Stopwatch stopwatch, Set<Phenotype> phenotypes) throws IOException {
+    /**
+     * Retrieves the data while giving it to {@code prioritizer} (unless only the top genes are needed, see
+     * {@link #orderGenes(VibeOptions, Stopwatch, GeneDiseaseCollection, IncrementalGenePrioritizer)}).
+     */
+    private static GeneDiseaseCollection retrieveDatasetOutput(VibeOptions vibeOptions, Stopwatch stopwatch, Set<Phenotype> phenotypes,
+                                                               IncrementalGenePrioritizer prioritizer) throws IOException {
         vibeOptions.printVerbose("# Retrieving data from main dataset.");
 
         resetTimer(stopwatch);
-        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollectionRetrievalRunner(
-                vibeOptions.getVibeDatabase(), phenotypes).call();
+        GeneDiseaseCollectionRetrievalRunner retrievalRunner = new GeneDiseaseCollectionRetrievalRunner(
+                vibeOptions.getVibeDatabase(), phenotypes).withThreads(vibeOptions.getThreads())
+                .withFilter(vibeOptions.getGdaFilter());
+        PhenotypeResultCache resultCache = createResultCache(vibeOptions);
+        if(resultCache != null) {
+            retrievalRunner.withResultCache(resultCache);
+        }
+        if(vibeOptions.getTopGenes() == 0) {
+            retrievalRunner.withPrioritizer(prioritizer);
+        }
+        GeneDiseaseCollection geneDiseaseCollection = retrievalRunner.call();
         printElapsedTime(vibeOptions, stopwatch);
 
         return geneDiseaseCollection;
     }
 
-    private static List<Gene> orderGenes(VibeOptions vibeOptions, Stopwatch stopwatch, GeneDiseaseCollection geneDiseaseCollection) {
+    /**
+     * @return an in-memory and/or on-disk {@link PhenotypeResultCache} (when both are given, the in-memory one is
+     * checked first), or {@code null} if neither is given
+     */
+    private static PhenotypeResultCache createResultCache(VibeOptions vibeOptions) {
+        PhenotypeResultCache memoryCache = vibeOptions.getResultCacheSize() > 0 ?
+                new LruPhenotypeResultCache(vibeOptions.getResultCacheSize()) : null;
+        PhenotypeResultCache diskCache = vibeOptions.getDiskResultCache();
+
+        if(memoryCache != null && diskCache != null) {
+            return new TieredPhenotypeResultCache(memoryCache, diskCache);
+        }
+        return memoryCache != null ? memoryCache : diskCache;
+    }
+
+    /**
+     * Only the top genes are selected from the {@link GeneDiseaseCollection} afterwards, otherwise the priority created
+     * by {@code prioritizer} during the retrieval is used.
+     */
+    private static List<Gene> orderGenes(VibeOptions vibeOptions, Stopwatch stopwatch, GeneDiseaseCollection geneDiseaseCollection,
+                                         IncrementalGenePrioritizer prioritizer) {
         vibeOptions.printVerbose("# Ordering genes based on priority.");
 
         resetTimer(stopwatch);
-        GenePrioritizer prioritizer = new HighestSingleDisgenetScoreGenePrioritizer();
-        List<Gene> genePriority = prioritizer.sort(geneDiseaseCollection);
+        List<Gene> genePriority = vibeOptions.getTopGenes() > 0 ?
+                new TopGenesPrioritizer(vibeOptions.getTopGenes()).sort(geneDiseaseCollection) : prioritizer.getPriority();
         printElapsedTime(vibeOptions, stopwatch);
 
         return genePriority;
@@ -97,6 +276,113 @@ public enum RunMode {
         printElapsedTime(vibeOptions, stopwatch);
     }
 
+    /**
+     * Retrieves the data and orders the genes using the {@link VibeOptions#getGenePrioritizerFactory()} (based on the
+     * similarity with the input phenotypes, not the {@code phenotypes} used for retrieval). The database is only loaded
+     * once, as both the retrieval and the {@link InformationContentTable} use it (the latter only on the first run, see
+     * {@link org.molgenis.vibe.core.io.input.VibeDatabase#getDiseasePhenotypes(ModelReader)}).
+     * @param hpoGraph the already read ontology, or {@code null} to read it from {@link VibeOptions#getHpoOntology()}
+     */
+    private static void prioritizeOnPhenotypeSimilarity(VibeOptions vibeOptions, Stopwatch stopwatch,
+                                                        Set<Phenotype> phenotypes, HpoGraph hpoGraph) throws IOException {
+        vibeOptions.printVerbose(hpoGraph == null ? "# Loading main dataset and ontology." : "# Loading main dataset.");
+
+        resetTimer(stopwatch);
+        if(hpoGraph == null) {
+            hpoGraph = HpoGraph.read(vibeOptions.getHpoOntology());
+        }
+        try ( ModelReader modelReader = vibeOptions.getVibeDatabase().getModelReader() ) {
+            printElapsedTime(vibeOptions, stopwatch);
+
+            vibeOptions.printVerbose("# Calculating information content of phenotypes.");
+            resetTimer(stopwatch);
+            InformationContentTable informationContentTable = new InformationContentTable(hpoGraph,
+                    vibeOptions.getVibeDatabase().getDiseasePhenotypes(modelReader));
+            printElapsedTime(vibeOptions, stopwatch);
+
+            vibeOptions.printVerbose("# Retrieving data from main dataset.");
+            resetTimer(stopwatch);
+            GeneDiseaseCollectionRetrievalRunner retrievalRunner = new GeneDiseaseCollectionRetrievalRunner(modelReader,
+                    phenotypes, vibeOptions.getVibeDatabase().getGenesForPhenotypeRetrieverFactory())
+                    .withThreads(vibeOptions.getThreads()).withFilter(vibeOptions.getGdaFilter());
+            PhenotypeResultCache resultCache = createResultCache(vibeOptions);
+            if(resultCache != null) {
+                retrievalRunner.withResultCache(resultCache);
+            }
+            GeneDiseaseCollection geneDiseaseCollection = retrievalRunner.call();
+            printElapsedTime(vibeOptions, stopwatch);
+
+            vibeOptions.printVerbose("# " + vibeOptions.getGenePrioritizerFactory().getDescription());
+            resetTimer(stopwatch);
+            List<Gene> genePriority = vibeOptions.getGenePrioritizerFactory().create(informationContentTable,
+                    vibeOptions.getPhenotypes()).sort(geneDiseaseCollection);
+            if(vibeOptions.getTopGenes() > 0 && genePriority.size() > vibeOptions.getTopGenes()) {
+                genePriority = genePriority.subList(0, vibeOptions.getTopGenes());
+            }
+            printElapsedTime(vibeOptions, stopwatch);
+
+            writePrioritizedGenesOutput(vibeOptions, stopwatch, geneDiseaseCollection, genePriority);
+        }
+    }
+
+    /**
+     * Retrieves the data and orders the genes in a single pass (see {@link GdaRowConsumer}). The data itself is only
+     * stored if the output format needs it, otherwise only the highest score per gene is kept.
+     */
+    private static void streamPrioritizedGenesOutput(VibeOptions vibeOptions, Stopwatch stopwatch,
+                                                     Set<Phenotype> phenotypes) throws IOException {
+        if(vibeOptions.getTopGenes() > 0) {
+            streamTopGenesOutput(vibeOptions, stopwatch, phenotypes);
+            return;
+        }
+        GeneDiseaseCollectionRetrievalRunner retrievalRunner = new GeneDiseaseCollectionRetrievalRunner(
+                vibeOptions.getVibeDatabase(), phenotypes).withFilter(vibeOptions.getGdaFilter());
+
+        vibeOptions.printVerbose("# Retrieving data from main dataset while ordering genes based on priority.");
+        if(vibeOptions.getGenePrioritizedOutputFormatWriterFactory().usesGeneDiseaseCollection()) {
+            IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+            GeneDiseaseCollectionBuilder collectionBuilder = new GeneDiseaseCollectionBuilder().withPrioritizer(prioritizer);
+            resetTimer(stopwatch);
+            retrievalRunner.stream(collectionBuilder);
+            printElapsedTime(vibeOptions, stopwatch);
+
+            writePrioritizedGenesOutput(vibeOptions, stopwatch, collectionBuilder.getGeneDiseaseCollection(),
+                    prioritizer.getPriority());
+        } else {
+            HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+            resetTimer(stopwatch);
+            retrievalRunner.streamGeneScores(tracker);
+            printElapsedTime(vibeOptions, stopwatch);
+
+            writePrioritizedGenesOutput(vibeOptions, stopwatch, new GeneDiseaseCollection(), tracker.getPriority());
+        }
+    }
+
+    /**
+     * Retrieves only the top genes (see {@link GeneDiseaseCollectionRetrievalRunner#retrieveTopGenes(int)}). If the
+     * output format needs the data itself, the data is only retrieved (and stored) for the top genes instead (see
+     * {@link GeneDiseaseCollectionRetrievalRunner#streamTopGenes(GdaRowConsumer, int)}).
+     */
+    private static void streamTopGenesOutput(VibeOptions vibeOptions, Stopwatch stopwatch,
+                                             Set<Phenotype> phenotypes) throws IOException {
+        GeneDiseaseCollectionRetrievalRunner retrievalRunner = new GeneDiseaseCollectionRetrievalRunner(
+                vibeOptions.getVibeDatabase(), phenotypes).withFilter(vibeOptions.getGdaFilter());
+
+        vibeOptions.printVerbose("# Retrieving the " + vibeOptions.getTopGenes() + " genes with the highest priority from main dataset.");
+        resetTimer(stopwatch);
+        GeneDiseaseCollectionBuilder collectionBuilder = new GeneDiseaseCollectionBuilder();
+        List<Gene> genePriority;
+        if(vibeOptions.getGenePrioritizedOutputFormatWriterFactory().usesGeneDiseaseCollection()) {
+            retrievalRunner.streamTopGenes(collectionBuilder, vibeOptions.getTopGenes());
+            genePriority = new TopGenesPrioritizer(vibeOptions.getTopGenes()).sort(collectionBuilder.getGeneDiseaseCollection());
+        } else {
+            genePriority = retrievalRunner.retrieveTopGenes(vibeOptions.getTopGenes());
+        }
+        printElapsedTime(vibeOptions, stopwatch);
+
+        writePrioritizedGenesOutput(vibeOptions, stopwatch, collectionBuilder.getGeneDiseaseCollection(), genePriority);
+    }
+
     private VibeOptions vibeOptions;
 
     private String description;
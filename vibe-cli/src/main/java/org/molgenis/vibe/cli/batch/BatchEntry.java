@@ -0,0 +1,72 @@
+package org.molgenis.vibe.cli.batch;
+
+import org.molgenis.vibe.core.formats.Phenotype;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A single patient from a batch file: an identifier with its own {@link Phenotype}{@code s}.
+ */
+public class BatchEntry {
+    /**
+     * Allowed patient identifiers. These are restricted as they are used as file names for per-patient output.
+     */
+    private static final Pattern PATIENT_ID_REGEX = Pattern.compile("^[A-Za-z0-9._-]+$");
+
+    private String patientId;
+    private Set<Phenotype> phenotypes;
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @return an unmodifiable {@link Set} containing the {@link Phenotype}{@code s} of this patient
+     */
+    public Set<Phenotype> getPhenotypes() {
+        return Collections.unmodifiableSet(phenotypes);
+    }
+
+    /**
+     * @param patientId the patient identifier (only letters, digits, '.', '_' and '-' are allowed)
+     * @param phenotypes the {@link Phenotype}{@code s} of the patient (at least 1)
+     * @throws IllegalArgumentException if {@code patientId} contains invalid characters or {@code phenotypes} is empty
+     */
+    public BatchEntry(String patientId, Set<Phenotype> phenotypes) {
+        this.patientId = requireNonNull(patientId);
+        this.phenotypes = requireNonNull(phenotypes);
+        if(!PATIENT_ID_REGEX.matcher(patientId).matches()) {
+            throw new IllegalArgumentException("Invalid patient id: " + patientId);
+        }
+        if(phenotypes.isEmpty()) {
+            throw new IllegalArgumentException("No phenotypes given for patient " + patientId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchEntry{" +
+                "patientId='" + patientId + '\'' +
+                ", phenotypes=" + phenotypes +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchEntry that = (BatchEntry) o;
+        return Objects.equals(patientId, that.patientId) &&
+                Objects.equals(phenotypes, that.phenotypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(patientId, phenotypes);
+    }
+}
@@ -0,0 +1,83 @@
+package org.molgenis.vibe.cli.batch;
+
+import org.molgenis.vibe.core.formats.Phenotype;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads a batch file. Each line contains a patient id and its phenotypes (comma-separated HPO ids), separated by a tab:
+ * <pre>
+ * patient1	HP:0002996,HP:0001377
+ * patient2	HP:0002996
+ * </pre>
+ * Empty lines and lines starting with {@code #} are ignored.
+ */
+public abstract class BatchFileReader {
+    private static final String COMMENT_PREFIX = "#";
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String PHENOTYPE_SEPARATOR = ",";
+
+    private BatchFileReader() {
+    }
+
+    /**
+     * @param batchFile the file to read
+     * @return the {@link BatchEntry}{@code s} in the order they are present in the file
+     * @throws IOException if the file could not be read or contains an invalid line
+     */
+    public static List<BatchEntry> read(Path batchFile) throws IOException {
+        List<BatchEntry> entries = new ArrayList<>();
+        Set<String> patientIds = new HashSet<>();
+
+        try ( BufferedReader reader = Files.newBufferedReader(batchFile, StandardCharsets.UTF_8) ) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.trim().isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                    continue;
+                }
+
+                try {
+                    BatchEntry entry = parseLine(line);
+                    if(!patientIds.add(entry.getPatientId())) {
+                        throw new IllegalArgumentException("Duplicate patient id: " + entry.getPatientId());
+                    }
+                    entries.add(entry);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(batchFile.getFileName() + " line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+
+        if(entries.isEmpty()) {
+            throw new IOException(batchFile.getFileName() + " does not contain any patients.");
+        }
+        return entries;
+    }
+
+    /**
+     * @param line a single non-comment line
+     * @return a {@link BatchEntry}
+     * @throws IllegalArgumentException if the line is invalid
+     */
+    static BatchEntry parseLine(String line) {
+        String[] fields = line.split(FIELD_SEPARATOR);
+        if(fields.length != 2) {
+            throw new IllegalArgumentException("expected a patient id and phenotypes separated by a tab.");
+        }
+
+        Set<Phenotype> phenotypes = new HashSet<>();
+        for(String phenotype : fields[1].split(PHENOTYPE_SEPARATOR)) {
+            if(!phenotype.trim().isEmpty()) {
+                phenotypes.add(new Phenotype(phenotype.trim())); // throws InvalidStringFormatException (IllegalArgumentException)
+            }
+        }
+        return new BatchEntry(fields[0].trim(), phenotypes);
+    }
+}
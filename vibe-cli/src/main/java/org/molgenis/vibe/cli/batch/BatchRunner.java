@@ -0,0 +1,262 @@
+package org.molgenis.vibe.cli.batch;
+
+import org.molgenis.vibe.cli.GenePrioritizationRunner;
+import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
+import org.molgenis.vibe.cli.io.output.target.FileOutputWriter;
+import org.molgenis.vibe.cli.io.output.target.OutputWriter;
+import org.molgenis.vibe.cli.io.output.target.StringOutputWriter;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the gene prioritization for all {@link BatchEntry}{@code s} on a fixed-size thread pool using a single loaded
+ * database (and ontology). Each thread uses its own view on the database (see {@link ModelReader#createView()}).
+ */
+public class BatchRunner {
+    private static final String OUTPUT_FILE_EXTENSION = ".tsv";
+
+    /**
+     * The number of patients per thread that are processed ahead of the patient whose result is consumed.
+     */
+    private static final int IN_FLIGHT_TASKS_PER_THREAD = 2;
+
+    private ModelReader modelReader;
+    private List<BatchEntry> entries;
+    private int threads;
+    private GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory;
+    private HpoGraph hpoGraph;
+    private PhenotypesRetrieverFactory phenotypesRetrieverFactory;
+    private Integer ontologyMaxDistance;
+    private GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory = GenesForPhenotypeRetrieverFactory.SPARQL;
+    private PhenotypeResultCache resultCache;
+    private GdaFilter filter = GdaFilter.NONE;
+    private int topGenes = 0;
+
+    /**
+     * All views created by the worker threads (closed when the batch is finished).
+     */
+    private final List<ModelReader> views = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The view of the current worker thread.
+     */
+    private final ThreadLocal<ModelReader> threadModelReader = ThreadLocal.withInitial(() -> {
+        ModelReader view = modelReader.createView();
+        views.add(view);
+        return view;
+    });
+
+    /**
+     * @param modelReader an opened {@link ModelReader} supporting {@link ModelReader#createView()} (not closed afterwards)
+     * @param entries the patients to process
+     * @param threads the number of worker threads
+     * @param outputFormatWriterFactory the output format to use
+     * @throws IllegalArgumentException if {@code threads < 1}
+     */
+    public BatchRunner(ModelReader modelReader, List<BatchEntry> entries, int threads,
+                       GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory) {
+        this.modelReader = requireNonNull(modelReader);
+        this.entries = requireNonNull(entries);
+        this.outputFormatWriterFactory = requireNonNull(outputFormatWriterFactory);
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Includes related phenotypes for each patient.
+     * @see GenePrioritizationRunner#withRelatedPhenotypes(HpoGraph, PhenotypesRetrieverFactory, Integer)
+     * @return itself for fluent programming
+     */
+    public BatchRunner withRelatedPhenotypes(HpoGraph hpoGraph,
+                                             PhenotypesRetrieverFactory phenotypesRetrieverFactory,
+                                             Integer ontologyMaxDistance) {
+        this.hpoGraph = requireNonNull(hpoGraph);
+        this.phenotypesRetrieverFactory = requireNonNull(phenotypesRetrieverFactory);
+        this.ontologyMaxDistance = requireNonNull(ontologyMaxDistance);
+        return this;
+    }
+
+    /**
+     * Retrieves the data of each patient using the given {@link GenesForPhenotypeRetrieverFactory}.
+     * @see GenePrioritizationRunner#withGenesForPhenotypeRetrieverFactory(GenesForPhenotypeRetrieverFactory)
+     * @return itself for fluent programming
+     */
+    public BatchRunner withGenesForPhenotypeRetrieverFactory(GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) {
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
+        return this;
+    }
+
+    /**
+     * Shares the data retrieved per phenotype between all patients.
+     * @see GenePrioritizationRunner#withResultCache(PhenotypeResultCache)
+     * @return itself for fluent programming
+     */
+    public BatchRunner withResultCache(PhenotypeResultCache resultCache) {
+        this.resultCache = requireNonNull(resultCache);
+        return this;
+    }
+
+    /**
+     * Only retrieves the gene-disease associations that pass {@code filter} for each patient.
+     * @see GenePrioritizationRunner#withFilter(GdaFilter)
+     * @return itself for fluent programming
+     */
+    public BatchRunner withFilter(GdaFilter filter) {
+        this.filter = requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Only writes the {@code topGenes} genes with the highest priority for each patient.
+     * @see GenePrioritizationRunner#withTopGenes(int)
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code topGenes < 1}
+     */
+    public BatchRunner withTopGenes(int topGenes) {
+        if(topGenes < 1) {
+            throw new IllegalArgumentException("topGenes must be >= 1: " + topGenes);
+        }
+        this.topGenes = topGenes;
+        return this;
+    }
+
+    /**
+     * Writes the output of each patient to its own file ({@code <patient id>.tsv}) in {@code outputDirectory}.
+     * Existing files are overwritten.
+     * @param outputDirectory the directory to write the files to
+     * @throws IOException if processing a patient failed
+     */
+    public void run(Path outputDirectory) throws IOException {
+        execute(entry -> {
+            OutputWriter outputWriter = new FileOutputWriter(outputDirectory.resolve(entry.getPatientId() + OUTPUT_FILE_EXTENSION));
+            createRunner(entry, outputWriter).call();
+            return null;
+        }, (entry, result) -> {});
+    }
+
+    /**
+     * Writes the output of all patients to a single {@link OutputWriter} in the order of the {@link BatchEntry}{@code s}.
+     * The output of each patient is preceded by a line containing {@code # <patient id>}.
+     * @param outputWriter the combined output target
+     * @throws IOException if processing a patient or writing the output failed
+     */
+    public void run(OutputWriter outputWriter) throws IOException {
+        try {
+            outputWriter.initialize();
+            execute(entry -> {
+                StringOutputWriter patientOutputWriter = new StringOutputWriter();
+                createRunner(entry, patientOutputWriter).call();
+                return patientOutputWriter.getOutput();
+            }, (entry, result) -> {
+                outputWriter.writeHeader("# " + entry.getPatientId());
+                outputWriter.writeNewLine();
+                outputWriter.write(result);
+                if(!result.isEmpty() && !result.endsWith(System.lineSeparator())) {
+                    outputWriter.writeNewLine();
+                }
+            });
+        } finally {
+            outputWriter.close();
+        }
+    }
+
+    private GenePrioritizationRunner createRunner(BatchEntry entry, OutputWriter outputWriter) {
+        GenePrioritizationRunner runner = new GenePrioritizationRunner(threadModelReader.get(), entry.getPhenotypes(),
+                outputFormatWriterFactory, outputWriter).withGenesForPhenotypeRetrieverFactory(genesForPhenotypeRetrieverFactory)
+                .withFilter(filter);
+        if(phenotypesRetrieverFactory != null) {
+            runner.withRelatedPhenotypes(hpoGraph, phenotypesRetrieverFactory, ontologyMaxDistance);
+        }
+        if(resultCache != null) {
+            runner.withResultCache(resultCache);
+        }
+        if(topGenes > 0) {
+            runner.withTopGenes(topGenes);
+        }
+        return runner;
+    }
+
+    /**
+     * Runs a task for every {@link BatchEntry} and passes the results to {@code resultConsumer} in the order of the
+     * {@link BatchEntry}{@code s} (on the calling thread). At most {@link #IN_FLIGHT_TASKS_PER_THREAD} tasks per thread
+     * are submitted ahead of the {@link BatchEntry} being consumed, and a result is released as soon as it is
+     * consumed, so that only the results of a limited number of patients are kept in memory regardless of the batch
+     * size.
+     */
+    private <T> void execute(PatientTask<T> task, ResultConsumer<T> resultConsumer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int window = threads * IN_FLIGHT_TASKS_PER_THREAD;
+            List<Future<T>> futures = new ArrayList<>(Collections.nCopies(entries.size(), null));
+            for(int i = 0; i < window && i < entries.size(); i++) {
+                submit(executor, task, futures, i);
+            }
+
+            for(int i = 0; i < entries.size(); i++) {
+                BatchEntry entry = entries.get(i);
+                Future<T> future = futures.set(i, null);
+                if(i + window < entries.size()) {
+                    submit(executor, task, futures, i + window);
+                }
+                try {
+                    resultConsumer.accept(entry, future.get());
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to process patient " + entry.getPatientId() + ": " +
+                            e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while processing patient " + entry.getPatientId(), e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+            closeViews();
+        }
+    }
+
+    private <T> void submit(ExecutorService executor, PatientTask<T> task, List<Future<T>> futures, int index) {
+        BatchEntry entry = entries.get(index);
+        futures.set(index, executor.submit(() -> task.process(entry)));
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeViews() {
+        synchronized (views) {
+            views.forEach(ModelReader::close);
+            views.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PatientTask<T> {
+        T process(BatchEntry entry) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ResultConsumer<T> {
+        void accept(BatchEntry entry, T result) throws IOException;
+    }
+}
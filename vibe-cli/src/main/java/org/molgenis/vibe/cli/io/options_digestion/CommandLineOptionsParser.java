@@ -4,7 +4,10 @@ import org.apache.commons.cli.*;
 import org.apache.commons.lang3.StringUtils;
 import org.molgenis.vibe.cli.RunMode;
 import org.molgenis.vibe.cli.properties.VibeProperties;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
 import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.core.io.input.ModelReaderFactory;
+import org.molgenis.vibe.core.io.input.VibeDatabase;
 import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
 
 import java.io.IOException;
@@ -117,7 +120,45 @@ public abstract class CommandLineOptionsParser {
 
         options.addOption(Option.builder("t")
                 .longOpt("hdt")
-                .desc("The HDT file containing the vibe database.")
+                .desc("The HDT file containing the vibe database (or a .gda file created with -g).")
+                .hasArg()
+                .argName("FILE")
+                .build());
+
+        options.addOption(Option.builder("M")
+                .longOpt("memory-mapped")
+                .desc("Memory-maps the HDT file (and its index) instead of loading it into memory.")
+                .build());
+
+        options.addOption(Option.builder("c")
+                .longOpt("index-cache")
+                .desc("Writable directory to store the HDT index in when it is not present next to the HDT file" +
+                        System.lineSeparator() + "(allows using a HDT file in a read-only directory).")
+                .hasArg()
+                .argName("DIR")
+                .build());
+
+        options.addOption(Option.builder("q")
+                .longOpt("query-engine")
+                .desc("The engine used for retrieving data from the HDT file:" + System.lineSeparator() +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "sparql", "Uses a SPARQL query (default).") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "type-set", "Uses a SPARQL query with precomputed association types.") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "routes", "Uses simultaneous SPARQL queries per disease route.") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "hdt", "Uses HDT triple pattern lookups.") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "gda-index", "Uses a .gda file (default for .gda files)."))
+                .hasArg()
+                .argName("NAME")
+                .build());
+
+        options.addOption(Option.builder("i")
+                .longOpt("build-index")
+                .desc("Builds (if missing) and verifies the index of the HDT file, then exits.")
+                .build());
+
+        options.addOption(Option.builder("g")
+                .longOpt("gda-index")
+                .desc("Writes the gene-disease associations of all phenotypes within the HDT file to this .gda file," +
+                        System.lineSeparator() + "then exits. The .gda file can be used instead of the HDT file.")
                 .hasArg()
                 .argName("FILE")
                 .build());
@@ -139,13 +180,116 @@ public abstract class CommandLineOptionsParser {
                 .desc("Returns uri's instead of id's for certain output fields" + System.lineSeparator() +
                         "(doesn't work in combination with -l).")
                 .build());
+
+        options.addOption(Option.builder("s")
+                .longOpt("server")
+                .desc("Runs as a local HTTP server on the given port, keeping the database and ontology loaded." +
+                        System.lineSeparator() + "Phenotypes are given per request instead of through -p.")
+                .hasArg()
+                .argName("PORT")
+                .build());
+
+        options.addOption(Option.builder("R")
+                .longOpt("result-cache-size")
+                .desc("The number of phenotypes for which the retrieved data is kept in memory and shared between" +
+                        System.lineSeparator() + "requests (-s) or patients (-b) (default: 0 = disabled).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("r")
+                .longOpt("result-cache-dir")
+                .desc("Directory in which the retrieved data per phenotype is stored, so that it can be reused by later" +
+                        System.lineSeparator() + "runs using the same database (created if missing, max. 1 GiB).")
+                .hasArg()
+                .argName("DIR")
+                .build());
+
+        options.addOption(Option.builder("L")
+                .longOpt("low-memory")
+                .desc("Processes the retrieved data while it is retrieved instead of storing all of it first. Combined" +
+                        System.lineSeparator() + "with -l, only the highest score per gene is kept (cannot be used" +
+                        System.lineSeparator() + "together with -j or -r).")
+                .build());
+
+        options.addOption(Option.builder("S")
+                .longOpt("min-score")
+                .desc("Only uses gene-disease associations with at least this DisGeNET score (between 0 and 1).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("V")
+                .longOpt("source-level")
+                .desc("Only uses gene-disease associations from sources with this level, can be given multiple times:" +
+                        System.lineSeparator() +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "curated", "Curated sources.") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "model", "Animal model sources.") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "literature", "Literature (text mining) sources."))
+                .hasArg()
+                .argName("LEVEL")
+                .build());
+
+        options.addOption(Option.builder("y")
+                .longOpt("min-evidence-year")
+                .desc("Ignores results of which the evidence was published before this year (results without" +
+                        System.lineSeparator() + "evidence are kept).")
+                .hasArg()
+                .argName("YEAR")
+                .build());
+
+        options.addOption(Option.builder("k")
+                .longOpt("top-genes")
+                .desc("Only outputs this number of genes with the highest priority (default: all genes).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("a")
+                .longOpt("prioritization")
+                .desc("The strategy used for ordering the genes (similarity cannot be used together with -L):" +
+                        System.lineSeparator() +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "disgenet", "Highest DisGeNET score (default).") +
+                        String.format(ARGUMENT_OPTIONS_FORMAT, "similarity", "Phenotype similarity of the diseases."))
+                .hasArg()
+                .argName("NAME")
+                .build());
+
+        options.addOption(Option.builder("b")
+                .longOpt("batch")
+                .desc("Processes all patients from a file instead of the phenotypes given through -p. Each line contains" +
+                        " a patient id and comma-separated HPO ids, separated by a tab.")
+                .hasArg()
+                .argName("FILE")
+                .build());
+
+        options.addOption(Option.builder("j")
+                .longOpt("threads")
+                .desc("The number of patients processed simultaneously in a batch (default: number of processors)" +
+                        System.lineSeparator() + "or the number of phenotype chunks retrieved simultaneously for a single" +
+                        System.lineSeparator() + "patient (default: 1).")
+                .hasArg()
+                .argName("NUMBER")
+                .build());
+
+        options.addOption(Option.builder("O")
+                .longOpt("output-dir")
+                .desc("Writes a separate file (<patient id>.tsv) per patient of a batch to this directory" +
+                        System.lineSeparator() + "(instead of all patients to -o or stdout).")
+                .hasArg()
+                .argName("DIR")
+                .build());
     }
 
     /**
      * Prints the help message to stdout.
      */
     public static void printHelpMessage() {
-        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] [-d] [-f] -t <FILE> -w <FILE> [-n <NAME> -m <NUMBER>] [-o <FILE>] [-l] [-u] -p <HPO ID> [-p <HPO ID>]...";
+        String cmdSyntax = "java -jar vibe-with-dependencies.jar [-h] [-v] [-d] [-f] [-M] [-c <DIR>] [-q <NAME>] [-r <DIR>] [-S <NUMBER>] [-V <LEVEL>]... [-y <YEAR>] -t <FILE> -w <FILE> [-n <NAME> -m <NUMBER>] [-o <FILE>] [-l] [-u] [-k <NUMBER>] [-a <NAME>] [-j <NUMBER> | -L] -p <HPO ID> [-p <HPO ID>]..." +
+                System.lineSeparator() + "       java -jar vibe-with-dependencies.jar [-d] [-l] [-u] [-M] [-c <DIR>] [-q <NAME>] [-R <NUMBER>] [-r <DIR>] [-S <NUMBER>] [-V <LEVEL>]... [-y <YEAR>] [-k <NUMBER>] -t <FILE> -w <FILE> -s <PORT>" +
+                System.lineSeparator() + "       java -jar vibe-with-dependencies.jar [-d] [-f] [-M] [-c <DIR>] [-q <NAME>] [-S <NUMBER>] [-V <LEVEL>]... [-y <YEAR>] -t <FILE> -w <FILE> [-n <NAME> -m <NUMBER>] [-o <FILE> | -O <DIR>] [-l] [-u] [-k <NUMBER>] [-j <NUMBER>] [-R <NUMBER>] [-r <DIR>] -b <FILE>" +
+                System.lineSeparator() + "       java -jar vibe-with-dependencies.jar [-d] [-c <DIR>] -t <FILE> -i" +
+                System.lineSeparator() + "       java -jar vibe-with-dependencies.jar [-d] [-f] [-M] [-c <DIR>] -t <FILE> -g <FILE>";
         String helpHeader = "";
         String helpFooter = VibeProperties.APP_NAME.getValue() + " v" + VibeProperties.APP_VERSION.getValue();
 
@@ -200,8 +344,58 @@ public abstract class CommandLineOptionsParser {
                 // Digests the input phenotypes.
                 digestInputPhenotypes(commandLine, vibeOptions, errors);
 
+                // A single patient is only split into simultaneously retrieved chunks when requested.
+                if(commandLine.hasOption("j")) {
+                    digestThreadsArgument(commandLine, vibeOptions, errors);
+                } else {
+                    vibeOptions.setThreads(1);
+                }
+                digestResultCacheDirArgument(commandLine, vibeOptions, errors);
+                digestLowMemoryArgument(commandLine, vibeOptions, errors);
+                digestGdaFilterArguments(commandLine, vibeOptions, errors);
+                digestTopGenesArgument(commandLine, vibeOptions, errors);
+                digestPrioritizationArgument(commandLine, vibeOptions, errors);
+
                 // Digests output arguments (including logging/verbosity).
-                digestOutputArguments(commandLine, vibeOptions, errors);
+                digestOutputFormatArguments(commandLine, vibeOptions);
+                digestOutputTargetArguments(commandLine, vibeOptions, errors);
+                break;
+            case BATCH:
+                // Related phenotypes are optional for a batch.
+                if(commandLine.hasOption("n") || commandLine.hasOption("m")) {
+                    digestHpoOntologyArguments(commandLine, vibeOptions, errors);
+                }
+                digestDatabases(commandLine, vibeOptions, errors);
+                digestBatchArguments(commandLine, vibeOptions, errors);
+                digestResultCacheArguments(commandLine, vibeOptions, errors);
+                digestResultCacheDirArgument(commandLine, vibeOptions, errors);
+                digestGdaFilterArguments(commandLine, vibeOptions, errors);
+                digestTopGenesArgument(commandLine, vibeOptions, errors);
+                digestOutputFormatArguments(commandLine, vibeOptions);
+                if(!commandLine.hasOption("O")) {
+                    digestOutputTargetArguments(commandLine, vibeOptions, errors);
+                }
+                break;
+            case SERVER:
+                digestServerArguments(commandLine, vibeOptions, errors);
+                digestResultCacheArguments(commandLine, vibeOptions, errors);
+                digestResultCacheDirArgument(commandLine, vibeOptions, errors);
+                digestGdaFilterArguments(commandLine, vibeOptions, errors);
+                digestTopGenesArgument(commandLine, vibeOptions, errors);
+                digestDatabases(commandLine, vibeOptions, errors);
+                digestOutputFormatArguments(commandLine, vibeOptions);
+                break;
+            case BUILD_INDEX:
+                digestVibeDatabase(commandLine, vibeOptions, errors);
+                digestHdtOnly(vibeOptions, errors, "-i");
+                vibeOptions.setVerbose(commandLine.hasOption("d"));
+                break;
+            case BUILD_GDA_INDEX:
+                digestVibeDatabase(commandLine, vibeOptions, errors);
+                digestHdtOnly(vibeOptions, errors, "-g");
+                digestGdaIndexArguments(commandLine, vibeOptions, errors);
+                vibeOptions.setVerbose(commandLine.hasOption("d"));
+                break;
             default:
                 // For other cases (HELP/VERSION) no other arguments need to be digested.
 
@@ -223,6 +417,14 @@ public abstract class CommandLineOptionsParser {
             vibeOptions.setRunMode(RunMode.HELP);
         } else if (commandLine.hasOption("v")) {
             vibeOptions.setRunMode(RunMode.VERSION);
+        } else if (commandLine.hasOption("i")) {
+            vibeOptions.setRunMode(RunMode.BUILD_INDEX);
+        } else if (commandLine.hasOption("g")) {
+            vibeOptions.setRunMode(RunMode.BUILD_GDA_INDEX);
+        } else if (commandLine.hasOption("s")) {
+            vibeOptions.setRunMode(RunMode.SERVER);
+        } else if (commandLine.hasOption("b")) {
+            vibeOptions.setRunMode(RunMode.BATCH);
         } else if (commandLine.hasOption("n") || commandLine.hasOption("m")) {
             vibeOptions.setRunMode(RunMode.GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES);
         } else {
@@ -246,11 +448,18 @@ public abstract class CommandLineOptionsParser {
         // Stores the missing expected arguments.
         List<String> missing = new ArrayList<>();
 
+        // Building an index only requires the database.
+        if(vibeOptions.getRunMode() == RunMode.BUILD_INDEX || vibeOptions.getRunMode() == RunMode.BUILD_GDA_INDEX) {
+            if(!commandLine.hasOption("t")) {
+                throw new ParseException("Missing arguments: -t");
+            }
+            return;
+        }
+
         // Arguments that are always required.
         String[] requiredArguments = new String[] {
                 "t", // database
                 "w", // HPO owl
-                "p", // 1 or more phenotypes
         };
 
         // Checks which of the always required arguments are missing.
@@ -260,6 +469,22 @@ public abstract class CommandLineOptionsParser {
             }
         }
 
+        // Phenotypes are given per request when running as server or per patient when running a batch.
+        if(vibeOptions.getRunMode() != RunMode.SERVER && vibeOptions.getRunMode() != RunMode.BATCH &&
+                !commandLine.hasOption("p")) {
+            missing.add("-p");
+        }
+
+        // Related phenotypes are optional for a batch, but if used require both arguments.
+        if(vibeOptions.getRunMode() == RunMode.BATCH && (commandLine.hasOption("n") || commandLine.hasOption("m"))) {
+            if (!commandLine.hasOption("n")) {
+                missing.add("-n");
+            }
+            if (!commandLine.hasOption("m")) {
+                missing.add("-m");
+            }
+        }
+
         // Checks arguments specific for RunMode.GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES.
         if(vibeOptions.getRunMode() == RunMode.GENES_FOR_PHENOTYPES_WITH_ASSOCIATED_PHENOTYPES) {
             if (!commandLine.hasOption("n")) {
@@ -284,15 +509,72 @@ public abstract class CommandLineOptionsParser {
      */
     private static void digestDatabases(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
         // Main database.
+        digestVibeDatabase(commandLine, vibeOptions, errors);
+
+        // HPO ontology file.
         try {
-            vibeOptions.setVibeDatabase(commandLine.getOptionValue("t"));
+            vibeOptions.setHpoOntology(commandLine.getOptionValue("w"));
         } catch (InvalidPathException | IOException e) {
             errors.add(e.getMessage());
         }
+    }
+
+    /**
+     * Digests the arguments related to the main database.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestVibeDatabase(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        // A .gda file is read as gene-disease association index, otherwise it is read as HDT file.
+        ModelReaderFactory modelReaderFactory;
+        if(commandLine.getOptionValue("t").toLowerCase().endsWith(VibeDatabase.GDA_INDEX_EXTENSION)) {
+            modelReaderFactory = ModelReaderFactory.GDA_INDEX;
+        } else {
+            modelReaderFactory = commandLine.hasOption("M") ? ModelReaderFactory.HDT_MAPPED : ModelReaderFactory.HDT;
+        }
+
+        GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory =
+                VibeDatabase.defaultRetrieverFactory(modelReaderFactory);
+        if(commandLine.hasOption("q")) {
+            try {
+                genesForPhenotypeRetrieverFactory = GenesForPhenotypeRetrieverFactory.retrieve(commandLine.getOptionValue("q"));
+            } catch (EnumConstantNotPresentException e) {
+                errors.add(commandLine.getOptionValue("q") + " is not a valid query engine.");
+                return;
+            }
+        }
 
-        // HPO ontology file.
         try {
-            vibeOptions.setHpoOntology(commandLine.getOptionValue("w"));
+            vibeOptions.setVibeDatabase(commandLine.getOptionValue("t"), modelReaderFactory,
+                    commandLine.getOptionValue("c"), genesForPhenotypeRetrieverFactory);
+        } catch (IOException | IllegalArgumentException e) { // InvalidPathException is an IllegalArgumentException.
+            errors.add(e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that the main database is a HDT file (if it could be digested).
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     * @param option the option requiring a HDT file (used in the error message)
+     */
+    private static void digestHdtOnly(VibeOptions vibeOptions, List<String> errors, String option) {
+        if(vibeOptions.getVibeDatabase() != null &&
+                vibeOptions.getVibeDatabase().getModelReaderFactory() == ModelReaderFactory.GDA_INDEX) {
+            errors.add(option + " requires a HDT file as database.");
+        }
+    }
+
+    /**
+     * Digests arguments related to writing a gene-disease association index.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestGdaIndexArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        try {
+            vibeOptions.setGdaIndexFile(commandLine.getOptionValue("g"), commandLine.hasOption("f"));
         } catch (InvalidPathException | IOException e) {
             errors.add(e.getMessage());
         }
@@ -313,12 +595,11 @@ public abstract class CommandLineOptionsParser {
     }
 
     /**
-     * Digests arguments related to the output generation (output format/target), including logging/verbosity.
+     * Digests arguments related to the output format, including logging/verbosity.
      * @param commandLine the parsed command line
      * @param vibeOptions in which the parsed command line information should be stored
-     * @param errors a {@link List} to add error messages to if any occur
      */
-    private static void digestOutputArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+    private static void digestOutputFormatArguments(CommandLine commandLine, VibeOptions vibeOptions) {
         // Whether tool should be verbose.
         vibeOptions.setVerbose(commandLine.hasOption("d"));
 
@@ -332,7 +613,15 @@ public abstract class CommandLineOptionsParser {
                 vibeOptions.setGenePrioritizedOutputFormatWriterFactory(GenePrioritizedOutputFormatWriterFactory.REGULAR_ID);
             }
         }
+    }
 
+    /**
+     * Digests arguments related to the output target.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestOutputTargetArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
         // Defines output target.
         if(commandLine.hasOption("o")) {
             try {
@@ -349,6 +638,177 @@ public abstract class CommandLineOptionsParser {
         }
     }
 
+    /**
+     * Digests arguments related to running as server.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestServerArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        try {
+            vibeOptions.setServerPort(commandLine.getOptionValue("s"));
+        } catch (IllegalArgumentException e) {
+            errors.add(commandLine.getOptionValue("s") + " is not a valid port (must be a number between 0 and 65535).");
+        }
+    }
+
+    /**
+     * Digests arguments related to caching the retrieved data between requests/patients.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestResultCacheArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("R")) {
+            try {
+                vibeOptions.setResultCacheSize(commandLine.getOptionValue("R"));
+            } catch (IllegalArgumentException e) {
+                errors.add(commandLine.getOptionValue("R") + " is not a valid result cache size (must be a number >= 0).");
+            }
+        }
+    }
+
+    /**
+     * Digests the (optional) directory for storing the retrieved data between runs.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestResultCacheDirArgument(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("r")) {
+            try {
+                vibeOptions.setDiskResultCache(commandLine.getOptionValue("r"));
+            } catch (InvalidPathException | IOException e) {
+                errors.add(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Digests the (optional) low-memory argument of a single patient.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestLowMemoryArgument(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("L")) {
+            if(commandLine.hasOption("j") || commandLine.hasOption("r")) {
+                errors.add("-L cannot be used together with -j or -r.");
+            } else {
+                vibeOptions.setLowMemory(true);
+            }
+        }
+    }
+
+    /**
+     * Digests the (optional) arguments restricting which gene-disease associations are retrieved.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestGdaFilterArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("S")) {
+            try {
+                vibeOptions.setMinScore(commandLine.getOptionValue("S"));
+            } catch (IllegalArgumentException e) { // NumberFormatException is an IllegalArgumentException.
+                errors.add(commandLine.getOptionValue("S") + " is not a valid minimum score (must be a number between 0 and 1).");
+            }
+        }
+        if(commandLine.hasOption("V")) {
+            try {
+                vibeOptions.setSourceLevels(commandLine.getOptionValues("V"));
+            } catch (InvalidStringFormatException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if(commandLine.hasOption("y")) {
+            try {
+                vibeOptions.setMinEvidenceYear(commandLine.getOptionValue("y"));
+            } catch (IllegalArgumentException e) {
+                errors.add(commandLine.getOptionValue("y") + " is not a valid minimum evidence year (must be a number >= 0).");
+            }
+        }
+    }
+
+    /**
+     * Digests the (optional) maximum number of genes to output.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestTopGenesArgument(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("k")) {
+            try {
+                vibeOptions.setTopGenes(commandLine.getOptionValue("k"));
+            } catch (IllegalArgumentException e) {
+                errors.add(commandLine.getOptionValue("k") + " is not a valid number of genes (must be a number >= 1).");
+            }
+        }
+    }
+
+    /**
+     * Digests the (optional) strategy for ordering the genes of a single patient.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestPrioritizationArgument(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        if(commandLine.hasOption("a")) {
+            try {
+                vibeOptions.setGenePrioritizerFactory(commandLine.getOptionValue("a"));
+            } catch (EnumConstantNotPresentException e) {
+                errors.add(commandLine.getOptionValue("a") + " is not a valid prioritization strategy.");
+                return;
+            }
+            if(vibeOptions.getGenePrioritizerFactory().usesInformationContent() && commandLine.hasOption("L")) {
+                errors.add("-a " + commandLine.getOptionValue("a") + " cannot be used together with -L.");
+            }
+        }
+    }
+
+    /**
+     * Digests arguments related to running a batch.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestBatchArguments(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        try {
+            vibeOptions.setBatchEntries(commandLine.getOptionValue("b"));
+        } catch (InvalidPathException | IOException e) {
+            errors.add(e.getMessage());
+        }
+
+        if(commandLine.hasOption("j")) {
+            digestThreadsArgument(commandLine, vibeOptions, errors);
+        }
+
+        if(commandLine.hasOption("O")) {
+            if(commandLine.hasOption("o")) {
+                errors.add("-o and -O cannot be used together.");
+            }
+            try {
+                vibeOptions.setOutputDirectory(commandLine.getOptionValue("O"), commandLine.hasOption("f"));
+            } catch (InvalidPathException | IOException e) {
+                errors.add(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Digests the number of threads to use.
+     * @param commandLine the parsed command line
+     * @param vibeOptions in which the parsed command line information should be stored
+     * @param errors a {@link List} to add error messages to if any occur
+     */
+    private static void digestThreadsArgument(CommandLine commandLine, VibeOptions vibeOptions, List<String> errors) {
+        try {
+            vibeOptions.setThreads(commandLine.getOptionValue("j"));
+        } catch (IllegalArgumentException e) {
+            errors.add(commandLine.getOptionValue("j") + " is not a valid number of threads (must be a number >= 1).");
+        }
+    }
+
     /**
      * Digests arguments related to the HPO ontology traversal.
      * @param commandLine the parsed command line
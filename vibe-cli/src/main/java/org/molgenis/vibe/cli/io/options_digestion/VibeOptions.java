@@ -1,19 +1,28 @@
 package org.molgenis.vibe.cli.io.options_digestion;
 
 import org.molgenis.vibe.cli.RunMode;
+import org.molgenis.vibe.cli.batch.BatchEntry;
+import org.molgenis.vibe.cli.batch.BatchFileReader;
 import org.molgenis.vibe.cli.io.output.target.FileOutputWriter;
 import org.molgenis.vibe.cli.io.output.target.StdoutOutputWriter;
 import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
 import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.Source;
 import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
 import org.molgenis.vibe.cli.io.output.target.OutputWriter;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.database_processing.result_cache.DiskPhenotypeResultCache;
 import org.molgenis.vibe.core.io.input.ModelReaderFactory;
 import org.molgenis.vibe.core.io.input.VibeDatabase;
 import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.GenePrioritizerFactory;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -67,6 +76,64 @@ public class VibeOptions {
      */
     private OutputWriter outputWriter;
 
+    /**
+     * The port to listen on when running as server.
+     */
+    private Integer serverPort;
+
+    /**
+     * The patients to process when running a batch.
+     */
+    private List<BatchEntry> batchEntries;
+
+    /**
+     * The number of threads to use for processing a batch (or retrieving the data for a single patient).
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * If set, a batch writes an output file per patient to this directory instead of using the {@link OutputWriter}.
+     */
+    private Path outputDirectory;
+
+    /**
+     * The file to write a gene-disease association index to.
+     */
+    private Path gdaIndexFile;
+
+    /**
+     * The number of phenotypes for which the retrieved data is kept in memory when running as server or batch
+     * ({@code 0} to disable).
+     */
+    private int resultCacheSize = 0;
+
+    /**
+     * If set, the retrieved data per phenotype is stored in (and read from) this directory, so that it is kept
+     * between runs.
+     */
+    private DiskPhenotypeResultCache diskResultCache;
+
+    /**
+     * Whether the retrieved data of a single patient is processed while it is retrieved instead of stored completely
+     * first.
+     */
+    private boolean lowMemory = false;
+
+    /**
+     * The filter the retrieved gene-disease associations should pass.
+     */
+    private GdaFilter gdaFilter = GdaFilter.NONE;
+
+    /**
+     * The maximum number of genes to output ({@code 0} to output all genes).
+     */
+    private int topGenes = 0;
+
+    /**
+     * The strategy for ordering the genes.
+     */
+    private GenePrioritizerFactory genePrioritizerFactory = GenePrioritizerFactory.DISGENET_SCORE;
+
     public RunMode getRunMode() {
         return runMode;
     }
@@ -114,8 +181,49 @@ public class VibeOptions {
     }
 
     void setVibeDatabase(Path databasePath) throws IOException {
+        setVibeDatabase(databasePath, ModelReaderFactory.HDT);
+    }
+
+    void setVibeDatabase(String databasePath, ModelReaderFactory modelReaderFactory) throws IOException {
+        setVibeDatabase(Paths.get(databasePath), modelReaderFactory);
+    }
+
+    void setVibeDatabase(Path databasePath, ModelReaderFactory modelReaderFactory) throws IOException {
+        setVibeDatabase(databasePath, modelReaderFactory, null);
+    }
+
+    /**
+     * @param databasePath the database file
+     * @param modelReaderFactory the {@link ModelReaderFactory} to read the database with
+     * @param indexCacheDir directory to store the index in if not present next to the database (can be {@code null})
+     * @throws IOException if the database or index cache directory is not accessible
+     */
+    void setVibeDatabase(String databasePath, ModelReaderFactory modelReaderFactory, String indexCacheDir) throws IOException {
+        setVibeDatabase(Paths.get(databasePath), modelReaderFactory, indexCacheDir == null ? null : Paths.get(indexCacheDir));
+    }
+
+    void setVibeDatabase(Path databasePath, ModelReaderFactory modelReaderFactory, Path indexCacheDir) throws IOException {
+        setVibeDatabase(databasePath, modelReaderFactory, indexCacheDir,
+                VibeDatabase.defaultRetrieverFactory(modelReaderFactory));
+    }
+
+    /**
+     * @param databasePath the database file
+     * @param modelReaderFactory the {@link ModelReaderFactory} to read the database with
+     * @param indexCacheDir directory to store the index in if not present next to the database (can be {@code null})
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to retrieve data with
+     * @throws IOException if the database or index cache directory is not accessible
+     */
+    void setVibeDatabase(String databasePath, ModelReaderFactory modelReaderFactory, String indexCacheDir,
+                         GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) throws IOException {
+        setVibeDatabase(Paths.get(databasePath), modelReaderFactory, indexCacheDir == null ? null : Paths.get(indexCacheDir),
+                genesForPhenotypeRetrieverFactory);
+    }
+
+    void setVibeDatabase(Path databasePath, ModelReaderFactory modelReaderFactory, Path indexCacheDir,
+                         GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) throws IOException {
         // VibeDatabase uses its own internal checks for whether the data is accessible.
-        this.vibeDatabase = new VibeDatabase(databasePath, ModelReaderFactory.HDT);
+        this.vibeDatabase = new VibeDatabase(databasePath, modelReaderFactory, indexCacheDir, genesForPhenotypeRetrieverFactory);
     }
 
     public Set<Phenotype> getPhenotypes() {
@@ -265,6 +373,259 @@ public class VibeOptions {
         this.outputWriter = new StdoutOutputWriter();
     }
 
+    public Integer getServerPort() {
+        return serverPort;
+    }
+
+    /**
+     * @throws NumberFormatException if {@code serverPort} could not be parsed to an {@link Integer}
+     * @throws IllegalArgumentException if {@code serverPort} is not a valid port number
+     */
+    void setServerPort(String serverPort) throws NumberFormatException {
+        setServerPort(Integer.parseInt(serverPort));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code serverPort} is not a valid port number (0-65535)
+     */
+    void setServerPort(Integer serverPort) {
+        if (serverPort >= 0 && serverPort <= 65535) {
+            this.serverPort = serverPort;
+        } else {
+            throw new IllegalArgumentException("value must be between 0 and 65535.");
+        }
+    }
+
+    public List<BatchEntry> getBatchEntries() {
+        return batchEntries;
+    }
+
+    void setBatchEntries(String batchFile) throws InvalidPathException, IOException {
+        setBatchEntries(Paths.get(batchFile));
+    }
+
+    /**
+     * @param batchFile the batch file to read the patients from
+     * @throws IOException if {@code batchFile} is not a readable file or is invalid
+     * @see BatchFileReader#read(Path)
+     */
+    void setBatchEntries(Path batchFile) throws IOException {
+        if(!checkIfPathIsReadableFile(batchFile)) {
+            throw new IOException(batchFile.getFileName() + " is not a readable file.");
+        }
+        this.batchEntries = BatchFileReader.read(batchFile);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @throws NumberFormatException if {@code threads} could not be parsed to an {@link Integer}
+     * @throws IllegalArgumentException if {@code threads < 1}
+     */
+    void setThreads(String threads) throws NumberFormatException {
+        setThreads(Integer.parseInt(threads));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code threads < 1}
+     */
+    void setThreads(int threads) {
+        if (threads >= 1) {
+            this.threads = threads;
+        } else {
+            throw new IllegalArgumentException("value must be >= 1.");
+        }
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    /**
+     * @throws NumberFormatException if {@code resultCacheSize} could not be parsed to an {@link Integer}
+     * @throws IllegalArgumentException if {@code resultCacheSize < 0}
+     */
+    void setResultCacheSize(String resultCacheSize) throws NumberFormatException {
+        setResultCacheSize(Integer.parseInt(resultCacheSize));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code resultCacheSize < 0}
+     */
+    void setResultCacheSize(int resultCacheSize) {
+        if (resultCacheSize >= 0) {
+            this.resultCacheSize = resultCacheSize;
+        } else {
+            throw new IllegalArgumentException("value must be >= 0.");
+        }
+    }
+
+    public boolean isLowMemory() {
+        return lowMemory;
+    }
+
+    void setLowMemory(boolean lowMemory) {
+        this.lowMemory = lowMemory;
+    }
+
+    public GdaFilter getGdaFilter() {
+        return gdaFilter;
+    }
+
+    /**
+     * @throws NumberFormatException if {@code minScore} could not be parsed to a {@link Double}
+     * @throws IllegalArgumentException if {@code minScore} is not between 0 and 1
+     */
+    void setMinScore(String minScore) throws NumberFormatException {
+        setMinScore(Double.parseDouble(minScore));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code minScore} is not between 0 and 1
+     */
+    void setMinScore(double minScore) {
+        gdaFilter = gdaFilter.withMinScore(minScore);
+    }
+
+    /**
+     * @param sourceLevels the allowed source levels (see {@link Source.Level#retrieveLevelByString(String)})
+     * @throws InvalidStringFormatException if any of the {@code sourceLevels} is not a valid {@link Source.Level}
+     */
+    void setSourceLevels(String[] sourceLevels) throws InvalidStringFormatException {
+        Set<Source.Level> levels = EnumSet.noneOf(Source.Level.class);
+        for(String sourceLevel : sourceLevels) {
+            levels.add(Source.Level.retrieveLevelByString(sourceLevel));
+        }
+        gdaFilter = gdaFilter.withSourceLevels(levels);
+    }
+
+    /**
+     * @throws NumberFormatException if {@code minEvidenceYear} could not be parsed to an {@link Integer}
+     * @throws IllegalArgumentException if {@code minEvidenceYear < 0}
+     */
+    void setMinEvidenceYear(String minEvidenceYear) throws NumberFormatException {
+        setMinEvidenceYear(Integer.parseInt(minEvidenceYear));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code minEvidenceYear < 0}
+     */
+    void setMinEvidenceYear(int minEvidenceYear) {
+        gdaFilter = gdaFilter.withMinEvidenceYear(minEvidenceYear);
+    }
+
+    public int getTopGenes() {
+        return topGenes;
+    }
+
+    /**
+     * @throws NumberFormatException if {@code topGenes} could not be parsed to an {@link Integer}
+     * @throws IllegalArgumentException if {@code topGenes < 1}
+     */
+    void setTopGenes(String topGenes) throws NumberFormatException {
+        setTopGenes(Integer.parseInt(topGenes));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code topGenes < 1}
+     */
+    void setTopGenes(int topGenes) {
+        if (topGenes >= 1) {
+            this.topGenes = topGenes;
+        } else {
+            throw new IllegalArgumentException("value must be >= 1.");
+        }
+    }
+
+    public GenePrioritizerFactory getGenePrioritizerFactory() {
+        return genePrioritizerFactory;
+    }
+
+    void setGenePrioritizerFactory(String name) throws EnumConstantNotPresentException {
+        setGenePrioritizerFactory(GenePrioritizerFactory.retrieve(name));
+    }
+
+    void setGenePrioritizerFactory(GenePrioritizerFactory genePrioritizerFactory) {
+        this.genePrioritizerFactory = genePrioritizerFactory;
+    }
+
+    public DiskPhenotypeResultCache getDiskResultCache() {
+        return diskResultCache;
+    }
+
+    void setDiskResultCache(String resultCacheDirectory) throws InvalidPathException, IOException {
+        setDiskResultCache(Paths.get(resultCacheDirectory));
+    }
+
+    /**
+     * @param resultCacheDirectory the directory to store the retrieved data per phenotype in (created if missing)
+     * @throws IOException if {@code resultCacheDirectory} could not be created or is not a writable directory
+     */
+    void setDiskResultCache(Path resultCacheDirectory) throws IOException {
+        try {
+            this.diskResultCache = new DiskPhenotypeResultCache(resultCacheDirectory,
+                    DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        } catch (FileAlreadyExistsException e) {
+            throw new IOException(resultCacheDirectory.getFileName() + " is not a writable directory.");
+        }
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    void setOutputDirectory(String outputDirectory, boolean overwrite) throws InvalidPathException, IOException {
+        setOutputDirectory(Paths.get(outputDirectory), overwrite);
+    }
+
+    /**
+     * Sets the directory to write the per-patient output files to. Requires the batch entries to be set already.
+     * @param outputDirectory an existing writable directory
+     * @param overwrite whether already existing output files of patients can be overwritten
+     * @throws IOException if {@code outputDirectory} is not a writable directory
+     * @throws FileAlreadyExistsException if an output file already exists and {@code overwrite} is {@code false}
+     */
+    void setOutputDirectory(Path outputDirectory, boolean overwrite) throws IOException {
+        if(!(Files.isDirectory(outputDirectory) && Files.isWritable(outputDirectory))) {
+            throw new IOException(outputDirectory.getFileName() + " is not a writable directory.");
+        }
+        if(!overwrite && batchEntries != null) {
+            for(BatchEntry entry : batchEntries) {
+                Path outputFile = outputDirectory.resolve(entry.getPatientId() + ".tsv");
+                if(Files.exists(outputFile)) {
+                    throw new FileAlreadyExistsException(outputFile.getFileName() + " already exists.");
+                }
+            }
+        }
+        this.outputDirectory = outputDirectory;
+    }
+
+    public Path getGdaIndexFile() {
+        return gdaIndexFile;
+    }
+
+    void setGdaIndexFile(String gdaIndexFile, boolean overwrite) throws InvalidPathException, IOException {
+        setGdaIndexFile(Paths.get(gdaIndexFile), overwrite);
+    }
+
+    /**
+     * @param gdaIndexFile the .gda file to write the gene-disease association index to
+     * @param overwrite whether an already existing file can be overwritten
+     * @throws IOException if {@code gdaIndexFile} is not a .gda file
+     * @throws FileAlreadyExistsException if {@code gdaIndexFile} already exists and {@code overwrite} is {@code false}
+     */
+    void setGdaIndexFile(Path gdaIndexFile, boolean overwrite) throws IOException {
+        if(!gdaIndexFile.toString().toLowerCase().endsWith(VibeDatabase.GDA_INDEX_EXTENSION)) {
+            throw new IOException(gdaIndexFile.getFileName() + " is not a " + VibeDatabase.GDA_INDEX_EXTENSION + " file.");
+        }
+        if(!overwrite && Files.exists(gdaIndexFile)) {
+            throw new FileAlreadyExistsException(gdaIndexFile.getFileName() + " already exists.");
+        }
+        this.gdaIndexFile = gdaIndexFile;
+    }
+
     /**
      * Checks if a given {@link Path} is an existing readable file.
      * @param path {@link Path}
@@ -296,6 +657,22 @@ public class VibeOptions {
                 // NO BREAK: continues!!!
             case GENES_FOR_PHENOTYPES:
                 if(!validateGenesForPhenotype()) return false;
+                break;
+            case SERVER:
+                if(!validateServer()) return false;
+                break;
+            case BATCH:
+                if(getPhenotypesRetrieverFactory() != null && !validateRelatedPhenotypesRetrieval()) return false;
+                if(!validateBatch()) return false;
+                break;
+            case BUILD_INDEX:
+                // Check if vibe database is set.
+                if(getVibeDatabase() == null) return false;
+                break;
+            case BUILD_GDA_INDEX:
+                // Check if vibe database and output file are set.
+                if(getVibeDatabase() == null || getGdaIndexFile() == null) return false;
+                break;
             default:
                 // No checks required for non-specified cases.
         }
@@ -353,6 +730,58 @@ public class VibeOptions {
         return true;
     }
 
+    /**
+     * Checks whether variables were set that are required for running as server.
+     * @return {@code true} if all needed variables are set, otherwise {@code false}
+     */
+    private boolean validateServer() {
+        // Check if vibe database is set.
+        if (getVibeDatabase() == null) {
+            return false;
+        }
+        // Check if HPO ontology data is set.
+        if (getHpoOntology() == null) {
+            return false;
+        }
+        // Checks if a gene prioritized output format factory was given.
+        if (getGenePrioritizedOutputFormatWriterFactory() == null) {
+            return false;
+        }
+        // Check if a port was given.
+        if (getServerPort() == null) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether variables were set that are required for running a batch.
+     * @return {@code true} if all needed variables are set, otherwise {@code false}
+     */
+    private boolean validateBatch() {
+        // Check if vibe database is set.
+        if (getVibeDatabase() == null) {
+            return false;
+        }
+        // Check if HPO ontology data is set.
+        if (getHpoOntology() == null) {
+            return false;
+        }
+        // Checks if a gene prioritized output format factory was given.
+        if (getGenePrioritizedOutputFormatWriterFactory() == null) {
+            return false;
+        }
+        // Check if there are any patients.
+        if (getBatchEntries() == null || getBatchEntries().isEmpty()) {
+            return false;
+        }
+        // Check if an output writer or output directory was given.
+        if (getOutputWriter() == null && getOutputDirectory() == null) {
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         return "VibeOptions{" +
@@ -365,6 +794,17 @@ public class VibeOptions {
                 ", ontologyMaxDistance=" + ontologyMaxDistance +
                 ", genePrioritizedOutputFormatWriterFactory=" + genePrioritizedOutputFormatWriterFactory +
                 ", outputWriter=" + outputWriter +
+                ", serverPort=" + serverPort +
+                ", batchEntries=" + batchEntries +
+                ", threads=" + threads +
+                ", outputDirectory=" + outputDirectory +
+                ", gdaIndexFile=" + gdaIndexFile +
+                ", resultCacheSize=" + resultCacheSize +
+                ", diskResultCache=" + diskResultCache +
+                ", lowMemory=" + lowMemory +
+                ", gdaFilter=" + gdaFilter +
+                ", topGenes=" + topGenes +
+                ", genePrioritizerFactory=" + genePrioritizerFactory +
                 '}';
     }
 }
@@ -12,4 +12,12 @@ import java.util.List;
  */
 public interface PrioritizedOutputFormatWriterFactory<T extends BiologicalEntity> {
     OutputFormatWriter create(OutputWriter outputWriter, GeneDiseaseCollection geneDiseaseCollection, List<T> priority);
+
+    /**
+     * @return whether the created {@link OutputFormatWriter} uses the {@link GeneDiseaseCollection} (if not, only the
+     * priority is needed and an empty {@link GeneDiseaseCollection} can be given)
+     */
+    default boolean usesGeneDiseaseCollection() {
+        return true;
+    }
 }
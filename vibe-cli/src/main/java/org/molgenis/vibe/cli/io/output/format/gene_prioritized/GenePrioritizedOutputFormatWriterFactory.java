@@ -20,6 +20,11 @@ public enum GenePrioritizedOutputFormatWriterFactory implements PrioritizedOutpu
         public OutputFormatWriter create(OutputWriter outputWriter, GeneDiseaseCollection geneDiseaseCollection, List<Gene> priority) {
             return new OrderedGenesOutputFormatWriter(outputWriter, priority, ValuesSeparator.COMMA);
         }
+
+        @Override
+        public boolean usesGeneDiseaseCollection() {
+            return false;
+        }
     },
     REGULAR_ID {
         @Override
@@ -26,6 +26,11 @@ public class OrderedGenesOutputFormatWriter extends PrioritizedOutputFormatWrite
 
     @Override
     protected void generateOutput() throws IOException {
+        // Nothing to write if no genes were found.
+        if(getPriority().isEmpty()) {
+            return;
+        }
+
         // Writes all genes except last one (with added separator).
         for(int i = 0; i < getPriority().size()-1; i++) {
             getOutputWriter().write(getPriority().get(i).getId() + separator);
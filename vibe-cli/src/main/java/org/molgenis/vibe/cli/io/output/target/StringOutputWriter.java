@@ -0,0 +1,38 @@
+package org.molgenis.vibe.cli.io.output.target;
+
+/**
+ * Writer for writing output to a {@link String} held in memory.
+ */
+public class StringOutputWriter implements OutputWriter {
+    /**
+     * Stores the written output.
+     */
+    private StringBuilder builder = new StringBuilder();
+
+    /**
+     * @return all output written so far
+     */
+    public String getOutput() {
+        return builder.toString();
+    }
+
+    @Override
+    public String target() {
+        return "string";
+    }
+
+    @Override
+    public void write(String output) {
+        builder.append(output);
+    }
+
+    @Override
+    public void writeHeader(String output) {
+        builder.append(output);
+    }
+
+    @Override
+    public void writeNewLine() {
+        builder.append(System.lineSeparator());
+    }
+}
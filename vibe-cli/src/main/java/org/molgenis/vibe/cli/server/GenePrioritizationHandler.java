@@ -0,0 +1,244 @@
+package org.molgenis.vibe.cli.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.molgenis.vibe.cli.GenePrioritizationRunner;
+import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
+import org.molgenis.vibe.cli.io.output.target.StringOutputWriter;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers gene prioritization requests using an already loaded database and ontology. The input is given through
+ * the query string:
+ * <ul>
+ *     <li>{@code p}: a phenotype (HPO id), can be given multiple times (required)</li>
+ *     <li>{@code n}: the ontology algorithm to use for including related phenotypes (requires {@code m})</li>
+ *     <li>{@code m}: the maximum distance for the ontology algorithm (requires {@code n})</li>
+ *     <li>{@code k}: the maximum number of genes to return (overrides {@link #withTopGenes(int)})</li>
+ * </ul>
+ * A successful request returns the prioritized genes in the configured output format. Invalid input results in a
+ * {@code 400} response containing the error message.
+ */
+public class GenePrioritizationHandler implements HttpHandler {
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+
+    private final ModelReader modelReader;
+    private final HpoGraph hpoGraph;
+    private final GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory;
+    private final GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory;
+    private PhenotypeResultCache resultCache;
+    private GdaFilter filter = GdaFilter.NONE;
+    private int topGenes = 0;
+    private boolean verbose = false;
+
+    /**
+     * @param modelReader an opened {@link ModelReader} for the vibe database (not closed by this handler)
+     * @param hpoGraph the loaded Human Phenotype Ontology
+     * @param outputFormatWriterFactory the output format used for the responses
+     */
+    public GenePrioritizationHandler(ModelReader modelReader, HpoGraph hpoGraph,
+                                     GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory) {
+        this(modelReader, hpoGraph, outputFormatWriterFactory, GenesForPhenotypeRetrieverFactory.SPARQL);
+    }
+
+    /**
+     * @param modelReader an opened {@link ModelReader} for the vibe database (not closed by this handler)
+     * @param hpoGraph the loaded Human Phenotype Ontology
+     * @param outputFormatWriterFactory the output format used for the responses
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to retrieve data with
+     */
+    public GenePrioritizationHandler(ModelReader modelReader, HpoGraph hpoGraph,
+                                     GenePrioritizedOutputFormatWriterFactory outputFormatWriterFactory,
+                                     GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) {
+        this.modelReader = requireNonNull(modelReader);
+        this.hpoGraph = requireNonNull(hpoGraph);
+        this.outputFormatWriterFactory = requireNonNull(outputFormatWriterFactory);
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
+    }
+
+    /**
+     * Shares the data retrieved per phenotype between all requests.
+     * @param resultCache the {@link PhenotypeResultCache} to use
+     * @return itself for fluent programming
+     * @see GenePrioritizationRunner#withResultCache(PhenotypeResultCache)
+     */
+    public GenePrioritizationHandler withResultCache(PhenotypeResultCache resultCache) {
+        this.resultCache = requireNonNull(resultCache);
+        return this;
+    }
+
+    /**
+     * Only retrieves the gene-disease associations that pass {@code filter} for all requests.
+     * @param filter the {@link GdaFilter} to use
+     * @return itself for fluent programming
+     * @see GenePrioritizationRunner#withFilter(GdaFilter)
+     */
+    public GenePrioritizationHandler withFilter(GdaFilter filter) {
+        this.filter = requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Only returns the {@code topGenes} genes with the highest priority for requests that do not define this
+     * themselves.
+     * @param topGenes the maximum number of genes to return
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code topGenes < 1}
+     * @see GenePrioritizationRunner#withTopGenes(int)
+     */
+    public GenePrioritizationHandler withTopGenes(int topGenes) {
+        if(topGenes < 1) {
+            throw new IllegalArgumentException("topGenes must be >= 1: " + topGenes);
+        }
+        this.topGenes = topGenes;
+        return this;
+    }
+
+    /**
+     * Prints the stack trace of unexpected exceptions (next to the one-line message that is always printed).
+     * @param verbose whether to print stack traces
+     * @return itself for fluent programming
+     */
+    public GenePrioritizationHandler withVerbose(boolean verbose) {
+        this.verbose = verbose;
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if(!"GET".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, METHOD_NOT_ALLOWED, "Only GET requests are supported.");
+                return;
+            }
+            String output = prioritize(parseQuery(exchange.getRequestURI().getRawQuery()));
+            sendResponse(exchange, OK, output);
+        } catch (IllegalArgumentException | EnumConstantNotPresentException e) { // Invalid user input.
+            sendResponse(exchange, BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            System.err.println("An unexpected exception occurred while handling a request: " + e);
+            if(verbose) {
+                e.printStackTrace();
+            }
+            sendResponse(exchange, INTERNAL_SERVER_ERROR, "An unexpected exception occurred.");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Retrieves and prioritizes the genes for the given query parameters.
+     * @param parameters the query parameters (name with all its values)
+     * @return the output as generated by the {@link GenePrioritizedOutputFormatWriterFactory}
+     * @throws IllegalArgumentException if the query parameters are invalid
+     * @throws EnumConstantNotPresentException if the ontology algorithm does not exist
+     * @throws IOException see {@link GenePrioritizationRunner#call()}
+     */
+    String prioritize(Map<String, List<String>> parameters) throws IOException {
+        StringOutputWriter outputWriter = new StringOutputWriter();
+        GenePrioritizationRunner runner = new GenePrioritizationRunner(modelReader, retrievePhenotypes(parameters),
+                outputFormatWriterFactory, outputWriter).withGenesForPhenotypeRetrieverFactory(genesForPhenotypeRetrieverFactory)
+                .withFilter(filter);
+
+        // Includes related phenotypes if requested.
+        String algorithm = retrieveSingleValue(parameters, "n");
+        String maxDistance = retrieveSingleValue(parameters, "m");
+        if((algorithm == null) != (maxDistance == null)) {
+            throw new IllegalArgumentException("Parameters n and m must be given together.");
+        }
+        if(algorithm != null) {
+            runner.withRelatedPhenotypes(hpoGraph, PhenotypesRetrieverFactory.retrieve(algorithm),
+                    Integer.parseInt(maxDistance));
+        }
+
+        if(resultCache != null) {
+            runner.withResultCache(resultCache);
+        }
+
+        // Limits the number of returned genes if requested.
+        String requestTopGenes = retrieveSingleValue(parameters, "k");
+        if(requestTopGenes != null) {
+            runner.withTopGenes(Integer.parseInt(requestTopGenes)); // NumberFormatException is an IllegalArgumentException.
+        } else if(topGenes > 0) {
+            runner.withTopGenes(topGenes);
+        }
+
+        runner.call();
+        return outputWriter.getOutput();
+    }
+
+    private Set<Phenotype> retrievePhenotypes(Map<String, List<String>> parameters) {
+        List<String> values = parameters.get("p");
+        if(values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 phenotype must be given using parameter p.");
+        }
+
+        Set<Phenotype> phenotypes = new HashSet<>();
+        for(String value : values) {
+            phenotypes.add(new Phenotype(value)); // throws InvalidStringFormatException (IllegalArgumentException)
+        }
+        return phenotypes;
+    }
+
+    private String retrieveSingleValue(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        if(values == null || values.isEmpty()) {
+            return null;
+        }
+        if(values.size() > 1) {
+            throw new IllegalArgumentException("Parameter " + name + " can only be given once.");
+        }
+        return values.get(0);
+    }
+
+    /**
+     * Splits a raw query string into its decoded parameters.
+     * @param rawQuery the raw (still encoded) query string, can be {@code null}
+     * @return a {@link Map} with per parameter name all given values (in order of occurrence)
+     */
+    static Map<String, List<String>> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if(rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+
+        for(String pair : rawQuery.split("&")) {
+            if(pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.computeIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8.name()), k -> new ArrayList<>())
+                    .add(URLDecoder.decode(value, StandardCharsets.UTF_8.name()));
+        }
+        return parameters;
+    }
+
+    private static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try ( OutputStream outputStream = exchange.getResponseBody() ) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.molgenis.vibe.cli.server;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A local HTTP server (only bound to the loopback address) that passes all requests to a single {@link HttpHandler}.
+ * Requests are handled one at a time on the dispatcher thread.
+ */
+public class VibeServer implements Closeable {
+    /**
+     * The server handling the requests.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * Released when the server is closed.
+     */
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    /**
+     * @param port the port to listen on (0 lets the system choose a free port)
+     * @param handler the {@link HttpHandler} that answers the requests
+     * @throws IOException if the server could not be bound to {@code port}
+     */
+    public VibeServer(int port, HttpHandler handler) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/", requireNonNull(handler));
+    }
+
+    /**
+     * @return the address on which the server listens
+     */
+    public String getAddress() {
+        InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Blocks until {@link #close()} is called.
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        closed.countDown();
+    }
+}
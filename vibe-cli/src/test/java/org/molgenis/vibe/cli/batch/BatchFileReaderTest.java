@@ -0,0 +1,79 @@
+package org.molgenis.vibe.cli.batch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.core.formats.Phenotype;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+class BatchFileReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parseValidLine() {
+        BatchEntry expected = new BatchEntry("patient_1", new HashSet<>(Arrays.asList(
+                new Phenotype("HP:0002996"), new Phenotype("HP:0001377"))));
+
+        Assertions.assertEquals(expected, BatchFileReader.parseLine("patient_1\tHP:0002996, HP:0001377"));
+    }
+
+    @Test
+    void parseLineWithoutTab() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchFileReader.parseLine("patient_1 HP:0002996"));
+    }
+
+    @Test
+    void parseLineWithInvalidPhenotype() {
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> BatchFileReader.parseLine("patient_1\tHP:0002"));
+    }
+
+    @Test
+    void parseLineWithInvalidPatientId() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchFileReader.parseLine("../patient_1\tHP:0002996"));
+    }
+
+    @Test
+    void parseLineWithoutPhenotypes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchFileReader.parseLine("patient_1\t,"));
+    }
+
+    @Test
+    void readFileSkippingCommentsAndEmptyLines() throws IOException {
+        Path batchFile = writeBatchFile("# patients", "patient_2\tHP:0002996", "", "patient_1\tHP:0001377");
+        List<BatchEntry> entries = BatchFileReader.read(batchFile);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, entries.size()),
+                () -> Assertions.assertEquals("patient_2", entries.get(0).getPatientId()),
+                () -> Assertions.assertEquals("patient_1", entries.get(1).getPatientId())
+        );
+    }
+
+    @Test
+    void readFileWithDuplicatePatient() throws IOException {
+        Path batchFile = writeBatchFile("patient_1\tHP:0002996", "patient_1\tHP:0001377");
+
+        Exception exception = Assertions.assertThrows(IOException.class, () -> BatchFileReader.read(batchFile));
+        Assertions.assertEquals("batch.tsv line 2: Duplicate patient id: patient_1", exception.getMessage());
+    }
+
+    @Test
+    void readEmptyFile() throws IOException {
+        Path batchFile = writeBatchFile("# no patients");
+
+        Assertions.assertThrows(IOException.class, () -> BatchFileReader.read(batchFile));
+    }
+
+    private Path writeBatchFile(String... lines) throws IOException {
+        return Files.write(tempDir.resolve("batch.tsv"), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}
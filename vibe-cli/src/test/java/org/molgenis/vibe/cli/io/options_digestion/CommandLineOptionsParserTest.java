@@ -5,20 +5,31 @@ import org.apache.commons.cli.UnrecognizedOptionException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.molgenis.vibe.cli.RunMode;
 import org.molgenis.vibe.cli.TestData;
 import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.Source;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.io.input.ModelReaderFactory;
 import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
 import org.molgenis.vibe.cli.io.output.target.FileOutputWriter;
 import org.molgenis.vibe.cli.io.output.target.StdoutOutputWriter;
 import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.GenePrioritizerFactory;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 class CommandLineOptionsParserTest {
+    @TempDir
+    Path resultCacheDir;
+
     private final String[] HELP = new String[]{"-h"};
     private final String[] VERSION = new String[]{"-v"};
     private final String[] DEBUG = new String[]{"-d"};
@@ -54,6 +65,11 @@ class CommandLineOptionsParserTest {
             new Phenotype("hp:6543210")
     }));
 
+    private final String[] SERVER_VALID = new String[]{"-s", "8080"};
+    private final String[] SERVER_INVALID = new String[]{"-s", "port"};
+
+    private final String[] BUILD_INDEX = new String[]{"-i"};
+
     private final String[] OUTPUT_FILE_NEW = new String[]{"-o", TestData.NON_EXISTING_FILE.getFullPathString()};
     private final String[] OUTPUT_FILE_EXISTING = new String[]{"-o", TestData.EXISTING_TSV.getFullPathString()};
 
@@ -179,6 +195,23 @@ class CommandLineOptionsParserTest {
         Assertions.assertEquals(VALID_HPO_MULTIPLE_SET, vibeOptions.getPhenotypes());
     }
 
+    @Test
+    void validSingleHpoUsesSingleThreadByDefault() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW);
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(1, vibeOptions.getThreads());
+    }
+
+    @Test
+    void validSingleHpoWithThreads() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-j", "4"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(4, vibeOptions.getThreads());
+    }
+
     @Test
     void unknownArgument() {
         String[] args = new String[]{"--zyxi"};
@@ -344,6 +377,271 @@ class CommandLineOptionsParserTest {
         Assertions.assertEquals(TestData.NON_EXISTING_DIR.getName() + " is not a readable file.", exception.getMessage());
     }
 
+    @Test
+    void validSingleHpoMemoryMapped() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, new String[]{"-M"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.GENES_FOR_PHENOTYPES, vibeOptions.getRunMode()),
+                () -> Assertions.assertEquals(ModelReaderFactory.HDT_MAPPED, vibeOptions.getVibeDatabase().getModelReaderFactory())
+        );
+    }
+
+    @Test
+    void validSingleHpoHdtQueryEngine() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, new String[]{"-q", "hdt"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.GENES_FOR_PHENOTYPES, vibeOptions.getRunMode()),
+                () -> Assertions.assertEquals(GenesForPhenotypeRetrieverFactory.HDT, vibeOptions.getVibeDatabase().getGenesForPhenotypeRetrieverFactory())
+        );
+    }
+
+    @Test
+    void invalidQueryEngine() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, new String[]{"-q", "jena"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("jena is not a valid query engine.", exception.getMessage());
+    }
+
+    @Test
+    void validServer() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, SIMPLIFIED_OUT);
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.SERVER, vibeOptions.getRunMode()),
+                () -> Assertions.assertEquals(8080, vibeOptions.getServerPort()),
+                () -> Assertions.assertEquals(GenePrioritizedOutputFormatWriterFactory.SIMPLE, vibeOptions.getGenePrioritizedOutputFormatWriterFactory()),
+                () -> Assertions.assertTrue(vibeOptions.validate())
+        );
+    }
+
+    @Test
+    void invalidServerPort() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_INVALID);
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals(SERVER_INVALID[1] + " is not a valid port (must be a number between 0 and 65535).", exception.getMessage());
+    }
+
+    @Test
+    void validServerWithResultCache() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, new String[]{"-R", "500"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(500, vibeOptions.getResultCacheSize());
+    }
+
+    @Test
+    void validSingleHpoWithResultCacheDir() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-r", resultCacheDir.toString()});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(resultCacheDir, vibeOptions.getDiskResultCache().getDirectory());
+    }
+
+    @Test
+    void validSingleHpoLowMemory() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-L"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertTrue(vibeOptions.isLowMemory());
+    }
+
+    @Test
+    void lowMemoryWithThreads() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-L", "-j", "2"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("-L cannot be used together with -j or -r.", exception.getMessage());
+    }
+
+    @Test
+    void validSingleHpoWithFilters() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-S", "0.3", "-V", "curated", "-V", "model", "-y", "2010"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(GdaFilter.NONE.withMinScore(0.3)
+                        .withSourceLevels(EnumSet.of(Source.Level.CURATED, Source.Level.MODEL)).withMinEvidenceYear(2010),
+                vibeOptions.getGdaFilter());
+    }
+
+    @Test
+    void validSingleHpoWithoutFilters() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW);
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertSame(GdaFilter.NONE, vibeOptions.getGdaFilter());
+    }
+
+    @Test
+    void invalidMinScore() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-S", "1.5"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("1.5 is not a valid minimum score (must be a number between 0 and 1).", exception.getMessage());
+    }
+
+    @Test
+    void invalidSourceLevel() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, new String[]{"-V", "manual"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("Could not generate a Source.Level from given String: manual", exception.getMessage());
+    }
+
+    @Test
+    void invalidMinEvidenceYear() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, new String[]{"-y", "recent"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("recent is not a valid minimum evidence year (must be a number >= 0).", exception.getMessage());
+    }
+
+    @Test
+    void validSingleHpoWithTopGenes() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-k", "50"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(50, vibeOptions.getTopGenes());
+    }
+
+    @Test
+    void invalidTopGenes() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, new String[]{"-k", "0"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("0 is not a valid number of genes (must be a number >= 1).", exception.getMessage());
+    }
+
+    @Test
+    void validSingleHpoWithPrioritization() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-a", "similarity"});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertEquals(GenePrioritizerFactory.PHENOTYPE_SIMILARITY, vibeOptions.getGenePrioritizerFactory());
+    }
+
+    @Test
+    void invalidPrioritization() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-a", "random"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("random is not a valid prioritization strategy.", exception.getMessage());
+    }
+
+    @Test
+    void prioritizationOnSimilarityWithLowMemory() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, VALID_HPO_SINGLE, OUTPUT_FILE_NEW,
+                new String[]{"-a", "similarity", "-L"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("-a similarity cannot be used together with -L.", exception.getMessage());
+    }
+
+    @Test
+    void invalidResultCacheSize() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, SERVER_VALID, new String[]{"-R", "-1"});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("-1 is not a valid result cache size (must be a number >= 0).", exception.getMessage());
+    }
+
+    @Test
+    void serverMissingDatabases() {
+        String[] args = stringArraysMerger(SERVER_VALID);
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("Missing arguments: -t, -w", exception.getMessage());
+    }
+
+    @Test
+    void validBuildIndex() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, BUILD_INDEX);
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.BUILD_INDEX, vibeOptions.getRunMode()),
+                () -> Assertions.assertNull(vibeOptions.getVibeDatabase().getIndexCacheDir()),
+                () -> Assertions.assertTrue(vibeOptions.validate())
+        );
+    }
+
+    @Test
+    void validBuildIndexWithIndexCacheDir() throws ParseException {
+        String[] args = stringArraysMerger(VALID_DATABASE, BUILD_INDEX, new String[]{"-c", TestData.HDT.getFullPath().getParent().toString()});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.BUILD_INDEX, vibeOptions.getRunMode()),
+                () -> Assertions.assertEquals(TestData.HDT.getFullPath().getParent(), vibeOptions.getVibeDatabase().getIndexCacheDir()),
+                () -> Assertions.assertTrue(vibeOptions.validate())
+        );
+    }
+
+    @Test
+    void buildIndexMissingDatabase() {
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(BUILD_INDEX) );
+        Assertions.assertEquals("Missing arguments: -t", exception.getMessage());
+    }
+
+    @Test
+    void invalidIndexCacheDir() {
+        String[] args = stringArraysMerger(VALID_DATABASE, BUILD_INDEX, new String[]{"-c", TestData.NON_EXISTING_DIR.getFullPathString()});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("Index cache directory " + TestData.NON_EXISTING_DIR.getFullPathString() + " is not a writable directory.", exception.getMessage());
+    }
+
+    @Test
+    void validBuildGdaIndex() throws ParseException {
+        String gdaIndexFile = TestData.HDT.getFullPath().resolveSibling("new.gda").toString();
+        String[] args = stringArraysMerger(VALID_DATABASE, new String[]{"-g", gdaIndexFile});
+        VibeOptions vibeOptions = CommandLineOptionsParser.parse(args);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RunMode.BUILD_GDA_INDEX, vibeOptions.getRunMode()),
+                () -> Assertions.assertEquals(Paths.get(gdaIndexFile), vibeOptions.getGdaIndexFile()),
+                () -> Assertions.assertTrue(vibeOptions.validate())
+        );
+    }
+
+    @Test
+    void buildGdaIndexInvalidExtension() {
+        String[] args = stringArraysMerger(VALID_DATABASE, new String[]{"-g", TestData.NON_EXISTING_FILE.getFullPathString()});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals(TestData.NON_EXISTING_FILE.getName() + " is not a .gda file.", exception.getMessage());
+    }
+
+    @Test
+    void batchMissingFile() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, new String[]{"-b", TestData.NON_EXISTING_FILE.getFullPathString()});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals(TestData.NON_EXISTING_FILE.getName() + " is not a readable file.", exception.getMessage());
+    }
+
+    @Test
+    void batchWithOnlyOntologyAlgorithm() {
+        String[] args = stringArraysMerger(VALID_DATABASE, VALID_ONTOLOGY, HPO_ALGORITHM_CHILDREN, new String[]{"-b", TestData.NON_EXISTING_FILE.getFullPathString()});
+
+        Exception exception = Assertions.assertThrows(ParseException.class, () -> CommandLineOptionsParser.parse(args) );
+        Assertions.assertEquals("Missing arguments: -m", exception.getMessage());
+    }
+
     private String[] stringArraysMerger(String[]... arrays) {
         String[] fullArray = arrays[0];
         for(int i = 1; i < arrays.length; i++) {
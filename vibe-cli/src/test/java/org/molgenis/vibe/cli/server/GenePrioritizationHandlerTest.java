@@ -0,0 +1,78 @@
+package org.molgenis.vibe.cli.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.molgenis.vibe.cli.io.output.format.gene_prioritized.GenePrioritizedOutputFormatWriterFactory;
+import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class GenePrioritizationHandlerTest {
+    @Mock private ModelReader modelReader;
+    @Mock private HpoGraph hpoGraph;
+
+    @Test
+    void parseQueryWithRepeatedAndEncodedParameters() throws UnsupportedEncodingException {
+        Map<String, List<String>> parameters = GenePrioritizationHandler.parseQuery("p=HP%3A0002996&p=HP:0001377&n=distance&m=1");
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Arrays.asList("HP:0002996", "HP:0001377"), parameters.get("p")),
+                () -> Assertions.assertEquals(Collections.singletonList("distance"), parameters.get("n")),
+                () -> Assertions.assertEquals(Collections.singletonList("1"), parameters.get("m"))
+        );
+    }
+
+    @Test
+    void parseEmptyQuery() throws UnsupportedEncodingException {
+        Assertions.assertTrue(GenePrioritizationHandler.parseQuery(null).isEmpty());
+    }
+
+    @Test
+    void prioritizeWithoutPhenotypes() {
+        GenePrioritizationHandler handler = new GenePrioritizationHandler(modelReader, hpoGraph,
+                GenePrioritizedOutputFormatWriterFactory.SIMPLE);
+
+        Exception exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> handler.prioritize(Collections.emptyMap()));
+        Assertions.assertEquals("At least 1 phenotype must be given using parameter p.", exception.getMessage());
+    }
+
+    @Test
+    void prioritizeWithInvalidPhenotype() throws UnsupportedEncodingException {
+        GenePrioritizationHandler handler = new GenePrioritizationHandler(modelReader, hpoGraph,
+                GenePrioritizedOutputFormatWriterFactory.SIMPLE);
+        Map<String, List<String>> parameters = GenePrioritizationHandler.parseQuery("p=HP:0123");
+
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> handler.prioritize(parameters));
+    }
+
+    @Test
+    void prioritizeWithAlgorithmButWithoutDistance() throws UnsupportedEncodingException {
+        GenePrioritizationHandler handler = new GenePrioritizationHandler(modelReader, hpoGraph,
+                GenePrioritizedOutputFormatWriterFactory.SIMPLE);
+        Map<String, List<String>> parameters = GenePrioritizationHandler.parseQuery("p=HP:0002996&n=distance");
+
+        Exception exception = Assertions.assertThrows(IllegalArgumentException.class, () -> handler.prioritize(parameters));
+        Assertions.assertEquals("Parameters n and m must be given together.", exception.getMessage());
+    }
+
+    @Test
+    void prioritizeWithInvalidTopGenes() throws UnsupportedEncodingException {
+        GenePrioritizationHandler handler = new GenePrioritizationHandler(modelReader, hpoGraph,
+                GenePrioritizedOutputFormatWriterFactory.SIMPLE);
+        Map<String, List<String>> parameters = GenePrioritizationHandler.parseQuery("p=HP:0002996&k=0");
+
+        Exception exception = Assertions.assertThrows(IllegalArgumentException.class, () -> handler.prioritize(parameters));
+        Assertions.assertEquals("topGenes must be >= 1: 0", exception.getMessage());
+    }
+}
@@ -1,37 +1,310 @@
 package org.molgenis.vibe.core;
 
+import org.molgenis.vibe.core.formats.Gene;
 import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
 import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.ReadOnlyGeneDiseaseCollection;
 import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.database_processing.GdaFilter;
 import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.database_processing.ParallelGenesForPhenotypeRetriever;
+import org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache;
 import org.molgenis.vibe.core.io.input.VibeDatabase;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRowConsumer;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneScoreConsumer;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.HighestScorePerGeneTracker;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.RankedGeneListsPrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
 
 import java.io.IOException;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
 
 public class GeneDiseaseCollectionRetrievalRunner implements Callable<GeneDiseaseCollection> {
     private VibeDatabase vibeDatabase;
+    private ModelReader modelReader;
     private Set<Phenotype> phenotypes;
+    private GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory;
+    private int threads = 1;
+    private GdaFilter filter = GdaFilter.NONE;
+    private PhenotypeResultCache resultCache;
+    private IncrementalGenePrioritizer prioritizer;
 
+    /**
+     * Opens a new {@link ModelReader} from the {@link VibeDatabase} on {@link #call()} and closes it afterwards. Uses
+     * the {@link GenesForPhenotypeRetrieverFactory} of the {@link VibeDatabase}.
+     * @param vibeDatabase the database to retrieve the data from
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the data for
+     */
     public GeneDiseaseCollectionRetrievalRunner(VibeDatabase vibeDatabase, Set<Phenotype> phenotypes) {
         this.vibeDatabase = requireNonNull(vibeDatabase);
         this.phenotypes = phenotypes;
+        this.genesForPhenotypeRetrieverFactory = vibeDatabase.getGenesForPhenotypeRetrieverFactory();
+    }
+
+    /**
+     * Uses an already opened {@link ModelReader} on {@link #call()}. The {@link ModelReader} is NOT closed afterwards,
+     * so that it can be reused for multiple calls (closing it is the responsibility of the caller).
+     * @param modelReader an opened {@link ModelReader} to retrieve the data from
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the data for
+     */
+    public GeneDiseaseCollectionRetrievalRunner(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        this(modelReader, phenotypes, GenesForPhenotypeRetrieverFactory.SPARQL);
+    }
+
+    /**
+     * Uses an already opened {@link ModelReader} on {@link #call()} (see
+     * {@link #GeneDiseaseCollectionRetrievalRunner(ModelReader, Set)}).
+     * @param modelReader an opened {@link ModelReader} to retrieve the data from
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the data for
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to retrieve the data with
+     */
+    public GeneDiseaseCollectionRetrievalRunner(ModelReader modelReader, Set<Phenotype> phenotypes,
+                                                GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) {
+        this.modelReader = requireNonNull(modelReader);
+        this.phenotypes = phenotypes;
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
+    }
+
+    /**
+     * Splits the {@link Phenotype}{@code s} into chunks that are retrieved simultaneously (see
+     * {@link ParallelGenesForPhenotypeRetriever}). Requires a {@link ModelReader} that supports
+     * {@link ModelReader#createView()}.
+     * @param threads the maximum number of threads to use (default: 1)
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code threads < 1}
+     */
+    public GeneDiseaseCollectionRetrievalRunner withThreads(int threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Only retrieves the results that pass {@code filter} (see
+     * {@link GenesForPhenotypeRetriever#withFilter(GdaFilter)}). When a {@link PhenotypeResultCache} is used, the
+     * results are cached separately per {@link GdaFilter}.
+     * @param filter the {@link GdaFilter} results should pass (default: {@link GdaFilter#NONE})
+     * @return itself for fluent programming
+     */
+    public GeneDiseaseCollectionRetrievalRunner withFilter(GdaFilter filter) {
+        this.filter = requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Stores the data per {@link Phenotype} in a {@link PhenotypeResultCache} and only retrieves the data from the
+     * database for {@link Phenotype}{@code s} not present in the cache yet (each {@link Phenotype} separately, see
+     * {@link ParallelGenesForPhenotypeRetriever#retrievePerPhenotype()}). Only
+     * used if the {@link ModelReader} supplies a {@link ModelReader#getDatabaseId()} (or when using a
+     * {@link VibeDatabase}, see {@link VibeDatabase#getDatabaseId()}). When all {@link Phenotype}{@code s} are cached,
+     * the {@link VibeDatabase} is not read at all.
+     * @param resultCache the {@link PhenotypeResultCache} to use (can be shared with other runners)
+     * @return itself for fluent programming
+     */
+    public GeneDiseaseCollectionRetrievalRunner withResultCache(PhenotypeResultCache resultCache) {
+        this.resultCache = requireNonNull(resultCache);
+        return this;
+    }
+
+    /**
+     * Gives each {@link GeneDiseaseCombination} to {@code prioritizer} while it is retrieved (see
+     * {@link GenesForPhenotypeRetriever#withPrioritizer(IncrementalGenePrioritizer)}), so that the {@link Gene}
+     * priority is available as soon as {@link #call()} returns. When the {@link GeneDiseaseCollection} is combined from
+     * multiple parts (multiple threads or a {@link PhenotypeResultCache}), the combined {@link GeneDiseaseCombination}
+     * {@code s} are given to {@code prioritizer} once afterwards instead.
+     * @param prioritizer the {@link IncrementalGenePrioritizer} to use
+     * @return itself for fluent programming
+     */
+    public GeneDiseaseCollectionRetrievalRunner withPrioritizer(IncrementalGenePrioritizer prioritizer) {
+        this.prioritizer = requireNonNull(prioritizer);
+        return this;
     }
 
     @Override
     public GeneDiseaseCollection call() throws IOException {
-        try ( ModelReader modelReader = vibeDatabase.getModelReader() ) {
-            // Retrieve from database.
-            GenesForPhenotypeRetriever genesForPhenotypeRetriever = new GenesForPhenotypeRetriever(
-                    modelReader, phenotypes
-            );
-            genesForPhenotypeRetriever.run();
-
-            // Return results.
-            return genesForPhenotypeRetriever.getGeneDiseaseCollection();
+        String databaseId = resultCache == null ? null :
+                (modelReader != null ? modelReader.getDatabaseId() : vibeDatabase.getDatabaseId());
+        if(databaseId == null) {
+            return withModelReader(reader -> retrieve(reader, phenotypes));
+        }
+        // Results retrieved with a different filter are stored separately.
+        String cacheId = databaseId + filter.getId();
+
+        // Retrieves the cached results first, so that the database is not read at all if everything is cached.
+        Map<Phenotype, ReadOnlyGeneDiseaseCollection> phenotypeCollections = new TreeMap<>();
+        Set<Phenotype> missingPhenotypes = new LinkedHashSet<>();
+        for(Phenotype phenotype : phenotypes) {
+            ReadOnlyGeneDiseaseCollection phenotypeCollection = resultCache.get(cacheId, phenotype);
+            if(phenotypeCollection == null) {
+                missingPhenotypes.add(phenotype);
+            } else {
+                phenotypeCollections.put(phenotype, phenotypeCollection);
+            }
+        }
+
+        if(!missingPhenotypes.isEmpty()) {
+            // Each phenotype is cached separately, but the missing phenotypes are still retrieved simultaneously.
+            Map<Phenotype, GeneDiseaseCollection> retrievedCollections = withModelReader(reader -> {
+                ParallelGenesForPhenotypeRetriever retriever = new ParallelGenesForPhenotypeRetriever(reader,
+                        missingPhenotypes, genesForPhenotypeRetrieverFactory, threads);
+                retriever.withFilter(filter);
+                return retriever.retrievePerPhenotype();
+            });
+            for(Map.Entry<Phenotype, GeneDiseaseCollection> entry : retrievedCollections.entrySet()) {
+                resultCache.put(cacheId, entry.getKey(), entry.getValue());
+                phenotypeCollections.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // Combines the results per phenotype in a fixed order.
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
+        for(ReadOnlyGeneDiseaseCollection phenotypeCollection : phenotypeCollections.values()) {
+            geneDiseaseCollection.merge(phenotypeCollection);
+        }
+        updatePrioritizer(geneDiseaseCollection);
+        return geneDiseaseCollection;
+    }
+
+    /**
+     * Passes the retrieved rows directly to {@code rowConsumer} (see
+     * {@link GenesForPhenotypeRetriever#withRowConsumer(GdaRowConsumer)}) instead of combining them into a
+     * {@link GeneDiseaseCollection}. As nothing is stored, this cannot be combined with a {@link PhenotypeResultCache}
+     * or multiple threads.
+     * @param rowConsumer the stage(s) to pass the rows to
+     * @throws IOException if the {@link VibeDatabase} could not be read
+     * @throws IllegalStateException if a {@link PhenotypeResultCache} or multiple threads are used
+     */
+    public void stream(GdaRowConsumer rowConsumer) throws IOException {
+        requireNonNull(rowConsumer);
+        streamWith(retriever -> retriever.withRowConsumer(rowConsumer));
+    }
+
+    /**
+     * Passes only the rows of the {@code limit} {@link Gene}{@code s} with the highest score (see
+     * {@link GenesForPhenotypeRetriever#withGeneLimit(int)}) to {@code rowConsumer}, so that the entities of other
+     * {@link Gene}{@code s} do not have to be created. Has the same restrictions as {@link #stream(GdaRowConsumer)}.
+     * @param rowConsumer the stage(s) to pass the rows to
+     * @param limit the maximum number of {@link Gene}{@code s} to pass the rows on for
+     * @throws IOException if the {@link VibeDatabase} could not be read
+     * @throws IllegalArgumentException if {@code limit < 1}
+     * @throws IllegalStateException if a {@link PhenotypeResultCache} or multiple threads are used
+     */
+    public void streamTopGenes(GdaRowConsumer rowConsumer, int limit) throws IOException {
+        requireNonNull(rowConsumer);
+        if(limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1: " + limit);
+        }
+        streamWith(retriever -> retriever.withRowConsumer(rowConsumer).withGeneLimit(limit));
+    }
+
+    /**
+     * Passes only the {@link Gene} and score of the retrieved gene-disease associations to {@code geneScoreConsumer}
+     * (see {@link GenesForPhenotypeRetriever#withGeneScoreConsumer(GeneScoreConsumer)}). Has the same restrictions as
+     * {@link #stream(GdaRowConsumer)}.
+     * @param geneScoreConsumer the stage to pass the {@link Gene}{@code s} and scores to
+     * @throws IOException if the {@link VibeDatabase} could not be read
+     * @throws IllegalStateException if a {@link PhenotypeResultCache} or multiple threads are used
+     */
+    public void streamGeneScores(GeneScoreConsumer geneScoreConsumer) throws IOException {
+        requireNonNull(geneScoreConsumer);
+        streamWith(retriever -> retriever.withGeneScoreConsumer(geneScoreConsumer));
+    }
+
+    private void streamWith(Function<GenesForPhenotypeRetriever, GenesForPhenotypeRetriever> configuration)
+            throws IOException {
+        if(resultCache != null || threads > 1) {
+            throw new IllegalStateException("Rows cannot be passed on when using a result cache or multiple threads.");
+        }
+        withModelReader(reader -> {
+            configuration.apply(genesForPhenotypeRetrieverFactory.create(reader, phenotypes).withFilter(filter)).run();
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the {@code limit} {@link Gene}{@code s} with the highest score (see {@link TopGenesPrioritizer})
+     * in a single retrieval. Only the {@link Gene}{@code s} and scores are retrieved (see
+     * {@link GenesForPhenotypeRetriever#withGeneScoreConsumer(GeneScoreConsumer)}): the highest score per
+     * {@link Gene} is tracked by a {@link HighestScorePerGeneTracker}, after which a bounded heap selects the
+     * {@code limit} highest ones. As no gene-disease associations are stored, this cannot be combined with a
+     * {@link PhenotypeResultCache} or multiple threads.
+     * <br /><br />
+     * When using {@link GenesForPhenotypeRetrieverFactory#GDA_INDEX} with a {@link GdaFilter} that only filters on
+     * score, the ranked gene lists of the {@link org.molgenis.vibe.core.io.input.GdaIndex} are used instead (see
+     * {@link RankedGeneListsPrioritizer}), so that no gene-disease associations are retrieved at all.
+     * @param limit the maximum number of {@link Gene}{@code s} to return
+     * @return the {@code limit} {@link Gene}{@code s} with the highest score, ordered from highest to lowest score
+     * @throws IOException if the {@link VibeDatabase} could not be read
+     * @throws IllegalArgumentException if {@code limit < 1}
+     * @throws IllegalStateException if a {@link PhenotypeResultCache} or multiple threads are used
+     */
+    public List<Gene> retrieveTopGenes(int limit) throws IOException {
+        if(limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1: " + limit);
+        }
+        if(resultCache != null || threads > 1) {
+            throw new IllegalStateException("Top genes cannot be retrieved when using a result cache or multiple threads.");
+        }
+        return withModelReader(reader -> {
+            if(genesForPhenotypeRetrieverFactory == GenesForPhenotypeRetrieverFactory.GDA_INDEX &&
+                    !filter.filtersSourceLevels() && !filter.filtersEvidenceYear()) {
+                return new RankedGeneListsPrioritizer(reader.getGdaIndex(), reader.getEntityRegistry())
+                        .withMinScore(filter.getMinScore()).sort(phenotypes, limit);
+            }
+            HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+            genesForPhenotypeRetrieverFactory.create(reader, phenotypes).withFilter(filter)
+                    .withGeneScoreConsumer(tracker).run();
+            return tracker.getPriority(limit);
+        });
+    }
+
+    /**
+     * Applies {@code retrieval} on the given {@link ModelReader}, or on a newly opened one from the
+     * {@link VibeDatabase} that is closed afterwards.
+     */
+    private <T> T withModelReader(Function<ModelReader, T> retrieval) throws IOException {
+        if(modelReader != null) {
+            return retrieval.apply(modelReader);
+        }
+        try ( ModelReader databaseReader = vibeDatabase.getModelReader() ) {
+            return retrieval.apply(databaseReader);
+        }
+    }
+
+    private GeneDiseaseCollection retrieve(ModelReader reader, Set<Phenotype> phenotypes) {
+        // Retrieve from database.
+        GenesForPhenotypeRetriever genesForPhenotypeRetriever = threads > 1 ?
+                new ParallelGenesForPhenotypeRetriever(reader, phenotypes, genesForPhenotypeRetrieverFactory, threads) :
+                genesForPhenotypeRetrieverFactory.create(reader, phenotypes);
+        if(prioritizer != null && threads == 1) {
+            genesForPhenotypeRetriever.withPrioritizer(prioritizer);
+        }
+        genesForPhenotypeRetriever.withFilter(filter).run();
+        GeneDiseaseCollection geneDiseaseCollection = genesForPhenotypeRetriever.getGeneDiseaseCollection();
+
+        // Combined chunks are prioritized afterwards.
+        if(threads > 1) {
+            updatePrioritizer(geneDiseaseCollection);
+        }
+
+        // Return results.
+        return geneDiseaseCollection;
+    }
+
+    private void updatePrioritizer(GeneDiseaseCollection geneDiseaseCollection) {
+        if(prioritizer != null) {
+            for(GeneDiseaseCombination gdc : geneDiseaseCollection) {
+                prioritizer.update(gdc);
+            }
         }
     }
 }
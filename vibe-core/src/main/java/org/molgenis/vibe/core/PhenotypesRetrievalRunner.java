@@ -2,7 +2,7 @@ package org.molgenis.vibe.core;
 
 import org.molgenis.vibe.core.formats.Phenotype;
 import org.molgenis.vibe.core.formats.PhenotypeNetworkCollection;
-import org.molgenis.vibe.core.io.input.OntologyModelFilesReader;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
 import org.molgenis.vibe.core.ontology_processing.PhenotypesRetriever;
 import org.molgenis.vibe.core.ontology_processing.PhenotypesRetrieverFactory;
 
@@ -19,6 +19,7 @@ import static java.util.Objects.requireNonNull;
  */
 public class PhenotypesRetrievalRunner implements Callable<PhenotypeNetworkCollection> {
     private Path hpoOntologyFile;
+    private HpoGraph hpoGraph;
     private PhenotypesRetrieverFactory phenotypesRetrieverFactory;
     private Collection<Phenotype> phenotypes;
     private Integer maxDistance;
@@ -38,16 +39,29 @@ public class PhenotypesRetrievalRunner implements Callable<PhenotypeNetworkColle
         setMaxDistance(maxDistance);
     }
 
+    /**
+     * Uses an already loaded {@link HpoGraph} instead of reading the ontology file on every {@link #call()}. As the
+     * {@link HpoGraph} is immutable, it can be shared between multiple (concurrent) runners.
+     * @param hpoGraph a loaded {@link HpoGraph} containing the Human Phenotype Ontology
+     * @param phenotypesRetrieverFactory the algorithm to use for retrieving related {@link Phenotype}{@code s}
+     * @param phenotypes the input {@link Phenotype}{@code s}
+     * @param maxDistance the maximum distance used by the algorithm
+     */
+    public PhenotypesRetrievalRunner(HpoGraph hpoGraph, PhenotypesRetrieverFactory phenotypesRetrieverFactory, Collection<Phenotype> phenotypes, Integer maxDistance) {
+        this.hpoGraph = requireNonNull(hpoGraph);
+        this.phenotypesRetrieverFactory = requireNonNull(phenotypesRetrieverFactory);
+        this.phenotypes = requireNonNull(phenotypes);
+        setMaxDistance(maxDistance);
+    }
+
     public PhenotypeNetworkCollection call() {
-        try ( OntologyModelFilesReader ontologyReader = new OntologyModelFilesReader(hpoOntologyFile.toString()) ) {
-            // Retrieve from model.
-            PhenotypesRetriever hpoRetriever = phenotypesRetrieverFactory.create(
-                    ontologyReader.getModel(), phenotypes, maxDistance
-            );
-            hpoRetriever.run();
-
-            // Returns results.
-            return hpoRetriever.getPhenotypeNetworkCollection();
-        }
+        // Retrieve from graph.
+        PhenotypesRetriever hpoRetriever = phenotypesRetrieverFactory.create(
+                hpoGraph != null ? hpoGraph : HpoGraph.read(hpoOntologyFile), phenotypes, maxDistance
+        );
+        hpoRetriever.run();
+
+        // Returns results.
+        return hpoRetriever.getPhenotypeNetworkCollection();
     }
 }
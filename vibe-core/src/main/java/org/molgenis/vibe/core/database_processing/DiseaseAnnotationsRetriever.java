@@ -0,0 +1,73 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.io.input.GdaIndex;
+import org.molgenis.vibe.core.io.input.GdaIndexReader;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+import java.util.*;
+
+/**
+ * Retrieves per disease the phenotypes (HPO terms) it is annotated with, which are the phenotypes through which the
+ * disease is found by {@link GenesForPhenotypeRetriever}. Only diseases that have at least 1 gene-disease association
+ * are retrieved.
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#getHdt()}, or a {@link GdaIndexReader} (in which case
+ * the phenotypes per disease are read from the {@link GdaIndex}).
+ */
+public class DiseaseAnnotationsRetriever extends DisgenetRdfDataRetriever {
+    /**
+     * Per disease URI the URIs of its phenotypes.
+     */
+    private Map<String, Set<String>> diseasePhenotypes = new HashMap<>();
+
+    public DiseaseAnnotationsRetriever(ModelReader modelReader) {
+        super(modelReader);
+    }
+
+    /**
+     * @return per disease URI the URIs of the phenotypes it is annotated with
+     */
+    public Map<String, Set<String>> getDiseasePhenotypes() {
+        return diseasePhenotypes;
+    }
+
+    @Override
+    public void run() {
+        if(getModelReader() instanceof GdaIndexReader) {
+            retrieveFromGdaIndex(getModelReader().getGdaIndex());
+        } else {
+            retrieveFromHdt(new HdtGdaCollector(getModelReader().getHdt()));
+        }
+    }
+
+    private void retrieveFromGdaIndex(GdaIndex gdaIndex) {
+        for(int phenotype = 0; phenotype < gdaIndex.getPhenotypeCount(); phenotype++) {
+            String phenotypeUri = gdaIndex.getPhenotypeUri(phenotype);
+            for(int i = gdaIndex.getDiseasesStart(phenotype); i < gdaIndex.getDiseasesEnd(phenotype); i++) {
+                addAnnotation(gdaIndex.getDiseaseUri(gdaIndex.getDisease(i)), phenotypeUri);
+            }
+        }
+    }
+
+    private void retrieveFromHdt(HdtGdaCollector collector) {
+        // Per disease (as subject ID) whether it has any gene-disease associations.
+        Map<Long, Boolean> diseasesWithAssociations = new HashMap<>();
+
+        for(long phenotype : collector.retrievePhenotypes()) {
+            String phenotypeUri = collector.subjectString(phenotype);
+            Map<Long, Integer> diseases = new LinkedHashMap<>();
+            collector.addDiseases(phenotype, diseases);
+
+            for(long disease : diseases.keySet()) {
+                if(diseasesWithAssociations.computeIfAbsent(disease,
+                        k -> !collector.retrieveCombinations(k).isEmpty())) {
+                    addAnnotation(collector.subjectString(disease), phenotypeUri);
+                }
+            }
+        }
+    }
+
+    private void addAnnotation(String diseaseUri, String phenotypeUri) {
+        diseasePhenotypes.computeIfAbsent(diseaseUri, k -> new HashSet<>()).add(phenotypeUri);
+    }
+}
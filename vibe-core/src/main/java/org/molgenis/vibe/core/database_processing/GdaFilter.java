@@ -0,0 +1,180 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.formats.Source;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable filter restricting which results (rows) of the genes-for-phenotypes retrieval are used. Instead of
+ * removing gene-disease associations after all results are retrieved, the filter is applied within the query or scan
+ * itself (see {@link GenesForPhenotypeRetriever#withFilter(GdaFilter)}), so that results that would be thrown away are
+ * never retrieved. A result is accepted if:
+ * <ul>
+ *     <li>the DisGeNET score of the gene-disease association is at least the minimum score</li>
+ *     <li>the {@link Source.Level} of its {@link Source} is one of the allowed levels</li>
+ *     <li>it has no evidence, or its evidence is issued in or after the minimum evidence year</li>
+ * </ul>
+ * As filtering happens per result, the source counts of the accepted results are not affected by the filter.
+ */
+public final class GdaFilter {
+    /**
+     * A filter that accepts all results.
+     */
+    public static final GdaFilter NONE = new GdaFilter(0, EnumSet.allOf(Source.Level.class), 0);
+
+    private final double minScore;
+
+    private final Set<Source.Level> sourceLevels;
+
+    private final int minEvidenceYear;
+
+    private GdaFilter(double minScore, Set<Source.Level> sourceLevels, int minEvidenceYear) {
+        this.minScore = minScore;
+        this.sourceLevels = Collections.unmodifiableSet(EnumSet.copyOf(sourceLevels));
+        this.minEvidenceYear = minEvidenceYear;
+    }
+
+    /**
+     * @param minScore the minimum DisGeNET score (between 0 and 1, default: 0)
+     * @return a new {@link GdaFilter} identical to this one except for the minimum score
+     * @throws IllegalArgumentException if {@code minScore} is not between 0 and 1
+     */
+    public GdaFilter withMinScore(double minScore) {
+        if(!(minScore >= 0 && minScore <= 1)) {
+            throw new IllegalArgumentException("minScore must be between 0 and 1: " + minScore);
+        }
+        return new GdaFilter(minScore, sourceLevels, minEvidenceYear);
+    }
+
+    /**
+     * @param sourceLevels the allowed {@link Source.Level}{@code s} (default: all)
+     * @return a new {@link GdaFilter} identical to this one except for the allowed {@link Source.Level}{@code s}
+     * @throws IllegalArgumentException if {@code sourceLevels} is empty
+     */
+    public GdaFilter withSourceLevels(Collection<Source.Level> sourceLevels) {
+        if(requireNonNull(sourceLevels).isEmpty()) {
+            throw new IllegalArgumentException("sourceLevels must contain at least 1 level.");
+        }
+        return new GdaFilter(minScore, EnumSet.copyOf(sourceLevels), minEvidenceYear);
+    }
+
+    /**
+     * @param minEvidenceYear the minimum year evidence should be issued in (default: 0)
+     * @return a new {@link GdaFilter} identical to this one except for the minimum evidence year
+     * @throws IllegalArgumentException if {@code minEvidenceYear < 0}
+     */
+    public GdaFilter withMinEvidenceYear(int minEvidenceYear) {
+        if(minEvidenceYear < 0) {
+            throw new IllegalArgumentException("minEvidenceYear must be >= 0: " + minEvidenceYear);
+        }
+        return new GdaFilter(minScore, sourceLevels, minEvidenceYear);
+    }
+
+    public double getMinScore() {
+        return minScore;
+    }
+
+    /**
+     * @return an unmodifiable {@link Set} containing the allowed {@link Source.Level}{@code s}
+     */
+    public Set<Source.Level> getSourceLevels() {
+        return sourceLevels;
+    }
+
+    public int getMinEvidenceYear() {
+        return minEvidenceYear;
+    }
+
+    public boolean filtersScore() {
+        return minScore > 0;
+    }
+
+    public boolean filtersSourceLevels() {
+        return sourceLevels.size() < Source.Level.values().length;
+    }
+
+    public boolean filtersEvidenceYear() {
+        return minEvidenceYear > 0;
+    }
+
+    /**
+     * @return {@code true} if all results are accepted
+     */
+    public boolean isEmpty() {
+        return !filtersScore() && !filtersSourceLevels() && !filtersEvidenceYear();
+    }
+
+    public boolean acceptsScore(double score) {
+        return score >= minScore;
+    }
+
+    public boolean acceptsSource(Source source) {
+        return sourceLevels.contains(source.getLevel());
+    }
+
+    public boolean acceptsEvidenceYear(int evidenceYear) {
+        return evidenceYear >= minEvidenceYear;
+    }
+
+    /**
+     * @param sourceRegistry the {@link Source}{@code s} of a database
+     * @return the {@link Source}{@code s} within {@code sourceRegistry} that have an allowed {@link Source.Level}
+     */
+    public List<Source> retrieveAcceptedSources(SourceRegistry sourceRegistry) {
+        List<Source> sources = new ArrayList<>();
+        for(Source source : sourceRegistry.asList()) {
+            if(acceptsSource(source)) {
+                sources.add(source);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * @return a file name safe {@link String} identifying the filter (empty for {@link #NONE}), so that results
+     * retrieved with different filters can be stored separately (for example within a
+     * {@link org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache})
+     */
+    public String getId() {
+        StringBuilder id = new StringBuilder();
+        if(filtersScore()) {
+            id.append("-score").append(minScore);
+        }
+        if(filtersSourceLevels()) {
+            id.append("-levels");
+            for(Source.Level level : sourceLevels) {
+                id.append('_').append(level.getReadableString());
+            }
+        }
+        if(filtersEvidenceYear()) {
+            id.append("-year").append(minEvidenceYear);
+        }
+        return id.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GdaFilter gdaFilter = (GdaFilter) o;
+        return Double.compare(gdaFilter.minScore, minScore) == 0 &&
+                minEvidenceYear == gdaFilter.minEvidenceYear &&
+                sourceLevels.equals(gdaFilter.sourceLevels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minScore, sourceLevels, minEvidenceYear);
+    }
+
+    @Override
+    public String toString() {
+        return "GdaFilter{" +
+                "minScore=" + minScore +
+                ", sourceLevels=" + sourceLevels +
+                ", minEvidenceYear=" + minEvidenceYear +
+                '}';
+    }
+}
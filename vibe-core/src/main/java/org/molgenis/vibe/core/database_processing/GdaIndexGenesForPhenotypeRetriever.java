@@ -0,0 +1,178 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.io.input.GdaIndex;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRow;
+
+import java.util.*;
+
+/**
+ * Retrieves the same information as {@link GenesForPhenotypeRetriever}, but from a precomputed {@link GdaIndex}
+ * instead of querying the database. Only array scans are needed, and each distinct entity is decoded once.
+ * <br /><br />
+ * A {@link GdaFilter} (see {@link #withFilter(GdaFilter)}) is applied during the scan, before any entity is decoded. As
+ * the {@link GdaIndex} stores the number of results per evidence, the results of rejected evidence are subtracted from
+ * the source count, resulting in the same counts as the other {@link GenesForPhenotypeRetriever}{@code s}.
+ * <br /><br />
+ * When a {@link #withGeneLimit(int)} is used, the genes are selected on the gene IDs and scores stored in the
+ * {@link GdaIndex} first, after which only the gene-disease associations of the selected genes are decoded. When only
+ * the gene scores are used, no diseases, sources or evidence are decoded at all.
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#getGdaIndex()} (and supplies the
+ * {@link SourceRegistry} of that {@link GdaIndex}).
+ */
+public class GdaIndexGenesForPhenotypeRetriever extends GenesForPhenotypeRetriever {
+    private GdaIndex gdaIndex;
+
+    /**
+     * Whether a source (index = source ID of the {@link GdaIndex}) passes the {@link GdaFilter}.
+     */
+    private boolean[] acceptedSources;
+
+    public GdaIndexGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader, phenotypes);
+    }
+
+    @Override
+    protected boolean selectsGenesBeforeDecoding() {
+        return true;
+    }
+
+    @Override
+    protected void retrieveData() {
+        gdaIndex = getModelReader().getGdaIndex();
+
+        // Disease ID with the number of routes through which it was found.
+        Map<Integer, Integer> diseases = new LinkedHashMap<>();
+        for(Phenotype phenotype : getPhenotypes()) {
+            int phenotypeId = gdaIndex.getPhenotype(phenotype.getUri().toString());
+            if(phenotypeId < 0) {
+                continue;
+            }
+            for(int i = gdaIndex.getDiseasesStart(phenotypeId); i < gdaIndex.getDiseasesEnd(phenotypeId); i++) {
+                diseases.merge(gdaIndex.getDisease(i), gdaIndex.getDiseaseRoutes(i), Integer::sum);
+            }
+        }
+
+        // The source IDs of the index equal the ordinals of the SourceRegistry.
+        GdaFilter filter = getFilter();
+        acceptedSources = new boolean[getSources().size()];
+        for(int i = 0; i < acceptedSources.length; i++) {
+            acceptedSources[i] = filter.acceptsSource(getSources().get(i));
+        }
+
+        EntityRegistry entityRegistry = getEntityRegistry();
+        Map<Integer, Gene> selectedGenes = getGeneLimit() > 0 ? selectGenes(retrieveHighestGeneScores(diseases.keySet()),
+                this::decodeGene) : null;
+        Map<Integer, Gene> genes = new HashMap<>();
+        Map<Integer, PubmedEvidence> pubmedEvidence = new HashMap<>();
+
+        for(Map.Entry<Integer, Integer> diseaseEntry : diseases.entrySet()) {
+            int diseaseId = diseaseEntry.getKey();
+            int routes = diseaseEntry.getValue();
+            Disease disease = null;
+
+            for(int c = gdaIndex.getCombinationsStart(diseaseId); c < gdaIndex.getCombinationsEnd(diseaseId); c++) {
+                double score = gdaIndex.getScore(c);
+                if(!filter.acceptsScore(score)) {
+                    continue;
+                }
+                Gene gene = selectedGenes != null ? selectedGenes.get(gdaIndex.getGene(c)) :
+                        genes.computeIfAbsent(gdaIndex.getGene(c), this::decodeGene);
+                if(gene == null) {
+                    continue;
+                }
+                if(usesGeneScoresOnly()) {
+                    if(isAccepted(c)) {
+                        passOnGeneScore(gene, score);
+                    }
+                    continue;
+                }
+
+                for(int e = gdaIndex.getEntriesStart(c); e < gdaIndex.getEntriesEnd(c); e++) {
+                    int remainingCount = retrieveAcceptedCount(e);
+                    if(remainingCount == 0) {
+                        continue;
+                    }
+                    if(disease == null) {
+                        disease = entityRegistry.getOrCreateDisease(gdaIndex.getDiseaseUri(diseaseId),
+                                gdaIndex.getDiseaseName(diseaseId));
+                    }
+                    Source source = getSources().get(gdaIndex.getSource(e));
+
+                    // Results with evidence also increment the source count.
+                    remainingCount *= routes;
+                    for(int i = gdaIndex.getEvidenceStart(e); i < gdaIndex.getEvidenceEnd(e); i++) {
+                        int evidenceYear = gdaIndex.getEvidenceYear(gdaIndex.getEvidence(i));
+                        if(!filter.acceptsEvidenceYear(evidenceYear)) {
+                            continue;
+                        }
+                        passOn(new GdaRow(gene, disease, score, source, pubmedEvidence.computeIfAbsent(
+                                gdaIndex.getEvidence(i), k -> entityRegistry.getOrCreatePubmedEvidence(
+                                        gdaIndex.getEvidenceUri(k), evidenceYear))));
+                        remainingCount--;
+                    }
+                    for(int i = 0; i < remainingCount; i++) {
+                        passOn(new GdaRow(gene, disease, score, source, null));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param diseases the disease IDs
+     * @return the highest score per gene ID of the gene-disease associations of {@code diseases} that pass the
+     * {@link GdaFilter} (without decoding anything)
+     */
+    private Map<Integer, Double> retrieveHighestGeneScores(Set<Integer> diseases) {
+        Map<Integer, Double> highestGeneScores = new HashMap<>();
+        for(int diseaseId : diseases) {
+            for(int c = gdaIndex.getCombinationsStart(diseaseId); c < gdaIndex.getCombinationsEnd(diseaseId); c++) {
+                double score = gdaIndex.getScore(c);
+                if(getFilter().acceptsScore(score) && isAccepted(c)) {
+                    highestGeneScores.merge(gdaIndex.getGene(c), score, Math::max);
+                }
+            }
+        }
+        return highestGeneScores;
+    }
+
+    private Gene decodeGene(int geneId) {
+        return getEntityRegistry().getOrCreateGene(gdaIndex.getGeneUri(geneId), gdaIndex.getGeneSymbolUri(geneId));
+    }
+
+    /**
+     * @param combination a combination with a score that passes the {@link GdaFilter}
+     * @return {@code true} if any result of {@code combination} passes the {@link GdaFilter}
+     */
+    private boolean isAccepted(int combination) {
+        for(int e = gdaIndex.getEntriesStart(combination); e < gdaIndex.getEntriesEnd(combination); e++) {
+            if(retrieveAcceptedCount(e) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param entry an entry (a source of a combination)
+     * @return the number of results of {@code entry} (for a single route) that pass the {@link GdaFilter}: rejected
+     * evidence removes its results from the source count
+     */
+    private int retrieveAcceptedCount(int entry) {
+        if(!acceptedSources[gdaIndex.getSource(entry)]) {
+            return 0;
+        }
+        int count = gdaIndex.getSourceCount(entry);
+        if(getFilter().filtersEvidenceYear()) {
+            for(int i = gdaIndex.getEvidenceStart(entry); i < gdaIndex.getEvidenceEnd(entry); i++) {
+                if(!getFilter().acceptsEvidenceYear(gdaIndex.getEvidenceYear(gdaIndex.getEvidence(i)))) {
+                    count -= gdaIndex.getEvidenceCount(i);
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,317 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.database_processing.HdtGdaCollector.IdCombination;
+import org.molgenis.vibe.core.formats.Source;
+import org.molgenis.vibe.core.io.input.GdaIndex;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exports the results of the genes-for-phenotypes query for every phenotype within the database into a
+ * {@link GdaIndex} file. Only phenotypes (and diseases) that result in at least 1 gene-disease association are stored.
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#getHdt()}.
+ */
+public class GdaIndexWriter extends DisgenetRdfDataRetriever {
+    /**
+     * The file to write the index to (is overwritten if it already exists).
+     */
+    private Path indexFile;
+
+    private HdtGdaCollector collector;
+
+    // String tables.
+    private StringColumn phenotypeUris = new StringColumn();
+    private StringColumn diseaseUris = new StringColumn();
+    private StringColumn diseaseNames = new StringColumn();
+    private StringColumn geneUris = new StringColumn();
+    private StringColumn geneSymbolUris = new StringColumn();
+    private StringColumn sourceUris = new StringColumn();
+    private StringColumn sourceNames = new StringColumn();
+    private StringColumn sourceLevels = new StringColumn();
+    private StringColumn evidenceUris = new StringColumn();
+    private Column evidenceYears = new Column();
+
+    // Relations (CSR).
+    private Column phenotypeDiseaseOffsets = new Column();
+    private Column phenotypeDiseases = new Column();
+    private Column phenotypeDiseaseRoutes = new Column();
+    private Column diseaseCombinationOffsets = new Column();
+    private Column combinationGenes = new Column();
+    private Column combinationScores = new Column();
+    private Column combinationSourceOffsets = new Column();
+    private Column entrySources = new Column();
+    private Column entryCounts = new Column();
+    private Column entryEvidenceOffsets = new Column();
+    private Column entryEvidence = new Column();
+    private Column entryEvidenceCounts = new Column();
+    private Column phenotypeGeneOffsets = new Column();
+    private Column phenotypeGenes = new Column();
+    private Column phenotypeGeneScores = new Column();
+
+    // Index disease ID -> its gene IDs and scores (used for the ranked gene list per phenotype).
+    private List<int[]> diseaseGenes = new ArrayList<>();
+    private List<double[]> diseaseScores = new ArrayList<>();
+
+    // Dictionary ID -> index ID ({@code -1} for diseases without any gene-disease associations).
+    private Map<Long, Integer> diseaseIds = new HashMap<>();
+    private Map<Long, Integer> geneIds = new HashMap<>();
+    private Map<Long, Integer> sourceIds = new HashMap<>();
+    private Map<Long, Integer> evidenceIds = new HashMap<>();
+
+    public GdaIndexWriter(ModelReader modelReader, Path indexFile) {
+        super(modelReader);
+        this.indexFile = requireNonNull(indexFile);
+    }
+
+    @Override
+    public void run() throws IOException {
+        retrieveSources();
+        collector = new HdtGdaCollector(getModelReader().getHdt());
+
+        // Sources are stored in the fixed order of the SourceRegistry (index ID = ordinal), so that the same database
+        // always results in the same index.
+        for(Source source : getSources().asList()) {
+            sourceUris.add(source.getUri().toString());
+            sourceNames.add(source.getFullName());
+            sourceLevels.add(source.getLevel().getReadableString());
+        }
+
+        phenotypeDiseaseOffsets.addInt(0);
+        diseaseCombinationOffsets.addInt(0);
+        combinationSourceOffsets.addInt(0);
+        entryEvidenceOffsets.addInt(0);
+        phenotypeGeneOffsets.addInt(0);
+
+        for(long phenotype : collector.retrievePhenotypes()) {
+            Map<Long, Integer> diseases = new LinkedHashMap<>();
+            collector.addDiseases(phenotype, diseases);
+
+            // Highest score per gene ID.
+            Map<Integer, Double> geneScores = new HashMap<>();
+            int diseaseCount = 0;
+            for(Map.Entry<Long, Integer> diseaseEntry : diseases.entrySet()) {
+                int disease = retrieveDiseaseId(diseaseEntry.getKey());
+                if(disease >= 0) {
+                    phenotypeDiseases.addInt(disease);
+                    phenotypeDiseaseRoutes.addInt(diseaseEntry.getValue());
+                    diseaseCount++;
+
+                    int[] genes = diseaseGenes.get(disease);
+                    double[] scores = diseaseScores.get(disease);
+                    for(int i = 0; i < genes.length; i++) {
+                        geneScores.merge(genes[i], scores[i], Math::max);
+                    }
+                }
+            }
+
+            if(diseaseCount > 0) {
+                phenotypeUris.add(collector.subjectString(phenotype));
+                phenotypeDiseaseOffsets.addInt(phenotypeDiseases.size());
+                addRankedGenes(geneScores);
+            }
+        }
+
+        write();
+    }
+
+    /**
+     * Retrieves the index ID of a disease. If the disease was not processed yet, its gene-disease associations are
+     * added to the index.
+     * @param disease the disease (as subject ID)
+     * @return the index ID, or {@code -1} if the disease has no gene-disease associations
+     */
+    private int retrieveDiseaseId(long disease) {
+        Integer diseaseId = diseaseIds.get(disease);
+        if(diseaseId != null) {
+            return diseaseId;
+        }
+
+        Map<Long, IdCombination> combinations = collector.retrieveCombinations(disease);
+        if(combinations.isEmpty()) {
+            diseaseIds.put(disease, -1);
+            return -1;
+        }
+
+        diseaseId = diseaseUris.size();
+        diseaseIds.put(disease, diseaseId);
+        diseaseUris.add(collector.subjectString(disease));
+        diseaseNames.add(collector.retrieveDiseaseName(disease));
+
+        int[] genes = new int[combinations.size()];
+        double[] scores = new double[combinations.size()];
+        int c = 0;
+        for(Map.Entry<Long, IdCombination> combinationEntry : combinations.entrySet()) {
+            IdCombination combination = combinationEntry.getValue();
+            genes[c] = retrieveGeneId(combinationEntry.getKey());
+            scores[c] = collector.retrieveScore(combination.score);
+            combinationGenes.addInt(genes[c]);
+            combinationScores.addDouble(scores[c]);
+            c++;
+
+            for(Map.Entry<Long, Integer> sourceEntry : combination.sourceCounts.entrySet()) {
+                entrySources.addInt(retrieveSourceId(sourceEntry.getKey()));
+                entryCounts.addInt(sourceEntry.getValue());
+
+                Map<Long, Integer> evidence = combination.sourceEvidence.getOrDefault(sourceEntry.getKey(),
+                        Collections.emptyMap());
+                for(Map.Entry<Long, Integer> evidenceEntry : evidence.entrySet()) {
+                    entryEvidence.addInt(retrieveEvidenceId(evidenceEntry.getKey()));
+                    entryEvidenceCounts.addInt(evidenceEntry.getValue());
+                }
+                entryEvidenceOffsets.addInt(entryEvidence.size());
+            }
+            combinationSourceOffsets.addInt(entrySources.size());
+        }
+        diseaseCombinationOffsets.addInt(combinationGenes.size());
+        diseaseGenes.add(genes);
+        diseaseScores.add(scores);
+
+        return diseaseId;
+    }
+
+    /**
+     * Adds the ranked gene list of a phenotype: its genes ordered from highest to lowest score (genes with an identical
+     * score are ordered on their ID).
+     * @param geneScores the highest score per gene ID
+     */
+    private void addRankedGenes(Map<Integer, Double> geneScores) {
+        List<Map.Entry<Integer, Double>> rankedGenes = new ArrayList<>(geneScores.entrySet());
+        rankedGenes.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        for(Map.Entry<Integer, Double> rankedGene : rankedGenes) {
+            phenotypeGenes.addInt(rankedGene.getKey());
+            phenotypeGeneScores.addDouble(rankedGene.getValue());
+        }
+        phenotypeGeneOffsets.addInt(phenotypeGenes.size());
+    }
+
+    private int retrieveGeneId(long gene) {
+        return geneIds.computeIfAbsent(gene, k -> {
+            geneUris.add(collector.subjectString(k));
+            geneSymbolUris.add(collector.retrieveGeneSymbolUri(k));
+            return geneUris.size() - 1;
+        });
+    }
+
+    /**
+     * If this causes an error, this might indicate a corrupt database (as retrieveSources() should retrieve all
+     * possible sources available).
+     */
+    private int retrieveSourceId(long source) {
+        return sourceIds.computeIfAbsent(source, k -> {
+            int ordinal = getSources().getOrdinal(URI.create(collector.objectString(k)));
+            if(ordinal < 0) {
+                throw new IllegalStateException("Unknown source: " + collector.objectString(k));
+            }
+            return ordinal;
+        });
+    }
+
+    private int retrieveEvidenceId(long evidence) {
+        return evidenceIds.computeIfAbsent(evidence, k -> {
+            evidenceUris.add(collector.subjectString(k));
+            evidenceYears.addInt(collector.retrieveEvidenceYear(k));
+            return evidenceUris.size() - 1;
+        });
+    }
+
+    /**
+     * Writes the collected columns in the order described by {@link GdaIndex}.
+     * @throws IOException if the index file could not be written
+     */
+    private void write() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(GdaIndex.MAGIC);
+            out.writeInt(GdaIndex.VERSION);
+
+            for(StringColumn column : new StringColumn[]{phenotypeUris, diseaseUris, diseaseNames, geneUris,
+                    geneSymbolUris, sourceUris, sourceNames, sourceLevels, evidenceUris}) {
+                column.writeTo(out);
+            }
+            for(Column column : new Column[]{evidenceYears,
+                    phenotypeDiseaseOffsets, phenotypeDiseases, phenotypeDiseaseRoutes,
+                    diseaseCombinationOffsets, combinationGenes, combinationScores,
+                    combinationSourceOffsets, entrySources, entryCounts,
+                    entryEvidenceOffsets, entryEvidence, entryEvidenceCounts,
+                    phenotypeGeneOffsets, phenotypeGenes, phenotypeGeneScores}) {
+                column.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * A growing column of numbers.
+     */
+    private static class Column {
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private DataOutputStream data = new DataOutputStream(bytes);
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        void addInt(int value) {
+            try {
+                data.writeInt(value);
+            } catch (IOException e) {
+                // A ByteArrayOutputStream does not throw IOExceptions.
+                throw new IllegalStateException(e);
+            }
+            size++;
+        }
+
+        void addDouble(double value) {
+            try {
+                data.writeDouble(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            size++;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * A growing column of strings.
+     */
+    private static class StringColumn {
+        private Column offsets = new Column();
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        StringColumn() {
+            offsets.addInt(0);
+        }
+
+        int size() {
+            return offsets.size() - 1;
+        }
+
+        void add(String value) {
+            byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+            bytes.write(valueBytes, 0, valueBytes.length);
+            offsets.addInt(bytes.size());
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            offsets.writeTo(out);
+            bytes.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+import java.net.URI;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable set containing a {@link GeneDiseaseCombinationType} and all its (indirect) subclasses within a
+ * database. A gene-disease association matches the {@link GeneDiseaseCombinationType} if one of its types is present
+ * within this set, which equals {@code ?gda rdf:type/rdfs:subClassOf* <type>} without evaluating the arbitrary-length
+ * property path for every gene-disease association. As the type hierarchy does not change for a database, it only needs
+ * to be resolved once per database (see {@link ModelReader#getGdaTypeClosure(GeneDiseaseCombinationType)}).
+ */
+public final class GdaTypeClosure {
+    private final GeneDiseaseCombinationType type;
+
+    /**
+     * The {@link URI}{@code s} of the type and its subclasses (ordered).
+     */
+    private final Set<URI> typeUris;
+
+    /**
+     * @param type the {@link GeneDiseaseCombinationType} that is the root of the closure
+     * @param subClassUris the (indirect) subclasses of {@code type} (if {@code type} itself is missing, it is added)
+     */
+    public GdaTypeClosure(GeneDiseaseCombinationType type, Collection<URI> subClassUris) {
+        this.type = requireNonNull(type);
+        Set<URI> uris = new TreeSet<>(subClassUris);
+        uris.add(type.getUri());
+        this.typeUris = Collections.unmodifiableSet(uris);
+    }
+
+    /**
+     * Resolves the type hierarchy from a {@link Model} containing the DisGeNET database.
+     * @param model the {@link Model} to query
+     * @param type the {@link GeneDiseaseCombinationType} to resolve the subclasses for
+     * @return a new {@link GdaTypeClosure}
+     */
+    public static GdaTypeClosure retrieve(Model model, GeneDiseaseCombinationType type) {
+        List<URI> subClassUris = new ArrayList<>();
+        QueryRunner query = new QueryRunner(model, QueryStringGenerator.getGdaTypeClosure(type));
+
+        while(query.hasNext()) {
+            RDFNode subClass = query.next().get("gdaType");
+            if(subClass.isURIResource()) {
+                subClassUris.add(URI.create(subClass.asResource().getURI()));
+            }
+        }
+        query.close();
+
+        return new GdaTypeClosure(type, subClassUris);
+    }
+
+    public GeneDiseaseCombinationType getType() {
+        return type;
+    }
+
+    /**
+     * @return an unmodifiable (ordered) {@link Set} containing the {@link URI}{@code s} of the type and its subclasses
+     */
+    public Set<URI> getTypeUris() {
+        return typeUris;
+    }
+
+    public boolean contains(URI typeUri) {
+        return typeUris.contains(typeUri);
+    }
+
+    @Override
+    public String toString() {
+        return "GdaTypeClosure{" +
+                "type=" + type +
+                ", typeUris=" + typeUris +
+                '}';
+    }
+}
@@ -6,9 +6,15 @@ import org.apache.jena.query.QuerySolution;
 import org.molgenis.vibe.core.formats.*;
 import org.molgenis.vibe.core.io.input.ModelReader;
 import org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRow;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRowConsumer;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneDiseaseCollectionBuilder;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneScoreConsumer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
 
-import java.net.URI;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Retrieves all required information for further processing regarding the genes belonging to a given phenotype.
@@ -20,12 +26,65 @@ public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
     private Set<Phenotype> phenotypes;
 
     /**
-     * The final output to be retrieved for further usage after querying.
+     * The {@link GeneDiseaseCombinationType} (or one of its subclasses) the gene-disease associations should have.
      */
-    private GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
+    private GeneDiseaseCombinationType gdaType = GeneDiseaseCombinationType.ROOT;
 
+    /**
+     * Whether the subclasses of the {@link #gdaType} are resolved beforehand (see {@link GdaTypeClosure}) instead of
+     * evaluated for each gene-disease association.
+     */
+    private boolean resolveGdaTypes = false;
+
+    /**
+     * The {@link GdaFilter} results should pass (applied within the query itself).
+     */
+    private GdaFilter filter = GdaFilter.NONE;
+
+    /**
+     * Combines the rows into the final output to be retrieved for further usage after querying.
+     */
+    private GeneDiseaseCollectionBuilder geneDiseaseCollectionBuilder = new GeneDiseaseCollectionBuilder();
+
+    /**
+     * The stage(s) each row is passed to.
+     */
+    private GdaRowConsumer rowConsumer = geneDiseaseCollectionBuilder;
+
+    /**
+     * Is given the gene and score of each row instead of the {@link #rowConsumer} ({@code null} if not used).
+     */
+    private GeneScoreConsumer geneScoreConsumer;
+
+    /**
+     * The maximum number of {@link Gene}{@code s} of which the rows are passed on ({@code 0} for all).
+     */
+    private int geneLimit = 0;
+
+    /**
+     * During the first pass of a {@link #geneLimit} (see {@link #run()}) the highest score and symbol per gene URI,
+     * otherwise {@code null}.
+     */
+    private Map<String, Double> highestGeneScores;
+    private Map<String, String> geneSymbolUris;
+
+    /**
+     * During the second pass of a {@link #geneLimit} the {@link Gene}{@code s} within the limit (gene URI -> gene),
+     * otherwise {@code null}.
+     */
+    private Map<String, Gene> selectedGenes;
+
+    /**
+     * The canonical entities of the database (see {@link ModelReader#getEntityRegistry()}).
+     */
+    private EntityRegistry entityRegistry;
+
+    /**
+     * @return the retrieved data (empty when the rows are passed to a different {@link GdaRowConsumer}, see
+     * {@link #withRowConsumer(GdaRowConsumer)})
+     */
     public GeneDiseaseCollection getGeneDiseaseCollection() {
-        return geneDiseaseCollection;
+        return geneDiseaseCollectionBuilder.getGeneDiseaseCollection();
     }
 
     public GenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
@@ -33,76 +92,289 @@ public class GenesForPhenotypeRetriever extends DisgenetRdfDataRetriever {
         this.phenotypes = requireNonNull(phenotypes);
     }
 
+    /**
+     * @param gdaType the {@link GeneDiseaseCombinationType} (or one of its subclasses) the gene-disease associations
+     *                should have (default: {@link GeneDiseaseCombinationType#ROOT})
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withGdaType(GeneDiseaseCombinationType gdaType) {
+        this.gdaType = requireNonNull(gdaType);
+        return this;
+    }
+
+    /**
+     * Matches the gene-disease associations against the {@link GdaTypeClosure} of the database (see
+     * {@link ModelReader#getGdaTypeClosure(GeneDiseaseCombinationType)}) instead of evaluating the type hierarchy for
+     * each gene-disease association through a property path. Produces the same results.
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withResolvedGdaTypes() {
+        this.resolveGdaTypes = true;
+        return this;
+    }
+
+    /**
+     * Only retrieves the results that pass {@code filter}. The filter is applied within the query (or scan) itself, so
+     * that rejected results are never retrieved.
+     * @param filter the {@link GdaFilter} results should pass (default: {@link GdaFilter#NONE})
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withFilter(GdaFilter filter) {
+        this.filter = requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Passes each retrieved row to {@code rowConsumer} as soon as it is retrieved instead of storing it in the
+     * {@link GeneDiseaseCollection} (see {@link #getGeneDiseaseCollection()}). Use a
+     * {@link GeneDiseaseCollectionBuilder} as (one of the) stage(s) if the {@link GeneDiseaseCollection} is still
+     * needed.
+     * @param rowConsumer the stage(s) to pass the rows to
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withRowConsumer(GdaRowConsumer rowConsumer) {
+        this.rowConsumer = requireNonNull(rowConsumer);
+        return this;
+    }
+
+    /**
+     * Only passes on the {@link Gene} and score of each row to {@code geneScoreConsumer} (instead of the rows to the
+     * {@link GdaRowConsumer}). Retrievers that do not decode the rows directly (such as
+     * {@link HdtGenesForPhenotypeRetriever}) then do not create the diseases, sources and evidence at all.
+     * @param geneScoreConsumer the stage to pass the {@link Gene}{@code s} and scores to
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withGeneScoreConsumer(GeneScoreConsumer geneScoreConsumer) {
+        this.geneScoreConsumer = requireNonNull(geneScoreConsumer);
+        return this;
+    }
+
+    /**
+     * Only passes on the rows of the {@code geneLimit} {@link Gene}{@code s} with the highest score (see
+     * {@link TopGenesPrioritizer}). By default the query is run twice: first only collecting the highest score per
+     * gene, then only decoding and passing on the rows of the {@link Gene}{@code s} within the limit (no rows are held
+     * back). Retrievers that do not decode the rows directly (such as {@link HdtGenesForPhenotypeRetriever}) select
+     * the {@link Gene}{@code s} before decoding instead (see {@link #selectsGenesBeforeDecoding()}).
+     * @param geneLimit the maximum number of {@link Gene}{@code s} to pass the rows on for
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code geneLimit < 1}
+     */
+    public GenesForPhenotypeRetriever withGeneLimit(int geneLimit) {
+        if(geneLimit < 1) {
+            throw new IllegalArgumentException("geneLimit must be >= 1: " + geneLimit);
+        }
+        this.geneLimit = geneLimit;
+        return this;
+    }
+
+    /**
+     * Gives each {@link GeneDiseaseCombination} of the {@link GeneDiseaseCollection} to {@code prioritizer} whenever it
+     * is created or updated (see {@link GeneDiseaseCollectionBuilder#withPrioritizer(IncrementalGenePrioritizer)}), so
+     * that the {@link Gene} priority is available directly after {@link #run()}. Not
+     * used if the rows are passed to a different {@link GdaRowConsumer} (see {@link #withRowConsumer(GdaRowConsumer)}).
+     * @param prioritizer the {@link IncrementalGenePrioritizer} to use
+     * @return itself for fluent programming
+     */
+    public GenesForPhenotypeRetriever withPrioritizer(IncrementalGenePrioritizer prioritizer) {
+        geneDiseaseCollectionBuilder.withPrioritizer(prioritizer);
+        return this;
+    }
+
     @Override
     public void run() {
         retrieveSources();
+        entityRegistry = getModelReader().getEntityRegistry();
+        if(geneLimit == 0 || selectsGenesBeforeDecoding()) {
+            retrieveData();
+            return;
+        }
+
+        // First pass: only the highest score per gene.
+        highestGeneScores = new HashMap<>();
+        geneSymbolUris = new HashMap<>();
+        retrieveData();
+        Map<String, String> symbolUris = geneSymbolUris;
+        selectedGenes = selectGenes(highestGeneScores,
+                geneUri -> entityRegistry.getOrCreateGene(geneUri, symbolUris.get(geneUri)));
+        highestGeneScores = null;
+        geneSymbolUris = null;
+
+        // Second pass: only the rows of the genes within the limit.
         retrieveData();
+        selectedGenes = null;
     }
 
-    private void retrieveData() {
-        // Variables for storage of already found data (reduces creating identical objects).
-        Map<Gene, Gene> genes = new HashMap<>();
-        Map<Disease, Disease> diseases = new HashMap<>();
-        Map<PubmedEvidence,PubmedEvidence> foundPubmedEvidence = new HashMap<>();
+    /**
+     * @return {@code true} if {@link #retrieveData()} applies the {@link #withGeneLimit(int)} itself before decoding
+     * any rows (see {@link #selectGenes(Map, Function)}), {@code false} if {@link #run()} should do a separate first
+     * pass to select the {@link Gene}{@code s} (default)
+     */
+    protected boolean selectsGenesBeforeDecoding() {
+        return false;
+    }
+
+    /**
+     * Selects the {@link Gene}{@code s} to pass on from the highest score per gene. When a {@link #withGeneLimit(int)}
+     * is used, only the genes that can be within the limit are decoded: those with a score above the score at the
+     * limit and those tied with it (which are then ordered on their ID, see {@link TopGenesPrioritizer}).
+     * @param highestGeneScores the highest score per gene (as retriever-specific key)
+     * @param decoder creates the {@link Gene} of a key
+     * @param <K> the key of a gene
+     * @return the decoded genes to pass on (key -> gene)
+     */
+    protected <K> Map<K, Gene> selectGenes(Map<K, Double> highestGeneScores, Function<K, Gene> decoder) {
+        double minScore = Double.NEGATIVE_INFINITY;
+        if(geneLimit > 0 && highestGeneScores.size() > geneLimit) {
+            double[] orderedScores = highestGeneScores.values().stream().mapToDouble(Double::doubleValue).sorted()
+                    .toArray();
+            minScore = orderedScores[orderedScores.length - geneLimit];
+        }
+
+        Map<K, Gene> genes = new HashMap<>();
+        Map<Gene, Double> geneScores = new HashMap<>();
+        for(Map.Entry<K, Double> geneEntry : highestGeneScores.entrySet()) {
+            if(geneEntry.getValue() >= minScore) {
+                Gene gene = decoder.apply(geneEntry.getKey());
+                genes.put(geneEntry.getKey(), gene);
+                geneScores.put(gene, geneEntry.getValue());
+            }
+        }
 
+        // Only genes tied at the limit can exceed it.
+        if(geneLimit > 0 && genes.size() > geneLimit) {
+            Set<Gene> topGenes = new HashSet<>(new TopGenesPrioritizer(geneLimit).sort(geneScores));
+            genes.values().removeIf(gene -> !topGenes.contains(gene));
+        }
+        return genes;
+    }
+
+    /**
+     * Requires {@link #run()} to be started first!
+     * @return the {@link EntityRegistry} to retrieve the entities from
+     */
+    protected EntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    protected Set<Phenotype> getPhenotypes() {
+        return phenotypes;
+    }
+
+    protected GeneDiseaseCombinationType getGdaType() {
+        return gdaType;
+    }
+
+    protected GdaFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return the maximum number of {@link Gene}{@code s} of which the rows should be passed on ({@code 0} for all)
+     * @see #withGeneLimit(int)
+     */
+    protected int getGeneLimit() {
+        return geneLimit;
+    }
+
+    /**
+     * @return {@code true} if only the {@link Gene} and score of the rows are used (see
+     * {@link #withGeneScoreConsumer(GeneScoreConsumer)})
+     */
+    protected boolean usesGeneScoresOnly() {
+        return geneScoreConsumer != null;
+    }
+
+    /**
+     * Retrieves the data belonging to the {@link Phenotype}{@code s} and passes each row to the {@link GdaRowConsumer}
+     * through {@link #processResult(String, String, String, String, double, String, String, String)}.
+     */
+    protected void retrieveData() {
         // Prepares query.
-        QueryRunner query = new QueryRunner(getModelReader().getModel(),
-                QueryStringGenerator.getGenesForPhenotypes(phenotypes));
+        QueryRunner query = new QueryRunner(getModelReader().getModel(), resolveGdaTypes ?
+                QueryStringGenerator.getGenesForPhenotypes(phenotypes, getModelReader().getGdaTypeClosure(gdaType),
+                        filter, getSources()) :
+                QueryStringGenerator.getGenesForPhenotypes(phenotypes, gdaType, filter, getSources()));
 
         // Processes query.
         while(query.hasNext()) {
             QuerySolution result = query.next();
 
-            // Store new disease, or retrieves existing disease instance if already exists.
-            Disease disease = processEntityQueryOutput(
-                new Disease(URI.create(result.get("disease").asResource().getURI()),
-                        result.get("diseaseName").asLiteral().getString()),
-                diseases
-            );
-
-            // Store new gene, or retrieves existing disease instance if already exists.
-            Gene gene = processEntityQueryOutput(
-                new Gene(URI.create(result.get("gene").asResource().getURI()),
-                        new GeneSymbol(URI.create(result.get("geneSymbol").asResource().getURI()))),
-                genes
-            );
-
-            // Retrieves score belonging to the gene-disease combination.
-            double score = result.get("gdaScoreNumber").asLiteral().getDouble();
-
-            // The gene-disease combination belonging to the single query result.
-            GeneDiseaseCombination comparisonGdc = new GeneDiseaseCombination(gene, disease, score);
-
-            // Retrieves it from the collection (if it already exists).
-            GeneDiseaseCombination gdc = geneDiseaseCollection.get(comparisonGdc);
-
-            // If the gene-disease combination is not present yet, uses the comparison gdc and also adds it to the collection.
-            if(gdc == null) {
-                gdc = comparisonGdc;
-                geneDiseaseCollection.add(gdc);
-            }
-
-            // Retrieves source belonging to match. If this causes an error, this might indicate a corrupt database (as
-            // retrieveSources() should retrieve all possible sources available).
-            Source source = getSources().get(URI.create(result.get("gdaSource").asResource().getURI()));
-
-            // Adds source to gene-disease combination (with evidence if available).
-            if(result.get("evidence") != null) {
-                PubmedEvidence pubmedEvidence = processEntityQueryOutput(
-                    new PubmedEvidence(URI.create(result.get("evidence").asResource().getURI()),
-                        Integer.parseInt(result.get("evidenceYear").asLiteral().getString())),
-                    foundPubmedEvidence
-                );
-                gdc.add(source, pubmedEvidence);
-            } else {
-                gdc.add(source);
-            }
+            processResult(result.get("disease").asResource().getURI(),
+                    result.get("diseaseName").asLiteral().getString(),
+                    result.get("gene").asResource().getURI(),
+                    result.get("geneSymbol").asResource().getURI(),
+                    result.get("gdaScoreNumber").asLiteral().getDouble(),
+                    result.get("gdaSource").asResource().getURI(),
+                    result.get("evidence") == null ? null : result.get("evidence").asResource().getURI(),
+                    result.get("evidence") == null ? null : result.get("evidenceYear").asLiteral().getString());
         }
 
         query.close();
     }
 
-    private <T extends Entity> T processEntityQueryOutput(T entity, Map<T, T> foundEntities) {
-        return foundEntities.computeIfAbsent(entity, k -> k);
+    /**
+     * Processes a single result (a gene-disease association with a single source and optionally a single evidence).
+     * The entities are retrieved from the {@link EntityRegistry}, so each distinct entity is only created once. During
+     * the first pass of a {@link #withGeneLimit(int)} only the score is stored, during the second pass results of
+     * {@link Gene}{@code s} outside the limit are skipped before creating any entity. When only the gene scores are
+     * used, no diseases or evidence are created.
+     * @param diseaseUri the disease
+     * @param diseaseName the name of the disease
+     * @param geneUri the gene
+     * @param geneSymbolUri the symbol of the gene
+     * @param score the DisGeNET score of the gene-disease association
+     * @param sourceUri the source of the gene-disease association
+     * @param evidenceUri the evidence for the gene-disease association ({@code null} if not available)
+     * @param evidenceYear the year the evidence was issued ({@code null} if no evidence is available)
+     */
+    protected void processResult(String diseaseUri, String diseaseName, String geneUri, String geneSymbolUri,
+                                 double score, String sourceUri, String evidenceUri, String evidenceYear) {
+        if(highestGeneScores != null) {
+            highestGeneScores.merge(geneUri, score, Math::max);
+            geneSymbolUris.putIfAbsent(geneUri, geneSymbolUri);
+            return;
+        }
+        Gene gene = selectedGenes != null ? selectedGenes.get(geneUri) :
+                entityRegistry.getOrCreateGene(geneUri, geneSymbolUri);
+        if(gene == null) {
+            return;
+        }
+        if(usesGeneScoresOnly()) {
+            passOnGeneScore(gene, score);
+            return;
+        }
+
+        // Retrieves source belonging to match. If this causes an error, this might indicate a corrupt database (as
+        // retrieveSources() should retrieve all possible sources available).
+        Source source = getSources().get(sourceUri);
+
+        passOn(new GdaRow(gene, entityRegistry.getOrCreateDisease(diseaseUri, diseaseName), score, source,
+                evidenceUri == null ? null :
+                entityRegistry.getOrCreatePubmedEvidence(evidenceUri, Integer.parseInt(evidenceYear))));
+    }
+
+    /**
+     * Passes a single row to the {@link GdaRowConsumer} (by default storing it in the {@link GeneDiseaseCollection}),
+     * or only its {@link Gene} and score to the {@link GeneScoreConsumer}. Retrievers overriding
+     * {@link #retrieveData()} without {@link #processResult(String, String, String, String, double, String, String, String)}
+     * should apply the {@link #withGeneLimit(int)} themselves (see {@link #selectsGenesBeforeDecoding()}).
+     * @param row the row to pass on
+     */
+    protected void passOn(GdaRow row) {
+        if(geneScoreConsumer != null) {
+            geneScoreConsumer.accept(row.getGene(), row.getScore());
+        } else {
+            rowConsumer.accept(row);
+        }
+    }
+
+    /**
+     * Passes only the {@link Gene} and score of a gene-disease association on, for retrievers that already applied the
+     * {@link #withGeneLimit(int)} themselves. Requires {@link #usesGeneScoresOnly()}.
+     * @param gene the gene of the gene-disease association
+     * @param score the DisGeNET score of the gene-disease association
+     */
+    protected void passOnGeneScore(Gene gene, double score) {
+        geneScoreConsumer.accept(gene, score);
     }
 }
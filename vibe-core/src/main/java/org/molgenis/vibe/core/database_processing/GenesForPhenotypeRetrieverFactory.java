@@ -0,0 +1,77 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.formats.EnumTypeDefiner;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+import java.util.Set;
+
+/**
+ * The available implementations for retrieving the genes belonging to phenotypes. All of them produce an identical
+ * {@link org.molgenis.vibe.core.formats.GeneDiseaseCollection}.
+ */
+public enum GenesForPhenotypeRetrieverFactory implements EnumTypeDefiner {
+    SPARQL("sparql", "Retrieving data through a SPARQL query.") {
+        @Override
+        public GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes) {
+            return new GenesForPhenotypeRetriever(modelReader, phenotypes);
+        }
+    },
+    SPARQL_TYPE_SET("type-set", "Retrieving data through a SPARQL query matching a precomputed set of gene-disease association types.") {
+        @Override
+        public GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes) {
+            return new GenesForPhenotypeRetriever(modelReader, phenotypes).withResolvedGdaTypes();
+        }
+    },
+    /**
+     * Requires a {@link ModelReader} that supports {@link ModelReader#createView()}.
+     */
+    SPARQL_ROUTES("routes", "Retrieving data through simultaneous SPARQL queries per phenotype-disease route.") {
+        @Override
+        public GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes) {
+            return new RouteParallelGenesForPhenotypeRetriever(modelReader, phenotypes);
+        }
+    },
+    /**
+     * Requires a {@link ModelReader} that supports {@link ModelReader#getHdt()}.
+     */
+    HDT("hdt", "Retrieving data through HDT triple pattern lookups.") {
+        @Override
+        public GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes) {
+            return new HdtGenesForPhenotypeRetriever(modelReader, phenotypes);
+        }
+    },
+    /**
+     * Requires a {@link ModelReader} that supports {@link ModelReader#getGdaIndex()}.
+     */
+    GDA_INDEX("gda-index", "Retrieving data from a precomputed gene-disease association index.") {
+        @Override
+        public GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes) {
+            return new GdaIndexGenesForPhenotypeRetriever(modelReader, phenotypes);
+        }
+    };
+
+    private String id;
+
+    private String description;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    GenesForPhenotypeRetrieverFactory(String id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    public abstract GenesForPhenotypeRetriever create(ModelReader modelReader, Set<Phenotype> phenotypes);
+
+    public static GenesForPhenotypeRetrieverFactory retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, GenesForPhenotypeRetrieverFactory.class);
+    }
+}
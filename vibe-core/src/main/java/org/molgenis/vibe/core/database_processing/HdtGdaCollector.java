@@ -0,0 +1,588 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
+import org.molgenis.vibe.core.formats.Source;
+import org.rdfhdt.hdt.dictionary.Dictionary;
+import org.rdfhdt.hdt.enums.TripleComponentRole;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.triples.IteratorTripleID;
+import org.rdfhdt.hdt.triples.TripleID;
+import org.rdfhdt.hdt.triples.Triples;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Performs the joins of the genes-for-phenotypes query (see
+ * {@link org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator#getGenesForPhenotypes(Set)})
+ * directly through triple pattern lookups on a {@link HDT} using dictionary IDs. The query is split into 2 parts:
+ * <ul>
+ *     <li>phenotype to disease (through the 3 UNION routes), see {@link #addDiseases(String, Map)}</li>
+ *     <li>disease to gene-disease associations, see {@link #retrieveCombinations(long)}</li>
+ * </ul>
+ * Results are counted with the same multiplicity as the SPARQL query (a disease reachable through multiple routes or
+ * a gene-disease association with multiple matching types results in multiple results), so that the source counts
+ * are identical.
+ * <br /><br />
+ * A {@link GdaFilter} is applied while scanning a gene-disease association (identical to the FILTER within the
+ * SPARQL query), so that rejected results are never collected.
+ * <br /><br />
+ * Within a {@link HDT} dictionary, terms that occur both as subject and object (the shared section) have the same ID
+ * in both roles. A term that only occurs as object can therefore never be used as subject in a next lookup.
+ */
+class HdtGdaCollector {
+    static final String HPO_URI_PREFIX = "http://purl.obolibrary.org/obo/HP_";
+
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final String RDFS_SUB_CLASS_OF = "http://www.w3.org/2000/01/rdf-schema#subClassOf";
+    private static final String SKOS_EXACT_MATCH = "http://www.w3.org/2004/02/skos/core#exactMatch";
+    private static final String DCTERMS_TITLE = "http://purl.org/dc/terms/title";
+    private static final String DCTERMS_ISSUED = "http://purl.org/dc/terms/issued";
+    private static final String SIO = "http://semanticscience.org/resource/";
+    private static final String SIO_IS_RELATED_TO = SIO + "SIO_000001";
+    private static final String SIO_IS_REPRESENTED_BY = SIO + "SIO_000205";
+    private static final String SIO_IS_REFERRED_TO_BY = SIO + "SIO_000212";
+    private static final String SIO_HAS_MEASUREMENT_VALUE = SIO + "SIO_000216";
+    private static final String SIO_HAS_SOURCE = SIO + "SIO_000253";
+    private static final String SIO_REFERS_TO = SIO + "SIO_000628";
+    private static final String SIO_HAS_EVIDENCE = SIO + "SIO_000772";
+
+    private Dictionary dictionary;
+    private Triples triples;
+
+    /**
+     * The number of terms that occur both as subject and as object. These terms have the same ID in both roles.
+     */
+    private long nShared;
+
+    /**
+     * Whether all predicates/types within required patterns are present (if not, no results can be found).
+     */
+    private boolean complete;
+
+    // Predicates used within required patterns.
+    private long rdfType;
+    private long dctermsTitle;
+    private long sioIsRepresentedBy;
+    private long sioIsReferredToBy;
+    private long sioHasMeasurementValue;
+    private long sioHasSource;
+    private long sioRefersTo;
+
+    // Predicates used within optional patterns or UNION routes ({@code <= 0} if not present).
+    private long rdfsSubClassOf;
+    private long skosExactMatch;
+    private long sioIsRelatedTo;
+    private long sioHasEvidence;
+    private long dctermsIssued;
+
+    /**
+     * The gene-disease association types that are accepted (rdf:type/rdfs:subClassOf*) as object IDs.
+     */
+    private Set<Long> gdaTypes;
+
+    /**
+     * The results that are accepted.
+     */
+    private GdaFilter filter = GdaFilter.NONE;
+
+    /**
+     * The sources (object IDs) with an accepted level ({@code null} if all sources are accepted).
+     */
+    private Set<Long> acceptedSources;
+
+    /**
+     * Per score (object ID) whether it is accepted by the {@link #filter}.
+     */
+    private Map<Long, Boolean> acceptedScores = new HashMap<>();
+
+    /**
+     * Per evidence release year (object ID) whether it is accepted by the {@link #filter}.
+     */
+    private Map<Long, Boolean> acceptedEvidenceYears = new HashMap<>();
+
+    /**
+     * Per disease the title (object ID) to use.
+     */
+    private Map<Long, Long> diseaseTitles = new HashMap<>();
+
+    /**
+     * Per gene the symbol (object ID) to use and the number of symbols.
+     */
+    private Map<Long, long[]> geneSymbols = new HashMap<>();
+
+    /**
+     * Per evidence the release year (object ID) to use.
+     */
+    private Map<Long, Long> evidenceYears = new HashMap<>();
+
+    /**
+     * Resolves the subclasses of {@link GeneDiseaseCombinationType#ROOT} through the {@link HDT} itself.
+     */
+    HdtGdaCollector(HDT hdt) {
+        this(hdt, null);
+    }
+
+    /**
+     * @param gdaTypeClosure the already resolved gene-disease association types to accept ({@code null} to resolve the
+     *                       subclasses of {@link GeneDiseaseCombinationType#ROOT} through the {@link HDT} itself)
+     */
+    HdtGdaCollector(HDT hdt, GdaTypeClosure gdaTypeClosure) {
+        dictionary = hdt.getDictionary();
+        triples = hdt.getTriples();
+        nShared = dictionary.getNshared();
+
+        rdfType = predicateId(RDF_TYPE);
+        dctermsTitle = predicateId(DCTERMS_TITLE);
+        sioIsRepresentedBy = predicateId(SIO_IS_REPRESENTED_BY);
+        sioIsReferredToBy = predicateId(SIO_IS_REFERRED_TO_BY);
+        sioHasMeasurementValue = predicateId(SIO_HAS_MEASUREMENT_VALUE);
+        sioHasSource = predicateId(SIO_HAS_SOURCE);
+        sioRefersTo = predicateId(SIO_REFERS_TO);
+
+        rdfsSubClassOf = predicateId(RDFS_SUB_CLASS_OF);
+        skosExactMatch = predicateId(SKOS_EXACT_MATCH);
+        sioIsRelatedTo = predicateId(SIO_IS_RELATED_TO);
+        sioHasEvidence = predicateId(SIO_HAS_EVIDENCE);
+        dctermsIssued = predicateId(DCTERMS_ISSUED);
+
+        complete = rdfType > 0 && dctermsTitle > 0 && sioIsRepresentedBy > 0 && sioIsReferredToBy > 0 &&
+                sioHasMeasurementValue > 0 && sioHasSource > 0 && sioRefersTo > 0;
+        if(gdaTypeClosure == null) {
+            long rootType = dictionary.stringToId(GeneDiseaseCombinationType.ROOT.getUri().toString(),
+                    TripleComponentRole.OBJECT);
+            gdaTypes = complete && rootType > 0 ? retrieveSubClasses(rootType) : Collections.emptySet();
+        } else {
+            gdaTypes = complete ? toObjectIds(gdaTypeClosure) : Collections.emptySet();
+        }
+        complete = complete && !gdaTypes.isEmpty();
+    }
+
+    /**
+     * @param gdaTypeClosure the already resolved gene-disease association types to accept
+     * @param filter the {@link GdaFilter} results should pass
+     * @param sourceRegistry the sources of the database (to resolve the sources having an accepted level)
+     */
+    HdtGdaCollector(HDT hdt, GdaTypeClosure gdaTypeClosure, GdaFilter filter, SourceRegistry sourceRegistry) {
+        this(hdt, gdaTypeClosure);
+        this.filter = filter;
+        if(filter.filtersSourceLevels()) {
+            acceptedSources = new HashSet<>();
+            for(Source source : filter.retrieveAcceptedSources(sourceRegistry)) {
+                long sourceId = dictionary.stringToId(source.getUri().toString(), TripleComponentRole.OBJECT);
+                if(sourceId > 0) {
+                    acceptedSources.add(sourceId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the object IDs of the types within the {@link GdaTypeClosure} that are present within the {@link HDT}
+     */
+    private Set<Long> toObjectIds(GdaTypeClosure gdaTypeClosure) {
+        Set<Long> types = new HashSet<>();
+        for(URI typeUri : gdaTypeClosure.getTypeUris()) {
+            long type = dictionary.stringToId(typeUri.toString(), TripleComponentRole.OBJECT);
+            if(type > 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Retrieves all phenotypes (HPO terms) from which at least 1 of the UNION routes starts.
+     * @return subject IDs of the phenotypes in ascending order
+     */
+    SortedSet<Long> retrievePhenotypes() {
+        SortedSet<Long> phenotypes = new TreeSet<>();
+        if(!complete) {
+            return phenotypes;
+        }
+        for(long predicate : new long[]{skosExactMatch, sioIsReferredToBy, sioIsRelatedTo}) {
+            if(predicate <= 0) {
+                continue;
+            }
+            IteratorTripleID iterator = search(0, predicate, 0);
+            while(iterator.hasNext()) {
+                long subject = iterator.next().getSubject();
+                if(!phenotypes.contains(subject) && subjectString(subject).startsWith(HPO_URI_PREFIX)) {
+                    phenotypes.add(subject);
+                }
+            }
+        }
+        return phenotypes;
+    }
+
+    /**
+     * Adds the diseases (as subject ID) belonging to a phenotype to {@code diseases}, increasing their count with the
+     * number of routes through which they were found.
+     * @param phenotypeUri the phenotype
+     * @param diseases the diseases found so far
+     */
+    void addDiseases(String phenotypeUri, Map<Long, Integer> diseases) {
+        long hpo = dictionary.stringToId(phenotypeUri, TripleComponentRole.SUBJECT);
+        if(hpo > 0) {
+            addDiseases(hpo, diseases);
+        }
+    }
+
+    /**
+     * @see #addDiseases(String, Map)
+     */
+    void addDiseases(long hpo, Map<Long, Integer> diseases) {
+        if(!complete) {
+            return;
+        }
+        // Diseases that are UMLS phenotypes.
+        if(skosExactMatch > 0) {
+            addObjects(hpo, skosExactMatch, diseases);
+        }
+        // Diseases found through phenotype-disease associations.
+        addPathObjects(hpo, sioIsReferredToBy, sioRefersTo, diseases);
+        // Diseases found through Orphanet (HPO - ORDO Ontological Module).
+        if(sioIsRelatedTo > 0 && skosExactMatch > 0) {
+            addPathObjects(hpo, sioIsRelatedTo, skosExactMatch, diseases);
+        }
+    }
+
+    /**
+     * Retrieves the gene-disease associations belonging to a disease that was found through a single route.
+     * @param disease the disease (as subject ID)
+     * @return per gene (subject ID) the combined results (empty if the disease has no title)
+     */
+    Map<Long, IdCombination> retrieveCombinations(long disease) {
+        Map<Long, IdCombination> combinations = new LinkedHashMap<>();
+        if(!complete) {
+            return combinations;
+        }
+
+        // Only the first title is used for the disease, but each title results in a separate SPARQL result.
+        int titleCount = 0;
+        IteratorTripleID titles = search(disease, dctermsTitle, 0);
+        while(titles.hasNext()) {
+            long title = titles.next().getObject();
+            if(titleCount++ == 0) {
+                diseaseTitles.putIfAbsent(disease, title);
+            }
+        }
+        if(titleCount == 0) {
+            return combinations;
+        }
+
+        IteratorTripleID gdas = search(disease, sioIsReferredToBy, 0);
+        while(gdas.hasNext()) {
+            long gda = shared(gdas.next().getObject());
+            if(gda <= 0) {
+                continue;
+            }
+
+            // Number of types of the gene-disease association that are (a subclass of) the accepted type.
+            int matchingTypes = 0;
+            IteratorTripleID types = search(gda, rdfType, 0);
+            while(types.hasNext()) {
+                if(gdaTypes.contains(types.next().getObject())) {
+                    matchingTypes++;
+                }
+            }
+            if(matchingTypes > 0) {
+                addGda(gda, titleCount * matchingTypes, combinations);
+            }
+        }
+        return combinations;
+    }
+
+    /**
+     * Processes a single gene-disease association that passed the disease and type requirements.
+     * @param repeats how often each result occurs (to match the multiplicity of the SPARQL query)
+     */
+    private void addGda(long gda, int repeats, Map<Long, IdCombination> combinations) {
+        // Only the first (accepted) score is used, but each score results in a separate SPARQL result.
+        long score = -1;
+        int scoreCount = 0;
+        IteratorTripleID scores = search(gda, sioHasMeasurementValue, 0);
+        while(scores.hasNext()) {
+            long scoreId = scores.next().getObject();
+            if(!acceptsScore(scoreId)) {
+                continue;
+            }
+            if(scoreCount++ == 0) {
+                score = scoreId;
+            }
+        }
+        if(scoreCount == 0) {
+            return;
+        }
+
+        // The (accepted) sources, each resulting in separate SPARQL results.
+        List<Long> sources = new ArrayList<>();
+        IteratorTripleID sourceIterator = search(gda, sioHasSource, 0);
+        while(sourceIterator.hasNext()) {
+            long source = sourceIterator.next().getObject();
+            if(acceptedSources == null || acceptedSources.contains(source)) {
+                sources.add(source);
+            }
+        }
+        if(sources.isEmpty()) {
+            return;
+        }
+
+        // Optional evidence (each evidence results in a separate SPARQL result per release year).
+        Map<Long, Integer> evidence = new HashMap<>();
+        int evidenceResults = 0;
+        boolean rejectedEvidence = false;
+        if(sioHasEvidence > 0 && dctermsIssued > 0) {
+            IteratorTripleID evidenceIterator = search(gda, sioHasEvidence, 0);
+            while(evidenceIterator.hasNext()) {
+                long evidenceId = shared(evidenceIterator.next().getObject());
+                if(evidenceId <= 0) {
+                    continue;
+                }
+                IteratorTripleID years = search(evidenceId, dctermsIssued, 0);
+                while(years.hasNext()) {
+                    long year = years.next().getObject();
+                    if(!acceptsEvidenceYear(year)) {
+                        rejectedEvidence = true;
+                        continue;
+                    }
+                    evidenceYears.putIfAbsent(evidenceId, year);
+                    evidence.merge(evidenceId, 1, Integer::sum);
+                    evidenceResults++;
+                }
+            }
+        }
+        // Without evidence, a single result is generated (unless all evidence is rejected by the filter).
+        if(evidenceResults == 0) {
+            if(rejectedEvidence) {
+                return;
+            }
+            evidenceResults = 1;
+        }
+
+        IteratorTripleID genes = search(gda, sioRefersTo, 0);
+        while(genes.hasNext()) {
+            long gene = shared(genes.next().getObject());
+            if(gene <= 0) {
+                continue;
+            }
+            int symbolCount = retrieveGeneSymbolCount(gene);
+            if(symbolCount == 0) {
+                continue;
+            }
+
+            IdCombination combination = combinations.computeIfAbsent(gene, k -> new IdCombination());
+            if(combination.score <= 0) {
+                combination.score = score;
+            }
+
+            int resultsPerEvidenceResult = repeats * symbolCount * scoreCount;
+            int results = resultsPerEvidenceResult * evidenceResults;
+            for(long source : sources) {
+                combination.sourceCounts.merge(source, results, Integer::sum);
+                if(!evidence.isEmpty()) {
+                    Map<Long, Integer> sourceEvidence = combination.sourceEvidence.computeIfAbsent(source,
+                            k -> new HashMap<>());
+                    evidence.forEach((evidenceId, evidenceIdResults) -> sourceEvidence.merge(evidenceId,
+                            resultsPerEvidenceResult * evidenceIdResults, Integer::sum));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param score a score as object ID
+     * @return whether the score is accepted by the {@link #filter}
+     */
+    private boolean acceptsScore(long score) {
+        return !filter.filtersScore() ||
+                acceptedScores.computeIfAbsent(score, k -> filter.acceptsScore(retrieveScore(k)));
+    }
+
+    /**
+     * @param year an evidence release year as object ID
+     * @return whether the year is accepted by the {@link #filter}
+     */
+    private boolean acceptsEvidenceYear(long year) {
+        return !filter.filtersEvidenceYear() || acceptedEvidenceYears.computeIfAbsent(year,
+                k -> filter.acceptsEvidenceYear(Integer.parseInt(literalValue(objectString(k)))));
+    }
+
+    /**
+     * Retrieves (and caches) the number of symbols of a gene. Only the first symbol is used for the gene, but each
+     * symbol results in a separate SPARQL result.
+     * @return the number of symbols
+     */
+    private int retrieveGeneSymbolCount(long gene) {
+        long[] symbol = geneSymbols.get(gene);
+        if(symbol == null) {
+            symbol = new long[]{-1, 0};
+            IteratorTripleID symbols = search(gene, sioIsRepresentedBy, 0);
+            while(symbols.hasNext()) {
+                long symbolId = symbols.next().getObject();
+                if(symbol[1]++ == 0) {
+                    symbol[0] = symbolId;
+                }
+            }
+            geneSymbols.put(gene, symbol);
+        }
+        return (int) symbol[1];
+    }
+
+    /**
+     * Requires the disease to be processed through {@link #retrieveCombinations(long)} first.
+     * @return the lexical value of the title of the disease
+     */
+    String retrieveDiseaseName(long disease) {
+        return literalValue(objectString(diseaseTitles.get(disease)));
+    }
+
+    /**
+     * Requires the gene to be processed through {@link #retrieveCombinations(long)} first.
+     * @return the URI of the symbol of the gene
+     */
+    String retrieveGeneSymbolUri(long gene) {
+        return objectString(geneSymbols.get(gene)[0]);
+    }
+
+    /**
+     * Requires the evidence to be processed through {@link #retrieveCombinations(long)} first.
+     * @return the release year of the evidence
+     */
+    int retrieveEvidenceYear(long evidence) {
+        return Integer.parseInt(literalValue(objectString(evidenceYears.get(evidence))));
+    }
+
+    /**
+     * @param score a score as object ID
+     * @return the score value
+     */
+    double retrieveScore(long score) {
+        return Double.parseDouble(literalValue(objectString(score)));
+    }
+
+    String subjectString(long id) {
+        return dictionary.idToString(id, TripleComponentRole.SUBJECT).toString();
+    }
+
+    String objectString(long id) {
+        return dictionary.idToString(id, TripleComponentRole.OBJECT).toString();
+    }
+
+    /**
+     * Retrieves the given class and all its (indirect) subclasses.
+     * @param rootClass the class (as object ID)
+     * @return object IDs of all the classes
+     */
+    private Set<Long> retrieveSubClasses(long rootClass) {
+        Set<Long> classes = new HashSet<>();
+        classes.add(rootClass);
+        if(rdfsSubClassOf <= 0) {
+            return classes;
+        }
+
+        Deque<Long> toProcess = new ArrayDeque<>();
+        toProcess.push(rootClass);
+        while(!toProcess.isEmpty()) {
+            IteratorTripleID subClasses = search(0, rdfsSubClassOf, toProcess.pop());
+            while(subClasses.hasNext()) {
+                long subClass = shared(subClasses.next().getSubject());
+                if(subClass > 0 && classes.add(subClass)) {
+                    toProcess.push(subClass);
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Adds the objects of all triples matching {@code subject predicate ?object} (as subject ID) to {@code found}.
+     */
+    private void addObjects(long subject, long predicate, Map<Long, Integer> found) {
+        IteratorTripleID iterator = search(subject, predicate, 0);
+        while(iterator.hasNext()) {
+            long object = shared(iterator.next().getObject());
+            if(object > 0) {
+                found.merge(object, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Adds the objects of all paths matching {@code subject firstPredicate/secondPredicate ?object} (as subject ID) to
+     * {@code found}.
+     */
+    private void addPathObjects(long subject, long firstPredicate, long secondPredicate, Map<Long, Integer> found) {
+        IteratorTripleID iterator = search(subject, firstPredicate, 0);
+        while(iterator.hasNext()) {
+            long intermediate = shared(iterator.next().getObject());
+            if(intermediate > 0) {
+                addObjects(intermediate, secondPredicate, found);
+            }
+        }
+    }
+
+    private IteratorTripleID search(long subject, long predicate, long object) {
+        return triples.search(new TripleID(subject, predicate, object));
+    }
+
+    private long predicateId(String predicate) {
+        return dictionary.stringToId(predicate, TripleComponentRole.PREDICATE);
+    }
+
+    /**
+     * Converts a subject ID to an object ID or vice versa. Only terms within the shared section occur in both roles
+     * (and have the same ID in both).
+     * @param id a subject or object ID
+     * @return the ID in the other role, or {@code -1} if the term does not occur in the other role
+     */
+    private long shared(long id) {
+        return id <= nShared ? id : -1;
+    }
+
+    /**
+     * Retrieves the lexical form of a literal as stored in the {@link HDT} dictionary ({@code "value"},
+     * {@code "value"@lang} or {@code "value"^^<datatype>}).
+     * @param literal the literal as stored within the dictionary
+     * @return the lexical value
+     */
+    private static String literalValue(String literal) {
+        return literal.substring(1, literal.lastIndexOf('"'));
+    }
+
+    /**
+     * A gene-disease association stored as dictionary IDs, combining all results belonging to it.
+     */
+    static class IdCombination {
+        /**
+         * The score (object ID) to use.
+         */
+        long score = -1;
+
+        /**
+         * The number of results per source (object ID).
+         */
+        Map<Long, Integer> sourceCounts = new LinkedHashMap<>();
+
+        /**
+         * The evidence (subject IDs) per source (object ID), with the number of results (included in
+         * {@link #sourceCounts}) that have that evidence.
+         */
+        Map<Long, Map<Long, Integer>> sourceEvidence = new HashMap<>();
+
+        /**
+         * Adds the results of {@code other} (the same gene-disease association found through another route).
+         * @param multiplier how often the results of {@code other} occur
+         */
+        void addAll(IdCombination other, int multiplier) {
+            if(score <= 0) {
+                score = other.score;
+            }
+            other.sourceCounts.forEach((source, count) -> sourceCounts.merge(source, count * multiplier, Integer::sum));
+            other.sourceEvidence.forEach((source, evidence) -> {
+                Map<Long, Integer> thisEvidence = sourceEvidence.computeIfAbsent(source, k -> new HashMap<>());
+                evidence.forEach((evidenceId, count) -> thisEvidence.merge(evidenceId, count * multiplier, Integer::sum));
+            });
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.database_processing.HdtGdaCollector.IdCombination;
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRow;
+import org.rdfhdt.hdt.hdt.HDT;
+
+import java.util.*;
+
+/**
+ * Retrieves the same information as {@link GenesForPhenotypeRetriever}, but instead of letting Jena evaluate the SPARQL
+ * query (see {@link org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator#getGenesForPhenotypes(Set)})
+ * the joins are done directly through triple pattern lookups on the {@link HDT} using dictionary IDs (see
+ * {@link HdtGdaCollector}).
+ * <br /><br />
+ * The results are collected and combined per gene-disease association as dictionary IDs. Only after all results are
+ * collected, the genes to pass on are selected on their highest score (all of them, or only those within the
+ * {@link #withGeneLimit(int)}). Only the selected genes are decoded, and only their diseases, sources and evidence
+ * (each distinct entity once, and not at all when only the gene scores are used, see
+ * {@link #withGeneScoreConsumer(org.molgenis.vibe.core.query_output_digestion.pipeline.GeneScoreConsumer)}).
+ * <br /><br />
+ * Results are counted with the same multiplicity as the SPARQL query (a disease reachable through multiple routes or
+ * a gene-disease association with multiple matching types results in multiple results), so that the source counts
+ * within the {@link GeneDiseaseCollection} are identical.
+ * <br /><br />
+ * The accepted gene-disease association types are resolved once per database (see
+ * {@link ModelReader#getGdaTypeClosure(org.molgenis.vibe.core.formats.GeneDiseaseCombinationType)}) instead of for
+ * every retrieval.
+ * <br /><br />
+ * A {@link GdaFilter} (see {@link #withFilter(GdaFilter)}) is applied while scanning each gene-disease association.
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#getHdt()}.
+ */
+public class HdtGenesForPhenotypeRetriever extends GenesForPhenotypeRetriever {
+    private HdtGdaCollector collector;
+
+    /**
+     * The collected gene-disease associations (disease ID -> gene ID -> association).
+     */
+    private Map<Long, Map<Long, IdCombination>> combinations = new LinkedHashMap<>();
+
+    /**
+     * The decoded scores (score object ID -> score).
+     */
+    private Map<Long, Double> scores = new HashMap<>();
+
+    public HdtGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader, phenotypes);
+    }
+
+    @Override
+    protected void retrieveData() {
+        collector = new HdtGdaCollector(getModelReader().getHdt(),
+                getModelReader().getGdaTypeClosure(getGdaType()), getFilter(), getSources());
+
+        // Diseases (as subject ID) with the number of routes through which they were found.
+        Map<Long, Integer> diseases = new LinkedHashMap<>();
+        for(Phenotype phenotype : getPhenotypes()) {
+            collector.addDiseases(phenotype.getUri().toString(), diseases);
+        }
+
+        // Each route through which a disease was found results in separate SPARQL results.
+        for(Map.Entry<Long, Integer> diseaseEntry : diseases.entrySet()) {
+            Map<Long, IdCombination> diseaseCombinations = collector.retrieveCombinations(diseaseEntry.getKey());
+            if(diseaseCombinations.isEmpty()) {
+                continue;
+            }
+            Map<Long, IdCombination> merged = combinations.computeIfAbsent(diseaseEntry.getKey(), k -> new HashMap<>());
+            for(Map.Entry<Long, IdCombination> geneEntry : diseaseCombinations.entrySet()) {
+                merged.computeIfAbsent(geneEntry.getKey(), k -> new IdCombination())
+                        .addAll(geneEntry.getValue(), diseaseEntry.getValue());
+            }
+        }
+
+        Map<Long, Gene> genes = selectGenes();
+        if(usesGeneScoresOnly()) {
+            passOnGeneScores(genes);
+        } else {
+            decode(genes);
+        }
+    }
+
+    private double retrieveScore(long scoreId) {
+        return scores.computeIfAbsent(scoreId, collector::retrieveScore);
+    }
+
+    @Override
+    protected boolean selectsGenesBeforeDecoding() {
+        return true;
+    }
+
+    /**
+     * Selects the genes to pass on using only the collected IDs and scores (see
+     * {@link #selectGenes(Map, java.util.function.Function)}).
+     * @return the decoded genes to pass on (gene ID -> gene)
+     */
+    private Map<Long, Gene> selectGenes() {
+        Map<Long, Double> highestGeneScores = new HashMap<>();
+        for(Map<Long, IdCombination> diseaseCombinations : combinations.values()) {
+            for(Map.Entry<Long, IdCombination> geneEntry : diseaseCombinations.entrySet()) {
+                highestGeneScores.merge(geneEntry.getKey(), retrieveScore(geneEntry.getValue().score), Math::max);
+            }
+        }
+
+        EntityRegistry entityRegistry = getEntityRegistry();
+        return selectGenes(highestGeneScores, geneId -> entityRegistry.getOrCreateGene(
+                collector.subjectString(geneId), collector.retrieveGeneSymbolUri(geneId)));
+    }
+
+    /**
+     * Passes the score of each gene-disease association of the selected genes on, without decoding anything else.
+     * @param genes the selected genes (gene ID -> gene)
+     */
+    private void passOnGeneScores(Map<Long, Gene> genes) {
+        for(Map<Long, IdCombination> diseaseCombinations : combinations.values()) {
+            for(Map.Entry<Long, IdCombination> geneEntry : diseaseCombinations.entrySet()) {
+                Gene gene = genes.get(geneEntry.getKey());
+                if(gene != null) {
+                    passOnGeneScore(gene, retrieveScore(geneEntry.getValue().score));
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts the collected dictionary IDs of the selected genes into rows (see {@link #passOn(GdaRow)}). Each distinct
+     * entity is only decoded once.
+     * @param genes the selected genes (gene ID -> gene)
+     */
+    private void decode(Map<Long, Gene> genes) {
+        Map<Long, PubmedEvidence> pubmedEvidence = new HashMap<>();
+        Map<Long, Source> sources = new HashMap<>();
+        EntityRegistry entityRegistry = getEntityRegistry();
+
+        for(Map.Entry<Long, Map<Long, IdCombination>> diseaseEntry : combinations.entrySet()) {
+            Disease disease = null;
+
+            for(Map.Entry<Long, IdCombination> geneEntry : diseaseEntry.getValue().entrySet()) {
+                Gene gene = genes.get(geneEntry.getKey());
+                if(gene == null) {
+                    continue;
+                }
+                if(disease == null) {
+                    disease = entityRegistry.getOrCreateDisease(collector.subjectString(diseaseEntry.getKey()),
+                            collector.retrieveDiseaseName(diseaseEntry.getKey()));
+                }
+                IdCombination combination = geneEntry.getValue();
+                double score = retrieveScore(combination.score);
+
+                for(Map.Entry<Long, Integer> sourceEntry : combination.sourceCounts.entrySet()) {
+                    // If this causes an error, this might indicate a corrupt database (as retrieveSources() should
+                    // retrieve all possible sources available).
+                    Source source = sources.computeIfAbsent(sourceEntry.getKey(),
+                            k -> getSources().get(collector.objectString(k)));
+
+                    // Results with evidence also increment the source count.
+                    int remainingCount = sourceEntry.getValue();
+                    Map<Long, Integer> evidence = combination.sourceEvidence.get(sourceEntry.getKey());
+                    if(evidence != null) {
+                        for(long evidenceId : evidence.keySet()) {
+                            passOn(new GdaRow(gene, disease, score, source, pubmedEvidence.computeIfAbsent(evidenceId,
+                                    k -> entityRegistry.getOrCreatePubmedEvidence(collector.subjectString(k),
+                                            collector.retrieveEvidenceYear(k)))));
+                        }
+                        remainingCount -= evidence.size();
+                    }
+                    for(int i = 0; i < remainingCount; i++) {
+                        passOn(new GdaRow(gene, disease, score, source, null));
+                    }
+                }
+            }
+        }
+    }
+}
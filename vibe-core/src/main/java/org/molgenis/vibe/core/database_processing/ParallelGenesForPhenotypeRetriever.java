@@ -0,0 +1,192 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRowConsumer;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneScoreConsumer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retrieves the same information as the {@link GenesForPhenotypeRetriever} created through a
+ * {@link GenesForPhenotypeRetrieverFactory}, but splits the {@link Phenotype}{@code s} into chunks that are retrieved
+ * simultaneously. Each chunk uses its own view on the shared database (see {@link ModelReader#createView()}).
+ * <br /><br />
+ * Every {@link Phenotype} results in its own query results, so the partial {@link GeneDiseaseCollection}{@code s} can
+ * be combined by summing the source counts and combining the evidence (see
+ * {@link GeneDiseaseCollection#merge}). The chunks are created from the ordered
+ * {@link Phenotype}{@code s} and merged in that order, so the outcome does not depend on which chunk finishes first.
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#createView()} (when more than 1 chunk is used).
+ */
+public class ParallelGenesForPhenotypeRetriever extends GenesForPhenotypeRetriever {
+    private GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory;
+
+    /**
+     * The maximum number of chunks (and with that threads) to use.
+     */
+    private int threads;
+
+    /**
+     * @param modelReader an opened {@link ModelReader} (not closed afterwards)
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the data for
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to retrieve each chunk with
+     * @param threads the maximum number of chunks retrieved simultaneously
+     * @throws IllegalArgumentException if {@code threads < 1}
+     */
+    public ParallelGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes,
+                                              GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory,
+                                              int threads) {
+        super(modelReader, phenotypes);
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * The chunks are combined as {@link GeneDiseaseCollection}{@code s}, so the rows cannot be passed on separately.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public GenesForPhenotypeRetriever withRowConsumer(GdaRowConsumer rowConsumer) {
+        throw new UnsupportedOperationException("Rows of simultaneously retrieved chunks cannot be passed on.");
+    }
+
+    /**
+     * The chunks are combined as {@link GeneDiseaseCollection}{@code s}, so the scores cannot be passed on separately.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public GenesForPhenotypeRetriever withGeneScoreConsumer(GeneScoreConsumer geneScoreConsumer) {
+        throw new UnsupportedOperationException("Scores of simultaneously retrieved chunks cannot be passed on.");
+    }
+
+    /**
+     * The chunks are combined as {@link GeneDiseaseCollection}{@code s}, which need all {@link Gene}{@code s}.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public GenesForPhenotypeRetriever withGeneLimit(int geneLimit) {
+        throw new UnsupportedOperationException("Simultaneously retrieved chunks cannot be limited on genes.");
+    }
+
+    /**
+     * The chunks are combined as {@link GeneDiseaseCollection}{@code s}, so the combinations cannot be given to an
+     * {@link IncrementalGenePrioritizer} while they are retrieved.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public GenesForPhenotypeRetriever withPrioritizer(IncrementalGenePrioritizer prioritizer) {
+        throw new UnsupportedOperationException("Combinations of simultaneously retrieved chunks cannot be prioritized incrementally.");
+    }
+
+    /**
+     * @throws IllegalStateException if retrieving a chunk failed or the retrieval was interrupted
+     */
+    @Override
+    public void run() {
+        // Merges in the order of the chunks.
+        for(GeneDiseaseCollection chunkCollection : retrieveChunks(this::retrieve)) {
+            getGeneDiseaseCollection().merge(chunkCollection);
+        }
+    }
+
+    /**
+     * Alternative to {@link #run()} that retrieves every {@link Phenotype} of a chunk separately, so that the results
+     * are available per {@link Phenotype} (for example to store them in a
+     * {@link org.molgenis.vibe.core.database_processing.result_cache.PhenotypeResultCache}). The chunks are still
+     * retrieved simultaneously. {@link #getGeneDiseaseCollection()} is not filled.
+     * @return a {@link GeneDiseaseCollection} for each {@link Phenotype}, ordered on {@link Phenotype}
+     * @throws IllegalStateException if retrieving a chunk failed or the retrieval was interrupted
+     */
+    public Map<Phenotype, GeneDiseaseCollection> retrievePerPhenotype() {
+        Map<Phenotype, GeneDiseaseCollection> phenotypeCollections = new LinkedHashMap<>();
+        for(Map<Phenotype, GeneDiseaseCollection> chunkCollections : retrieveChunks(this::retrieveSeparately)) {
+            phenotypeCollections.putAll(chunkCollections);
+        }
+        return phenotypeCollections;
+    }
+
+    /**
+     * Applies {@code retrieval} on each chunk simultaneously, each using its own view.
+     * @return the results in the order of the chunks
+     */
+    private <T> List<T> retrieveChunks(BiFunction<ModelReader, Set<Phenotype>, T> retrieval) {
+        List<Set<Phenotype>> chunks = createChunks();
+
+        // A single chunk does not need a separate thread or view.
+        if(chunks.size() <= 1) {
+            return Collections.singletonList(retrieval.apply(getModelReader(),
+                    chunks.isEmpty() ? getPhenotypes() : chunks.get(0)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(chunks.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for(Set<Phenotype> chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    try ( ModelReader view = getModelReader().createView() ) {
+                        return retrieval.apply(view, chunk);
+                    }
+                }));
+            }
+
+            List<T> results = new ArrayList<>();
+            for(Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to retrieve the data for a chunk of phenotypes.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrieving the data for the phenotypes.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the ordered {@link Phenotype}{@code s} into at most {@link #threads} chunks of (nearly) equal size.
+     * @return the chunks
+     */
+    private List<Set<Phenotype>> createChunks() {
+        List<Phenotype> orderedPhenotypes = new ArrayList<>(getPhenotypes());
+        Collections.sort(orderedPhenotypes);
+
+        int chunkCount = Math.min(threads, orderedPhenotypes.size());
+        List<Set<Phenotype>> chunks = new ArrayList<>();
+        for(int i = 0; i < chunkCount; i++) {
+            chunks.add(new LinkedHashSet<>(orderedPhenotypes.subList(i * orderedPhenotypes.size() / chunkCount,
+                    (i + 1) * orderedPhenotypes.size() / chunkCount)));
+        }
+        return chunks;
+    }
+
+    private GeneDiseaseCollection retrieve(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        GenesForPhenotypeRetriever retriever = genesForPhenotypeRetrieverFactory.create(modelReader, phenotypes)
+                .withFilter(getFilter());
+        retriever.run();
+        return retriever.getGeneDiseaseCollection();
+    }
+
+    private Map<Phenotype, GeneDiseaseCollection> retrieveSeparately(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        Map<Phenotype, GeneDiseaseCollection> phenotypeCollections = new LinkedHashMap<>();
+        for(Phenotype phenotype : phenotypes) {
+            phenotypeCollections.put(phenotype, retrieve(modelReader, Collections.singleton(phenotype)));
+        }
+        return phenotypeCollections;
+    }
+}
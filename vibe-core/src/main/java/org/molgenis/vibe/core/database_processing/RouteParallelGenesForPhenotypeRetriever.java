@@ -0,0 +1,150 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.rdf.model.RDFNode;
+import org.molgenis.vibe.core.database_processing.query_string_creation.PhenotypeDiseaseRoute;
+import org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.rdfhdt.hdt.dictionary.Dictionary;
+import org.rdfhdt.hdt.enums.TripleComponentRole;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Retrieves the same information as {@link GenesForPhenotypeRetriever}, but instead of a single SPARQL query (in which
+ * Jena evaluates the UNION branches one after another) each {@link PhenotypeDiseaseRoute} is queried simultaneously.
+ * Each route uses its own view on the shared database (see {@link ModelReader#createView()}).
+ * <br /><br />
+ * The diseases found through all routes are combined, after which the gene-disease associations are retrieved through
+ * a single query containing each distinct disease once (instead of repeating these joins for every route through which
+ * a disease is found). Each result is then processed as often as the disease was found, so that the source counts are
+ * identical to those of {@link GenesForPhenotypeRetriever}.
+ * <br /><br />
+ * Phenotypes that are not within the HDT dictionary are left out of the route queries, as HDT cannot bind an unknown
+ * URI (and such a phenotype cannot be linked to any disease anyhow).
+ * <br /><br />
+ * Requires a {@link ModelReader} that supports {@link ModelReader#createView()}.
+ */
+public class RouteParallelGenesForPhenotypeRetriever extends GenesForPhenotypeRetriever {
+    public RouteParallelGenesForPhenotypeRetriever(ModelReader modelReader, Set<Phenotype> phenotypes) {
+        super(modelReader, phenotypes);
+    }
+
+    /**
+     * @throws IllegalStateException if retrieving the diseases failed or the retrieval was interrupted
+     */
+    @Override
+    protected void retrieveData() {
+        Set<Phenotype> phenotypes = retrieveKnownPhenotypes();
+        if(phenotypes.isEmpty()) {
+            return;
+        }
+
+        Map<URI, Integer> diseases = retrieveDiseases(phenotypes);
+        if(diseases.isEmpty()) {
+            return;
+        }
+
+        QueryRunner query = new QueryRunner(getModelReader().getModel(),
+                QueryStringGenerator.getGenesForDiseases(diseases.keySet(), getFilter(), getSources()));
+
+        while(query.hasNext()) {
+            QuerySolution result = query.next();
+
+            String diseaseUri = result.get("disease").asResource().getURI();
+            String diseaseName = result.get("diseaseName").asLiteral().getString();
+            String geneUri = result.get("gene").asResource().getURI();
+            String geneSymbolUri = result.get("geneSymbol").asResource().getURI();
+            double score = result.get("gdaScoreNumber").asLiteral().getDouble();
+            String sourceUri = result.get("gdaSource").asResource().getURI();
+            String evidenceUri = result.get("evidence") == null ? null : result.get("evidence").asResource().getURI();
+            String evidenceYear = result.get("evidence") == null ? null : result.get("evidenceYear").asLiteral().getString();
+
+            // Each route (and phenotype) through which the disease was found results in a separate result.
+            for(int i = diseases.get(URI.create(diseaseUri)); i > 0; i--) {
+                processResult(diseaseUri, diseaseName, geneUri, geneSymbolUri, score, sourceUri, evidenceUri, evidenceYear);
+            }
+        }
+
+        query.close();
+    }
+
+    /**
+     * @return the {@link Phenotype}{@code s} that occur as subject within the database (all of them if the
+     * {@link ModelReader} is not backed by a HDT)
+     */
+    private Set<Phenotype> retrieveKnownPhenotypes() {
+        Dictionary dictionary;
+        try {
+            dictionary = getModelReader().getHdt().getDictionary();
+        } catch (UnsupportedOperationException e) {
+            return getPhenotypes();
+        }
+
+        Set<Phenotype> phenotypes = new HashSet<>();
+        for(Phenotype phenotype : getPhenotypes()) {
+            if(dictionary.stringToId(phenotype.getUri().toString(), TripleComponentRole.SUBJECT) > 0) {
+                phenotypes.add(phenotype);
+            }
+        }
+        return phenotypes;
+    }
+
+    /**
+     * Queries all {@link PhenotypeDiseaseRoute}{@code s} simultaneously.
+     * @param phenotypes the {@link Phenotype}{@code s} to retrieve the diseases for
+     * @return per disease the number of paths through which it was found (in route order)
+     */
+    private Map<URI, Integer> retrieveDiseases(Set<Phenotype> phenotypes) {
+        PhenotypeDiseaseRoute[] routes = PhenotypeDiseaseRoute.values();
+        ExecutorService executor = Executors.newFixedThreadPool(routes.length);
+        try {
+            List<Future<Map<URI, Integer>>> futures = new ArrayList<>();
+            for(PhenotypeDiseaseRoute route : routes) {
+                futures.add(executor.submit(() -> {
+                    try ( ModelReader view = getModelReader().createView() ) {
+                        return retrieveDiseases(view, route, phenotypes);
+                    }
+                }));
+            }
+
+            // Combines in the order of the routes.
+            Map<URI, Integer> diseases = new LinkedHashMap<>();
+            for(Future<Map<URI, Integer>> future : futures) {
+                future.get().forEach((disease, paths) -> diseases.merge(disease, paths, Integer::sum));
+            }
+            return diseases;
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to retrieve the diseases for a route.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrieving the diseases for the phenotypes.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<URI, Integer> retrieveDiseases(ModelReader modelReader, PhenotypeDiseaseRoute route,
+                                               Set<Phenotype> phenotypes) {
+        Map<URI, Integer> diseases = new LinkedHashMap<>();
+        QueryRunner query = new QueryRunner(modelReader.getModel(),
+                QueryStringGenerator.getDiseasesForPhenotypes(phenotypes, route));
+
+        while(query.hasNext()) {
+            RDFNode disease = query.next().get("disease");
+            // Only resources with an URI can have gene-disease associations.
+            if(disease.isURIResource()) {
+                diseases.merge(URI.create(disease.asResource().getURI()), 1, Integer::sum);
+            }
+        }
+
+        query.close();
+        return diseases;
+    }
+}
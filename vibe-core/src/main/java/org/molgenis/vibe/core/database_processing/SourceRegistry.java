@@ -0,0 +1,133 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator;
+import org.molgenis.vibe.core.formats.Source;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * An immutable registry of all {@link Source}{@code s} available within a database. As the {@link Source}{@code s} do
+ * not change for a database, a single registry can be shared by all retrievals from that database (see
+ * {@link ModelReader#getSourceRegistry()}).
+ * <br /><br />
+ * The {@link Source}{@code s} are ordered on their {@link URI} and each {@link Source} gets a dense ordinal
+ * ({@code 0} to {@link #size()} - 1) based on this order, so that data per {@link Source} can be stored by index.
+ */
+public final class SourceRegistry {
+    /**
+     * The {@link Source}{@code s} ordered on their {@link URI} (index = ordinal).
+     */
+    private final List<Source> sources;
+
+    /**
+     * {@link Source} {@link URI} -> ordinal.
+     */
+    private final Map<URI, Integer> ordinals = new HashMap<>();
+
+    /**
+     * {@link Source} {@link URI} {@link String} -> ordinal (so that results do not need to be converted to a
+     * {@link URI} first).
+     */
+    private final Map<String, Integer> ordinalsByUriString = new HashMap<>();
+
+    /**
+     * @param sources the {@link Source}{@code s} to store (duplicates are ignored)
+     */
+    public SourceRegistry(Collection<Source> sources) {
+        List<Source> orderedSources = new ArrayList<>(new LinkedHashSet<>(sources));
+        orderedSources.sort(Comparator.comparing(Source::getUri));
+        this.sources = Collections.unmodifiableList(orderedSources);
+
+        for(Source source : this.sources) {
+            ordinalsByUriString.put(source.getUri().toString(), ordinals.size());
+            ordinals.put(source.getUri(), ordinals.size());
+        }
+    }
+
+    /**
+     * Retrieves the {@link Source}{@code s} from a {@link Model} containing the DisGeNET database.
+     * @param model the {@link Model} to query
+     * @return a new {@link SourceRegistry}
+     */
+    public static SourceRegistry retrieve(Model model) {
+        List<Source> sources = new ArrayList<>();
+        QueryRunner query = new QueryRunner(model, QueryStringGenerator.getSources());
+
+        while(query.hasNext()) {
+            QuerySolution result = query.next();
+
+            sources.add(new Source(URI.create(result.get("source").asResource().getURI()),
+                    result.get("sourceTitle").asLiteral().getString(),
+                    result.get("sourceLevel").asResource().getURI())
+            );
+        }
+        query.close();
+
+        return new SourceRegistry(sources);
+    }
+
+    /**
+     * @param uri the {@link URI} of a {@link Source}
+     * @return the {@link Source}, or {@code null} if not present
+     */
+    public Source get(URI uri) {
+        Integer ordinal = ordinals.get(uri);
+        return ordinal == null ? null : sources.get(ordinal);
+    }
+
+    /**
+     * @param uri the {@link URI} {@link String} of a {@link Source}
+     * @return the {@link Source}, or {@code null} if not present
+     */
+    public Source get(String uri) {
+        Integer ordinal = ordinalsByUriString.get(uri);
+        return ordinal == null ? null : sources.get(ordinal);
+    }
+
+    /**
+     * @param ordinal an ordinal from {@code 0} to {@link #size()} - 1
+     * @return the {@link Source} with the given ordinal
+     * @throws IndexOutOfBoundsException if {@code ordinal} is not present
+     */
+    public Source get(int ordinal) {
+        return sources.get(ordinal);
+    }
+
+    /**
+     * @param source a {@link Source}
+     * @return the ordinal of the {@link Source}, or {@code -1} if not present
+     */
+    public int getOrdinal(Source source) {
+        return getOrdinal(source.getUri());
+    }
+
+    /**
+     * @param uri the {@link URI} of a {@link Source}
+     * @return the ordinal of the {@link Source}, or {@code -1} if not present
+     */
+    public int getOrdinal(URI uri) {
+        return ordinals.getOrDefault(uri, -1);
+    }
+
+    /**
+     * @return an unmodifiable {@link List} of all {@link Source}{@code s} (index = ordinal)
+     */
+    public List<Source> asList() {
+        return sources;
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SourceRegistry{" +
+                "sources=" + sources +
+                '}';
+    }
+}
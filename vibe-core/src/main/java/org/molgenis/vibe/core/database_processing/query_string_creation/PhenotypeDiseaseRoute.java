@@ -0,0 +1,33 @@
+package org.molgenis.vibe.core.database_processing.query_string_creation;
+
+/**
+ * The routes through which diseases are reached from a phenotype within
+ * {@link QueryStringGenerator#getGenesForPhenotypes(java.util.Set)} (the UNION branches of that query).
+ */
+public enum PhenotypeDiseaseRoute {
+    /**
+     * Diseases that are UMLS phenotypes.
+     */
+    UMLS_PHENOTYPE("?hpo skos:exactMatch ?disease ."),
+    /**
+     * Diseases found through phenotype-disease associations.
+     */
+    PHENOTYPE_DISEASE_ASSOCIATION("?hpo sio:SIO_000212/sio:SIO_000628 ?disease ."),
+    /**
+     * Diseases found through Orphanet (HPO - ORDO Ontological Module).
+     */
+    ORPHANET("?hpo sio:SIO_000001/skos:exactMatch ?disease .");
+
+    /**
+     * The SPARQL graph pattern binding {@code ?disease} for {@code ?hpo}.
+     */
+    private String pattern;
+
+    String getPattern() {
+        return pattern;
+    }
+
+    PhenotypeDiseaseRoute(String pattern) {
+        this.pattern = pattern;
+    }
+}
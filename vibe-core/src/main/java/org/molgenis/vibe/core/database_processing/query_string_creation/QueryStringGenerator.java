@@ -1,13 +1,21 @@
 package org.molgenis.vibe.core.database_processing.query_string_creation;
 
+import org.molgenis.vibe.core.database_processing.GdaFilter;
+import org.molgenis.vibe.core.database_processing.GdaTypeClosure;
+import org.molgenis.vibe.core.database_processing.SourceRegistry;
 import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
 import org.molgenis.vibe.core.formats.Phenotype;
 import org.molgenis.vibe.core.formats.ResourceUri;
+import org.molgenis.vibe.core.formats.Source;
 
 import java.net.URI;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Generates SPARQL queries specific for the DisGeNET RDF dataset.
  */
@@ -72,7 +80,12 @@ public final class QueryStringGenerator {
      * <p>Retrieves the genes belonging to certain HPO phenotypes.</p>
      *
      * <br />between [0] and [1]: the HPO terms (URIs) to filter on (see {@link #createValuesStringForUris(Set)}
-     * <br />between [1] and [2]: the gene-disease association type (see {@link GeneDiseaseCombinationType})
+     * <br />between [1] and [2]: the pattern restricting {@code ?gda} on its type (see
+     * {@link #createGdaTypePattern(GeneDiseaseCombinationType)} & {@link #createGdaTypePattern(GdaTypeClosure)})
+     * <br />between [2] and [3]: the pattern restricting the score and source (see
+     * {@link #createGdaFilterPattern(GdaFilter, SourceRegistry)})
+     * <br />between [3] and [4]: the pattern restricting the evidence year (see
+     * {@link #createEvidenceFilterPattern(GdaFilter)})
      */
     private static final String[] GENES_FOR_PHENOTYPES = {"SELECT ?hpo ?disease ?diseaseName ?gene ?geneSymbol ?gdaScoreNumber ?gdaSource ?evidenceYear ?evidence\n" +
             "WHERE {\n" +
@@ -95,14 +108,63 @@ public final class QueryStringGenerator {
             "\t?disease sio:SIO_000212 ?gda ;\n" +
             "\tdcterms:title ?diseaseName ." +
             "\t\n" +
-            "\t?gda rdf:type/rdfs:subClassOf* ", " ;\n" + // [1] -> [2]
+            "\t", " ;\n" + // [1] -> [2]
+            "\tsio:SIO_000628 ?gene ;\n" +
+            "\tsio:SIO_000216 ?gdaScoreNumber ;\n" +
+            "\tsio:SIO_000253 ?gdaSource .\n" +
+            "\t", "\n" + // [2] -> [3]
+            "\tOPTIONAL {\n" +
+            "\t\t?gda sio:SIO_000772 ?evidence .\n" +
+            "\t\t?evidence dcterms:issued ?evidenceYear .\n" +
+            "\t}\n" +
+            "\t", "\n" + // [3] -> [4]
+            "\n" +
+            "\t?gene sio:SIO_000205 ?geneSymbol .\n" +
+            "}"
+    };
+
+    /**
+     * <p>Retrieves the diseases reached from certain HPO phenotypes through a single {@link PhenotypeDiseaseRoute}
+     * (1 result per path, as within {@link #GENES_FOR_PHENOTYPES}).</p>
+     *
+     * <br />between [0] and [1]: the HPO terms (URIs) to filter on (see {@link #createValuesStringForUris(Set)}
+     * <br />between [1] and [2]: the route pattern (see {@link PhenotypeDiseaseRoute})
+     */
+    private static final String[] DISEASES_FOR_PHENOTYPES = {"SELECT ?disease\n" +
+            "WHERE {\n" +
+            "\tVALUES ?hpo ", "\n" + // [0] -> [1]
+            "\t", "\n" + // [1] -> [2]
+            "}"
+    };
+
+    /**
+     * <p>Retrieves the gene-disease associations for certain diseases. Identical to {@link #GENES_FOR_PHENOTYPES}
+     * after the diseases are found (so it results in the same results per disease).</p>
+     *
+     * <br />between [0] and [1]: the diseases (URIs) to filter on (see {@link #createValuesStringForUris(Set)}
+     * <br />between [1] and [2]: the pattern restricting {@code ?gda} on its type (see
+     * {@link #createGdaTypePattern(GeneDiseaseCombinationType)})
+     * <br />between [2] and [3]: the pattern restricting the score and source (see
+     * {@link #createGdaFilterPattern(GdaFilter, SourceRegistry)})
+     * <br />between [3] and [4]: the pattern restricting the evidence year (see
+     * {@link #createEvidenceFilterPattern(GdaFilter)})
+     */
+    private static final String[] GENES_FOR_DISEASES = {"SELECT ?disease ?diseaseName ?gene ?geneSymbol ?gdaScoreNumber ?gdaSource ?evidenceYear ?evidence\n" +
+            "WHERE {\n" +
+            "\tVALUES ?disease ", "\n" + // [0] -> [1]
+            "\t?disease sio:SIO_000212 ?gda ;\n" +
+            "\tdcterms:title ?diseaseName ." +
+            "\t\n" +
+            "\t", " ;\n" + // [1] -> [2]
             "\tsio:SIO_000628 ?gene ;\n" +
             "\tsio:SIO_000216 ?gdaScoreNumber ;\n" +
             "\tsio:SIO_000253 ?gdaSource .\n" +
+            "\t", "\n" + // [2] -> [3]
             "\tOPTIONAL {\n" +
             "\t\t?gda sio:SIO_000772 ?evidence .\n" +
             "\t\t?evidence dcterms:issued ?evidenceYear .\n" +
             "\t}\n" +
+            "\t", "\n" + // [3] -> [4]
             "\n" +
             "\t?gene sio:SIO_000205 ?geneSymbol .\n" +
             "}"
@@ -112,14 +174,159 @@ public final class QueryStringGenerator {
         return new QueryString(PREFIXES + SOURCES);
     }
 
+    /**
+     * <p>Retrieves all (indirect) subclasses of a gene-disease association type (including the type itself).</p>
+     *
+     * <br />between [0] and [1]: the gene-disease association type (see {@link GeneDiseaseCombinationType})
+     */
+    private static final String[] GDA_TYPE_CLOSURE = {"SELECT DISTINCT ?gdaType\n" +
+            "WHERE {\n" +
+            "\t?gdaType rdfs:subClassOf* ", " .\n" + // [0] -> [1]
+            "}"
+    };
+
     public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes) {
+        return getGenesForPhenotypes(phenotypes, GeneDiseaseCombinationType.ROOT);
+    }
+
+    /**
+     * @param phenotypes the phenotypes to retrieve the genes for
+     * @param gdaType the gene-disease association type (or one of its subclasses) gene-disease associations should have
+     * @return the query (evaluating the type hierarchy through a property path)
+     */
+    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes, GeneDiseaseCombinationType gdaType) {
+        return getGenesForPhenotypes(phenotypes, gdaType, GdaFilter.NONE, null);
+    }
+
+    /**
+     * @param phenotypes the phenotypes to retrieve the genes for
+     * @param gdaType the gene-disease association type (or one of its subclasses) gene-disease associations should have
+     * @param filter the {@link GdaFilter} results should pass
+     * @param sourceRegistry the {@link Source}{@code s} of the database (only required if {@code filter} restricts the
+     *                       {@link Source.Level}{@code s})
+     * @return the query (evaluating the type hierarchy through a property path)
+     */
+    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes, GeneDiseaseCombinationType gdaType,
+                                                    GdaFilter filter, SourceRegistry sourceRegistry) {
         return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) + GENES_FOR_PHENOTYPES[1] +
-        GeneDiseaseCombinationType.GENE_DISEASE.getFormattedId() + GENES_FOR_PHENOTYPES[2]);
+                createGdaTypePattern(gdaType) + GENES_FOR_PHENOTYPES[2] + createGdaFilterPattern(filter, sourceRegistry) +
+                GENES_FOR_PHENOTYPES[3] + createEvidenceFilterPattern(filter) + GENES_FOR_PHENOTYPES[4]);
+    }
+
+    /**
+     * @param phenotypes the phenotypes to retrieve the genes for
+     * @param gdaTypeClosure the already resolved types gene-disease associations should have
+     * @return the query (matching the types as plain set instead of through a property path)
+     */
+    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes, GdaTypeClosure gdaTypeClosure) {
+        return getGenesForPhenotypes(phenotypes, gdaTypeClosure, GdaFilter.NONE, null);
+    }
+
+    /**
+     * @param phenotypes the phenotypes to retrieve the genes for
+     * @param gdaTypeClosure the already resolved types gene-disease associations should have
+     * @param filter the {@link GdaFilter} results should pass
+     * @param sourceRegistry the {@link Source}{@code s} of the database (only required if {@code filter} restricts the
+     *                       {@link Source.Level}{@code s})
+     * @return the query (matching the types as plain set instead of through a property path)
+     */
+    public static QueryString getGenesForPhenotypes(Set<Phenotype> phenotypes, GdaTypeClosure gdaTypeClosure,
+                                                    GdaFilter filter, SourceRegistry sourceRegistry) {
+        return new QueryString(PREFIXES + GENES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) + GENES_FOR_PHENOTYPES[1] +
+                createGdaTypePattern(gdaTypeClosure) + GENES_FOR_PHENOTYPES[2] + createGdaFilterPattern(filter, sourceRegistry) +
+                GENES_FOR_PHENOTYPES[3] + createEvidenceFilterPattern(filter) + GENES_FOR_PHENOTYPES[4]);
+    }
+
+    public static QueryString getGdaTypeClosure(GeneDiseaseCombinationType gdaType) {
+        return new QueryString(PREFIXES + GDA_TYPE_CLOSURE[0] + gdaType.getFormattedId() + GDA_TYPE_CLOSURE[1]);
+    }
+
+    public static QueryString getDiseasesForPhenotypes(Set<Phenotype> phenotypes, PhenotypeDiseaseRoute route) {
+        return new QueryString(PREFIXES + DISEASES_FOR_PHENOTYPES[0] + createValuesStringForUris(phenotypes) +
+                DISEASES_FOR_PHENOTYPES[1] + route.getPattern() + DISEASES_FOR_PHENOTYPES[2]);
+    }
+
+    /**
+     * @param diseaseUris the disease {@link URI}{@code s} (these are not required to be valid
+     *                    {@link org.molgenis.vibe.core.formats.Disease}{@code s}, as a route can reach other resources)
+     * @return the query
+     */
+    public static QueryString getGenesForDiseases(Set<URI> diseaseUris) {
+        return getGenesForDiseases(diseaseUris, GdaFilter.NONE, null);
+    }
+
+    /**
+     * @param diseaseUris the disease {@link URI}{@code s} (these are not required to be valid
+     *                    {@link org.molgenis.vibe.core.formats.Disease}{@code s}, as a route can reach other resources)
+     * @param filter the {@link GdaFilter} results should pass
+     * @param sourceRegistry the {@link Source}{@code s} of the database (only required if {@code filter} restricts the
+     *                       {@link Source.Level}{@code s})
+     * @return the query
+     */
+    public static QueryString getGenesForDiseases(Set<URI> diseaseUris, GdaFilter filter, SourceRegistry sourceRegistry) {
+        return new QueryString(PREFIXES + GENES_FOR_DISEASES[0] + createValuesStringForUris(toResourceUris(diseaseUris)) +
+                GENES_FOR_DISEASES[1] + createGdaTypePattern(GeneDiseaseCombinationType.ROOT) + GENES_FOR_DISEASES[2] +
+                createGdaFilterPattern(filter, sourceRegistry) + GENES_FOR_DISEASES[3] + createEvidenceFilterPattern(filter) +
+                GENES_FOR_DISEASES[4]);
     }
 
     private QueryStringGenerator() {
     }
 
+    /**
+     * @return a pattern restricting {@code ?gda} to the type or one of its subclasses through a property path
+     */
+    private static String createGdaTypePattern(GeneDiseaseCombinationType gdaType) {
+        return "?gda rdf:type/rdfs:subClassOf* " + gdaType.getFormattedId();
+    }
+
+    /**
+     * @return a pattern restricting {@code ?gda} to one of the types within the closure (results in a single result
+     * per matching type, identical to the property path)
+     */
+    private static String createGdaTypePattern(GdaTypeClosure gdaTypeClosure) {
+        return "VALUES ?gdaType " + createValuesStringForUris(toResourceUris(gdaTypeClosure.getTypeUris())) + "\n" +
+                "\t?gda rdf:type ?gdaType";
+    }
+
+    /**
+     * @return a pattern restricting {@code ?gdaScoreNumber} and {@code ?gdaSource} (empty if {@code filter} does not
+     * restrict either of these). Allowed {@link Source.Level}{@code s} are matched as the {@link Source}{@code s}
+     * having that level, so that no additional join is needed.
+     */
+    private static String createGdaFilterPattern(GdaFilter filter, SourceRegistry sourceRegistry) {
+        StringBuilder pattern = new StringBuilder();
+        if(filter.filtersScore()) {
+            pattern.append("FILTER(?gdaScoreNumber >= ").append(filter.getMinScore()).append(")\n\t");
+        }
+        if(filter.filtersSourceLevels()) {
+            List<Source> sources = filter.retrieveAcceptedSources(requireNonNull(sourceRegistry));
+            // An empty VALUES block is valid and results in no results at all.
+            pattern.append("VALUES ?gdaSource ").append(sources.isEmpty() ? "{ }" :
+                    createValuesStringForUris(new LinkedHashSet<>(sources))).append("\n\t");
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * @return a pattern removing results of which the evidence was issued before the minimum evidence year (empty if
+     * {@code filter} does not restrict the evidence year). Results without evidence are kept.
+     */
+    private static String createEvidenceFilterPattern(GdaFilter filter) {
+        if(!filter.filtersEvidenceYear()) {
+            return "";
+        }
+        return "FILTER(!BOUND(?evidenceYear) || xsd:integer(STR(?evidenceYear)) >= " + filter.getMinEvidenceYear() + ")";
+    }
+
+    private static Set<ResourceUri> toResourceUris(Set<URI> uris) {
+        Set<ResourceUri> resourceUris = new LinkedHashSet<>();
+        for(URI uri : uris) {
+            resourceUris.add(() -> uri);
+        }
+        return resourceUris;
+    }
+
     /**
      * Generates query-compatible {@link String} to be used as VALUES containing 1 or more {@link URI}{@code s}.
      * @param resourceUris the {@link URI}{@code s} to be used
@@ -0,0 +1,218 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.ReadOnlyGeneDiseaseCollection;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link PhenotypeResultCache} storing the data per {@link Phenotype} as files within a directory, so that it is
+ * kept between runs. Each {@link Phenotype} is stored as {@code <directory>/<database id>/<phenotype id>.gdc} using a
+ * compact binary encoding (see {@link GeneDiseaseCollectionEncoder}).
+ * <br /><br />
+ * Files are written to a temporary file first which is then atomically moved into place, so that multiple processes
+ * can safely share the same directory (a file is either absent or complete). Files that can not be read (for example
+ * written by a different version) are treated as not present. Reading a file updates its last modified time, and
+ * when the total size of the directory exceeds the maximum size, the least recently used files are removed first.
+ */
+public class DiskPhenotypeResultCache implements PhenotypeResultCache {
+    /**
+     * Default maximum size of the cache directory (1 GiB).
+     */
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    static final String FILE_EXTENSION = ".gdc";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * Size of the cache directory as last counted, increased by each file written since. As other processes can write
+     * to the same directory, the directory is counted again before actually removing any files.
+     */
+    private final AtomicLong estimatedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param directory the directory to store the cache in (created if it does not exist yet)
+     * @param maxBytes the maximum total size of the cached files
+     * @throws IOException if {@code directory} could not be created or is not a writable directory
+     * @throws IllegalArgumentException if {@code maxBytes < 1}
+     */
+    public DiskPhenotypeResultCache(Path directory, long maxBytes) throws IOException {
+        if(maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be >= 1: " + maxBytes);
+        }
+        this.directory = Files.createDirectories(requireNonNull(directory));
+        if(!Files.isWritable(this.directory)) {
+            throw new IOException("Result cache directory " + directory + " is not writable.");
+        }
+        this.maxBytes = maxBytes;
+        this.estimatedBytes = new AtomicLong(totalSize(listCacheFiles()));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    Path fileFor(String databaseId, Phenotype phenotype) {
+        return directory.resolve(databaseId).resolve(phenotype.getId() + FILE_EXTENSION);
+    }
+
+    @Override
+    public GeneDiseaseCollection get(String databaseId, Phenotype phenotype) {
+        Path file = fileFor(requireNonNull(databaseId), requireNonNull(phenotype));
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            GeneDiseaseCollection geneDiseaseCollection = GeneDiseaseCollectionEncoder.read(input);
+            touch(file);
+            hits.incrementAndGet();
+            return geneDiseaseCollection;
+        } catch (IOException e) {
+            // Not present or unreadable, so it is retrieved from the database again (and overwritten afterwards).
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores the data on disk. As the cache is only an optimization, failing to write the file is ignored (the data
+     * is then simply retrieved from the database again next time).
+     */
+    @Override
+    public void put(String databaseId, Phenotype phenotype, ReadOnlyGeneDiseaseCollection geneDiseaseCollection) {
+        requireNonNull(geneDiseaseCollection);
+        Path file = fileFor(requireNonNull(databaseId), requireNonNull(phenotype));
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile = Files.createTempFile(file.getParent(), phenotype.getId() + "-", TEMP_FILE_EXTENSION);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                GeneDiseaseCollectionEncoder.write(geneDiseaseCollection, output);
+            }
+            long size = Files.size(tempFile);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+
+            if(estimatedBytes.addAndGet(size) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            // Not stored.
+        } finally {
+            if(tempFile != null) {
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used files until the total size no longer exceeds {@link #maxBytes}.
+     * @throws IOException if the directory could not be listed
+     */
+    synchronized void evict() throws IOException {
+        List<CacheFile> cacheFiles = listCacheFiles();
+        long total = totalSize(cacheFiles);
+        cacheFiles.sort(Comparator.comparing(cacheFile -> cacheFile.lastModified));
+
+        for(int i = 0; total > maxBytes && i < cacheFiles.size(); i++) {
+            CacheFile cacheFile = cacheFiles.get(i);
+            // Might already be removed by another process.
+            if(deleteQuietly(cacheFile.path)) {
+                evictions.incrementAndGet();
+            }
+            total -= cacheFile.size;
+        }
+        estimatedBytes.set(total);
+    }
+
+    private List<CacheFile> listCacheFiles() throws IOException {
+        List<CacheFile> cacheFiles = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(FILE_EXTENSION)).forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    cacheFiles.add(new CacheFile(path, attributes.size(), attributes.lastModifiedTime()));
+                } catch (IOException e) {
+                    // Removed by another process in the meantime.
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return cacheFiles;
+    }
+
+    private static long totalSize(List<CacheFile> cacheFiles) {
+        return cacheFiles.stream().mapToLong(cacheFile -> cacheFile.size).sum();
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects the eviction order.
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DiskPhenotypeResultCache{" +
+                "directory=" + directory +
+                ", maxBytes=" + maxBytes +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    private static class CacheFile {
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+
+        CacheFile(Path path, long size, FileTime lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
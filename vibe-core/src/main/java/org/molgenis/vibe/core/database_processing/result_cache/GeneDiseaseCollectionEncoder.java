@@ -0,0 +1,154 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.molgenis.vibe.core.formats.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Compact binary encoding of a {@link GeneDiseaseCollection}. Each distinct {@link Source}, {@link Gene},
+ * {@link Disease} and {@link PubmedEvidence} is stored once, after which the {@link GeneDiseaseCombination}{@code s}
+ * refer to them by index:
+ * <pre>
+ * int magic, int version
+ * int n, n * (UTF uri, UTF full name, UTF level name)       sources
+ * int n, n * (UTF uri, UTF symbol uri)                      genes
+ * int n, n * (UTF uri, boolean has name, [UTF name])        diseases
+ * int n, n * (UTF uri, int year)                            evidence
+ * int n, n * (int gene, int disease, double score,          combinations
+ *             int n, n * (int source, int count, int n, n * int evidence))
+ * </pre>
+ */
+final class GeneDiseaseCollectionEncoder {
+    private static final int MAGIC = 0x56474443;
+    private static final int VERSION = 1;
+
+    private GeneDiseaseCollectionEncoder() {
+    }
+
+    static void write(ReadOnlyGeneDiseaseCollection geneDiseaseCollection, DataOutput output) throws IOException {
+        Map<Source, Integer> sources = new LinkedHashMap<>();
+        Map<Gene, Integer> genes = new LinkedHashMap<>();
+        Map<Disease, Integer> diseases = new LinkedHashMap<>();
+        Map<PubmedEvidence, Integer> evidence = new LinkedHashMap<>();
+        for(GeneDiseaseCombination gdc : geneDiseaseCollection) {
+            genes.putIfAbsent(gdc.getGene(), genes.size());
+            diseases.putIfAbsent(gdc.getDisease(), diseases.size());
+            for(Source source : gdc.getSourcesCount().keySet()) {
+                sources.putIfAbsent(source, sources.size());
+            }
+            for(PubmedEvidence pubmedEvidence : gdc.getAllPubmedEvidence()) {
+                evidence.putIfAbsent(pubmedEvidence, evidence.size());
+            }
+        }
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        output.writeInt(sources.size());
+        for(Source source : sources.keySet()) {
+            output.writeUTF(source.getUri().toString());
+            output.writeUTF(source.getFullName());
+            output.writeUTF(source.getLevel().name());
+        }
+
+        output.writeInt(genes.size());
+        for(Gene gene : genes.keySet()) {
+            output.writeUTF(gene.getUri().toString());
+            output.writeUTF(gene.getSymbol().getUri().toString());
+        }
+
+        output.writeInt(diseases.size());
+        for(Disease disease : diseases.keySet()) {
+            output.writeUTF(disease.getUri().toString());
+            output.writeBoolean(disease.getName() != null);
+            if(disease.getName() != null) {
+                output.writeUTF(disease.getName());
+            }
+        }
+
+        output.writeInt(evidence.size());
+        for(PubmedEvidence pubmedEvidence : evidence.keySet()) {
+            output.writeUTF(pubmedEvidence.getUri().toString());
+            output.writeInt(pubmedEvidence.getReleaseYear());
+        }
+
+        output.writeInt(geneDiseaseCollection.size());
+        for(GeneDiseaseCombination gdc : geneDiseaseCollection) {
+            output.writeInt(genes.get(gdc.getGene()));
+            output.writeInt(diseases.get(gdc.getDisease()));
+            output.writeDouble(gdc.getDisgenetScore());
+            output.writeInt(gdc.getSourcesCount().size());
+            for(Map.Entry<Source, Integer> sourceCount : gdc.getSourcesCount().entrySet()) {
+                output.writeInt(sources.get(sourceCount.getKey()));
+                output.writeInt(sourceCount.getValue());
+                Set<PubmedEvidence> sourceEvidence = gdc.getPubmedEvidenceForSource(sourceCount.getKey());
+                output.writeInt(sourceEvidence == null ? 0 : sourceEvidence.size());
+                if(sourceEvidence != null) {
+                    for(PubmedEvidence pubmedEvidence : sourceEvidence) {
+                        output.writeInt(evidence.get(pubmedEvidence));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if {@code input} does not contain a (complete) encoded {@link GeneDiseaseCollection}
+     */
+    static GeneDiseaseCollection read(DataInput input) throws IOException {
+        if(input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Not an encoded gene-disease collection (or an unsupported version).");
+        }
+
+        try {
+            Source[] sources = new Source[input.readInt()];
+            for(int i = 0; i < sources.length; i++) {
+                sources[i] = new Source(URI.create(input.readUTF()), input.readUTF(), Source.Level.valueOf(input.readUTF()));
+            }
+
+            Gene[] genes = new Gene[input.readInt()];
+            for(int i = 0; i < genes.length; i++) {
+                genes[i] = new Gene(URI.create(input.readUTF()), new GeneSymbol(URI.create(input.readUTF())));
+            }
+
+            Disease[] diseases = new Disease[input.readInt()];
+            for(int i = 0; i < diseases.length; i++) {
+                URI uri = URI.create(input.readUTF());
+                diseases[i] = input.readBoolean() ? new Disease(uri, input.readUTF()) : new Disease(uri);
+            }
+
+            PubmedEvidence[] evidence = new PubmedEvidence[input.readInt()];
+            for(int i = 0; i < evidence.length; i++) {
+                evidence[i] = new PubmedEvidence(URI.create(input.readUTF()), input.readInt());
+            }
+
+            GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
+            int combinations = input.readInt();
+            for(int i = 0; i < combinations; i++) {
+                GeneDiseaseCombination gdc = geneDiseaseCollection.getOrCreate(genes[input.readInt()],
+                        diseases[input.readInt()], input.readDouble());
+                int sourceCounts = input.readInt();
+                for(int j = 0; j < sourceCounts; j++) {
+                    Source source = sources[input.readInt()];
+                    int remainingCount = input.readInt();
+                    int evidenceCount = input.readInt();
+                    for(int k = 0; k < evidenceCount; k++) {
+                        gdc.add(source, evidence[input.readInt()]);
+                        remainingCount--;
+                    }
+                    // Results with evidence also increment the source count.
+                    for(int k = 0; k < remainingCount; k++) {
+                        gdc.add(source);
+                    }
+                }
+            }
+            return geneDiseaseCollection;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid encoded gene-disease collection.", e);
+        }
+    }
+}
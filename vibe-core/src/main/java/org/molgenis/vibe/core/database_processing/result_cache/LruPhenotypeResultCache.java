@@ -0,0 +1,126 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.molgenis.vibe.core.formats.ColumnarGeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.ReadOnlyGeneDiseaseCollection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An in-memory {@link PhenotypeResultCache} holding at most a fixed number of {@link Phenotype}{@code s}. When full,
+ * the least recently used {@link Phenotype} is evicted. Can be shared by multiple threads (and therefore by multiple
+ * requests or patients).
+ * <br /><br />
+ * As the stored data is kept in memory for a longer period, it is stored as {@link ColumnarGeneDiseaseCollection}.
+ */
+public class LruPhenotypeResultCache implements PhenotypeResultCache {
+    /**
+     * The maximum number of stored {@link Phenotype}{@code s}.
+     */
+    private final int maxEntries;
+
+    /**
+     * Ordered from least to most recently used.
+     */
+    private final LinkedHashMap<Key, ColumnarGeneDiseaseCollection> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries the maximum number of stored {@link Phenotype}{@code s}
+     * @throws IllegalArgumentException if {@code maxEntries < 1}
+     */
+    public LruPhenotypeResultCache(int maxEntries) {
+        if(maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        entries = new LinkedHashMap<Key, ColumnarGeneDiseaseCollection>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ColumnarGeneDiseaseCollection> eldest) {
+                if(size() > LruPhenotypeResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized ColumnarGeneDiseaseCollection get(String databaseId, Phenotype phenotype) {
+        ColumnarGeneDiseaseCollection geneDiseaseCollection = entries.get(new Key(databaseId, phenotype));
+        if(geneDiseaseCollection == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return geneDiseaseCollection;
+    }
+
+    @Override
+    public synchronized void put(String databaseId, Phenotype phenotype, ReadOnlyGeneDiseaseCollection geneDiseaseCollection) {
+        entries.put(new Key(databaseId, phenotype), ColumnarGeneDiseaseCollection.of(geneDiseaseCollection));
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruPhenotypeResultCache{" +
+                "maxEntries=" + maxEntries +
+                ", size=" + entries.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    private static class Key {
+        private final String databaseId;
+        private final Phenotype phenotype;
+
+        Key(String databaseId, Phenotype phenotype) {
+            this.databaseId = requireNonNull(databaseId);
+            this.phenotype = requireNonNull(phenotype);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return databaseId.equals(key.databaseId) &&
+                    phenotype.equals(key.phenotype);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(databaseId, phenotype);
+        }
+    }
+}
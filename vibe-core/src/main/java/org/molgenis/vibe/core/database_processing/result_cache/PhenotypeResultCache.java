@@ -0,0 +1,31 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.ReadOnlyGeneDiseaseCollection;
+import org.molgenis.vibe.core.io.input.ModelReader;
+
+/**
+ * Stores the data retrieved for a single {@link Phenotype} from a database, so that it does not need to be retrieved
+ * again for later requests containing that {@link Phenotype}.
+ * <br /><br />
+ * The data of multiple {@link Phenotype}{@code s} equals the data of each single {@link Phenotype} combined (see
+ * {@link GeneDiseaseCollection#merge(ReadOnlyGeneDiseaseCollection)}), so a request can be assembled from cached results.
+ * Implementations must be thread-safe, and stored collections should not be modified by either the cache or the
+ * caller afterwards.
+ */
+public interface PhenotypeResultCache {
+    /**
+     * @param databaseId identifies the database the data was retrieved from (see {@link ModelReader#getDatabaseId()})
+     * @param phenotype the {@link Phenotype} the data was retrieved for
+     * @return the cached data, or {@code null} if not present
+     */
+    ReadOnlyGeneDiseaseCollection get(String databaseId, Phenotype phenotype);
+
+    /**
+     * @param databaseId identifies the database the data was retrieved from (see {@link ModelReader#getDatabaseId()})
+     * @param phenotype the {@link Phenotype} the data was retrieved for
+     * @param geneDiseaseCollection the data retrieved for only {@code phenotype}
+     */
+    void put(String databaseId, Phenotype phenotype, ReadOnlyGeneDiseaseCollection geneDiseaseCollection);
+}
@@ -0,0 +1,47 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.ReadOnlyGeneDiseaseCollection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Combines a fast (for example {@link LruPhenotypeResultCache}) and a slow but larger (for example
+ * {@link DiskPhenotypeResultCache}) {@link PhenotypeResultCache}. Data is stored in both, and data only found in the
+ * slow cache is added to the fast cache as well.
+ */
+public class TieredPhenotypeResultCache implements PhenotypeResultCache {
+    private final PhenotypeResultCache fast;
+    private final PhenotypeResultCache slow;
+
+    public TieredPhenotypeResultCache(PhenotypeResultCache fast, PhenotypeResultCache slow) {
+        this.fast = requireNonNull(fast);
+        this.slow = requireNonNull(slow);
+    }
+
+    @Override
+    public ReadOnlyGeneDiseaseCollection get(String databaseId, Phenotype phenotype) {
+        ReadOnlyGeneDiseaseCollection geneDiseaseCollection = fast.get(databaseId, phenotype);
+        if(geneDiseaseCollection == null) {
+            geneDiseaseCollection = slow.get(databaseId, phenotype);
+            if(geneDiseaseCollection != null) {
+                fast.put(databaseId, phenotype, geneDiseaseCollection);
+            }
+        }
+        return geneDiseaseCollection;
+    }
+
+    @Override
+    public void put(String databaseId, Phenotype phenotype, ReadOnlyGeneDiseaseCollection geneDiseaseCollection) {
+        fast.put(databaseId, phenotype, geneDiseaseCollection);
+        slow.put(databaseId, phenotype, geneDiseaseCollection);
+    }
+
+    @Override
+    public String toString() {
+        return "TieredPhenotypeResultCache{" +
+                "fast=" + fast +
+                ", slow=" + slow +
+                '}';
+    }
+}
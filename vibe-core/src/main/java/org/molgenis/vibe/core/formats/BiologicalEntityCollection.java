@@ -1,28 +1,46 @@
 package org.molgenis.vibe.core.formats;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * A collection of 0 or more {@link BiologicalEntityCombination}{@code s} that have the same {@link T1} and {@link T2} class types.
+ * <br /><br />
+ * A concurrent collection (see {@link #BiologicalEntityCollection(boolean)}) can be filled by multiple threads
+ * simultaneously through {@link #add(BiologicalEntityCombination)} and {@link #addIfAbsent(BiologicalEntityCombination)}.
+ * Removing items is not atomic in regard to items being added simultaneously, and reading should only be done after all
+ * threads are finished adding items.
  * @param <T1> the first {@link BiologicalEntity} subclass type
  * @param <T2> the second {@link BiologicalEntity} subclass type
  * @param <T3> the {@link BiologicalEntityCombination} combining {@link T1} and {@link T2}
  */
 public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2 extends BiologicalEntity, T3 extends BiologicalEntityCombination<T1,T2>> implements Collection<T3>, AllFieldsEquals {
+    /**
+     * Whether the collection can be filled by multiple threads simultaneously.
+     */
+    private final boolean concurrent;
+
     /**
      * All the {@link BiologicalEntityCombination}{@code s} (retrievable by themselves as key).
      */
-    private Map<T3, T3> combinationsMap = new HashMap<>();
+    private final Map<T3, T3> combinationsMap;
 
     /**
      * The {@link BiologicalEntityCombination}{@code s} grouped per {@link T1}.
      */
-    private Map<T1, Set<T3>> combinationsByT1 = new HashMap<>();
+    private final Map<T1, Set<T3>> combinationsByT1;
 
     /**
      * The {@link BiologicalEntityCombination}{@code s} grouped per {@link T2}.
      */
-    private Map<T2, Set<T3>> combinationsByT2 = new HashMap<>();
+    private final Map<T2, Set<T3>> combinationsByT2;
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
 
     public T3 get(T3 t3) {
         return combinationsMap.get(t3);
@@ -72,12 +90,32 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
     }
 
     protected BiologicalEntityCollection() {
+        this(false);
+    }
+
+    /**
+     * @param concurrent whether the collection should support being filled by multiple threads simultaneously
+     */
+    protected BiologicalEntityCollection(boolean concurrent) {
+        this.concurrent = concurrent;
+        combinationsMap = createMap();
+        combinationsByT1 = createMap();
+        combinationsByT2 = createMap();
     }
 
     protected BiologicalEntityCollection(Collection<? extends T3> combinations) {
+        this(false);
         addAll(combinations);
     }
 
+    private <K, V> Map<K, V> createMap() {
+        return concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+
+    private Set<T3> createSet() {
+        return concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+    }
+
     @Override
     public int size() {
         return combinationsMap.size();
@@ -93,9 +131,34 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
         return combinationsMap.containsKey(o);
     }
 
+    /**
+     * @return an {@link Iterator} over all {@link T3}{@code s} (of which {@link Iterator#remove()} also updates the
+     * groups per {@link T1} and {@link T2})
+     */
     @Override
     public Iterator<T3> iterator() {
-        return combinationsMap.keySet().iterator();
+        Iterator<T3> iterator = combinationsMap.keySet().iterator();
+        return new Iterator<T3>() {
+            private T3 current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T3 next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                removeFromGroup(combinationsByT1, current.getT1(), current);
+                removeFromGroup(combinationsByT2, current.getT2(), current);
+            }
+        };
     }
 
     @Override
@@ -110,45 +173,53 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
 
     @Override
     public boolean add(T3 t3) {
-        if(!combinationsMap.containsKey(t3)) {
-            combinationsMap.put(t3,t3);
-            addCombinationToT1Map(t3, combinationsByT1); // "? extends BiologicalEntity" causes issues
-            addCombinationToT2Map(t3, combinationsByT2); // "? extends BiologicalEntity" causes issues
-            return true;
-        }
-        return false;
+        return addIfAbsent(t3) == t3;
     }
 
-    private void addCombinationToT1Map(T3 t3, Map<T1, Set<T3>> combinationsMap) {
-        Set<T3> valueSet = combinationsMap.get(t3.getT1());
-        if(valueSet == null) {
-            valueSet = new HashSet<>();
-            combinationsMap.put(t3.getT1(), valueSet);
+    /**
+     * Adds {@code t3} if no equal {@link T3} is present yet. For a concurrent collection, this is done atomically (so
+     * simultaneous calls for equal {@link T3}{@code s} all return the same instance).
+     * @param t3 the {@link T3} to add
+     * @return the {@link T3} stored within the collection (which is {@code t3} itself if it was added)
+     */
+    protected T3 addIfAbsent(T3 t3) {
+        T3 existing = combinationsMap.putIfAbsent(t3, t3);
+        if(existing != null) {
+            return existing;
         }
-        valueSet.add(t3);
-    }
 
-    private void addCombinationToT2Map(T3 t3, Map<T2, Set<T3>> combinationsMap) {
-        Set<T3> valueSet = combinationsMap.get(t3.getT2());
-        if(valueSet == null) {
-            valueSet = new HashSet<>();
-            combinationsMap.put(t3.getT2(), valueSet);
-        }
-        valueSet.add(t3);
+        combinationsByT1.computeIfAbsent(t3.getT1(), k -> createSet()).add(t3);
+        combinationsByT2.computeIfAbsent(t3.getT2(), k -> createSet()).add(t3);
+        return t3;
     }
 
+    /**
+     * Removes {@code o} from the collection. Only the groups of its {@link T1} and {@link T2} are updated.
+     * @param o the {@link T3} to remove
+     * @return {@code true} if {@code o} was present
+     */
     @Override
     public boolean remove(Object o) {
-        Object object = combinationsMap.remove(o);
+        T3 removed = combinationsMap.remove(o);
 
-        combinationsByT1.values().forEach(s->s.remove(o));
-        combinationsByT2.values().forEach(s->s.remove(o));
+        // removed is null if combinationsMap.remove(o) did NOT remove something.
+        if(removed == null) {
+            return false;
+        }
 
-        removeEmptySets(combinationsByT1);
-        removeEmptySets(combinationsByT2);
+        removeFromGroup(combinationsByT1, removed.getT1(), removed);
+        removeFromGroup(combinationsByT2, removed.getT2(), removed);
+        return true;
+    }
 
-        // object is null if combinationsMap.remove(o) did NOT remove something.
-        return !Objects.isNull(object);
+    /**
+     * Removes {@code t3} from the group belonging to {@code key} (and removes the group itself when it becomes empty).
+     */
+    private static <K, V> void removeFromGroup(Map<K, Set<V>> combinationsByKey, K key, V t3) {
+        combinationsByKey.computeIfPresent(key, (k, group) -> {
+            group.remove(t3);
+            return group.isEmpty() ? null : group;
+        });
     }
 
     @Override
@@ -171,44 +242,41 @@ public abstract class BiologicalEntityCollection<T1 extends BiologicalEntity, T2
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean changed = combinationsMap.keySet().removeAll(c);
-
-        combinationsByT1.values().forEach(s->s.removeAll(c));
-        combinationsByT2.values().forEach(s->s.removeAll(c));
-
-        removeEmptySets(combinationsByT1);
-        removeEmptySets(combinationsByT2);
-
+        boolean changed = false;
+        for(Object o : c) {
+            if(remove(o)) {
+                changed = true;
+            }
+        }
         return changed;
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
-        boolean changed = combinationsMap.keySet().retainAll(c);
-        combinationsByT1.values().forEach(s->s.retainAll(c));
-        combinationsByT2.values().forEach(s->s.retainAll(c));
-
-        removeEmptySets(combinationsByT1);
-        removeEmptySets(combinationsByT2);
-
-        return changed;
+        requireNonNull(c);
+        return removeIf(t3 -> !c.contains(t3));
     }
 
-    private void removeEmptySets(Map<? extends BiologicalEntity, Set<T3>> combinationsByKey) {
-        // Stores keys to be removed.
-        Set<BiologicalEntity> keysWithEmptySet = new HashSet<>();
-
-        // Goes through all keys to see if there are any keys with an empty Set.
-        for(Map.Entry<? extends BiologicalEntity, Set<T3>> combination:combinationsByKey.entrySet()) {
-            if(combination.getValue().isEmpty()) {
-                keysWithEmptySet.add(combination.getKey());
-            }
+    /**
+     * Removes all {@link T3}{@code s} matching {@code filter} in a single pass, after which the groups per {@link T1}
+     * and {@link T2} are rebuilt in a single pass as well. Filtering a large collection is therefore linear in its size
+     * (while removing the items one by one through {@link #remove(Object)} is linear in the number of removed items).
+     * @param filter a predicate which returns {@code true} for the {@link T3}{@code s} to be removed
+     * @return {@code true} if any {@link T3} was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T3> filter) {
+        if(!combinationsMap.keySet().removeIf(requireNonNull(filter))) {
+            return false;
         }
 
-        // Removes Keys that have an empty set.
-        for(BiologicalEntity key:keysWithEmptySet) {
-            combinationsByKey.remove(key);
+        combinationsByT1.clear();
+        combinationsByT2.clear();
+        for(T3 t3 : combinationsMap.keySet()) {
+            combinationsByT1.computeIfAbsent(t3.getT1(), k -> createSet()).add(t3);
+            combinationsByT2.computeIfAbsent(t3.getT2(), k -> createSet()).add(t3);
         }
+        return true;
     }
 
     @Override
@@ -0,0 +1,425 @@
+package org.molgenis.vibe.core.formats;
+
+import java.util.*;
+
+/**
+ * An immutable {@link ReadOnlyGeneDiseaseCollection} that stores its data in columns (arrays) instead of a
+ * {@link GeneDiseaseCombination} object per combination and hash-based indexes.
+ * <br /><br />
+ * The {@link Gene}{@code s} and {@link Disease}{@code s} are each stored in a sorted array, of which the index is their
+ * ordinal (found through a binary search). The combinations are ordered on gene and then disease ordinal and stored as
+ * a gene ordinal, disease ordinal and score column. Offset arrays (compressed sparse rows) give the range of
+ * combinations per gene and per disease, and the {@link Source} counts and evidence of all combinations are
+ * stored in single columns as well. This makes scanning the data cache-friendly (see
+ * {@link #getHighestDisgenetScore(Gene)} and {@link #mergeInto(GeneDiseaseCollection)}) and leaves only a few arrays
+ * (referring to entities that are shared with other collections) for the garbage collector to trace, which benefits
+ * collections that are kept in memory for a longer period.
+ * <br /><br />
+ * {@link #mergeInto(GeneDiseaseCollection)} reads the columns directly. All methods returning
+ * {@link GeneDiseaseCombination}{@code s} create these from the columns on each call (so changes to them are not
+ * reflected in the collection).
+ */
+public class ColumnarGeneDiseaseCollection implements ReadOnlyGeneDiseaseCollection {
+    /**
+     * The {@link Gene}{@code s} (index = gene ordinal).
+     */
+    private final Gene[] genes;
+
+    /**
+     * The {@link Disease}{@code s} (index = disease ordinal).
+     */
+    private final Disease[] diseases;
+
+    /**
+     * The gene ordinal per combination.
+     */
+    private final int[] combinationGenes;
+
+    /**
+     * The disease ordinal per combination (ordered within each gene).
+     */
+    private final int[] combinationDiseases;
+
+    /**
+     * The DisGeNET score per combination.
+     */
+    private final double[] scores;
+
+    /**
+     * The combinations of gene ordinal {@code g} are {@code geneOffsets[g]} (inclusive) to {@code geneOffsets[g + 1]}
+     * (exclusive).
+     */
+    private final int[] geneOffsets;
+
+    /**
+     * The combinations of disease ordinal {@code d} are the ones stored in {@link #diseaseCombinations} from
+     * {@code diseaseOffsets[d]} (inclusive) to {@code diseaseOffsets[d + 1]} (exclusive).
+     */
+    private final int[] diseaseOffsets;
+
+    /**
+     * The combinations grouped per disease ordinal (see {@link #diseaseOffsets}).
+     */
+    private final int[] diseaseCombinations;
+
+    /**
+     * The distinct {@link Source}{@code s} used by {@link #entrySources}.
+     */
+    private final Source[] sources;
+
+    /**
+     * The {@link Source} entries of combination {@code c} are {@code entryOffsets[c]} (inclusive) to
+     * {@code entryOffsets[c + 1]} (exclusive).
+     */
+    private final int[] entryOffsets;
+
+    /**
+     * The index within {@link #sources} per entry.
+     */
+    private final int[] entrySources;
+
+    /**
+     * The count per entry.
+     */
+    private final int[] entryCounts;
+
+    /**
+     * The evidence of entry {@code e} is {@code evidenceOffsets[e]} (inclusive) to {@code evidenceOffsets[e + 1]}
+     * (exclusive).
+     */
+    private final int[] evidenceOffsets;
+
+    /**
+     * The evidence of all entries (sorted on PubMed ID per entry).
+     */
+    private final PubmedEvidence[] evidence;
+
+    /**
+     * @param collection the collection to store in columns
+     * @return a {@link ColumnarGeneDiseaseCollection} with the same data as {@code collection} (or {@code collection}
+     * itself if it already is one)
+     */
+    public static ColumnarGeneDiseaseCollection of(ReadOnlyGeneDiseaseCollection collection) {
+        if(collection instanceof ColumnarGeneDiseaseCollection) {
+            return (ColumnarGeneDiseaseCollection) collection;
+        }
+        return new ColumnarGeneDiseaseCollection(collection);
+    }
+
+    private ColumnarGeneDiseaseCollection(ReadOnlyGeneDiseaseCollection collection) {
+        genes = collection.getGenes().toArray(new Gene[0]);
+        Arrays.sort(genes);
+        diseases = collection.getDiseases().toArray(new Disease[0]);
+        Arrays.sort(diseases);
+
+        // Ordered on gene and then disease.
+        List<GeneDiseaseCombination> combinations = collection.getGeneDiseaseCombinationsOrdered();
+        int size = combinations.size();
+        combinationGenes = new int[size];
+        combinationDiseases = new int[size];
+        scores = new double[size];
+        geneOffsets = new int[genes.length + 1];
+        diseaseOffsets = new int[diseases.length + 1];
+        entryOffsets = new int[size + 1];
+
+        Map<Source, Integer> sourceIndices = new HashMap<>();
+        int entries = 0;
+        int evidenceSize = 0;
+        for(int c = 0; c < size; c++) {
+            GeneDiseaseCombination gdc = combinations.get(c);
+            combinationGenes[c] = Arrays.binarySearch(genes, gdc.getGene());
+            combinationDiseases[c] = Arrays.binarySearch(diseases, gdc.getDisease());
+            scores[c] = gdc.getDisgenetScore();
+            geneOffsets[combinationGenes[c] + 1]++;
+            diseaseOffsets[combinationDiseases[c] + 1]++;
+
+            for(int i = 0; i < gdc.getNumberOfSources(); i++) {
+                sourceIndices.putIfAbsent(gdc.getSource(i), sourceIndices.size());
+                evidenceSize += gdc.getEvidence(i).length;
+            }
+            entries += gdc.getNumberOfSources();
+            entryOffsets[c + 1] = entries;
+        }
+
+        // Counts -> offsets.
+        for(int g = 0; g < genes.length; g++) {
+            geneOffsets[g + 1] += geneOffsets[g];
+        }
+        for(int d = 0; d < diseases.length; d++) {
+            diseaseOffsets[d + 1] += diseaseOffsets[d];
+        }
+
+        // Groups the combinations per disease (within a disease still ordered on gene).
+        diseaseCombinations = new int[size];
+        int[] diseasePositions = Arrays.copyOf(diseaseOffsets, diseases.length);
+        for(int c = 0; c < size; c++) {
+            diseaseCombinations[diseasePositions[combinationDiseases[c]]++] = c;
+        }
+
+        sources = new Source[sourceIndices.size()];
+        sourceIndices.forEach((source, index) -> sources[index] = source);
+        entrySources = new int[entries];
+        entryCounts = new int[entries];
+        evidenceOffsets = new int[entries + 1];
+        evidence = new PubmedEvidence[evidenceSize];
+
+        int e = 0;
+        for(GeneDiseaseCombination gdc : combinations) {
+            for(int i = 0; i < gdc.getNumberOfSources(); i++, e++) {
+                entrySources[e] = sourceIndices.get(gdc.getSource(i));
+                entryCounts[e] = gdc.getCount(i);
+                PubmedEvidence[] entryEvidence = gdc.getEvidence(i);
+                System.arraycopy(entryEvidence, 0, evidence, evidenceOffsets[e], entryEvidence.length);
+                evidenceOffsets[e + 1] = evidenceOffsets[e] + entryEvidence.length;
+            }
+        }
+    }
+
+    /**
+     * @return the ordinal of {@code gene}, or {@code -1} if not present
+     */
+    private int ordinalOf(Gene gene) {
+        return Math.max(-1, Arrays.binarySearch(genes, gene));
+    }
+
+    /**
+     * @return the ordinal of {@code disease}, or {@code -1} if not present
+     */
+    private int ordinalOf(Disease disease) {
+        return Math.max(-1, Arrays.binarySearch(diseases, disease));
+    }
+
+    /**
+     * Creates the {@link GeneDiseaseCombination} stored at index {@code c} from the columns.
+     */
+    private GeneDiseaseCombination createCombination(int c) {
+        int entriesStart = entryOffsets[c];
+        int numberOfEntries = entryOffsets[c + 1] - entriesStart;
+        Source[] combinationSources = new Source[numberOfEntries];
+        int[] combinationCounts = new int[numberOfEntries];
+        PubmedEvidence[][] combinationEvidence = null;
+
+        for(int i = 0; i < numberOfEntries; i++) {
+            int e = entriesStart + i;
+            combinationSources[i] = sources[entrySources[e]];
+            combinationCounts[i] = entryCounts[e];
+            if(evidenceOffsets[e + 1] > evidenceOffsets[e]) {
+                if(combinationEvidence == null) {
+                    combinationEvidence = new PubmedEvidence[numberOfEntries][];
+                }
+                combinationEvidence[i] = Arrays.copyOfRange(evidence, evidenceOffsets[e], evidenceOffsets[e + 1]);
+            }
+        }
+
+        return new GeneDiseaseCombination(genes[combinationGenes[c]], diseases[combinationDiseases[c]], scores[c],
+                combinationSources, combinationCounts, combinationEvidence);
+    }
+
+    /**
+     * @return the index of the combination of {@code gene} and {@code disease}, or {@code -1} if not present
+     */
+    private int indexOf(Gene gene, Disease disease) {
+        int g = ordinalOf(gene);
+        int d = ordinalOf(disease);
+        if(g < 0 || d < 0) {
+            return -1;
+        }
+        int c = Arrays.binarySearch(combinationDiseases, geneOffsets[g], geneOffsets[g + 1], d);
+        return c < 0 ? -1 : c;
+    }
+
+    @Override
+    public GeneDiseaseCombination get(GeneDiseaseCombination gdc) {
+        int c = indexOf(gdc.getGene(), gdc.getDisease());
+        return c < 0 ? null : createCombination(c);
+    }
+
+    @Override
+    public Set<Gene> getGenes() {
+        return new SortedArraySet<>(genes);
+    }
+
+    @Override
+    public Set<Disease> getDiseases() {
+        return new SortedArraySet<>(diseases);
+    }
+
+    @Override
+    public List<GeneDiseaseCombination> getGeneDiseaseCombinationsOrdered() {
+        List<GeneDiseaseCombination> combinations = new ArrayList<>(size());
+        for(int c = 0; c < size(); c++) {
+            combinations.add(createCombination(c));
+        }
+        return combinations;
+    }
+
+    @Override
+    public Set<GeneDiseaseCombination> getByGene(Gene gene) {
+        int g = ordinalOf(gene);
+        if(g < 0) {
+            return null;
+        }
+
+        Set<GeneDiseaseCombination> combinations = new LinkedHashSet<>();
+        for(int c = geneOffsets[g]; c < geneOffsets[g + 1]; c++) {
+            combinations.add(createCombination(c));
+        }
+        return Collections.unmodifiableSet(combinations);
+    }
+
+    @Override
+    public Set<GeneDiseaseCombination> getByDisease(Disease disease) {
+        int d = ordinalOf(disease);
+        if(d < 0) {
+            return null;
+        }
+
+        Set<GeneDiseaseCombination> combinations = new LinkedHashSet<>();
+        for(int i = diseaseOffsets[d]; i < diseaseOffsets[d + 1]; i++) {
+            combinations.add(createCombination(diseaseCombinations[i]));
+        }
+        return Collections.unmodifiableSet(combinations);
+    }
+
+    /**
+     * Scans the score column of {@code gene} without creating any {@link GeneDiseaseCombination}{@code s}.
+     */
+    @Override
+    public double getHighestDisgenetScore(Gene gene) {
+        double highestScore = 0;
+        int g = ordinalOf(gene);
+        if(g >= 0) {
+            for(int c = geneOffsets[g]; c < geneOffsets[g + 1]; c++) {
+                if(scores[c] > highestScore) {
+                    highestScore = scores[c];
+                }
+            }
+        }
+        return highestScore;
+    }
+
+    @Override
+    public int size() {
+        return scores.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return scores.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if(!(o instanceof GeneDiseaseCombination)) {
+            return false;
+        }
+        GeneDiseaseCombination gdc = (GeneDiseaseCombination) o;
+        return indexOf(gdc.getGene(), gdc.getDisease()) >= 0;
+    }
+
+    /**
+     * Passes the columns directly to {@link GeneDiseaseCombination#merge(Source, int, PubmedEvidence[], int, int)}, so that no
+     * {@link GeneDiseaseCombination}{@code s} (other than those stored in {@code target}) are created.
+     */
+    @Override
+    public void mergeInto(GeneDiseaseCollection target) {
+        for(int c = 0; c < scores.length; c++) {
+            GeneDiseaseCombination gdc = target.getOrCreate(genes[combinationGenes[c]],
+                    diseases[combinationDiseases[c]], scores[c]);
+            for(int e = entryOffsets[c]; e < entryOffsets[c + 1]; e++) {
+                gdc.merge(sources[entrySources[e]], entryCounts[e], evidence, evidenceOffsets[e], evidenceOffsets[e + 1]);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<GeneDiseaseCombination> iterator() {
+        return new Iterator<GeneDiseaseCombination>() {
+            private int c = 0;
+
+            @Override
+            public boolean hasNext() {
+                return c < size();
+            }
+
+            @Override
+            public GeneDiseaseCombination next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return createCombination(c++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarGeneDiseaseCollection{" +
+                "combinations=" + getGeneDiseaseCombinationsOrdered() +
+                '}';
+    }
+
+    /**
+     * As both are ordered in the same way, equal collections have equal (ordinal) columns.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ColumnarGeneDiseaseCollection that = (ColumnarGeneDiseaseCollection) o;
+        return Arrays.equals(genes, that.genes) &&
+                Arrays.equals(diseases, that.diseases) &&
+                Arrays.equals(combinationGenes, that.combinationGenes) &&
+                Arrays.equals(combinationDiseases, that.combinationDiseases);
+    }
+
+    @Override
+    public boolean allFieldsEquals(Object o) {
+        if (!equals(o)) return false;
+        ColumnarGeneDiseaseCollection that = (ColumnarGeneDiseaseCollection) o;
+
+        // Checks allFieldsEquals() for all combinations (stored at the same index in both).
+        for(int c = 0; c < size(); c++) {
+            if(!createCombination(c).allFieldsEquals(that.createCombination(c))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(genes);
+        result = 31 * result + Arrays.hashCode(diseases);
+        result = 31 * result + Arrays.hashCode(combinationGenes);
+        result = 31 * result + Arrays.hashCode(combinationDiseases);
+        return result;
+    }
+
+    /**
+     * An unmodifiable {@link Set} view of a sorted array (of which {@link #contains(Object)} uses a binary search).
+     */
+    private static class SortedArraySet<T extends Entity> extends AbstractSet<T> {
+        private final T[] items;
+
+        SortedArraySet(T[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return items.getClass().getComponentType().isInstance(o) && Arrays.binarySearch(items, o) >= 0;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return Collections.unmodifiableList(Arrays.asList(items)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+    }
+}
@@ -35,6 +35,11 @@ public class Disease extends BiologicalEntity {
         return URI_PREFIX;
     }
 
+    @Override
+    protected boolean isValidId(String id) {
+        return id.length() == 8 && id.charAt(0) == 'C' && isDigits(id, 1, 8);
+    }
+
     public Disease(String id) {
         super(id);
     }
@@ -4,6 +4,8 @@ import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
 
 import java.net.URI;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,6 +19,11 @@ import static java.util.Objects.requireNonNull;
  *
  */
 public abstract class Entity implements ResourceUri, Comparable<Entity>, AllFieldsEquals {
+    /**
+     * The compiled {@link #getIdRegex()} per regular expression (so each is only compiled once).
+     */
+    private static final ConcurrentMap<String, Pattern> ID_PATTERNS = new ConcurrentHashMap<>();
+
     /**
      * The entity prefix.
      * @return a {@link String} containing the prefix.
@@ -68,7 +75,7 @@ public abstract class Entity implements ResourceUri, Comparable<Entity>, AllFiel
      * @return the {@link Entity} ID with prefix.
      */
     public String getFormattedId() {
-        return getIdPrefix() + ":" + id;
+        return getFormattedId(id);
     }
 
     public String getName() {
@@ -93,10 +100,12 @@ public abstract class Entity implements ResourceUri, Comparable<Entity>, AllFiel
         this.uri = requireNonNull(uri);
         String uriString = this.uri.toString();
         validateUri(uriString);
-        id = uriString.split(getUriPrefix())[1];
+        id = uriString.substring(getUriPrefix().length());
 
         // Throws InvalidStringFormatException in case URI does not generate and ID that adheres to the required regex.
-        retrieveIdFromString(getFormattedId());
+        if(!isValidId(id)) {
+            throw new InvalidStringFormatException(getFormattedId() + " does not adhere the required format: " + getIdRegex());
+        }
     }
 
     public Entity(String id, String name) {
@@ -124,7 +133,7 @@ public abstract class Entity implements ResourceUri, Comparable<Entity>, AllFiel
      * @throws InvalidStringFormatException if {@code fullString} did not adhere to the regular expression
      */
     protected String retrieveIdFromString(String fullString) throws InvalidStringFormatException {
-        Matcher m = Pattern.compile(getIdRegex()).matcher(fullString);
+        Matcher m = ID_PATTERNS.computeIfAbsent(getIdRegex(), Pattern::compile).matcher(fullString);
         if(m.matches()) {
             return m.group(getRegexIdGroup());
         } else {
@@ -132,6 +141,49 @@ public abstract class Entity implements ResourceUri, Comparable<Entity>, AllFiel
         }
     }
 
+    /**
+     * Validates an ID (without prefix). Should accept exactly the IDs captured by {@link #getRegexIdGroup()} when
+     * {@link #getIdRegex()} matches. The default implementation uses the regular expression, subclasses can override it
+     * with a check that does not need one (as this is done for every {@link Entity} created from a {@link URI}).
+     * @param id the ID to validate
+     * @return {@code true} if {@code id} is valid, otherwise {@code false}
+     */
+    protected boolean isValidId(String id) {
+        Matcher m = ID_PATTERNS.computeIfAbsent(getIdRegex(), Pattern::compile).matcher(getFormattedId(id));
+        return m.matches() && id.equals(m.group(getRegexIdGroup()));
+    }
+
+    /**
+     * @param string the {@link String} to check
+     * @return {@code true} if {@code string} is not empty and only contains the digits {@code 0-9}
+     */
+    static boolean isDigits(String string) {
+        return isDigits(string, 0, string.length());
+    }
+
+    /**
+     * @param string the {@link String} to check
+     * @param start the first index to check
+     * @param end the index after the last one to check
+     * @return {@code true} if the range is not empty and only contains the digits {@code 0-9}
+     */
+    static boolean isDigits(String string, int start, int end) {
+        if(start >= end) {
+            return false;
+        }
+        for(int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if(c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getFormattedId(String id) {
+        return getIdPrefix() + ":" + id;
+    }
+
     /**
      * While uniqueness is based on the {@link #id} (as each {@link #id} should only occur once and data belonging to it
      * should be consistent), {@link #toString()} can be used for testing whether data retrieval from external sources
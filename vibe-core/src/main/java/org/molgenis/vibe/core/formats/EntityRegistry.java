@@ -0,0 +1,142 @@
+package org.molgenis.vibe.core.formats;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stores a single (canonical) instance of each {@link Gene}, {@link GeneSymbol}, {@link Disease}, {@link PubmedEvidence}
+ * and {@link Phenotype} retrieved from a database. As entities do not change for a database, a single registry can be
+ * shared by all retrievals from that database (see {@link org.molgenis.vibe.core.io.input.ModelReader#getEntityRegistry()})
+ * and is safe to use by multiple threads.
+ * <br /><br />
+ * An entity is only created (and with that validated) the first time its {@link URI} is requested. Afterwards, the
+ * {@link URI} {@link String} is only checked for the expected prefix and the existing instance is returned, so that
+ * retrieving the same entity for many results does not require parsing and validating it again. {@link Gene}{@code s}
+ * and {@link PubmedEvidence} are stored by their numeric ID, which can also be used directly.
+ */
+public class EntityRegistry {
+    private final ConcurrentMap<Integer, Gene> genes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, GeneSymbol> geneSymbols = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Disease> diseases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, PubmedEvidence> pubmedEvidence = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Phenotype> phenotypes = new ConcurrentHashMap<>();
+
+    /**
+     * @param uri the {@link URI} of the {@link Gene}
+     * @param geneSymbolUri the {@link URI} of its {@link GeneSymbol} (only used if the {@link Gene} is not stored yet)
+     * @return the stored {@link Gene} (created if not present yet)
+     * @throws IllegalArgumentException if {@code uri} or {@code geneSymbolUri} is not a valid {@link URI} for the entity
+     */
+    public Gene getOrCreateGene(String uri, String geneSymbolUri) {
+        int id = parseNumericId(uri, Gene.URI_PREFIX);
+        Gene gene = genes.get(id);
+        if(gene == null) {
+            gene = genes.computeIfAbsent(id, k -> new Gene(URI.create(uri), getOrCreateGeneSymbol(geneSymbolUri)));
+        }
+        return gene;
+    }
+
+    /**
+     * @param id the NCBI gene ID
+     * @return the stored {@link Gene}, or {@code null} if not present
+     */
+    public Gene getGene(int id) {
+        return genes.get(id);
+    }
+
+    /**
+     * @param uri the {@link URI} of the {@link GeneSymbol}
+     * @return the stored {@link GeneSymbol} (created if not present yet)
+     * @throws IllegalArgumentException if {@code uri} is not a valid {@link URI} for the entity
+     */
+    public GeneSymbol getOrCreateGeneSymbol(String uri) {
+        GeneSymbol geneSymbol = geneSymbols.get(uri);
+        if(geneSymbol == null) {
+            geneSymbol = geneSymbols.computeIfAbsent(uri, k -> new GeneSymbol(URI.create(k)));
+        }
+        return geneSymbol;
+    }
+
+    /**
+     * @param uri the {@link URI} of the {@link Disease}
+     * @param name the name of the {@link Disease} (only used if the {@link Disease} is not stored yet)
+     * @return the stored {@link Disease} (created if not present yet)
+     * @throws IllegalArgumentException if {@code uri} is not a valid {@link URI} for the entity
+     */
+    public Disease getOrCreateDisease(String uri, String name) {
+        Disease disease = diseases.get(uri);
+        if(disease == null) {
+            disease = diseases.computeIfAbsent(uri, k -> new Disease(URI.create(k), name));
+        }
+        return disease;
+    }
+
+    /**
+     * @param uri the {@link URI} of the {@link PubmedEvidence}
+     * @param year the release year (only used if the {@link PubmedEvidence} is not stored yet)
+     * @return the stored {@link PubmedEvidence} (created if not present yet)
+     * @throws IllegalArgumentException if {@code uri} is not a valid {@link URI} for the entity
+     */
+    public PubmedEvidence getOrCreatePubmedEvidence(String uri, int year) {
+        int id = parseNumericId(uri, PubmedEvidence.URI_PREFIX);
+        PubmedEvidence evidence = pubmedEvidence.get(id);
+        if(evidence == null) {
+            evidence = pubmedEvidence.computeIfAbsent(id, k -> new PubmedEvidence(URI.create(uri), year));
+        }
+        return evidence;
+    }
+
+    /**
+     * @param id the PubMed ID
+     * @return the stored {@link PubmedEvidence}, or {@code null} if not present
+     */
+    public PubmedEvidence getPubmedEvidence(int id) {
+        return pubmedEvidence.get(id);
+    }
+
+    /**
+     * @param uri the {@link URI} of the {@link Phenotype}
+     * @return the stored {@link Phenotype} (created if not present yet)
+     * @throws IllegalArgumentException if {@code uri} is not a valid {@link URI} for the entity
+     */
+    public Phenotype getOrCreatePhenotype(String uri) {
+        Phenotype phenotype = phenotypes.get(uri);
+        if(phenotype == null) {
+            phenotype = phenotypes.computeIfAbsent(uri, k -> new Phenotype(URI.create(k)));
+        }
+        return phenotype;
+    }
+
+    /**
+     * @return the number of stored entities
+     */
+    public int size() {
+        return genes.size() + geneSymbols.size() + diseases.size() + pubmedEvidence.size() + phenotypes.size();
+    }
+
+    /**
+     * Retrieves the numeric ID from a {@link URI} {@link String} without creating a {@link URI}.
+     * @param uri the {@link URI} {@link String}
+     * @param prefix the expected prefix
+     * @return the numeric ID following {@code prefix}
+     * @throws IllegalArgumentException if {@code uri} does not start with {@code prefix} followed by a valid number
+     */
+    private static int parseNumericId(String uri, String prefix) {
+        if(!uri.startsWith(prefix) || !Entity.isDigits(uri, prefix.length(), uri.length())) {
+            throw new IllegalArgumentException("The URI \"" + uri + "\" is not a valid URI starting with: " + prefix);
+        }
+        return Integer.parseInt(uri.substring(prefix.length()));
+    }
+
+    @Override
+    public String toString() {
+        return "EntityRegistry{" +
+                "genes=" + genes.size() +
+                ", geneSymbols=" + geneSymbols.size() +
+                ", diseases=" + diseases.size() +
+                ", pubmedEvidence=" + pubmedEvidence.size() +
+                ", phenotypes=" + phenotypes.size() +
+                '}';
+    }
+}
@@ -14,7 +14,7 @@ public class Gene extends BiologicalEntity implements EntityWithIntId {
     public static final String ID_PREFIX = "ncbigene";
     private static final String ID_REGEX = "^(ncbigene|NCBIGENE):([0-9]+)$";
     private static final int REGEX_ID_GROUP = 2;
-    private static final String URI_PREFIX = "http://identifiers.org/ncbigene/";
+    static final String URI_PREFIX = "http://identifiers.org/ncbigene/";
 
     /**
      * The HGNC (HUGO Gene Nomenclature Committee) name.
@@ -55,6 +55,11 @@ public class Gene extends BiologicalEntity implements EntityWithIntId {
         return URI_PREFIX;
     }
 
+    @Override
+    protected boolean isValidId(String id) {
+        return isDigits(id);
+    }
+
     public Gene(String id, GeneSymbol symbol) {
         super(id);
         this.idInt = Integer.parseInt(getId());
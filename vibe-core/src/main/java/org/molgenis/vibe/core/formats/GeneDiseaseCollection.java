@@ -8,12 +8,14 @@ import java.util.Set;
 /**
  * A collection of {@link GeneDiseaseCombination}{@code s}.
  */
-public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Disease, GeneDiseaseCombination> {
+public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Disease, GeneDiseaseCombination>
+        implements ReadOnlyGeneDiseaseCollection {
 
     /**
      * @return all {@link Gene}{@code s}.
      * @see #getT1()
      */
+    @Override
     public Set<Gene> getGenes() {
         return getT1();
     }
@@ -22,6 +24,7 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
      * @return all {@link Disease}{@code s}.
      * @see #getT2()
      */
+    @Override
     public Set<Disease> getDiseases() {
         return getT2();
     }
@@ -39,6 +42,7 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
      * @return all {@link GeneDiseaseCombination}{@code s}.
      * @see #getT3Ordered()
      */
+    @Override
     public List<GeneDiseaseCombination> getGeneDiseaseCombinationsOrdered() {
         return getT3Ordered();
     }
@@ -49,6 +53,7 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
      * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code gene}
      * @see super#getByT1(BiologicalEntity)
      */
+    @Override
     public Set<GeneDiseaseCombination> getByGene(Gene gene) {
         return getByT1(gene);
     }
@@ -59,6 +64,7 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
      * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code disease}
      * @see super#getByT2(BiologicalEntity)
      */
+    @Override
     public Set<GeneDiseaseCombination> getByDisease(Disease disease) {
         return getByT2(disease);
     }
@@ -66,10 +72,80 @@ public class GeneDiseaseCollection extends BiologicalEntityCollection<Gene, Dise
     public GeneDiseaseCollection() {
     }
 
+    private GeneDiseaseCollection(boolean concurrent) {
+        super(concurrent);
+    }
+
+    /**
+     * Creates a {@link GeneDiseaseCollection} that can be filled by multiple threads simultaneously through
+     * {@link #getOrCreate(Gene, Disease, double)} (reading should only be done after all threads are finished).
+     * @return a new concurrent {@link GeneDiseaseCollection}
+     */
+    public static GeneDiseaseCollection createConcurrent() {
+        return new GeneDiseaseCollection(true);
+    }
+
     public GeneDiseaseCollection(Set<GeneDiseaseCombination> combinationsMap) {
         super(combinationsMap);
     }
 
+    /**
+     * Retrieves the {@link GeneDiseaseCombination} for {@code gene} and {@code disease}, or creates (and adds) a new
+     * one if not present yet. For a concurrent collection this is done atomically, and the created
+     * {@link GeneDiseaseCombination} can be filled by multiple threads simultaneously as well.
+     * @param gene the {@link Gene}
+     * @param disease the {@link Disease}
+     * @param disgenetScore the DisGeNET score used if a new {@link GeneDiseaseCombination} is created
+     * @return the {@link GeneDiseaseCombination} stored within this collection
+     */
+    public GeneDiseaseCombination getOrCreate(Gene gene, Disease disease, double disgenetScore) {
+        GeneDiseaseCombination gdc = get(new GeneDiseaseCombination(gene, disease));
+        if(gdc == null) {
+            gdc = addIfAbsent(new GeneDiseaseCombination(gene, disease, disgenetScore, isConcurrent()));
+        }
+        return gdc;
+    }
+
+    /**
+     * Merges all {@link GeneDiseaseCombination}{@code s} of another collection into this one.
+     * {@link GeneDiseaseCombination}{@code s} already present are combined through
+     * {@link GeneDiseaseCombination#merge(GeneDiseaseCombination)}, others are copied into new ones (created through
+     * {@link #getOrCreate(Gene, Disease, double)}). {@code other} is therefore never modified (also not by later changes
+     * to this collection), which allows merging the same (for example cached) collection multiple times and multiple
+     * threads to merge into a concurrent collection simultaneously.
+     * @param other the collection to merge into this one
+     * @see ReadOnlyGeneDiseaseCollection#mergeInto(GeneDiseaseCollection)
+     */
+    public void merge(ReadOnlyGeneDiseaseCollection other) {
+        other.mergeInto(this);
+    }
+
+    @Override
+    public void mergeInto(GeneDiseaseCollection target) {
+        for(GeneDiseaseCombination gdc : this) {
+            target.getOrCreate(gdc.getGene(), gdc.getDisease(), gdc.getDisgenetScore()).merge(gdc);
+        }
+    }
+
+    /**
+     * @param gene the {@link Gene} to retrieve the score for
+     * @return the highest {@link GeneDiseaseCombination#getDisgenetScore()} of all {@link GeneDiseaseCombination}{@code s}
+     * belonging to {@code gene} ({@code 0} if {@code gene} has none)
+     */
+    @Override
+    public double getHighestDisgenetScore(Gene gene) {
+        double highestScore = 0;
+        Set<GeneDiseaseCombination> combinationsForGene = getByGene(gene);
+        if(combinationsForGene != null) {
+            for(GeneDiseaseCombination combination : combinationsForGene) {
+                if(combination.getDisgenetScore() > highestScore) {
+                    highestScore = combination.getDisgenetScore();
+                }
+            }
+        }
+        return highestScore;
+    }
+
     /**
      * Wrapper for {@link #getByGene(Gene)} that returns an ordered {@link List} based on
      * {@link GeneDiseaseCombination#getDisgenetScore()} (high->low) instead of a {@link Set}.
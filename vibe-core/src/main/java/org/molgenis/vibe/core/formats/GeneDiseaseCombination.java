@@ -7,22 +7,53 @@ import java.util.*;
 
 /**
  * A combination of a {@link Gene} and a {@link Disease}.
+ * <br /><br />
+ * As a single query can result in millions of combinations (each often only having one or two {@link Source}{@code s}
+ * and a few {@link PubmedEvidence}), the data is stored in arrays instead of collections: a count per {@link Source}
+ * (indexed by the position of the {@link Source} within {@link #sources}) and per {@link Source} the
+ * {@link PubmedEvidence} sorted on PubMed ID. The {@link PubmedEvidence} instances given are stored as-is, so when
+ * these are retrieved from an {@link EntityRegistry} all combinations refer to the same canonical instances and the
+ * getters return these without creating new ones.
+ * <br /><br />
+ * A concurrent combination (see {@link GeneDiseaseCollection#getOrCreate(Gene, Disease, double)}) can be filled by
+ * multiple threads simultaneously through {@link #add(Source)} and {@link #add(Source, PubmedEvidence)}.
  */
 public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Disease> {
+    private static final Source[] NO_SOURCES = new Source[0];
+    private static final int[] NO_COUNTS = new int[0];
+    private static final PubmedEvidence[] NO_EVIDENCE = new PubmedEvidence[0];
+
+    /**
+     * The score belonging to the gene-disease combination from the DisGeNET database ({@link Double#NaN} if not
+     * available).
+     */
+    private final double disgenetScore;
+
+    /**
+     * Whether {@link Source}{@code s} and {@link PubmedEvidence} can be added by multiple threads simultaneously.
+     */
+    private final boolean concurrent;
+
+    /**
+     * The {@link Source}{@code s} that contain this combination (in order of addition).
+     */
+    private Source[] sources = NO_SOURCES;
+
     /**
-     * The score belonging to the gene-disease combination from the DisGeNET database.
+     * How often each {@link Source} (same index as {@link #sources}) contains this combination.
      */
-    private Double disgenetScore;
+    private int[] counts = NO_COUNTS;
 
     /**
-     * A {@link Map} storing which {@link Source}{@code s} contains this combination and how often.
+     * The evidence per {@link Source} (same index as {@link #sources}, {@code null} if none) sorted on PubMed ID. Only
+     * the first {@link #evidenceSizes} items of each array are used.
      */
-    private Map<Source, Integer> sourcesCount = new HashMap<>();
+    private PubmedEvidence[][] evidence;
 
     /**
-     * A {@link Map} storing per {@link Source} the {@link URI}{@code s} to the evidence (if available).
+     * The number of used items per array within {@link #evidence}.
      */
-    private Map<Source, Set<PubmedEvidence>> pubmedEvidence = new HashMap<>();
+    private int[] evidenceSizes;
 
     /**
      * @return the {@link Gene}
@@ -40,6 +71,10 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
         return getT2();
     }
 
+    /**
+     * @return the DisGeNET score, or {@link Double#NaN} if created without one (see
+     * {@link #GeneDiseaseCombination(Gene, Disease)})
+     */
     public double getDisgenetScore() {
         return disgenetScore;
     }
@@ -49,6 +84,10 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @return an unmodifiable {@link Map}
      */
     public Map<Source, Integer> getSourcesCount() {
+        Map<Source, Integer> sourcesCount = new LinkedHashMap<>();
+        for(int i = 0; i < sources.length; i++) {
+            sourcesCount.put(sources[i], counts[i]);
+        }
         return Collections.unmodifiableMap(sourcesCount);
     }
 
@@ -58,11 +97,8 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @return an {@code int} containing the frequency of this source found (if {@link Source} is not present returns a 0)
      */
     public int getCountForSource(Source source) {
-        Integer count = sourcesCount.get(source);
-        if(count == null) {
-            count = 0;
-        }
-        return count;
+        int index = indexOf(source);
+        return index < 0 ? 0 : counts[index];
     }
 
     /**
@@ -70,7 +106,13 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @return an unmodifiable {@link Set} containing {@link Source}{@code s}
      */
     public Set<Source> getSourcesWithPubmedEvidence() {
-        return Collections.unmodifiableSet(pubmedEvidence.keySet());
+        Set<Source> sourcesWithEvidence = new LinkedHashSet<>();
+        for(int i = 0; i < sources.length; i++) {
+            if(hasEvidence(i)) {
+                sourcesWithEvidence.add(sources[i]);
+            }
+        }
+        return Collections.unmodifiableSet(sourcesWithEvidence);
     }
 
     /**
@@ -80,12 +122,14 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * or {@code null} if {@link Source} does not have any evidence
      */
     public Set<PubmedEvidence> getPubmedEvidenceForSource(Source source) {
-        Set<PubmedEvidence> evidence = pubmedEvidence.get(source);
-        if(evidence != null) {
-            evidence = Collections.unmodifiableSet(evidence);
+        int index = indexOf(source);
+        if(index < 0 || !hasEvidence(index)) {
+            return null;
         }
 
-        return evidence;
+        Set<PubmedEvidence> evidenceSet = new LinkedHashSet<>();
+        addPubmedEvidence(index, evidenceSet);
+        return Collections.unmodifiableSet(evidenceSet);
     }
 
     /**
@@ -95,14 +139,14 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * {@link PubmedEvidence}, or {@code null} if {@link Source} does not have any evidence
      */
     public List<PubmedEvidence> getPubmedEvidenceForSourceSortedByReleaseDate(Source source) {
-        List<PubmedEvidence> evidenceList = null;
-        Set<PubmedEvidence> evidence = pubmedEvidence.get(source);
-
-        if (evidence != null) {
-            evidenceList = new ArrayList<>();
-            evidenceList.addAll(evidence);
-            Collections.sort(evidenceList, PubmedEvidence.RELEASE_YEAR_COMPARATOR);
+        int index = indexOf(source);
+        if(index < 0 || !hasEvidence(index)) {
+            return null;
         }
+
+        List<PubmedEvidence> evidenceList = new ArrayList<>();
+        addPubmedEvidence(index, evidenceList);
+        evidenceList.sort(PubmedEvidence.RELEASE_YEAR_COMPARATOR);
         return evidenceList;
     }
 
@@ -111,9 +155,11 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @return a {@link Set} containing all the {@link PubmedEvidence}
      */
     public Set<PubmedEvidence> getAllPubmedEvidence() {
-        Set<PubmedEvidence> evidence = new HashSet<>();
-        pubmedEvidence.values().forEach(evidence::addAll);
-        return evidence;
+        Set<PubmedEvidence> evidenceSet = new HashSet<>();
+        for(int i = 0; i < sources.length; i++) {
+            addPubmedEvidence(i, evidenceSet);
+        }
+        return evidenceSet;
     }
 
     /**
@@ -122,10 +168,12 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * {@link PubmedEvidence#RELEASE_YEAR_COMPARATOR}
      */
     public List<PubmedEvidence> getAllPubMedEvidenceSortedByYear() {
-        List<PubmedEvidence> evidence = new ArrayList<>();
-        pubmedEvidence.values().forEach(evidence::addAll);
-        Collections.sort(evidence, PubmedEvidence.RELEASE_YEAR_COMPARATOR);
-        return evidence;
+        List<PubmedEvidence> evidenceList = new ArrayList<>();
+        for(int i = 0; i < sources.length; i++) {
+            addPubmedEvidence(i, evidenceList);
+        }
+        evidenceList.sort(PubmedEvidence.RELEASE_YEAR_COMPARATOR);
+        return evidenceList;
     }
 
     /**
@@ -134,21 +182,61 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @param disease
      */
     public GeneDiseaseCombination(Gene gene, Disease disease) {
-        super(gene, disease);
+        this(gene, disease, Double.NaN, false);
     }
 
     public GeneDiseaseCombination(Gene gene, Disease disease, double disgenetScore) {
+        this(gene, disease, disgenetScore, false);
+    }
+
+    /**
+     * @param gene
+     * @param disease
+     * @param disgenetScore
+     * @param concurrent whether {@link Source}{@code s} and {@link PubmedEvidence} can be added by multiple threads
+     *                   simultaneously
+     */
+    GeneDiseaseCombination(Gene gene, Disease disease, double disgenetScore, boolean concurrent) {
         super(gene, disease);
-        this.disgenetScore = requireNonNull(disgenetScore);
+        this.disgenetScore = disgenetScore;
+        this.concurrent = concurrent;
     }
 
-    public void add(Source source, PubmedEvidence evidence) {
-        // Increments counter for source.
-        add(source);
+    /**
+     * Creates a combination directly from already compacted data (see {@link ColumnarGeneDiseaseCollection}). The
+     * arrays are used as-is.
+     * @param gene
+     * @param disease
+     * @param disgenetScore
+     * @param sources the {@link Source}{@code s}
+     * @param counts the count per {@link Source} (same index as {@code sources})
+     * @param evidence the evidence per {@link Source} (same index as {@code sources}, {@code null} if none), sorted on
+     *                 PubMed ID
+     */
+    GeneDiseaseCombination(Gene gene, Disease disease, double disgenetScore, Source[] sources, int[] counts,
+                           PubmedEvidence[][] evidence) {
+        this(gene, disease, disgenetScore, false);
+        this.sources = sources;
+        this.counts = counts;
+        if(evidence != null) {
+            this.evidence = evidence;
+            evidenceSizes = new int[evidence.length];
+            for(int i = 0; i < evidence.length; i++) {
+                evidenceSizes[i] = evidence[i] == null ? 0 : evidence[i].length;
+            }
+        }
+    }
 
-        // Stores PubMed evidence.
-        Set<PubmedEvidence> evidenceList = pubmedEvidence.computeIfAbsent(source, k -> new HashSet<>());
-        evidenceList.add(evidence);
+    public void add(Source source, PubmedEvidence evidence) {
+        if(concurrent) {
+            synchronized(this) {
+                addCount(requireNonNull(source), 1);
+                addEvidence(source, requireNonNull(evidence));
+            }
+        } else {
+            addCount(requireNonNull(source), 1);
+            addEvidence(source, requireNonNull(evidence));
+        }
     }
 
     /**
@@ -156,11 +244,68 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @param source
      */
     public void add(Source source) {
-        Integer count = sourcesCount.get(source);
-        if(count == null) {
-            sourcesCount.put(source, 1);
+        if(concurrent) {
+            synchronized(this) {
+                addCount(requireNonNull(source), 1);
+            }
+        } else {
+            addCount(requireNonNull(source), 1);
+        }
+    }
+
+    /**
+     * Adds all {@link Source}{@code s} (including their counts) and {@link PubmedEvidence} of another
+     * {@link GeneDiseaseCombination} for the same {@link Gene} and {@link Disease} to this one. Counts are summed while
+     * evidence is combined. The DisGeNET score of this {@link GeneDiseaseCombination} is kept.
+     * @param other the {@link GeneDiseaseCombination} to merge into this one
+     * @throws IllegalArgumentException if {@code other} does not describe the same {@link Gene} and {@link Disease}
+     */
+    public void merge(GeneDiseaseCombination other) {
+        if(!equals(other)) {
+            throw new IllegalArgumentException("Cannot merge different gene-disease combinations: " + this + " & " + other);
+        }
+
+        if(concurrent) {
+            synchronized(this) {
+                mergeUnsynchronized(other);
+            }
+        } else {
+            mergeUnsynchronized(other);
+        }
+    }
+
+    private void mergeUnsynchronized(GeneDiseaseCombination other) {
+        for(int i = 0; i < other.sources.length; i++) {
+            mergeUnsynchronized(other.sources[i], other.counts[i], other.hasEvidence(i) ? other.evidence[i] : null,
+                    0, other.hasEvidence(i) ? other.evidenceSizes[i] : 0);
+        }
+    }
+
+    /**
+     * Adds {@code count} and the evidence {@code sourceEvidence[from]} (inclusive) to {@code sourceEvidence[to]}
+     * (exclusive) to {@code source}, so that data stored elsewhere in columns (see
+     * {@link ColumnarGeneDiseaseCollection}) can be merged without creating a {@link GeneDiseaseCombination} for it
+     * first.
+     * @param source the {@link Source}
+     * @param count the count to add
+     * @param sourceEvidence the evidence
+     * @param from the first index within {@code sourceEvidence} to add
+     * @param to the index after the last one within {@code sourceEvidence} to add
+     */
+    void merge(Source source, int count, PubmedEvidence[] sourceEvidence, int from, int to) {
+        if(concurrent) {
+            synchronized(this) {
+                mergeUnsynchronized(source, count, sourceEvidence, from, to);
+            }
         } else {
-            sourcesCount.put(source, count + 1);
+            mergeUnsynchronized(source, count, sourceEvidence, from, to);
+        }
+    }
+
+    private void mergeUnsynchronized(Source source, int count, PubmedEvidence[] sourceEvidence, int from, int to) {
+        addCount(requireNonNull(source), count);
+        for(int i = from; i < to; i++) {
+            addEvidence(source, sourceEvidence[i]);
         }
     }
 
@@ -171,7 +316,8 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @param count the new value for that {@link Source}
      */
     void setSourceCount(Source source, int count) {
-        sourcesCount.put(source, count);
+        addCount(source, 0);
+        counts[indexOf(source)] = count;
     }
 
     /**
@@ -182,14 +328,156 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
      * @param evidence a {@link Set} containing all {@link PubmedEvidence} for that {@link Source}
      */
     void setPubmedEvidenceForSource(Source source, Set<PubmedEvidence> evidence) {
-        pubmedEvidence.put(source, evidence);
+        addCount(source, 0);
+        int index = indexOf(source);
+        if(this.evidence != null && this.evidence[index] != null) {
+            this.evidence[index] = null;
+            evidenceSizes[index] = 0;
+        }
+        for(PubmedEvidence pubmedEvidence : evidence) {
+            addEvidence(source, pubmedEvidence);
+        }
+    }
+
+    /**
+     * @return the number of {@link Source}{@code s} (see {@link #getSource(int)})
+     */
+    int getNumberOfSources() {
+        return sources.length;
+    }
+
+    /**
+     * @param index an index from {@code 0} to {@link #getNumberOfSources()} - 1
+     * @return the {@link Source} at {@code index}
+     */
+    Source getSource(int index) {
+        return sources[index];
+    }
+
+    /**
+     * @param index an index from {@code 0} to {@link #getNumberOfSources()} - 1
+     * @return the count of the {@link Source} at {@code index}
+     */
+    int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @param source a {@link Source}
+     * @return the index of {@code source} within {@link #sources}, or {@code -1} if not present
+     */
+    private int indexOf(Source source) {
+        for(int i = 0; i < sources.length; i++) {
+            if(sources[i].equals(source)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds {@code count} to the count of {@code source} (adding the {@link Source} if not present yet).
+     */
+    private void addCount(Source source, int count) {
+        int index = indexOf(source);
+        if(index < 0) {
+            index = sources.length;
+            sources = Arrays.copyOf(sources, index + 1);
+            counts = Arrays.copyOf(counts, index + 1);
+            sources[index] = source;
+            if(evidence != null) {
+                evidence = Arrays.copyOf(evidence, index + 1);
+                evidenceSizes = Arrays.copyOf(evidenceSizes, index + 1);
+            }
+        }
+        counts[index] += count;
+    }
+
+    /**
+     * Adds {@code pubmedEvidence} to an already present {@code source} (if no {@link PubmedEvidence} with the same
+     * PubMed ID is present yet for that {@link Source}).
+     */
+    private void addEvidence(Source source, PubmedEvidence pubmedEvidence) {
+        int index = indexOf(source);
+        if(evidence == null) {
+            evidence = new PubmedEvidence[sources.length][];
+            evidenceSizes = new int[sources.length];
+        }
+
+        PubmedEvidence[] sourceEvidence = evidence[index];
+        int size = evidenceSizes[index];
+        if(sourceEvidence == null) {
+            sourceEvidence = evidence[index] = new PubmedEvidence[1];
+        }
+
+        int position = binarySearch(sourceEvidence, size, pubmedEvidence.getIdInt());
+        if(position >= 0) {
+            return;
+        }
+        position = -(position + 1);
+
+        if(size == sourceEvidence.length) {
+            sourceEvidence = evidence[index] = Arrays.copyOf(sourceEvidence, size + (size >> 1) + 1);
+        }
+        System.arraycopy(sourceEvidence, position, sourceEvidence, position + 1, size - position);
+        sourceEvidence[position] = pubmedEvidence;
+        evidenceSizes[index] = size + 1;
+    }
+
+    private boolean hasEvidence(int index) {
+        return evidence != null && evidenceSizes[index] > 0;
+    }
+
+    /**
+     * Adds the {@link PubmedEvidence} of the {@link Source} at {@code index} to {@code collection}.
+     */
+    private void addPubmedEvidence(int index, Collection<PubmedEvidence> collection) {
+        for(int i = 0; hasEvidence(index) && i < evidenceSizes[index]; i++) {
+            collection.add(evidence[index][i]);
+        }
+    }
+
+    /**
+     * @param index an index from {@code 0} to {@link #getNumberOfSources()} - 1
+     * @return a copy of the evidence of the {@link Source} at {@code index} (sorted on PubMed ID)
+     */
+    PubmedEvidence[] getEvidence(int index) {
+        return hasEvidence(index) ? Arrays.copyOf(evidence[index], evidenceSizes[index]) : NO_EVIDENCE;
+    }
+
+    /**
+     * @param sourceEvidence the evidence sorted on PubMed ID
+     * @param size the number of used items within {@code sourceEvidence}
+     * @param id the PubMed ID to search for
+     * @return same as {@link Arrays#binarySearch(Object[], Object)}
+     */
+    private static int binarySearch(PubmedEvidence[] sourceEvidence, int size, int id) {
+        int low = 0;
+        int high = size - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = sourceEvidence[middle].getIdInt();
+            if(middleId < id) {
+                low = middle + 1;
+            } else if(middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
     }
 
     @Override
     public String toString() {
+        Map<Source, Set<PubmedEvidence>> pubmedEvidence = new LinkedHashMap<>();
+        for(Source source : getSourcesWithPubmedEvidence()) {
+            pubmedEvidence.put(source, getPubmedEvidenceForSource(source));
+        }
+
         return "GeneDiseaseCombination{" +
                 "disgenetScore=" + disgenetScore +
-                ", sourcesCount=" + sourcesCount +
+                ", sourcesCount=" + getSourcesCount() +
                 ", pubmedEvidence=" + pubmedEvidence +
                 ' ' + super.toString() +
                 '}';
@@ -204,23 +492,21 @@ public class GeneDiseaseCombination extends BiologicalEntityCombination<Gene, Di
 
         if (!(
                 super.allFieldsEquals(that) &&
-                Objects.equals(disgenetScore, that.disgenetScore) &&
-                Objects.equals(sourcesCount, that.sourcesCount) &&
-                Objects.equals(pubmedEvidence, that.pubmedEvidence)
+                Double.compare(disgenetScore, that.disgenetScore) == 0 &&
+                Objects.equals(getSourcesCount(), that.getSourcesCount())
         )) {
             return false;
         }
 
-        // Checks allFieldsEquals() for all items in pubmedEvidence.
-        for (Map.Entry<Source, Set<PubmedEvidence>> sourcePubmedEvidence : pubmedEvidence.entrySet()) {
-            List<PubmedEvidence> thisPubmedEvidences = new ArrayList<>(sourcePubmedEvidence.getValue());
-            Collections.sort(thisPubmedEvidences);
-
-            List<PubmedEvidence> thatPubmedEvidences = new ArrayList<>(that.pubmedEvidence.get(sourcePubmedEvidence.getKey()));
-            Collections.sort(thatPubmedEvidences);
-
-            for (int i = 0; i < thisPubmedEvidences.size(); i++) {
-                if (!thisPubmedEvidences.get(i).allFieldsEquals(thatPubmedEvidences.get(i))) {
+        // Compares the PubMed IDs and their release years per source.
+        for (int i = 0; i < sources.length; i++) {
+            PubmedEvidence[] thisEvidence = getEvidence(i);
+            PubmedEvidence[] thatEvidence = that.getEvidence(that.indexOf(sources[i]));
+            if (thisEvidence.length != thatEvidence.length) {
+                return false;
+            }
+            for (int j = 0; j < thisEvidence.length; j++) {
+                if (!thisEvidence[j].allFieldsEquals(thatEvidence[j])) {
                     return false;
                 }
             }
@@ -2,6 +2,7 @@ package org.molgenis.vibe.core.formats;
 
 import org.molgenis.vibe.core.exceptions.InvalidStringFormatException;
 
+import java.net.URI;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +38,11 @@ public enum GeneDiseaseCombinationType implements EnumTypeDefiner {
      */
     private static final String PREFIX = "sio:";
 
+    /**
+     * The namespace the {@link #PREFIX} stands for.
+     */
+    private static final String NAMESPACE = "http://semanticscience.org/resource/";
+
     /**
      * The ID belonging to single association type.
      */
@@ -51,6 +57,10 @@ public enum GeneDiseaseCombinationType implements EnumTypeDefiner {
         return PREFIX + id;
     }
 
+    public URI getUri() {
+        return URI.create(NAMESPACE + id);
+    }
+
     GeneDiseaseCombinationType(String sio) {
         this.id = sio;
     }
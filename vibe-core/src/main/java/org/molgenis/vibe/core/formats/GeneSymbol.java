@@ -28,6 +28,20 @@ public class GeneSymbol extends Entity {
         return URI_PREFIX;
     }
 
+    @Override
+    protected boolean isValidId(String id) {
+        if(id.isEmpty()) {
+            return false;
+        }
+        for(int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if(!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || "#@/._-".indexOf(c) >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public GeneSymbol(String id) {
         super(id);
     }
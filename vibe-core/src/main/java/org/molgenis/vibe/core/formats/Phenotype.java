@@ -31,6 +31,11 @@ public class Phenotype extends BiologicalEntity {
         return URI_PREFIX;
     }
 
+    @Override
+    protected boolean isValidId(String id) {
+        return id.length() == 7 && isDigits(id);
+    }
+
     public Phenotype(String id) {
         super(id);
     }
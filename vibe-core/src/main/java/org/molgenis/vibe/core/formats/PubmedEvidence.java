@@ -9,7 +9,7 @@ public class PubmedEvidence extends Evidence implements EntityWithIntId {
     public static final String ID_PREFIX = "pmid";
     private static final String ID_REGEX = "^(pmid|PMID):([0-9]+)$";
     private static final int REGEX_ID_GROUP = 2;
-    private static final String URI_PREFIX = "http://identifiers.org/pubmed/";
+    static final String URI_PREFIX = "http://identifiers.org/pubmed/";
 
     private int year;
     private int idInt;
@@ -63,6 +63,11 @@ public class PubmedEvidence extends Evidence implements EntityWithIntId {
         return URI_PREFIX;
     }
 
+    @Override
+    protected boolean isValidId(String id) {
+        return isDigits(id);
+    }
+
     public int getReleaseYear() {
         return year;
     }
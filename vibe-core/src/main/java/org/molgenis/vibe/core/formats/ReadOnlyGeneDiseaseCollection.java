@@ -0,0 +1,74 @@
+package org.molgenis.vibe.core.formats;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read access to a collection of {@link GeneDiseaseCombination}{@code s}. Implemented by the modifiable
+ * {@link GeneDiseaseCollection} and the immutable {@link ColumnarGeneDiseaseCollection}, so that code which only reads
+ * (or merges) the data can accept either.
+ */
+public interface ReadOnlyGeneDiseaseCollection extends Iterable<GeneDiseaseCombination>, AllFieldsEquals {
+    /**
+     * @return all {@link Gene}{@code s}
+     */
+    Set<Gene> getGenes();
+
+    /**
+     * @return all {@link Disease}{@code s}
+     */
+    Set<Disease> getDiseases();
+
+    /**
+     * @return all {@link GeneDiseaseCombination}{@code s} first ordered on {@link Gene} and then on {@link Disease}
+     */
+    List<GeneDiseaseCombination> getGeneDiseaseCombinationsOrdered();
+
+    /**
+     * @param gdc a {@link GeneDiseaseCombination} describing the {@link Gene} and {@link Disease} to retrieve
+     * @return the stored {@link GeneDiseaseCombination} equal to {@code gdc}, or {@code null} if not present
+     */
+    GeneDiseaseCombination get(GeneDiseaseCombination gdc);
+
+    /**
+     * @param gene the {@link Gene} to retrieve {@link GeneDiseaseCombination}{@code s} for
+     * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code gene}, or {@code null} if none
+     */
+    Set<GeneDiseaseCombination> getByGene(Gene gene);
+
+    /**
+     * @param disease the {@link Disease} to retrieve {@link GeneDiseaseCombination}{@code s} for
+     * @return the {@link GeneDiseaseCombination}{@code s} belonging to {@code disease}, or {@code null} if none
+     */
+    Set<GeneDiseaseCombination> getByDisease(Disease disease);
+
+    /**
+     * @param gene the {@link Gene} to retrieve the score for
+     * @return the highest {@link GeneDiseaseCombination#getDisgenetScore()} of all {@link GeneDiseaseCombination}{@code s}
+     * belonging to {@code gene} ({@code 0} if {@code gene} has none)
+     */
+    double getHighestDisgenetScore(Gene gene);
+
+    /**
+     * @return the number of {@link GeneDiseaseCombination}{@code s}
+     */
+    int size();
+
+    /**
+     * @return {@code true} if there are no {@link GeneDiseaseCombination}{@code s}
+     */
+    boolean isEmpty();
+
+    /**
+     * @param o the object to check
+     * @return {@code true} if {@code o} is a {@link GeneDiseaseCombination} for which an equal one is present
+     */
+    boolean contains(Object o);
+
+    /**
+     * Merges all {@link GeneDiseaseCombination}{@code s} of this collection into {@code target} (see
+     * {@link GeneDiseaseCollection#merge(ReadOnlyGeneDiseaseCollection)}). This collection is not modified.
+     * @param target the {@link GeneDiseaseCollection} to merge into
+     */
+    void mergeInto(GeneDiseaseCollection target);
+}
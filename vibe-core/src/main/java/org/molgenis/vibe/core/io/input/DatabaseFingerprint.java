@@ -0,0 +1,65 @@
+package org.molgenis.vibe.core.io.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Creates an identifier for the content of a database file (see {@link ModelReader#getDatabaseId()}).
+ * <br /><br />
+ * Calculating a checksum over the complete file would require reading several gigabytes. Instead, the SHA-256 digest
+ * of the file size together with the first and last {@link #SAMPLE_SIZE} bytes is used. For a HDT file the start
+ * contains the header (describing among others the number of triples and the dictionary sizes), so any other version
+ * of the database results in a different identifier while a copy of the same file results in the same identifier.
+ */
+public final class DatabaseFingerprint {
+    /**
+     * The number of bytes read from the start and the end of the file.
+     */
+    static final int SAMPLE_SIZE = 64 * 1024;
+
+    private DatabaseFingerprint() {
+    }
+
+    /**
+     * @param file the database file
+     * @return a hexadecimal identifier for the content of {@code file}
+     * @throws IOException if {@code file} could not be read
+     */
+    public static String calculate(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 should be supported by every Java platform.", e);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+            digest.update(read(channel, 0, (int) Math.min(SAMPLE_SIZE, size)));
+            digest.update(read(channel, Math.max(0, size - SAMPLE_SIZE), (int) Math.min(SAMPLE_SIZE, size)));
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for(byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file while calculating the database fingerprint.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,89 @@
+package org.molgenis.vibe.core.io.input;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Binary encoding of the phenotypes per disease (see
+ * {@link org.molgenis.vibe.core.database_processing.DiseaseAnnotationsRetriever}) together with the
+ * {@link VibeDatabase#getDatabaseId()} they were retrieved from. Each distinct phenotype is stored once, after which
+ * the diseases refer to them by index:
+ * <pre>
+ * int magic, int version, UTF database id
+ * int n, n * UTF uri                                  phenotypes
+ * int n, n * (UTF uri, int n, n * int phenotype)      diseases
+ * </pre>
+ */
+final class DiseaseAnnotationsFile {
+    private static final int MAGIC = 0x56444146;
+    private static final int VERSION = 1;
+
+    private DiseaseAnnotationsFile() {
+    }
+
+    static void write(String databaseId, Map<String, ? extends Collection<String>> diseasePhenotypes,
+                      DataOutput output) throws IOException {
+        Map<String, Integer> phenotypes = new LinkedHashMap<>();
+        for(Collection<String> annotations : diseasePhenotypes.values()) {
+            for(String phenotype : annotations) {
+                phenotypes.putIfAbsent(phenotype, phenotypes.size());
+            }
+        }
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeUTF(databaseId);
+
+        output.writeInt(phenotypes.size());
+        for(String phenotype : phenotypes.keySet()) {
+            output.writeUTF(phenotype);
+        }
+
+        output.writeInt(diseasePhenotypes.size());
+        for(Map.Entry<String, ? extends Collection<String>> diseaseEntry : diseasePhenotypes.entrySet()) {
+            output.writeUTF(diseaseEntry.getKey());
+            output.writeInt(diseaseEntry.getValue().size());
+            for(String phenotype : diseaseEntry.getValue()) {
+                output.writeInt(phenotypes.get(phenotype));
+            }
+        }
+    }
+
+    /**
+     * @param databaseId the database the phenotypes per disease should belong to
+     * @return per disease URI the URIs of its phenotypes
+     * @throws IOException if the input could not be read, is not in this format or belongs to a different database
+     */
+    static Map<String, Set<String>> read(String databaseId, DataInput input) throws IOException {
+        if(input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Unsupported disease annotations format.");
+        }
+        if(!input.readUTF().equals(databaseId)) {
+            throw new IOException("Disease annotations belong to a different database.");
+        }
+
+        String[] phenotypes = new String[input.readInt()];
+        for(int i = 0; i < phenotypes.length; i++) {
+            phenotypes[i] = input.readUTF();
+        }
+
+        int diseaseCount = input.readInt();
+        Map<String, Set<String>> diseasePhenotypes = new HashMap<>();
+        for(int i = 0; i < diseaseCount; i++) {
+            String disease = input.readUTF();
+            int annotationCount = input.readInt();
+            Set<String> annotations = new HashSet<>();
+            for(int j = 0; j < annotationCount; j++) {
+                int phenotype = input.readInt();
+                if(phenotype < 0 || phenotype >= phenotypes.length) {
+                    throw new IOException("Invalid phenotype index: " + phenotype);
+                }
+                annotations.add(phenotypes[phenotype]);
+            }
+            diseasePhenotypes.put(disease, annotations);
+        }
+        return diseasePhenotypes;
+    }
+}
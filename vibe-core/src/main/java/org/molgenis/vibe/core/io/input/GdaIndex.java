@@ -0,0 +1,395 @@
+package org.molgenis.vibe.core.io.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A precomputed index containing for each phenotype the gene-disease associations that would be found through the
+ * genes-for-phenotypes query (see {@link org.molgenis.vibe.core.database_processing.GdaIndexWriter}). All entities are
+ * stored as int IDs referring to string tables, and all relations are stored as columns using compressed sparse row
+ * (CSR) offsets, so that retrieving the data for a phenotype only requires array scans.
+ * <br /><br />
+ * The index consists of the following parts (all numbers big-endian):
+ * <ol>
+ *     <li>{@link #MAGIC} and {@link #VERSION}</li>
+ *     <li>string tables (phenotype URIs, disease URIs, disease names, gene URIs, gene symbol URIs, source URIs,
+ *     source names, source levels and evidence URIs), each stored as UTF-8 bytes with an offsets column</li>
+ *     <li>the release year of each evidence</li>
+ *     <li>per phenotype the diseases and the number of routes through which each disease is found</li>
+ *     <li>per disease the gene-disease associations (gene and score)</li>
+ *     <li>per gene-disease association the sources and the number of results per source</li>
+ *     <li>per source of a gene-disease association the evidence and the number of results having that evidence</li>
+ *     <li>per phenotype the genes it results in, ordered on their highest score (the ranked gene list)</li>
+ * </ol>
+ * The number of results per source (and per evidence) are stored as if a disease is found through a single route, and
+ * should be multiplied by the number of routes through which a disease is found for a phenotype. The results of a
+ * source without evidence are the number of results of the source minus those of all its evidence, so that the exact
+ * number of results remaining after rejecting evidence (see
+ * {@link org.molgenis.vibe.core.database_processing.GdaFilter#acceptsEvidenceYear(int)}) can be calculated.
+ * <br /><br />
+ * The ranked gene lists allow retrieving the genes with the highest score for multiple phenotypes by only reading the
+ * start of each list (see
+ * {@link org.molgenis.vibe.core.query_output_digestion.prioritization.gene.RankedGeneListsPrioritizer}).
+ * <br /><br />
+ * Only absolute reads are done on the (memory-mapped) {@link ByteBuffer}, so a {@link GdaIndex} can safely be shared
+ * between threads.
+ */
+public class GdaIndex {
+    /**
+     * "VGDA" in ASCII.
+     */
+    public static final int MAGIC = 0x56474441;
+
+    public static final int VERSION = 3;
+
+    private ByteBuffer buffer;
+
+    private StringColumn phenotypeUris;
+    private StringColumn diseaseUris;
+    private StringColumn diseaseNames;
+    private StringColumn geneUris;
+    private StringColumn geneSymbolUris;
+    private StringColumn sourceUris;
+    private StringColumn sourceNames;
+    private StringColumn sourceLevels;
+    private StringColumn evidenceUris;
+    private IntColumn evidenceYears;
+
+    private IntColumn phenotypeDiseaseOffsets;
+    private IntColumn phenotypeDiseases;
+    private IntColumn phenotypeDiseaseRoutes;
+
+    private IntColumn diseaseCombinationOffsets;
+    private IntColumn combinationGenes;
+    private DoubleColumn combinationScores;
+
+    private IntColumn combinationSourceOffsets;
+    private IntColumn entrySources;
+    private IntColumn entryCounts;
+
+    private IntColumn entryEvidenceOffsets;
+    private IntColumn entryEvidence;
+    private IntColumn entryEvidenceCounts;
+
+    private IntColumn phenotypeGeneOffsets;
+    private IntColumn phenotypeGenes;
+    private DoubleColumn phenotypeGeneScores;
+
+    /**
+     * Phenotype URI -> phenotype ID.
+     */
+    private Map<String, Integer> phenotypes = new HashMap<>();
+
+    /**
+     * @param buffer a buffer containing the index
+     * @throws IOException if {@code buffer} does not contain a valid index
+     */
+    public GdaIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = requireNonNull(buffer);
+        try {
+            if(buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a gene-disease association index.");
+            }
+            if(buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported gene-disease association index version: " + buffer.getInt(4));
+            }
+
+            phenotypeUris = new StringColumn(8);
+            diseaseUris = new StringColumn(phenotypeUris.end);
+            diseaseNames = new StringColumn(diseaseUris.end);
+            geneUris = new StringColumn(diseaseNames.end);
+            geneSymbolUris = new StringColumn(geneUris.end);
+            sourceUris = new StringColumn(geneSymbolUris.end);
+            sourceNames = new StringColumn(sourceUris.end);
+            sourceLevels = new StringColumn(sourceNames.end);
+            evidenceUris = new StringColumn(sourceLevels.end);
+            evidenceYears = new IntColumn(evidenceUris.end);
+
+            phenotypeDiseaseOffsets = new IntColumn(evidenceYears.end);
+            phenotypeDiseases = new IntColumn(phenotypeDiseaseOffsets.end);
+            phenotypeDiseaseRoutes = new IntColumn(phenotypeDiseases.end);
+
+            diseaseCombinationOffsets = new IntColumn(phenotypeDiseaseRoutes.end);
+            combinationGenes = new IntColumn(diseaseCombinationOffsets.end);
+            combinationScores = new DoubleColumn(combinationGenes.end);
+
+            combinationSourceOffsets = new IntColumn(combinationScores.end);
+            entrySources = new IntColumn(combinationSourceOffsets.end);
+            entryCounts = new IntColumn(entrySources.end);
+
+            entryEvidenceOffsets = new IntColumn(entryCounts.end);
+            entryEvidence = new IntColumn(entryEvidenceOffsets.end);
+            entryEvidenceCounts = new IntColumn(entryEvidence.end);
+
+            phenotypeGeneOffsets = new IntColumn(entryEvidenceCounts.end);
+            phenotypeGenes = new IntColumn(phenotypeGeneOffsets.end);
+            phenotypeGeneScores = new DoubleColumn(phenotypeGenes.end);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Gene-disease association index is incomplete.", e);
+        }
+
+        for(int i = 0; i < phenotypeUris.size(); i++) {
+            phenotypes.put(phenotypeUris.get(i), i);
+        }
+    }
+
+    /**
+     * @param phenotypeUri the URI of a phenotype
+     * @return the phenotype ID, or {@code -1} if the phenotype has no gene-disease associations
+     */
+    public int getPhenotype(String phenotypeUri) {
+        return phenotypes.getOrDefault(phenotypeUri, -1);
+    }
+
+    public int getPhenotypeCount() {
+        return phenotypeUris.size();
+    }
+
+    public String getPhenotypeUri(int phenotype) {
+        return phenotypeUris.get(phenotype);
+    }
+
+    public int getDiseasesStart(int phenotype) {
+        return phenotypeDiseaseOffsets.get(phenotype);
+    }
+
+    public int getDiseasesEnd(int phenotype) {
+        return phenotypeDiseaseOffsets.get(phenotype + 1);
+    }
+
+    /**
+     * @param index an index between {@link #getDiseasesStart(int)} and {@link #getDiseasesEnd(int)}
+     * @return the disease ID
+     */
+    public int getDisease(int index) {
+        return phenotypeDiseases.get(index);
+    }
+
+    /**
+     * @param index an index between {@link #getDiseasesStart(int)} and {@link #getDiseasesEnd(int)}
+     * @return the number of routes through which the disease is found for the phenotype
+     */
+    public int getDiseaseRoutes(int index) {
+        return phenotypeDiseaseRoutes.get(index);
+    }
+
+    public String getDiseaseUri(int disease) {
+        return diseaseUris.get(disease);
+    }
+
+    public String getDiseaseName(int disease) {
+        return diseaseNames.get(disease);
+    }
+
+    public int getCombinationsStart(int disease) {
+        return diseaseCombinationOffsets.get(disease);
+    }
+
+    public int getCombinationsEnd(int disease) {
+        return diseaseCombinationOffsets.get(disease + 1);
+    }
+
+    /**
+     * @param combination a gene-disease association between {@link #getCombinationsStart(int)} and
+     *                    {@link #getCombinationsEnd(int)}
+     * @return the gene ID
+     */
+    public int getGene(int combination) {
+        return combinationGenes.get(combination);
+    }
+
+    public double getScore(int combination) {
+        return combinationScores.get(combination);
+    }
+
+    public String getGeneUri(int gene) {
+        return geneUris.get(gene);
+    }
+
+    public String getGeneSymbolUri(int gene) {
+        return geneSymbolUris.get(gene);
+    }
+
+    public int getEntriesStart(int combination) {
+        return combinationSourceOffsets.get(combination);
+    }
+
+    public int getEntriesEnd(int combination) {
+        return combinationSourceOffsets.get(combination + 1);
+    }
+
+    /**
+     * @param entry an entry between {@link #getEntriesStart(int)} and {@link #getEntriesEnd(int)}
+     * @return the source ID
+     */
+    public int getSource(int entry) {
+        return entrySources.get(entry);
+    }
+
+    /**
+     * @param entry an entry between {@link #getEntriesStart(int)} and {@link #getEntriesEnd(int)}
+     * @return the number of results for the source when the disease is found through a single route
+     */
+    public int getSourceCount(int entry) {
+        return entryCounts.get(entry);
+    }
+
+    public int getNumberOfSources() {
+        return sourceUris.size();
+    }
+
+    public String getSourceUri(int source) {
+        return sourceUris.get(source);
+    }
+
+    public String getSourceName(int source) {
+        return sourceNames.get(source);
+    }
+
+    public String getSourceLevel(int source) {
+        return sourceLevels.get(source);
+    }
+
+    public int getEvidenceStart(int entry) {
+        return entryEvidenceOffsets.get(entry);
+    }
+
+    public int getEvidenceEnd(int entry) {
+        return entryEvidenceOffsets.get(entry + 1);
+    }
+
+    /**
+     * @param index an index between {@link #getEvidenceStart(int)} and {@link #getEvidenceEnd(int)}
+     * @return the evidence ID
+     */
+    public int getEvidence(int index) {
+        return entryEvidence.get(index);
+    }
+
+    /**
+     * @param index an index between {@link #getEvidenceStart(int)} and {@link #getEvidenceEnd(int)}
+     * @return the number of results for the source with the evidence when the disease is found through a single route
+     * (included in {@link #getSourceCount(int)})
+     */
+    public int getEvidenceCount(int index) {
+        return entryEvidenceCounts.get(index);
+    }
+
+    public String getEvidenceUri(int evidence) {
+        return evidenceUris.get(evidence);
+    }
+
+    public int getEvidenceYear(int evidence) {
+        return evidenceYears.get(evidence);
+    }
+
+    public int getRankedGenesStart(int phenotype) {
+        return phenotypeGeneOffsets.get(phenotype);
+    }
+
+    public int getRankedGenesEnd(int phenotype) {
+        return phenotypeGeneOffsets.get(phenotype + 1);
+    }
+
+    /**
+     * @param index an index between {@link #getRankedGenesStart(int)} and {@link #getRankedGenesEnd(int)}
+     * @return the gene ID (genes of a phenotype are ordered from highest to lowest score)
+     */
+    public int getRankedGene(int index) {
+        return phenotypeGenes.get(index);
+    }
+
+    /**
+     * @param index an index between {@link #getRankedGenesStart(int)} and {@link #getRankedGenesEnd(int)}
+     * @return the highest score of the gene among all gene-disease associations of the phenotype
+     */
+    public double getRankedGeneScore(int index) {
+        return phenotypeGeneScores.get(index);
+    }
+
+    /**
+     * A column of ints, stored as its length followed by the values.
+     */
+    private class IntColumn {
+        private int start;
+        private int size;
+        private int end;
+
+        IntColumn(int position) {
+            size = buffer.getInt(position);
+            start = position + Integer.BYTES;
+            end = start + size * Integer.BYTES;
+            // Validates the column fits within the buffer.
+            if(end > buffer.limit()) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return buffer.getInt(start + index * Integer.BYTES);
+        }
+    }
+
+    /**
+     * A column of doubles, stored as its length followed by the values.
+     */
+    private class DoubleColumn {
+        private int start;
+        private int end;
+
+        DoubleColumn(int position) {
+            int size = buffer.getInt(position);
+            start = position + Integer.BYTES;
+            end = start + size * Double.BYTES;
+            if(end > buffer.limit()) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+
+        double get(int index) {
+            return buffer.getDouble(start + index * Double.BYTES);
+        }
+    }
+
+    /**
+     * A column of strings, stored as an {@link IntColumn} with the offsets of each string (plus the end of the last
+     * string) followed by the UTF-8 bytes of all strings.
+     */
+    private class StringColumn {
+        private IntColumn offsets;
+        private int start;
+        private int end;
+
+        StringColumn(int position) {
+            offsets = new IntColumn(position);
+            start = offsets.end;
+            end = start + offsets.get(offsets.size() - 1);
+            if(end > buffer.limit()) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+
+        int size() {
+            return offsets.size() - 1;
+        }
+
+        String get(int index) {
+            int offset = offsets.get(index);
+            byte[] bytes = new byte[offsets.get(index + 1) - offset];
+            // A duplicate is used so that the position of the shared buffer is never changed.
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(start + offset);
+            duplicate.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
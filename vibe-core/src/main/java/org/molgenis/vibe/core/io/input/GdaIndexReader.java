@@ -0,0 +1,125 @@
+package org.molgenis.vibe.core.io.input;
+
+import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.core.database_processing.SourceRegistry;
+import org.molgenis.vibe.core.formats.EntityRegistry;
+import org.molgenis.vibe.core.formats.Source;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for a gene-disease association index file (see {@link GdaIndex}). The file is memory-mapped, so only the
+ * parts that are actually accessed are read from disk.
+ * <br /><br />
+ * As the index only contains the results of the genes-for-phenotypes query, no {@link Model} is available.
+ */
+public class GdaIndexReader implements ModelReader {
+    /**
+     * The index.
+     */
+    private GdaIndex gdaIndex;
+
+    /**
+     * The {@link Source}{@code s} stored within the index (shared with views).
+     */
+    private SourceRegistry sourceRegistry;
+
+    /**
+     * The canonical entities retrieved from the index (shared with views).
+     */
+    private EntityRegistry entityRegistry;
+
+    /**
+     * Identifies the index file (shared with views).
+     */
+    private String databaseId;
+
+    /**
+     * @throws UnsupportedOperationException as an index is not backed by a {@link Model}
+     */
+    @Override
+    public Model getModel() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is not backed by a Model.");
+    }
+
+    @Override
+    public GdaIndex getGdaIndex() {
+        return gdaIndex;
+    }
+
+    /**
+     * The {@link Source}{@code s} are stored ordered on their {@link URI}, so the source IDs of the {@link GdaIndex}
+     * equal the ordinals within the {@link SourceRegistry}.
+     * @return the {@link SourceRegistry} of the {@link GdaIndex}
+     */
+    @Override
+    public SourceRegistry getSourceRegistry() {
+        return sourceRegistry;
+    }
+
+    /**
+     * @return the {@link EntityRegistry} shared by this reader and all its views
+     */
+    @Override
+    public EntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    @Override
+    public String getDatabaseId() {
+        return databaseId;
+    }
+
+    /**
+     * A {@link GdaIndex} is thread-safe, so a view simply shares the same {@link GdaIndex}.
+     * @return a new {@link GdaIndexReader} sharing the loaded {@link GdaIndex}
+     */
+    @Override
+    public GdaIndexReader createView() {
+        return new GdaIndexReader(gdaIndex, sourceRegistry, entityRegistry, databaseId);
+    }
+
+    /**
+     * The memory-mapped file is released once the {@link GdaIndex} is garbage collected.
+     */
+    @Override
+    public void close() {
+        gdaIndex = null;
+    }
+
+    /**
+     * @param file the index file to read
+     * @throws IOException if the file could not be read or is not a valid index
+     */
+    public GdaIndexReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file.getFileName() + " is too large to be memory-mapped as a single buffer.");
+            }
+            gdaIndex = new GdaIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        List<Source> sources = new ArrayList<>();
+        for(int i = 0; i < gdaIndex.getNumberOfSources(); i++) {
+            sources.add(new Source(URI.create(gdaIndex.getSourceUri(i)), gdaIndex.getSourceName(i),
+                    gdaIndex.getSourceLevel(i)));
+        }
+        sourceRegistry = new SourceRegistry(sources);
+        entityRegistry = new EntityRegistry();
+        databaseId = DatabaseFingerprint.calculate(file);
+    }
+
+    private GdaIndexReader(GdaIndex gdaIndex, SourceRegistry sourceRegistry, EntityRegistry entityRegistry,
+                           String databaseId) {
+        this.gdaIndex = gdaIndex;
+        this.sourceRegistry = sourceRegistry;
+        this.entityRegistry = entityRegistry;
+        this.databaseId = databaseId;
+    }
+}
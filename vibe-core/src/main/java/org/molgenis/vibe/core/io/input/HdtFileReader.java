@@ -2,16 +2,28 @@ package org.molgenis.vibe.core.io.input;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.molgenis.vibe.core.database_processing.GdaTypeClosure;
+import org.molgenis.vibe.core.database_processing.SourceRegistry;
+import org.molgenis.vibe.core.formats.EntityRegistry;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
 import org.rdfhdt.hdt.hdt.HDT;
 import org.rdfhdt.hdt.hdt.HDTManager;
 import org.rdfhdt.hdtjena.HDTGraph;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Reader for a HDT file. Note that when the HDT file is stored in a read-only directory, a
  * {@link java.io.FileNotFoundException} will be thrown when no index file is present.
+ * <br /><br />
+ * The HDT (and its index) can either be loaded onto the Java heap or be memory-mapped. When memory-mapped, only the
+ * parts that are actually accessed are read from disk and the pages can be shared by multiple processes through the
+ * OS page cache.
  */
 public class HdtFileReader implements ModelReader {
     /**
@@ -29,19 +41,99 @@ public class HdtFileReader implements ModelReader {
      */
     private HDTGraph graph;
 
+    /**
+     * Whether closing this reader should also close the {@link HDT} (is {@code false} for views).
+     */
+    private boolean closeHdt;
+
+    /**
+     * The lazily retrieved {@link SourceRegistry} (shared with views).
+     */
+    private AtomicReference<SourceRegistry> sourceRegistry;
+
+    /**
+     * The lazily resolved {@link GdaTypeClosure}{@code s} per {@link GeneDiseaseCombinationType} (shared with views).
+     */
+    private ConcurrentMap<GeneDiseaseCombinationType, GdaTypeClosure> gdaTypeClosures;
+
+    /**
+     * The canonical entities retrieved from the {@link HDT} (shared with views).
+     */
+    private EntityRegistry entityRegistry;
+
+    /**
+     * Identifies the HDT file (shared with views).
+     */
+    private String databaseId;
+
     @Override
     public Model getModel() {
         return model;
     }
 
+    @Override
+    public HDT getHdt() {
+        return hdt;
+    }
+
+    @Override
+    public String getDatabaseId() {
+        return databaseId;
+    }
+
+    /**
+     * Retrieves the {@link SourceRegistry} on first use, after which it is shared by this reader and all its views.
+     * @return the {@link SourceRegistry} of the {@link HDT}
+     */
+    @Override
+    public SourceRegistry getSourceRegistry() {
+        SourceRegistry registry = sourceRegistry.get();
+        if(registry == null) {
+            // Simultaneous first calls might both query the sources, but all use the one stored first.
+            sourceRegistry.compareAndSet(null, SourceRegistry.retrieve(model));
+            registry = sourceRegistry.get();
+        }
+        return registry;
+    }
+
+    /**
+     * Resolves the {@link GdaTypeClosure} on first use, after which it is shared by this reader and all its views.
+     * @param type the {@link GeneDiseaseCombinationType} to resolve the subclasses for
+     * @return the {@link GdaTypeClosure} of the {@link HDT}
+     */
+    @Override
+    public GdaTypeClosure getGdaTypeClosure(GeneDiseaseCombinationType type) {
+        return gdaTypeClosures.computeIfAbsent(type, k -> GdaTypeClosure.retrieve(model, k));
+    }
+
+    /**
+     * @return the {@link EntityRegistry} shared by this reader and all its views
+     */
+    @Override
+    public EntityRegistry getEntityRegistry() {
+        return entityRegistry;
+    }
+
+    /**
+     * Creates a view on the same {@link HDT} using its own {@link HDTGraph}. The dictionary caches of a {@link HDTGraph}
+     * are not thread-safe, so each thread requires its own view.
+     * @return a new {@link HdtFileReader} sharing the loaded {@link HDT}
+     */
+    @Override
+    public HdtFileReader createView() {
+        return new HdtFileReader(hdt, false, sourceRegistry, gdaTypeClosures, entityRegistry, databaseId);
+    }
+
     @Override
     public void close() {
         model.close();
         graph.close();
-        try {
-            hdt.close();
-        } catch (IOException e) {
-            System.err.println("An error occurred while trying to close the HDT.");
+        if(closeHdt) {
+            try {
+                hdt.close();
+            } catch (IOException e) {
+                System.err.println("An error occurred while trying to close the HDT.");
+            }
         }
     }
 
@@ -50,8 +142,34 @@ public class HdtFileReader implements ModelReader {
     }
 
     public HdtFileReader(String file) throws IOException {
-        hdt = HDTManager.loadIndexedHDT(file, null);
-        graph = new HDTGraph(hdt);
+        this(file, false);
+    }
+
+    public HdtFileReader(Path file, boolean memoryMapped) throws IOException {
+        this(file.toString(), memoryMapped);
+    }
+
+    /**
+     * @param file the HDT file to read
+     * @param memoryMapped {@code true} to memory-map the HDT and its index, {@code false} to load them onto the heap
+     * @throws IOException if the HDT could not be read
+     */
+    public HdtFileReader(String file, boolean memoryMapped) throws IOException {
+        this(memoryMapped ? HDTManager.mapIndexedHDT(file, null) : HDTManager.loadIndexedHDT(file, null), true,
+                new AtomicReference<>(), new ConcurrentHashMap<>(), new EntityRegistry(),
+                DatabaseFingerprint.calculate(Paths.get(file)));
+    }
+
+    private HdtFileReader(HDT hdt, boolean closeHdt, AtomicReference<SourceRegistry> sourceRegistry,
+                          ConcurrentMap<GeneDiseaseCombinationType, GdaTypeClosure> gdaTypeClosures,
+                          EntityRegistry entityRegistry, String databaseId) {
+        this.hdt = hdt;
+        this.closeHdt = closeHdt;
+        this.sourceRegistry = sourceRegistry;
+        this.gdaTypeClosures = gdaTypeClosures;
+        this.entityRegistry = entityRegistry;
+        this.databaseId = databaseId;
+        graph = new HDTGraph(hdt, false);
         model = ModelFactory.createModelForGraph(graph);
     }
 }
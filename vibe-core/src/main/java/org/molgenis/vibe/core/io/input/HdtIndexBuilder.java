@@ -0,0 +1,206 @@
+package org.molgenis.vibe.core.io.input;
+
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.ControlInfo;
+import org.rdfhdt.hdt.options.ControlInformation;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds (and verifies) the index belonging to a HDT file. The HDT library looks for the index next to the HDT file it
+ * loads ({@code <hdt file>.index.v1-1}) and otherwise generates it at that location while loading, which can take
+ * several minutes for the vibe database.
+ * <br /><br />
+ * Index creation is coordinated through an exclusive lock on {@code <index file>.lock}, so that multiple processes
+ * starting at the same time (for example on shared storage) do not build the same index simultaneously. The index is
+ * first written to a temporary directory and then atomically moved into place, so a process that does not take the
+ * lock never sees a partially written index.
+ * <br /><br />
+ * When an index cache directory is given and no index is present next to the HDT file, a symbolic link to the HDT
+ * file is placed in the cache directory and the index is stored beside that link. This allows using a database stored
+ * in a read-only directory without a pre-made index file.
+ */
+public class HdtIndexBuilder {
+    /**
+     * Suffix the HDT library uses for the index file belonging to a HDT file.
+     */
+    public static final String INDEX_SUFFIX = ".index.v1-1";
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    /**
+     * {@link FileLock}{@code s} are held on behalf of the whole JVM, so threads within the same JVM are coordinated
+     * separately.
+     */
+    private static final Object JVM_LOCK = new Object();
+
+    /**
+     * The HDT file.
+     */
+    private Path hdtFile;
+
+    /**
+     * Writable directory to store the index in if no index is present next to the HDT file (can be {@code null}).
+     */
+    private Path indexCacheDir;
+
+    public HdtIndexBuilder(Path hdtFile) {
+        this(hdtFile, null);
+    }
+
+    /**
+     * @param hdtFile the HDT file
+     * @param indexCacheDir writable directory to store the index in if no index is present next to the HDT file
+     *                      ({@code null} to store it next to the HDT file)
+     */
+    public HdtIndexBuilder(Path hdtFile, Path indexCacheDir) {
+        this.hdtFile = requireNonNull(hdtFile);
+        this.indexCacheDir = indexCacheDir;
+    }
+
+    /**
+     * @param hdtFile a HDT file
+     * @return the index file the HDT library uses for {@code hdtFile}
+     */
+    public static Path indexFileFor(Path hdtFile) {
+        return Paths.get(hdtFile.toString() + INDEX_SUFFIX);
+    }
+
+    /**
+     * The path through which the HDT file should be loaded so that the HDT library uses the index from this builder:
+     * the HDT file itself if an index is present next to it or no index cache directory was given, otherwise the link
+     * to the HDT file in the index cache directory.
+     * @return the path to load the HDT file from
+     */
+    public Path getIndexedHdtFile() {
+        if(indexCacheDir == null || Files.isRegularFile(indexFileFor(hdtFile))) {
+            return hdtFile;
+        }
+        return indexCacheDir.resolve(hdtFile.getFileName());
+    }
+
+    /**
+     * @return the index file belonging to {@link #getIndexedHdtFile()}
+     */
+    public Path getIndexFile() {
+        return indexFileFor(getIndexedHdtFile());
+    }
+
+    /**
+     * Ensures the index is present, building it if needed. If another process is building the same index, waits for
+     * that process to finish instead.
+     * @return the path to load the HDT file from (see {@link #getIndexedHdtFile()})
+     * @throws IOException if the index could not be built
+     */
+    public Path build() throws IOException {
+        Path indexedHdtFile = getIndexedHdtFile();
+        Path indexFile = indexFileFor(indexedHdtFile);
+
+        // Prevents requiring write access when nothing needs to be done.
+        if(isLinked(indexedHdtFile) && Files.isRegularFile(indexFile)) {
+            return indexedHdtFile;
+        }
+
+        synchronized (JVM_LOCK) {
+            try (FileChannel channel = FileChannel.open(Paths.get(indexFile.toString() + LOCK_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                // Another process might have finished in the meantime.
+                if(!isLinked(indexedHdtFile)) {
+                    Files.createSymbolicLink(indexedHdtFile, hdtFile.toRealPath());
+                }
+                if(!Files.isRegularFile(indexFile)) {
+                    generateIndex(indexFile);
+                }
+            }
+        }
+        return indexedHdtFile;
+    }
+
+    /**
+     * Verifies whether the index is present and belongs to the HDT file. The HDT library would otherwise silently
+     * regenerate an index not belonging to the HDT file when loading it.
+     * @throws IOException if no valid index is present
+     */
+    public void verify() throws IOException {
+        Path indexedHdtFile = getIndexedHdtFile();
+        Path indexFile = indexFileFor(indexedHdtFile);
+
+        if(!(isLinked(indexedHdtFile) && Files.isRegularFile(indexFile) && Files.isReadable(indexFile))) {
+            throw new IOException("No index file available for " + hdtFile.getFileName() + ".");
+        }
+
+        ControlInformation controlInformation = new ControlInformation();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(indexFile))) {
+            controlInformation.load(inputStream);
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Index file " + indexFile + " could not be read.", e);
+        }
+
+        try (HDT hdt = HDTManager.mapHDT(indexedHdtFile.toString(), null)) {
+            if(controlInformation.getType() != ControlInfo.Type.INDEX ||
+                    controlInformation.getInt("numTriples") != hdt.getTriples().getNumberOfElements()) {
+                throw new IOException("Index file " + indexFile + " does not belong to " + hdtFile.getFileName() + ".");
+            }
+        }
+    }
+
+    /**
+     * @param indexedHdtFile the path to load the HDT file from
+     * @return {@code true} if {@code indexedHdtFile} is the HDT file or a link to it, {@code false} if the link is not
+     * present yet
+     * @throws IOException if {@code indexedHdtFile} exists but does not refer to the HDT file
+     */
+    private boolean isLinked(Path indexedHdtFile) throws IOException {
+        if(indexedHdtFile.equals(hdtFile)) {
+            return true;
+        }
+        if(!Files.exists(indexedHdtFile, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if(!Files.isSameFile(indexedHdtFile, hdtFile)) {
+            throw new IOException("Index cache directory " + indexCacheDir + " already contains a different database " +
+                    "named " + hdtFile.getFileName() + ".");
+        }
+        return true;
+    }
+
+    /**
+     * Generates the index in a temporary directory next to {@code indexFile} and atomically moves it into place.
+     * @param indexFile the location the index should be stored
+     * @throws IOException if the index could not be generated
+     */
+    private void generateIndex(Path indexFile) throws IOException {
+        Path tempDir = Files.createTempDirectory(indexFile.toAbsolutePath().getParent(), ".vibe-index-");
+        try {
+            Path tempHdtFile = Files.createSymbolicLink(tempDir.resolve(hdtFile.getFileName()), hdtFile.toRealPath());
+            // Memory-mapped loading generates the index when absent and writes it next to the given (linked) file.
+            HDTManager.mapIndexedHDT(tempHdtFile.toString(), null).close();
+
+            Path tempIndexFile = indexFileFor(tempHdtFile);
+            if(!Files.isRegularFile(tempIndexFile)) {
+                throw new IOException("Failed to create index file for " + hdtFile.getFileName() + ".");
+            }
+            Files.move(tempIndexFile, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            try (Stream<Path> paths = Files.walk(tempDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package org.molgenis.vibe.core.io.input;
 
 import org.apache.jena.rdf.model.Model;
+import org.molgenis.vibe.core.database_processing.GdaTypeClosure;
+import org.molgenis.vibe.core.database_processing.SourceRegistry;
+import org.molgenis.vibe.core.formats.EntityRegistry;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
+import org.rdfhdt.hdt.hdt.HDT;
 
 import java.io.Closeable;
 
@@ -11,5 +16,73 @@ public interface ModelReader extends Closeable {
 
     Model getModel();
 
+    /**
+     * Creates a {@link ModelReader} that shares the already loaded data with this {@link ModelReader} but can safely be
+     * used by another thread (while this one is still in use). Closing the view does not close the original
+     * {@link ModelReader}, but the view should not be used anymore after the original is closed.
+     * @return a new {@link ModelReader} sharing the loaded data
+     * @throws UnsupportedOperationException if this {@link ModelReader} does not support views
+     */
+    default ModelReader createView() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support views.");
+    }
+
+    /**
+     * Gives direct access to the underlying {@link HDT}, allowing triple pattern lookups without going through the
+     * {@link Model}.
+     * @return the {@link HDT} the {@link Model} is based on
+     * @throws UnsupportedOperationException if this {@link ModelReader} is not backed by a {@link HDT}
+     */
+    default HDT getHdt() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is not backed by a HDT.");
+    }
+
+    /**
+     * Gives direct access to a precomputed {@link GdaIndex}.
+     * @return the {@link GdaIndex} this {@link ModelReader} reads
+     * @throws UnsupportedOperationException if this {@link ModelReader} is not backed by a {@link GdaIndex}
+     */
+    default GdaIndex getGdaIndex() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is not backed by a GdaIndex.");
+    }
+
+    /**
+     * The {@link SourceRegistry} of the database. Implementations that keep their data loaded should only retrieve it
+     * once (and share it with their views), the default implementation queries the {@link Model} on every call.
+     * @return the {@link SourceRegistry} belonging to the data of this {@link ModelReader}
+     */
+    default SourceRegistry getSourceRegistry() {
+        return SourceRegistry.retrieve(getModel());
+    }
+
+    /**
+     * The {@link GdaTypeClosure} of a {@link GeneDiseaseCombinationType} within the database. Implementations that
+     * keep their data loaded should only resolve it once per type (and share it with their views), the default
+     * implementation queries the {@link Model} on every call.
+     * @param type the {@link GeneDiseaseCombinationType} to resolve the subclasses for
+     * @return the {@link GdaTypeClosure} belonging to the data of this {@link ModelReader}
+     */
+    default GdaTypeClosure getGdaTypeClosure(GeneDiseaseCombinationType type) {
+        return GdaTypeClosure.retrieve(getModel(), type);
+    }
+
+    /**
+     * The {@link EntityRegistry} of the database. Implementations that keep their data loaded should only create it
+     * once (and share it with their views), the default implementation returns a new (empty) one on every call.
+     * @return an {@link EntityRegistry} for the data of this {@link ModelReader}
+     */
+    default EntityRegistry getEntityRegistry() {
+        return new EntityRegistry();
+    }
+
+    /**
+     * Identifies the loaded database, so that results retrieved from it can be cached (see
+     * {@link DatabaseFingerprint}). The same database results in the same identifier, even across processes.
+     * @return an identifier for the loaded database, or {@code null} if it cannot be identified
+     */
+    default String getDatabaseId() {
+        return null;
+    }
+
     void close();
 }
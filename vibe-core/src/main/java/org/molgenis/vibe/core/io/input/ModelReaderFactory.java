@@ -9,6 +9,24 @@ public enum ModelReaderFactory {
         public ModelReader readDatabase(Path file) throws IOException {
             return new HdtFileReader(file);
         }
+    },
+    /**
+     * Memory-maps the HDT (and its index) instead of loading it onto the heap.
+     */
+    HDT_MAPPED {
+        @Override
+        public ModelReader readDatabase(Path file) throws IOException {
+            return new HdtFileReader(file, true);
+        }
+    },
+    /**
+     * Memory-maps a precomputed gene-disease association index (see {@link GdaIndex}).
+     */
+    GDA_INDEX {
+        @Override
+        public ModelReader readDatabase(Path file) throws IOException {
+            return new GdaIndexReader(file);
+        }
     };
 
     public abstract ModelReader readDatabase(Path file) throws IOException;
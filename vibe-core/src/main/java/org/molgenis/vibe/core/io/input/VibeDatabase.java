@@ -1,32 +1,226 @@
 package org.molgenis.vibe.core.io.input;
 
-import java.io.IOException;
+import org.molgenis.vibe.core.database_processing.DiseaseAnnotationsRetriever;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * A vibe database that can be accessed through retrieving the {@link ModelReader}. Also validates the database &
  * accessibility on the file system before it is actually loaded through the {@link ModelReader}.
+ * <br /><br />
+ * If the index belonging to the database is missing, it is built (see {@link HdtIndexBuilder}) when retrieving the
+ * {@link ModelReader}. When an index cache directory is given, the index is stored there instead of next to the
+ * database, allowing the database to be stored in a read-only directory.
+ * <br /><br />
+ * The {@link GenesForPhenotypeRetrieverFactory} defines how the data is retrieved from the database (by default
+ * {@link GenesForPhenotypeRetrieverFactory#SPARQL}).
+ * <br /><br />
+ * Alternatively, a precomputed gene-disease association index (see {@link GdaIndex}) can be used as database through
+ * {@link ModelReaderFactory#GDA_INDEX}. This requires {@link GenesForPhenotypeRetrieverFactory#GDA_INDEX} (used by
+ * default for such a database) and does not use a HDT index.
+ * <br /><br />
+ * The phenotypes per disease (see {@link #getDiseasePhenotypes(ModelReader)}) are stored next to the index as well,
+ * as retrieving them from a HDT database requires processing all phenotypes.
  */
 public class VibeDatabase {
+    /**
+     * File extension of a gene-disease association index.
+     */
+    public static final String GDA_INDEX_EXTENSION = ".gda";
+
+    /**
+     * Suffix of the file storing the phenotypes per disease of a HDT database.
+     */
+    public static final String DISEASE_ANNOTATIONS_SUFFIX = ".annotations";
+
     private Path dbPath;
     private ModelReaderFactory modelReaderFactory;
+    private Path indexCacheDir;
+    private GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory;
+    private volatile String databaseId;
+    private volatile Map<String, Set<String>> diseasePhenotypes;
 
     public VibeDatabase(Path dbPath, ModelReaderFactory modelReaderFactory) throws IOException {
+        this(dbPath, modelReaderFactory, null);
+    }
+
+    /**
+     * @param dbPath the database file
+     * @param modelReaderFactory the {@link ModelReaderFactory} to read the database with
+     * @param indexCacheDir writable directory to store the index in if it is not present next to the database
+     *                      ({@code null} to store it next to the database)
+     * @throws IOException if the database (or index cache directory) is not accessible
+     */
+    public VibeDatabase(Path dbPath, ModelReaderFactory modelReaderFactory, Path indexCacheDir) throws IOException {
+        this(dbPath, modelReaderFactory, indexCacheDir, defaultRetrieverFactory(modelReaderFactory));
+    }
+
+    /**
+     * @param dbPath the database file
+     * @param modelReaderFactory the {@link ModelReaderFactory} to read the database with
+     * @param indexCacheDir writable directory to store the index in if it is not present next to the database
+     *                      ({@code null} to store it next to the database)
+     * @param genesForPhenotypeRetrieverFactory the {@link GenesForPhenotypeRetrieverFactory} to retrieve data with
+     * @throws IOException if the database (or index cache directory) is not accessible
+     */
+    public VibeDatabase(Path dbPath, ModelReaderFactory modelReaderFactory, Path indexCacheDir,
+                        GenesForPhenotypeRetrieverFactory genesForPhenotypeRetrieverFactory) throws IOException {
         this.dbPath = requireNonNull(dbPath);
         this.modelReaderFactory = requireNonNull(modelReaderFactory);
+        this.indexCacheDir = indexCacheDir;
+        this.genesForPhenotypeRetrieverFactory = requireNonNull(genesForPhenotypeRetrieverFactory);
         validate();
     }
 
+    public Path getDbPath() {
+        return dbPath;
+    }
+
+    public ModelReaderFactory getModelReaderFactory() {
+        return modelReaderFactory;
+    }
+
+    public Path getIndexCacheDir() {
+        return indexCacheDir;
+    }
+
+    public GenesForPhenotypeRetrieverFactory getGenesForPhenotypeRetrieverFactory() {
+        return genesForPhenotypeRetrieverFactory;
+    }
+
+    /**
+     * Calculates the same identifier as {@link ModelReader#getDatabaseId()} without reading the database, so that
+     * cached data can be used without loading the database at all. Only calculated once.
+     * @return an identifier for the content of the database file
+     * @throws IOException if the database file could not be read
+     * @see DatabaseFingerprint
+     */
+    public String getDatabaseId() throws IOException {
+        if(databaseId == null) {
+            databaseId = DatabaseFingerprint.calculate(dbPath);
+        }
+        return databaseId;
+    }
+
+    /**
+     * @return the file storing the phenotypes per disease of a HDT database: {@code <database>.annotations} in the
+     * index cache directory if given, otherwise next to the database
+     */
+    public Path getDiseaseAnnotationsFile() {
+        Path directory = indexCacheDir == null ? dbPath.toAbsolutePath().getParent() : indexCacheDir;
+        return directory.resolve(dbPath.getFileName() + DISEASE_ANNOTATIONS_SUFFIX);
+    }
+
+    /**
+     * Retrieves per disease the phenotypes it is annotated with (see {@link DiseaseAnnotationsRetriever}), as needed
+     * for an {@link org.molgenis.vibe.core.ontology_processing.InformationContentTable}. For a HDT database they are
+     * read from {@link #getDiseaseAnnotationsFile()} if it belongs to {@link #getDatabaseId()}, otherwise they are
+     * retrieved from {@code modelReader} and stored in that file for next time (failing to write it is ignored). A
+     * {@link GdaIndex} already contains them. Only retrieved once, so that multiple users can share the result.
+     * @param modelReader an opened {@link ModelReader} for this database (only read if the file is not usable)
+     * @return per disease URI the URIs of its phenotypes (unmodifiable)
+     * @throws IOException if the database file could not be read
+     */
+    public Map<String, Set<String>> getDiseasePhenotypes(ModelReader modelReader) throws IOException {
+        if(diseasePhenotypes == null) {
+            synchronized (this) {
+                if(diseasePhenotypes == null) {
+                    diseasePhenotypes = Collections.unmodifiableMap(loadDiseasePhenotypes(modelReader));
+                }
+            }
+        }
+        return diseasePhenotypes;
+    }
+
+    private Map<String, Set<String>> loadDiseasePhenotypes(ModelReader modelReader) throws IOException {
+        if(modelReaderFactory == ModelReaderFactory.GDA_INDEX) {
+            return retrieveDiseasePhenotypes(modelReader);
+        }
+
+        Path file = getDiseaseAnnotationsFile();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return DiseaseAnnotationsFile.read(getDatabaseId(), input);
+        } catch (IOException e) {
+            // Not present, unreadable or belonging to a different database, so it is retrieved (and overwritten).
+        }
+
+        Map<String, Set<String>> retrievedDiseasePhenotypes = retrieveDiseasePhenotypes(modelReader);
+        writeDiseasePhenotypes(file, retrievedDiseasePhenotypes);
+        return retrievedDiseasePhenotypes;
+    }
+
+    private static Map<String, Set<String>> retrieveDiseasePhenotypes(ModelReader modelReader) {
+        DiseaseAnnotationsRetriever retriever = new DiseaseAnnotationsRetriever(modelReader);
+        retriever.run();
+        return retriever.getDiseasePhenotypes();
+    }
+
+    /**
+     * Writes to a temporary file first which is then atomically moved into place, so that other processes never read
+     * a partially written file.
+     */
+    private void writeDiseasePhenotypes(Path file, Map<String, Set<String>> diseasePhenotypes) throws IOException {
+        String id = getDatabaseId();
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(file.getParent(), file.getFileName() + "-", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                DiseaseAnnotationsFile.write(id, diseasePhenotypes, output);
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } catch (IOException e) {
+            // Not stored, so they are retrieved from the database again next time.
+        } finally {
+            if(tempFile != null) {
+                tempFile.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * @param modelReaderFactory the {@link ModelReaderFactory} a database is read with
+     * @return the {@link GenesForPhenotypeRetrieverFactory} used by default for that {@link ModelReaderFactory}
+     */
+    public static GenesForPhenotypeRetrieverFactory defaultRetrieverFactory(ModelReaderFactory modelReaderFactory) {
+        return modelReaderFactory == ModelReaderFactory.GDA_INDEX ? GenesForPhenotypeRetrieverFactory.GDA_INDEX :
+                GenesForPhenotypeRetrieverFactory.SPARQL;
+    }
+
+    /**
+     * @return the {@link HdtIndexBuilder} belonging to the database
+     * @throws UnsupportedOperationException if the database is not a HDT file
+     */
+    public HdtIndexBuilder getIndexBuilder() {
+        if(modelReaderFactory == ModelReaderFactory.GDA_INDEX) {
+            throw new UnsupportedOperationException("A gene-disease association index does not use a HDT index.");
+        }
+        return new HdtIndexBuilder(dbPath, indexCacheDir);
+    }
+
+    /**
+     * Builds the index if it is missing and reads the database.
+     * @return a {@link ModelReader} for the database
+     * @throws IOException if the index could not be built or the database could not be read
+     */
     public ModelReader getModelReader() throws IOException {
-        return modelReaderFactory.readDatabase(dbPath);
+        if(modelReaderFactory == ModelReaderFactory.GDA_INDEX) {
+            return modelReaderFactory.readDatabase(dbPath);
+        }
+        return modelReaderFactory.readDatabase(getIndexBuilder().build());
     }
 
     private void validate() throws IOException {
-        if(modelReaderFactory.equals(ModelReaderFactory.HDT)) {
+        if(modelReaderFactory.equals(ModelReaderFactory.HDT) || modelReaderFactory.equals(ModelReaderFactory.HDT_MAPPED)) {
             // Checks if it is a readable HDT file.
             if (!(Files.isRegularFile(dbPath) &&
                     Files.isReadable(dbPath) &&
@@ -35,17 +229,37 @@ public class VibeDatabase {
                         " is a readable .hdt file.");
             }
 
+            // If given, the index cache directory needs to be writable.
+            if (indexCacheDir != null) {
+                if (!(Files.isDirectory(indexCacheDir) && Files.isWritable(indexCacheDir))) {
+                    throw new IOException("Index cache directory " + indexCacheDir + " is not a writable directory.");
+                }
             // If directory is not writable, pre-made index file is required.
-            if (!Files.isWritable(dbPath.getParent())) {
+            } else if (!Files.isWritable(dbPath.toAbsolutePath().getParent())) {
                 // Name is index file belonging to HDT database file.
-                Path indexFile = Paths.get(dbPath.toString() + ".index.v1-1");
+                Path indexFile = HdtIndexBuilder.indexFileFor(dbPath);
                 if (!(Files.isRegularFile(indexFile) && Files.isReadable(indexFile))) {
                     throw new IOException("Read-only directories require pre-made index file.");
                 }
             }
+        } else if(modelReaderFactory.equals(ModelReaderFactory.GDA_INDEX)) {
+            // Checks if it is a readable index file.
+            if (!(Files.isRegularFile(dbPath) &&
+                    Files.isReadable(dbPath) &&
+                    dbPath.toString().toLowerCase().endsWith(GDA_INDEX_EXTENSION))) {
+                throw new IOException("Invalid database. Please check if " + dbPath.getFileName() +
+                        " is a readable " + GDA_INDEX_EXTENSION + " file.");
+            }
         } else {
             throw new IllegalArgumentException("Chosen ModelReaderFactory option is currently not supported as vibe " +
                     "database.");
         }
+
+        // A gene-disease association index can only (and only it can) be used with its own retriever.
+        if((modelReaderFactory == ModelReaderFactory.GDA_INDEX) !=
+                (genesForPhenotypeRetrieverFactory == GenesForPhenotypeRetrieverFactory.GDA_INDEX)) {
+            throw new IllegalArgumentException("Query engine " + genesForPhenotypeRetrieverFactory.getId() +
+                    " cannot be used with " + dbPath.getFileName() + ".");
+        }
     }
 }
@@ -0,0 +1,217 @@
+package org.molgenis.vibe.core.ontology_processing;
+
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.ModelFilesReader;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The subclass hierarchy of the Human Phenotype Ontology, stored in primitive arrays so that it can be traversed without
+ * an {@link org.apache.jena.ontology.OntModel} (which allocates iterators and wrapper objects at every step):
+ * <ol>
+ *     <li>per term its HPO ID as number (in ascending order, so the term of an HPO ID is found through a binary search)</li>
+ *     <li>per term its {@link Phenotype} (created once, so that traversals do not create them per visited term)</li>
+ *     <li>per term its parents (direct superclasses)</li>
+ *     <li>per term its children (direct subclasses)</li>
+ * </ol>
+ * Terms are dense IDs ({@code 0} up to {@link #getTermCount()}), relations are stored as CSR (an offsets array with per
+ * term the start/end within a values array). Only HPO terms are stored, other classes (such as {@code UPHENO_} terms)
+ * and the relations with them are ignored.
+ * <br /><br />
+ * The {@link Model} is only needed during construction. As an {@link HpoGraph} is immutable, it can be shared between
+ * multiple (concurrent) users.
+ */
+public class HpoGraph {
+    /**
+     * The URI prefix of HPO terms.
+     */
+    private static final String HPO_URI_PREFIX = "http://purl.obolibrary.org/obo/HP_";
+
+    private final int[] hpoIds;
+    private final Phenotype[] phenotypes;
+    private final int[] parentOffsets;
+    private final int[] parents;
+    private final int[] childOffsets;
+    private final int[] children;
+
+    /**
+     * @param model a {@link Model} containing the Human Phenotype Ontology (only read during construction)
+     */
+    public HpoGraph(Model model) {
+        requireNonNull(model);
+
+        // All HPO classes, including those without any relations.
+        SortedSet<Integer> ids = new TreeSet<>();
+        for(ResIterator it = model.listSubjectsWithProperty(RDF.type, OWL.Class); it.hasNext(); ) {
+            int hpoId = toHpoId(it.next().getURI());
+            if(hpoId >= 0) {
+                ids.add(hpoId);
+            }
+        }
+
+        // Subclass relations between HPO classes (as pairs of child and parent HPO ID).
+        List<int[]> relations = new ArrayList<>();
+        for(StmtIterator it = model.listStatements(null, RDFS.subClassOf, (RDFNode) null); it.hasNext(); ) {
+            Statement statement = it.next();
+            int child = toHpoId(statement.getSubject().getURI());
+            int parent = statement.getObject().isResource() ? toHpoId(statement.getObject().asResource().getURI()) : -1;
+            if(child >= 0 && parent >= 0 && child != parent) {
+                ids.add(child);
+                ids.add(parent);
+                relations.add(new int[]{child, parent});
+            }
+        }
+
+        hpoIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        phenotypes = new Phenotype[hpoIds.length];
+        for(int term = 0; term < hpoIds.length; term++) {
+            phenotypes[term] = new Phenotype(String.format("%s:%07d", Phenotype.ID_PREFIX, hpoIds[term]));
+        }
+
+        int[] childTerms = new int[relations.size()];
+        int[] parentTerms = new int[relations.size()];
+        for(int i = 0; i < relations.size(); i++) {
+            childTerms[i] = Arrays.binarySearch(hpoIds, relations.get(i)[0]);
+            parentTerms[i] = Arrays.binarySearch(hpoIds, relations.get(i)[1]);
+        }
+        parentOffsets = new int[hpoIds.length + 1];
+        parents = toCsr(childTerms, parentTerms, parentOffsets);
+        childOffsets = new int[hpoIds.length + 1];
+        children = toCsr(parentTerms, childTerms, childOffsets);
+    }
+
+    /**
+     * Reads the Human Phenotype Ontology from a file. The loaded {@link Model} is closed afterwards.
+     * @param hpoOntologyFile the Human Phenotype Ontology file (.owl)
+     * @return a new {@link HpoGraph}
+     */
+    public static HpoGraph read(Path hpoOntologyFile) {
+        try ( ModelFilesReader reader = new ModelFilesReader(hpoOntologyFile.toString()) ) {
+            return new HpoGraph(reader.getModel());
+        }
+    }
+
+    /**
+     * @return the HPO ID as number, or {@code -1} if the {@code uri} is not of an HPO term
+     */
+    private static int toHpoId(String uri) {
+        if(uri == null || !uri.startsWith(HPO_URI_PREFIX) || uri.length() != HPO_URI_PREFIX.length() + 7) {
+            return -1;
+        }
+        for(int i = HPO_URI_PREFIX.length(); i < uri.length(); i++) {
+            if(!Character.isDigit(uri.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(uri.substring(HPO_URI_PREFIX.length()));
+    }
+
+    /**
+     * Creates the values of a CSR relation (duplicate relations are only stored once).
+     * @param from per relation the term it belongs to
+     * @param to per relation the term it refers to
+     * @param offsets is filled with the start of the values per term (must have a length of the number of terms + 1)
+     * @return the values, ordered per term
+     */
+    private static int[] toCsr(int[] from, int[] to, int[] offsets) {
+        int[] counts = new int[offsets.length - 1];
+        for(int term : from) {
+            counts[term]++;
+        }
+        for(int term = 0; term < counts.length; term++) {
+            offsets[term + 1] = offsets[term] + counts[term];
+        }
+        int[] values = new int[from.length];
+        int[] positions = Arrays.copyOf(offsets, counts.length);
+        for(int i = 0; i < from.length; i++) {
+            values[positions[from[i]]++] = to[i];
+        }
+
+        // Sorts the values per term and removes duplicates.
+        int size = 0;
+        int start = 0;
+        for(int term = 0; term < counts.length; term++) {
+            int end = offsets[term + 1];
+            Arrays.sort(values, start, end);
+            offsets[term] = size;
+            for(int i = start; i < end; i++) {
+                if(i == start || values[i] != values[i - 1]) {
+                    values[size++] = values[i];
+                }
+            }
+            start = end;
+        }
+        offsets[counts.length] = size;
+        return Arrays.copyOf(values, size);
+    }
+
+    public int getTermCount() {
+        return hpoIds.length;
+    }
+
+    /**
+     * @param uri the URI of the HPO term to retrieve the term for
+     * @return the term, or {@code -1} if the URI is not of an HPO term within the ontology
+     */
+    public int getTerm(String uri) {
+        int hpoId = toHpoId(uri);
+        int term = hpoId >= 0 ? Arrays.binarySearch(hpoIds, hpoId) : -1;
+        return term >= 0 ? term : -1;
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the term for
+     * @return the term, or {@code -1} if the {@link Phenotype} is not within the ontology
+     */
+    public int getTerm(Phenotype phenotype) {
+        int term = Arrays.binarySearch(hpoIds, Integer.parseInt(phenotype.getId()));
+        return term >= 0 ? term : -1;
+    }
+
+    /**
+     * @param term a term
+     * @return the {@link Phenotype} belonging to the term (the same instance on every call)
+     */
+    public Phenotype getPhenotype(int term) {
+        return phenotypes[term];
+    }
+
+    public int getParentsStart(int term) {
+        return parentOffsets[term];
+    }
+
+    public int getParentsEnd(int term) {
+        return parentOffsets[term + 1];
+    }
+
+    /**
+     * @param index an index between {@link #getParentsStart(int)} and {@link #getParentsEnd(int)}
+     * @return the parent term
+     */
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    public int getChildrenStart(int term) {
+        return childOffsets[term];
+    }
+
+    public int getChildrenEnd(int term) {
+        return childOffsets[term + 1];
+    }
+
+    /**
+     * @param index an index between {@link #getChildrenStart(int)} and {@link #getChildrenEnd(int)}
+     * @return the child term
+     */
+    public int getChild(int index) {
+        return children[index];
+    }
+}
@@ -0,0 +1,219 @@
+package org.molgenis.vibe.core.ontology_processing;
+
+import org.molgenis.vibe.core.formats.Phenotype;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Precomputed information content of the {@link Phenotype}{@code s} (HPO terms) within an ontology, based on how many
+ * diseases of a database are annotated with them. All data is stored in primitive arrays indexed by dense IDs, so that
+ * the similarity between phenotypes can be calculated without traversing the ontology (or allocating objects):
+ * <ol>
+ *     <li>per term all its ancestors (including itself), in ascending order</li>
+ *     <li>per term its information content: {@code -ln(p)}, where {@code p} is the fraction of diseases that are
+ *     annotated with the term or any of its descendants ({@code 0} for terms without any such disease)</li>
+ *     <li>per disease the terms it is annotated with</li>
+ * </ol>
+ * Relations are stored as CSR (an offsets array with per ID the start/end within a values array).
+ * <br /><br />
+ * As the table only depends on the ontology and the database, it only needs to be created once and can be shared
+ * between multiple (concurrent) users.
+ */
+public class InformationContentTable {
+    /**
+     * The terms (term IDs are those of the {@link HpoGraph}).
+     */
+    private final HpoGraph graph;
+
+    // Disease URI -> dense ID.
+    private final Map<String, Integer> diseaseIds = new HashMap<>();
+
+    private final int[] ancestorOffsets;
+    private final int[] ancestors;
+    private final double[] informationContent;
+    private final int[] diseaseTermOffsets;
+    private final int[] diseaseTerms;
+
+    /**
+     * @param graph the {@link HpoGraph} of the Human Phenotype Ontology
+     * @param diseasePhenotypes per disease URI the URIs of the phenotypes it is annotated with (phenotypes that are
+     *                          not in {@code graph} are ignored, see
+     *                          {@link org.molgenis.vibe.core.database_processing.DiseaseAnnotationsRetriever})
+     */
+    public InformationContentTable(HpoGraph graph, Map<String, ? extends Collection<String>> diseasePhenotypes) {
+        this.graph = requireNonNull(graph);
+        requireNonNull(diseasePhenotypes);
+        int termCount = graph.getTermCount();
+
+        // Ancestors per term (including itself).
+        int[][] termAncestors = new int[termCount][];
+        for(int term = 0; term < termCount; term++) {
+            retrieveAncestors(term, termAncestors);
+        }
+        ancestorOffsets = new int[termCount + 1];
+        for(int term = 0; term < termCount; term++) {
+            ancestorOffsets[term + 1] = ancestorOffsets[term] + termAncestors[term].length;
+        }
+        ancestors = new int[ancestorOffsets[termCount]];
+        for(int term = 0; term < termCount; term++) {
+            System.arraycopy(termAncestors[term], 0, ancestors, ancestorOffsets[term], termAncestors[term].length);
+        }
+
+        // Terms per disease (diseases without any known term are ignored).
+        List<int[]> annotations = new ArrayList<>();
+        for(Map.Entry<String, ? extends Collection<String>> diseaseEntry : diseasePhenotypes.entrySet()) {
+            int[] terms = diseaseEntry.getValue().stream().mapToInt(graph::getTerm).filter(term -> term >= 0)
+                    .distinct().sorted().toArray();
+            if(terms.length > 0) {
+                diseaseIds.put(diseaseEntry.getKey(), annotations.size());
+                annotations.add(terms);
+            }
+        }
+        diseaseTermOffsets = new int[annotations.size() + 1];
+        for(int disease = 0; disease < annotations.size(); disease++) {
+            diseaseTermOffsets[disease + 1] = diseaseTermOffsets[disease] + annotations.get(disease).length;
+        }
+        diseaseTerms = new int[diseaseTermOffsets[annotations.size()]];
+        for(int disease = 0; disease < annotations.size(); disease++) {
+            System.arraycopy(annotations.get(disease), 0, diseaseTerms, diseaseTermOffsets[disease],
+                    annotations.get(disease).length);
+        }
+
+        informationContent = calculateInformationContent(termCount);
+    }
+
+    /**
+     * Retrieves (and stores within {@code termAncestors}) the ancestors of a term, reusing those of its parents.
+     */
+    private int[] retrieveAncestors(int term, int[][] termAncestors) {
+        if(termAncestors[term] != null) {
+            return termAncestors[term];
+        }
+        // Marks the term as being processed, so that a cycle within the ontology cannot cause an endless recursion.
+        termAncestors[term] = new int[]{term};
+
+        Set<Integer> termAncestorSet = new TreeSet<>();
+        termAncestorSet.add(term);
+        for(int p = graph.getParentsStart(term); p < graph.getParentsEnd(term); p++) {
+            for(int ancestor : retrieveAncestors(graph.getParent(p), termAncestors)) {
+                termAncestorSet.add(ancestor);
+            }
+        }
+        termAncestors[term] = termAncestorSet.stream().mapToInt(Integer::intValue).toArray();
+        return termAncestors[term];
+    }
+
+    private double[] calculateInformationContent(int termCount) {
+        // The number of diseases annotated with a term or any of its descendants (each disease is only counted once).
+        int[] diseaseCounts = new int[termCount];
+        int[] lastDisease = new int[termCount];
+        Arrays.fill(lastDisease, -1);
+        for(int disease = 0; disease < getDiseaseCount(); disease++) {
+            for(int i = getDiseaseTermsStart(disease); i < getDiseaseTermsEnd(disease); i++) {
+                int term = getDiseaseTerm(i);
+                for(int a = getAncestorsStart(term); a < getAncestorsEnd(term); a++) {
+                    int ancestor = getAncestor(a);
+                    if(lastDisease[ancestor] != disease) {
+                        lastDisease[ancestor] = disease;
+                        diseaseCounts[ancestor]++;
+                    }
+                }
+            }
+        }
+
+        double[] termInformationContent = new double[termCount];
+        for(int term = 0; term < termCount; term++) {
+            if(diseaseCounts[term] > 0) {
+                termInformationContent[term] = -Math.log((double) diseaseCounts[term] / getDiseaseCount());
+            }
+        }
+        return termInformationContent;
+    }
+
+    /**
+     * @param phenotype the {@link Phenotype} to retrieve the term ID for
+     * @return the term ID, or {@code -1} if the {@link Phenotype} is not within the ontology
+     */
+    public int getTerm(Phenotype phenotype) {
+        return graph.getTerm(phenotype);
+    }
+
+    public int getTermCount() {
+        return informationContent.length;
+    }
+
+    public int getAncestorsStart(int term) {
+        return ancestorOffsets[term];
+    }
+
+    public int getAncestorsEnd(int term) {
+        return ancestorOffsets[term + 1];
+    }
+
+    /**
+     * @param index an index between {@link #getAncestorsStart(int)} and {@link #getAncestorsEnd(int)}
+     * @return the term ID of the ancestor
+     */
+    public int getAncestor(int index) {
+        return ancestors[index];
+    }
+
+    public double getInformationContent(int term) {
+        return informationContent[term];
+    }
+
+    /**
+     * @param diseaseUri the URI of the disease to retrieve the disease ID for
+     * @return the disease ID, or {@code -1} if the disease is not annotated with any term within the ontology
+     */
+    public int getDisease(String diseaseUri) {
+        return diseaseIds.getOrDefault(diseaseUri, -1);
+    }
+
+    public int getDiseaseCount() {
+        return diseaseTermOffsets.length - 1;
+    }
+
+    public int getDiseaseTermsStart(int disease) {
+        return diseaseTermOffsets[disease];
+    }
+
+    public int getDiseaseTermsEnd(int disease) {
+        return diseaseTermOffsets[disease + 1];
+    }
+
+    /**
+     * @param index an index between {@link #getDiseaseTermsStart(int)} and {@link #getDiseaseTermsEnd(int)}
+     * @return the term ID
+     */
+    public int getDiseaseTerm(int index) {
+        return diseaseTerms[index];
+    }
+
+    /**
+     * The Resnik similarity of 2 terms: the highest information content among their common ancestors.
+     * @param term1 a term ID
+     * @param term2 a term ID
+     * @return the Resnik similarity
+     */
+    public double getResnikSimilarity(int term1, int term2) {
+        double similarity = 0;
+        // Both ancestor lists are sorted, so common ancestors are found by merging them.
+        int i = getAncestorsStart(term1);
+        int j = getAncestorsStart(term2);
+        while(i < getAncestorsEnd(term1) && j < getAncestorsEnd(term2)) {
+            if(getAncestor(i) < getAncestor(j)) {
+                i++;
+            } else if(getAncestor(i) > getAncestor(j)) {
+                j++;
+            } else {
+                similarity = Math.max(similarity, getInformationContent(getAncestor(i)));
+                i++;
+                j++;
+            }
+        }
+        return similarity;
+    }
+}
@@ -1,24 +1,21 @@
 package org.molgenis.vibe.core.ontology_processing;
 
-import org.apache.jena.ontology.OntClass;
-import org.apache.jena.ontology.OntModel;
 import org.molgenis.vibe.core.formats.Phenotype;
 import org.molgenis.vibe.core.formats.PhenotypeNetwork;
 import org.molgenis.vibe.core.formats.PhenotypeNetworkCollection;
 
-import java.net.URI;
-import java.util.*;
+import java.util.Collection;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * For one or more {@link Phenotype}{@code s} within an {@link OntModel}, retrieves other {@link Phenotype}{@code s} that are linked to it.
+ * For one or more {@link Phenotype}{@code s} within an {@link HpoGraph}, retrieves other {@link Phenotype}{@code s} that are linked to it.
  */
 public abstract class PhenotypesRetriever {
     /**
-     * The model that stores the {@link Phenotype}{@code s}.
+     * The graph that stores the {@link Phenotype}{@code s}.
      */
-    private OntModel model;
+    private HpoGraph graph;
 
     /**
      * The input {@link Phenotype}{@code s} for which linked {@link Phenotype}{@code s} need to be found.
@@ -26,7 +23,7 @@ public abstract class PhenotypesRetriever {
     private Collection<Phenotype> inputPhenotypes;
 
     /**
-     * The maximum distance to be used within the model (subclass defines how this should be interpreted, but should be
+     * The maximum distance to be used within the graph (subclass defines how this should be interpreted, but should be
      * used as some form of limit).
      */
     private int maxDistance;
@@ -36,6 +33,10 @@ public abstract class PhenotypesRetriever {
      */
     private PhenotypeNetworkCollection phenotypeNetworkCollection = new PhenotypeNetworkCollection();
 
+    // Reused by traverse(): the terms in order of their distance, and whether a term is queued.
+    private int[] queue;
+    private boolean[] visited;
+
     public Collection<Phenotype> getInputPhenotypes() {
         return inputPhenotypes;
     }
@@ -48,40 +49,72 @@ public abstract class PhenotypesRetriever {
         return maxDistance;
     }
 
-    public PhenotypesRetriever(OntModel model, Collection<Phenotype> inputPhenotypes, int maxDistance) {
-        this.model = requireNonNull(model);
-        this.inputPhenotypes = requireNonNull(inputPhenotypes);
-        this.maxDistance = requireNonNull(maxDistance);
+    protected HpoGraph getGraph() {
+        return graph;
     }
 
-    protected OntClass retrievePhenotypeFromModel(Phenotype phenotype) {
-        return model.getOntClass(phenotype.getUri().toString());
+    public PhenotypesRetriever(HpoGraph graph, Collection<Phenotype> inputPhenotypes, int maxDistance) {
+        this.graph = requireNonNull(graph);
+        this.inputPhenotypes = requireNonNull(inputPhenotypes);
+        this.maxDistance = requireNonNull(maxDistance);
     }
 
     public abstract void run();
 
     /**
-     * Checks whether an URI is skippable. This is based on the fact that while the URI is an expected result, it is not
-     * used within the application. Otherwise these URIs could cause an error because they would be treated as an unexpected
-     * result.
-     *
-     * @param phenotypeOC the {@link OntClass} representing a {@link Phenotype} that needs to be checked
-     * @return {@code true} if {@link OntClass} can be skipped (expected non-valid {@link Phenotype} {@link URI}), {@code false}
-     * if not (can either be a valid or an unexpected non-valid {@link Phenotype} {@link URI})
+     * Traverses the {@link HpoGraph} breadth-first from the {@code network source} (see
+     * {@link PhenotypeNetwork#getSource()}) up to the {@link #getMaxDistance()}, so that each {@link Phenotype} is
+     * added with its shortest distance. If the source is not within the {@link HpoGraph}, only the source is stored.
+     * @param network stores the {@link Phenotype}{@code s} based on traversal
+     * @param includeParents whether parents are traversed as well (otherwise only children are traversed)
      */
-    protected boolean skippableUri(OntClass phenotypeOC) {
-        return phenotypeOC.getURI().startsWith("http://purl.obolibrary.org/obo/UPHENO_");
+    protected void traverse(PhenotypeNetwork network, boolean includeParents) {
+        int source = graph.getTerm(network.getSource());
+        if(source < 0) {
+            return;
+        }
+        // Each term is queued at most once, so the arrays are reused between networks.
+        if(queue == null) {
+            queue = new int[graph.getTermCount()];
+            visited = new boolean[graph.getTermCount()];
+        }
+
+        queue[0] = source;
+        visited[source] = true;
+        int size = 1;
+        int levelStart = 0;
+        for(int distance = 1; distance <= maxDistance && levelStart < size; distance++) {
+            int levelEnd = size;
+            for(int i = levelStart; i < levelEnd; i++) {
+                int term = queue[i];
+                if(includeParents) {
+                    for(int p = graph.getParentsStart(term); p < graph.getParentsEnd(term); p++) {
+                        size = visit(graph.getParent(p), size, network, distance);
+                    }
+                }
+                for(int c = graph.getChildrenStart(term); c < graph.getChildrenEnd(term); c++) {
+                    size = visit(graph.getChild(c), size, network, distance);
+                }
+            }
+            levelStart = levelEnd;
+        }
+
+        for(int i = 0; i < size; i++) {
+            visited[queue[i]] = false;
+        }
     }
 
     /**
-     * Adds a {@link OntClass} representing a {@link Phenotype} to a {@link PhenotypeNetwork}.
-     * @param phenotypeOC what needs to be added to the {@code network}
-     * @param network where the {@code phenotypeOC} needs to be added to
-     * @param distance the number to be used as {@code distance} when adding the {@code phenotypeOC} to the {@code network}
+     * Queues a term and adds it to the {@code network} if it was not visited yet.
+     * @return the new size of the queue
      */
-    protected void addPhenotypeToNetwork(OntClass phenotypeOC, PhenotypeNetwork network, int distance) {
-        // Converts URI to Phenotype and tries to add it to the network.
-        Phenotype currentPhenotype = new Phenotype(URI.create(phenotypeOC.getURI()));
-        network.add(currentPhenotype, distance);
+    private int visit(int term, int size, PhenotypeNetwork network, int distance) {
+        if(visited[term]) {
+            return size;
+        }
+        visited[term] = true;
+        queue[size] = term;
+        network.add(graph.getPhenotype(term), distance);
+        return size + 1;
     }
 }
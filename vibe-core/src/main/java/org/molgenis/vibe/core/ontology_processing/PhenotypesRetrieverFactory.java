@@ -1,6 +1,5 @@
 package org.molgenis.vibe.core.ontology_processing;
 
-import org.apache.jena.ontology.OntModel;
 import org.molgenis.vibe.core.formats.EnumTypeDefiner;
 import org.molgenis.vibe.core.formats.Phenotype;
 
@@ -9,14 +8,14 @@ import java.util.Collection;
 public enum PhenotypesRetrieverFactory implements EnumTypeDefiner {
     CHILDREN("children", "Retrieving HPO children.") {
         @Override
-        public PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance) {
-            return new ChildrenRetriever(model, inputPhenotypes, distance);
+        public PhenotypesRetriever create(HpoGraph graph, Collection<Phenotype> inputPhenotypes, int distance) {
+            return new ChildrenRetriever(graph, inputPhenotypes, distance);
         }
     },
     DISTANCE("distance", "Retrieving connected HPOs.") {
         @Override
-        public PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance) {
-            return new MaxDistanceRetriever(model, inputPhenotypes, distance);
+        public PhenotypesRetriever create(HpoGraph graph, Collection<Phenotype> inputPhenotypes, int distance) {
+            return new MaxDistanceRetriever(graph, inputPhenotypes, distance);
         }
     };
 
@@ -38,7 +37,7 @@ public enum PhenotypesRetrieverFactory implements EnumTypeDefiner {
         this.description = description;
     }
 
-    public abstract PhenotypesRetriever create(OntModel model, Collection<Phenotype> inputPhenotypes, int distance);
+    public abstract PhenotypesRetriever create(HpoGraph graph, Collection<Phenotype> inputPhenotypes, int distance);
 
     public static PhenotypesRetrieverFactory retrieve(String name) {
         return EnumTypeDefiner.retrieve(name, PhenotypesRetrieverFactory.class);
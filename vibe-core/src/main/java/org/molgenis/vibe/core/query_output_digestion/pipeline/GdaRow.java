@@ -0,0 +1,67 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import org.molgenis.vibe.core.formats.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A single result row of a gene-disease association: a {@link Gene}, a {@link Disease}, the DisGeNET score, a single
+ * {@link Source} and optionally a single {@link PubmedEvidence}. Each row adds {@code 1} to the count of its
+ * {@link Source} (see {@link GeneDiseaseCombination#add(Source)}).
+ */
+public final class GdaRow {
+    private final Gene gene;
+    private final Disease disease;
+    private final double score;
+    private final Source source;
+    private final PubmedEvidence evidence;
+
+    /**
+     * @param gene the gene
+     * @param disease the disease
+     * @param score the DisGeNET score of the gene-disease association
+     * @param source the source of the gene-disease association
+     * @param evidence the evidence for the gene-disease association ({@code null} if not available)
+     */
+    public GdaRow(Gene gene, Disease disease, double score, Source source, PubmedEvidence evidence) {
+        this.gene = requireNonNull(gene);
+        this.disease = requireNonNull(disease);
+        this.score = score;
+        this.source = requireNonNull(source);
+        this.evidence = evidence;
+    }
+
+    public Gene getGene() {
+        return gene;
+    }
+
+    public Disease getDisease() {
+        return disease;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return the evidence, or {@code null} if not available
+     */
+    public PubmedEvidence getEvidence() {
+        return evidence;
+    }
+
+    @Override
+    public String toString() {
+        return "GdaRow{" +
+                "gene=" + gene +
+                ", disease=" + disease +
+                ", score=" + score +
+                ", source=" + source +
+                ", evidence=" + evidence +
+                '}';
+    }
+}
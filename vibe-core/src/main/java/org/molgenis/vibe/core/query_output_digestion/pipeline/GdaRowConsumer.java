@@ -0,0 +1,29 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A stage that processes the {@link GdaRow}{@code s} of a retrieval one at a time, as soon as they are produced (see
+ * {@link org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetriever#withRowConsumer(GdaRowConsumer)}).
+ * Stages only keep the data they need, so that the results do not have to be stored completely before they are
+ * processed further.
+ */
+@FunctionalInterface
+public interface GdaRowConsumer {
+    /**
+     * @param row the next row
+     */
+    void accept(GdaRow row);
+
+    /**
+     * @param after the stage that receives each row after this one
+     * @return a stage passing each row to this stage first and then to {@code after}
+     */
+    default GdaRowConsumer andThen(GdaRowConsumer after) {
+        requireNonNull(after);
+        return row -> {
+            accept(row);
+            after.accept(row);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Combines the {@link GdaRow}{@code s} into a {@link GeneDiseaseCollection}. Identical entities are only stored once,
+ * and rows of the same gene-disease association are added to a single {@link GeneDiseaseCombination}.
+ */
+public class GeneDiseaseCollectionBuilder implements GdaRowConsumer {
+    private final GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollection();
+
+    // Variables for storage of already found data (reduces storing identical objects).
+    private final Map<Gene, Gene> genes = new HashMap<>();
+    private final Map<Disease, Disease> diseases = new HashMap<>();
+    private final Map<PubmedEvidence, PubmedEvidence> foundPubmedEvidence = new HashMap<>();
+
+    /**
+     * Is given each {@link GeneDiseaseCombination} that is created or updated ({@code null} if not used).
+     */
+    private IncrementalGenePrioritizer prioritizer;
+
+    public GeneDiseaseCollection getGeneDiseaseCollection() {
+        return geneDiseaseCollection;
+    }
+
+    /**
+     * Gives each {@link GeneDiseaseCombination} to {@code prioritizer} whenever a row creates or updates it, so that
+     * the {@link Gene} priority is available as soon as the last row is processed.
+     * @param prioritizer the {@link IncrementalGenePrioritizer} to use
+     * @return itself for fluent programming
+     */
+    public GeneDiseaseCollectionBuilder withPrioritizer(IncrementalGenePrioritizer prioritizer) {
+        this.prioritizer = requireNonNull(prioritizer);
+        return this;
+    }
+
+    @Override
+    public void accept(GdaRow row) {
+        Gene gene = processEntity(row.getGene(), genes);
+        Disease disease = processEntity(row.getDisease(), diseases);
+
+        // Retrieves the gene-disease combination belonging to the row (adds it if not present yet).
+        GeneDiseaseCombination gdc = geneDiseaseCollection.getOrCreate(gene, disease, row.getScore());
+
+        // Adds source to gene-disease combination (with evidence if available).
+        if(row.getEvidence() != null) {
+            gdc.add(row.getSource(), processEntity(row.getEvidence(), foundPubmedEvidence));
+        } else {
+            gdc.add(row.getSource());
+        }
+
+        if(prioritizer != null) {
+            prioritizer.update(gdc);
+        }
+    }
+
+    private <T extends Entity> T processEntity(T entity, Map<T, T> foundEntities) {
+        return foundEntities.computeIfAbsent(entity, k -> k);
+    }
+}
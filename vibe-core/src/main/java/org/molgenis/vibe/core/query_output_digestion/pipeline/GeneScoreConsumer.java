@@ -0,0 +1,18 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import org.molgenis.vibe.core.formats.Gene;
+
+/**
+ * A stage that only uses the {@link Gene} and DisGeNET score of the gene-disease associations of a retrieval (see
+ * {@link org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetriever#withGeneScoreConsumer(GeneScoreConsumer)}).
+ * As the diseases, sources and evidence are not needed, a retriever does not have to create them.
+ */
+@FunctionalInterface
+public interface GeneScoreConsumer {
+    /**
+     * Is called at least once for each gene-disease association.
+     * @param gene the gene of the gene-disease association
+     * @param score the DisGeNET score of the gene-disease association
+     */
+    void accept(Gene gene, double score);
+}
@@ -0,0 +1,62 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.HighestSingleDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
+
+import java.util.*;
+
+/**
+ * Keeps track of the highest DisGeNET score per {@link Gene} while the {@link GdaRow}{@code s} are retrieved, so that
+ * the same {@link Gene} priority as {@link HighestSingleDisgenetScoreGenePrioritizer} is available once the last row
+ * arrived. Only a single score per {@link Gene} is stored (no diseases or evidence), so it can also be used as
+ * {@link GeneScoreConsumer}.
+ */
+public class HighestScorePerGeneTracker implements GdaRowConsumer, GeneScoreConsumer {
+    private final Map<Gene, Double> highestGeneScores = new HashMap<>();
+
+    @Override
+    public void accept(GdaRow row) {
+        accept(row.getGene(), row.getScore());
+    }
+
+    @Override
+    public void accept(Gene gene, double score) {
+        highestGeneScores.merge(gene, score, Math::max);
+    }
+
+    /**
+     * @param gene a {@link Gene}
+     * @return the highest score of {@code gene}, or {@code null} if no row contained {@code gene}
+     */
+    public Double getScore(Gene gene) {
+        return highestGeneScores.get(gene);
+    }
+
+    /**
+     * @return the {@link Gene}{@code s} ordered on their highest score (genes with an identical score are ordered on
+     * their ID)
+     */
+    public List<Gene> getPriority() {
+        List<Gene> genes = new ArrayList<>(highestGeneScores.keySet());
+        Collections.sort(genes);
+        genes.sort(Comparator.comparingDouble(highestGeneScores::get).reversed());
+        return genes;
+    }
+
+    /**
+     * @param limit the maximum number of {@link Gene}{@code s} to return
+     * @return the first {@code limit} {@link Gene}{@code s} of {@link #getPriority()} (see {@link TopGenesPrioritizer})
+     * @throws IllegalArgumentException if {@code limit < 1}
+     */
+    public List<Gene> getPriority(int limit) {
+        return new TopGenesPrioritizer(limit).sort(highestGeneScores);
+    }
+
+    /**
+     * @return the number of {@link Gene}{@code s} found so far
+     */
+    public int size() {
+        return highestGeneScores.size();
+    }
+}
@@ -0,0 +1,74 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.EnumTypeDefiner;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.ontology_processing.InformationContentTable;
+
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The available strategies for ordering the {@link org.molgenis.vibe.core.formats.Gene}{@code s} of a
+ * {@link org.molgenis.vibe.core.formats.GeneDiseaseCollection}.
+ */
+public enum GenePrioritizerFactory implements EnumTypeDefiner {
+    DISGENET_SCORE("disgenet", "Ordering genes based on their highest DisGeNET score.") {
+        @Override
+        public GenePrioritizer create(InformationContentTable informationContentTable, Collection<Phenotype> phenotypes) {
+            return new HighestSingleDisgenetScoreGenePrioritizer();
+        }
+    },
+    /**
+     * Requires an {@link InformationContentTable}.
+     */
+    PHENOTYPE_SIMILARITY("similarity", "Ordering genes based on the phenotype similarity of their diseases.") {
+        @Override
+        public GenePrioritizer create(InformationContentTable informationContentTable, Collection<Phenotype> phenotypes) {
+            return new PhenotypeSimilarityGenePrioritizer(requireNonNull(informationContentTable), phenotypes);
+        }
+
+        @Override
+        public boolean usesInformationContent() {
+            return true;
+        }
+    };
+
+    private String id;
+
+    private String description;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    GenePrioritizerFactory(String id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    /**
+     * @param informationContentTable the {@link InformationContentTable} of the ontology and database ({@code null} if
+     *                                not {@link #usesInformationContent()})
+     * @param phenotypes the input {@link Phenotype}{@code s}
+     * @return a new {@link GenePrioritizer}
+     */
+    public abstract GenePrioritizer create(InformationContentTable informationContentTable, Collection<Phenotype> phenotypes);
+
+    /**
+     * @return {@code true} if {@link #create(InformationContentTable, Collection)} requires an
+     * {@link InformationContentTable}
+     */
+    public boolean usesInformationContent() {
+        return false;
+    }
+
+    public static GenePrioritizerFactory retrieve(String name) {
+        return EnumTypeDefiner.retrieve(name, GenePrioritizerFactory.class);
+    }
+}
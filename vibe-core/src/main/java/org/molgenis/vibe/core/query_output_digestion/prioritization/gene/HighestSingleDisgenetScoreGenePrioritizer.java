@@ -19,20 +19,9 @@ public class HighestSingleDisgenetScoreGenePrioritizer implements GenePrioritize
         // Stores highest score per gene.
         Map<Gene, Double> highestGeneScores = new HashMap<>();
 
-        // Goes through all genes.
+        // Goes through all genes and stores the highest DisGeNET gene-disease score for that gene.
         for(Gene gene : genes) {
-            double scoreForGene = 0;
-            Set<GeneDiseaseCombination> combinationsForGene = collection.getByGene(gene);
-            // Goes through all disease combinations for a single gene.
-            for(GeneDiseaseCombination combination : combinationsForGene) {
-                // Stores highest DisGeNET gene-disease score for that gene.
-                if(combination.getDisgenetScore() > scoreForGene) {
-                    scoreForGene = combination.getDisgenetScore();
-                }
-            }
-
-            // Stores the gene with its highest score in a HashMap.
-            highestGeneScores.put(gene, scoreForGene);
+            highestGeneScores.put(gene, collection.getHighestDisgenetScore(gene));
         }
 
         // Sorts the gene list based on the highest gene-disease score per gene.
@@ -0,0 +1,25 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
+
+import java.util.List;
+
+/**
+ * Creates a {@link Gene} priority while the data is retrieved instead of afterwards (as a {@link GenePrioritizer}
+ * does). It is given each {@link GeneDiseaseCombination} whenever it is created or updated (see
+ * {@link org.molgenis.vibe.core.query_output_digestion.pipeline.GeneDiseaseCollectionBuilder#withPrioritizer(IncrementalGenePrioritizer)}),
+ * and only keeps the aggregates per {@link Gene} it needs, so that the priority is available as soon as the last
+ * {@link GeneDiseaseCombination} was given without going through the data again.
+ */
+public interface IncrementalGenePrioritizer {
+    /**
+     * @param gdc a {@link GeneDiseaseCombination} that was created or updated (can be given multiple times)
+     */
+    void update(GeneDiseaseCombination gdc);
+
+    /**
+     * @return the {@link Gene} priority based on all {@link GeneDiseaseCombination}{@code s} given so far
+     */
+    List<Gene> getPriority();
+}
@@ -0,0 +1,152 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
+
+import java.util.*;
+
+/**
+ * An {@link IncrementalGenePrioritizer} creating the same {@link Gene} priority as
+ * {@link HighestSingleDisgenetScoreGenePrioritizer}. Each {@link Gene} is given an ordinal when it is first seen, and
+ * its highest {@link GeneDiseaseCombination#getDisgenetScore()} is stored in a primitive array at that ordinal. The
+ * ordinals are looked up on {@link Gene#getIdInt()} through an open addressing hash table, and sorted as primitive
+ * indices, so that no objects are allocated per row.
+ * <br /><br />
+ * {@link Gene}{@code s} with an identical score are ordered on their ID.
+ */
+public class IncrementalHighestDisgenetScoreGenePrioritizer implements IncrementalGenePrioritizer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The number of {@link Gene}{@code s} (and with that the next ordinal).
+     */
+    private int size = 0;
+
+    /**
+     * The {@link Gene}{@code s} (index = gene ordinal).
+     */
+    private Gene[] genes = new Gene[INITIAL_CAPACITY];
+
+    /**
+     * The {@link Gene#getIdInt()} per gene ordinal.
+     */
+    private int[] geneIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * The highest DisGeNET score per gene ordinal.
+     */
+    private double[] highestScores = new double[INITIAL_CAPACITY];
+
+    /**
+     * Hash table (linear probing) containing the gene ordinal + 1 at the slot of its {@link Gene#getIdInt()}
+     * ({@code 0} = empty slot). Its length is a power of 2 and at least twice {@link #size}.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    @Override
+    public void update(GeneDiseaseCombination gdc) {
+        int ordinal = ordinalOf(gdc.getGene());
+        if(gdc.getDisgenetScore() > highestScores[ordinal]) {
+            highestScores[ordinal] = gdc.getDisgenetScore();
+        }
+    }
+
+    /**
+     * @return the ordinal of {@code gene}, which is added if not present yet
+     */
+    private int ordinalOf(Gene gene) {
+        int geneId = gene.getIdInt();
+        int mask = slots.length - 1;
+        int slot = hash(geneId) & mask;
+        while(slots[slot] != 0) {
+            if(geneIds[slots[slot] - 1] == geneId) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return addGene(gene, slot);
+    }
+
+    private int addGene(Gene gene, int slot) {
+        int ordinal = size++;
+        if(ordinal == genes.length) {
+            genes = Arrays.copyOf(genes, ordinal * 2);
+            geneIds = Arrays.copyOf(geneIds, ordinal * 2);
+            highestScores = Arrays.copyOf(highestScores, ordinal * 2);
+        }
+        genes[ordinal] = gene;
+        geneIds[ordinal] = gene.getIdInt();
+        slots[slot] = ordinal + 1;
+        if(size * 2 > slots.length) {
+            rehash();
+        }
+        return ordinal;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for(int ordinal = 0; ordinal < size; ordinal++) {
+            int slot = hash(geneIds[ordinal]) & mask;
+            while(slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = ordinal + 1;
+        }
+    }
+
+    /**
+     * Spreads the (mostly sequential) gene IDs over the table.
+     */
+    private static int hash(int geneId) {
+        int hash = geneId * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public List<Gene> getPriority() {
+        int[] ordinals = new int[size];
+        for(int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+        sort(ordinals, new int[size], 0, size);
+
+        List<Gene> priority = new ArrayList<>(ordinals.length);
+        for(int ordinal : ordinals) {
+            priority.add(genes[ordinal]);
+        }
+        return priority;
+    }
+
+    /**
+     * Merge sort of the gene ordinals within {@code [from, to)} (see {@link #compare(int, int)}).
+     * @param buffer an array of at least the same length as {@code ordinals}
+     */
+    private void sort(int[] ordinals, int[] buffer, int from, int to) {
+        if(to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(ordinals, buffer, from, middle);
+        sort(ordinals, buffer, middle, to);
+
+        System.arraycopy(ordinals, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for(int i = from; i < to; i++) {
+            if(right == to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+                ordinals[i] = buffer[left++];
+            } else {
+                ordinals[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Orders on highest score (high to low) and then on {@link Gene} ID (same as {@link Gene#compareTo}).
+     */
+    private int compare(int ordinal, int otherOrdinal) {
+        int result = Double.compare(highestScores[otherOrdinal], highestScores[ordinal]);
+        return result != 0 ? result : Integer.compare(geneIds[ordinal], geneIds[otherOrdinal]);
+    }
+}
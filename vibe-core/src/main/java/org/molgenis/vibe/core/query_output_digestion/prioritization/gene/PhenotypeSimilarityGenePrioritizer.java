@@ -0,0 +1,133 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.Disease;
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.ontology_processing.InformationContentTable;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Gene} priority for a {@link GeneDiseaseCollection} that is based on how similar the phenotypes of the
+ * {@link Disease}{@code s} of a {@link Gene} are to the input {@link Phenotype}{@code s} (instead of only on the
+ * {@link GeneDiseaseCombination#getDisgenetScore()}). A {@link Gene} is scored by its most similar {@link Disease},
+ * {@link Gene}{@code s} with an identical similarity are ordered on their highest
+ * {@link GeneDiseaseCombination#getDisgenetScore()} and then on their ID.
+ * <br /><br />
+ * The similarity between the input {@link Phenotype}{@code s} and a {@link Disease} is the best-match average of the
+ * Resnik similarity (see {@link InformationContentTable#getResnikSimilarity(int, int)}): the average of the best match
+ * for each input {@link Phenotype} and the average of the best match for each {@link Disease} phenotype, averaged.
+ * As the best match of a term is the highest information content among its ancestors that are also an ancestor of any
+ * term of the other side, this only requires a single pass over the ancestors of each term.
+ * <br /><br />
+ * Reuses arrays between {@link Disease}{@code s}, so an instance should not be used by multiple threads simultaneously.
+ */
+public class PhenotypeSimilarityGenePrioritizer implements GenePrioritizer {
+    private final InformationContentTable informationContentTable;
+
+    /**
+     * The term IDs of the input {@link Phenotype}{@code s} that are within the ontology.
+     */
+    private final int[] inputTerms;
+
+    /**
+     * Per term ID whether it is an ancestor of any of the {@link #inputTerms}.
+     */
+    private final boolean[] inputAncestors;
+
+    /**
+     * Per term ID the last {@link Disease} (ID + 1) of which it is an ancestor of any of its terms.
+     */
+    private final int[] diseaseAncestors;
+
+    /**
+     * @param informationContentTable the {@link InformationContentTable} of the ontology and database
+     * @param phenotypes the input {@link Phenotype}{@code s} (those not within the ontology are ignored)
+     */
+    public PhenotypeSimilarityGenePrioritizer(InformationContentTable informationContentTable,
+                                              Collection<Phenotype> phenotypes) {
+        this.informationContentTable = requireNonNull(informationContentTable);
+        inputTerms = phenotypes.stream().mapToInt(informationContentTable::getTerm).filter(term -> term >= 0)
+                .distinct().toArray();
+        inputAncestors = new boolean[informationContentTable.getTermCount()];
+        for(int term : inputTerms) {
+            for(int i = informationContentTable.getAncestorsStart(term); i < informationContentTable.getAncestorsEnd(term); i++) {
+                inputAncestors[informationContentTable.getAncestor(i)] = true;
+            }
+        }
+        diseaseAncestors = new int[informationContentTable.getTermCount()];
+    }
+
+    @Override
+    public List<Gene> sort(GeneDiseaseCollection collection) {
+        Map<Disease, Double> diseaseSimilarities = new HashMap<>();
+        Map<Gene, Double> geneSimilarities = new HashMap<>();
+        Map<Gene, Double> highestGeneScores = new HashMap<>();
+
+        List<Gene> genes = new ArrayList<>(collection.getGenes());
+        for(Gene gene : genes) {
+            double geneSimilarity = 0;
+            double highestScore = 0;
+            for(GeneDiseaseCombination gdc : collection.getByGene(gene)) {
+                geneSimilarity = Math.max(geneSimilarity,
+                        diseaseSimilarities.computeIfAbsent(gdc.getDisease(), this::getSimilarity));
+                highestScore = Math.max(highestScore, gdc.getDisgenetScore());
+            }
+            geneSimilarities.put(gene, geneSimilarity);
+            highestGeneScores.put(gene, highestScore);
+        }
+
+        genes.sort(Comparator.comparingDouble((Gene gene) -> geneSimilarities.get(gene)).reversed()
+                .thenComparing(Comparator.comparingDouble((Gene gene) -> highestGeneScores.get(gene)).reversed())
+                .thenComparing(Comparator.naturalOrder()));
+        return genes;
+    }
+
+    /**
+     * @param disease the {@link Disease} to calculate the similarity for
+     * @return the best-match average Resnik similarity between the input {@link Phenotype}{@code s} and the phenotypes
+     * of {@code disease} ({@code 0} if either has no phenotypes within the ontology)
+     */
+    public double getSimilarity(Disease disease) {
+        int diseaseId = informationContentTable.getDisease(disease.getUri().toString());
+        if(diseaseId < 0 || inputTerms.length == 0) {
+            return 0;
+        }
+        int start = informationContentTable.getDiseaseTermsStart(diseaseId);
+        int end = informationContentTable.getDiseaseTermsEnd(diseaseId);
+
+        // Best match of each disease term among the input terms, while marking the ancestors of the disease terms.
+        double diseaseSum = 0;
+        for(int i = start; i < end; i++) {
+            int term = informationContentTable.getDiseaseTerm(i);
+            double bestMatch = 0;
+            for(int a = informationContentTable.getAncestorsStart(term); a < informationContentTable.getAncestorsEnd(term); a++) {
+                int ancestor = informationContentTable.getAncestor(a);
+                diseaseAncestors[ancestor] = diseaseId + 1;
+                if(inputAncestors[ancestor]) {
+                    bestMatch = Math.max(bestMatch, informationContentTable.getInformationContent(ancestor));
+                }
+            }
+            diseaseSum += bestMatch;
+        }
+
+        // Best match of each input term among the disease terms.
+        double inputSum = 0;
+        for(int term : inputTerms) {
+            double bestMatch = 0;
+            for(int a = informationContentTable.getAncestorsStart(term); a < informationContentTable.getAncestorsEnd(term); a++) {
+                int ancestor = informationContentTable.getAncestor(a);
+                if(diseaseAncestors[ancestor] == diseaseId + 1) {
+                    bestMatch = Math.max(bestMatch, informationContentTable.getInformationContent(ancestor));
+                }
+            }
+            inputSum += bestMatch;
+        }
+
+        return (inputSum / inputTerms.length + diseaseSum / (end - start)) / 2;
+    }
+}
@@ -0,0 +1,99 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.EntityRegistry;
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.GdaIndex;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retrieves the same {@link Gene} priority as {@link TopGenesPrioritizer}, but directly from the ranked gene lists of a
+ * {@link GdaIndex} instead of from retrieved gene-disease associations. Each {@link Phenotype} has a list of its
+ * {@link Gene}{@code s} ordered from highest to lowest score, so the highest score of a {@link Gene} for multiple
+ * {@link Phenotype}{@code s} is the score at which it is first encountered when merging these lists.
+ * <br /><br />
+ * The lists are merged until {@code limit} {@link Gene}{@code s} are found and the next score is lower than the score
+ * of the last found {@link Gene} (threshold algorithm): any {@link Gene} further on in a list cannot have a higher
+ * score, so only the start of each list is read.
+ */
+public class RankedGeneListsPrioritizer {
+    private final GdaIndex gdaIndex;
+
+    private final EntityRegistry entityRegistry;
+
+    private double minScore = 0;
+
+    /**
+     * @param gdaIndex the {@link GdaIndex} containing the ranked gene lists
+     * @param entityRegistry the {@link EntityRegistry} used to create the {@link Gene}{@code s}
+     */
+    public RankedGeneListsPrioritizer(GdaIndex gdaIndex, EntityRegistry entityRegistry) {
+        this.gdaIndex = requireNonNull(gdaIndex);
+        this.entityRegistry = requireNonNull(entityRegistry);
+    }
+
+    /**
+     * @param minScore the minimum score a {@link Gene} should have to be returned (default: 0)
+     * @return itself for fluent programming
+     * @throws IllegalArgumentException if {@code minScore} is not between 0 and 1
+     */
+    public RankedGeneListsPrioritizer withMinScore(double minScore) {
+        if(!(minScore >= 0 && minScore <= 1)) {
+            throw new IllegalArgumentException("minScore must be between 0 and 1: " + minScore);
+        }
+        this.minScore = minScore;
+        return this;
+    }
+
+    /**
+     * @param phenotypes the {@link Phenotype}{@code s} to prioritize the {@link Gene}{@code s} for
+     * @param limit the maximum number of {@link Gene}{@code s} to return
+     * @return the {@code limit} {@link Gene}{@code s} with the highest score, ordered from highest to lowest score
+     * (identical scores ordered on {@link Gene} ID)
+     * @throws IllegalArgumentException if {@code limit < 1}
+     */
+    public List<Gene> sort(Set<Phenotype> phenotypes, int limit) {
+        if(limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1: " + limit);
+        }
+
+        // The current position within the ranked gene list of each phenotype, ordered on the score at that position.
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(phenotypes.size(), 1),
+                Comparator.comparingDouble((int[] head) -> gdaIndex.getRankedGeneScore(head[0])).reversed());
+        for(Phenotype phenotype : phenotypes) {
+            int phenotypeId = gdaIndex.getPhenotype(phenotype.getUri().toString());
+            if(phenotypeId >= 0 && gdaIndex.getRankedGenesStart(phenotypeId) < gdaIndex.getRankedGenesEnd(phenotypeId)) {
+                heads.add(new int[]{gdaIndex.getRankedGenesStart(phenotypeId), gdaIndex.getRankedGenesEnd(phenotypeId)});
+            }
+        }
+
+        // Gene ID with its highest score.
+        Map<Integer, Double> geneScores = new LinkedHashMap<>();
+        double lastScore = 1;
+        while(!heads.isEmpty()) {
+            int[] head = heads.poll();
+            double score = gdaIndex.getRankedGeneScore(head[0]);
+            // Genes with a score identical to the last found gene are still needed for ordering on ID.
+            if(score < minScore || (geneScores.size() >= limit && score < lastScore)) {
+                break;
+            }
+            if(geneScores.putIfAbsent(gdaIndex.getRankedGene(head[0]), score) == null) {
+                lastScore = score;
+            }
+            if(++head[0] < head[1]) {
+                heads.add(head);
+            }
+        }
+
+        Map<Gene, Double> highestGeneScores = new HashMap<>();
+        for(Map.Entry<Integer, Double> geneScore : geneScores.entrySet()) {
+            int gene = geneScore.getKey();
+            highestGeneScores.put(entityRegistry.getOrCreateGene(gdaIndex.getGeneUri(gene),
+                    gdaIndex.getGeneSymbolUri(gene)), geneScore.getValue());
+        }
+        return new TopGenesPrioritizer(limit).sort(highestGeneScores);
+    }
+}
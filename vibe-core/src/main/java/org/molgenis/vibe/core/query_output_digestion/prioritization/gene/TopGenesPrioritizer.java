@@ -0,0 +1,74 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
+
+import java.util.*;
+
+/**
+ * A {@link Gene} priority for a {@link GeneDiseaseCollection} that is based on the highest
+ * {@link GeneDiseaseCombination#getDisgenetScore()} per {@link Gene} (same as
+ * {@link HighestSingleDisgenetScoreGenePrioritizer}), but only contains the {@link Gene}{@code s} with the highest
+ * scores. Instead of sorting all {@link Gene}{@code s}, a heap of at most {@code limit} {@link Gene}{@code s} is kept
+ * while going through them, so that only the returned {@link Gene}{@code s} are sorted.
+ * <br /><br />
+ * {@link Gene}{@code s} with an identical score are ordered on their ID, so that the same {@link Gene}{@code s} are
+ * returned independent of the order in which they are stored.
+ */
+public class TopGenesPrioritizer implements GenePrioritizer {
+    /**
+     * The maximum number of {@link Gene}{@code s} to return.
+     */
+    private final int limit;
+
+    /**
+     * @param limit the maximum number of {@link Gene}{@code s} to return
+     * @throws IllegalArgumentException if {@code limit < 1}
+     */
+    public TopGenesPrioritizer(int limit) {
+        if(limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public List<Gene> sort(GeneDiseaseCollection collection) {
+        Map<Gene, Double> highestGeneScores = new HashMap<>();
+        for(Gene gene : collection.getGenes()) {
+            highestGeneScores.put(gene, collection.getHighestDisgenetScore(gene));
+        }
+        return sort(highestGeneScores);
+    }
+
+    /**
+     * @param highestGeneScores the highest score per {@link Gene}
+     * @return the {@code limit} {@link Gene}{@code s} with the highest score, ordered from highest to lowest score
+     */
+    public List<Gene> sort(Map<Gene, Double> highestGeneScores) {
+        // Highest score first, identical scores ordered on gene ID.
+        Comparator<Gene> priority = Comparator.comparingDouble((Gene gene) -> highestGeneScores.get(gene)).reversed()
+                .thenComparing(Comparator.naturalOrder());
+
+        // The head of the heap is the gene with the lowest priority among the genes kept so far.
+        PriorityQueue<Gene> heap = new PriorityQueue<>(Math.min(limit, Math.max(highestGeneScores.size(), 1)),
+                priority.reversed());
+        for(Gene gene : highestGeneScores.keySet()) {
+            if(heap.size() < limit) {
+                heap.add(gene);
+            } else if(priority.compare(gene, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(gene);
+            }
+        }
+
+        List<Gene> genes = new ArrayList<>(heap);
+        genes.sort(priority);
+        return genes;
+    }
+}
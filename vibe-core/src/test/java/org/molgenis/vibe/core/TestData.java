@@ -40,6 +40,12 @@ public enum TestData {
             return "fake-hdt-index-only/fake.hdt.index.v1-1";
         }
     },
+    MINI_DATABASE_NT {
+        @Override
+        public String getName() {
+            return "mini-database/mini.nt";
+        }
+    },
     EXISTING_TSV {
         @Override
         public String getName() {
@@ -0,0 +1,34 @@
+package org.molgenis.vibe.core;
+
+import org.rdfhdt.hdt.enums.RDFNotation;
+import org.rdfhdt.hdt.exceptions.ParserException;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Generates HDT files from (small) RDF test resources, so that tests can use an actual HDT database.
+ */
+public final class TestHdtGenerator {
+    private static final String BASE_URI = "http://rdf.disgenet.org/";
+
+    private TestHdtGenerator() {
+    }
+
+    /**
+     * Generates a HDT (without index) from {@link TestData#MINI_DATABASE_NT}.
+     * @param directory the directory to write the HDT to
+     * @return the generated HDT file
+     */
+    public static Path generateMiniDatabase(Path directory) throws IOException, ParserException {
+        Path hdtFile = directory.resolve("mini.hdt");
+        try ( HDT hdt = HDTManager.generateHDT(TestData.MINI_DATABASE_NT.getFullPathString(), BASE_URI,
+                RDFNotation.NTRIPLES, new HDTSpecification(), null) ) {
+            hdt.saveToHDT(hdtFile.toString(), null);
+        }
+        return hdtFile;
+    }
+}
@@ -0,0 +1,184 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.database_processing.query_string_creation.QueryStringGenerator;
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.io.input.GdaIndexReader;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GdaRow;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.GeneDiseaseCollectionBuilder;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+class GdaFilterTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader hdtReader;
+
+    private static GdaIndexReader gdaIndexReader;
+
+    private static final Set<Phenotype> PHENOTYPES = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+            new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        hdtReader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+        Path gdaIndexFile = tempDir.resolve("mini.gda");
+        new GdaIndexWriter(hdtReader, gdaIndexFile).run();
+        gdaIndexReader = new GdaIndexReader(gdaIndexFile);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        hdtReader.close();
+        gdaIndexReader.close();
+    }
+
+    /**
+     * Validates that all retrievers using {@code filter} return the same results as removing the rejected rows from the
+     * unfiltered SPARQL results afterwards.
+     */
+    private static void assertSameAsFilteredAfterwards(GdaFilter filter) {
+        GeneDiseaseCollectionBuilder builder = new GeneDiseaseCollectionBuilder();
+        new GenesForPhenotypeRetriever(hdtReader, PHENOTYPES).withRowConsumer(row -> {
+            if(accepts(filter, row)) {
+                builder.accept(row);
+            }
+        }).run();
+        GeneDiseaseCollection expected = builder.getGeneDiseaseCollection();
+
+        List<GenesForPhenotypeRetriever> retrievers = Arrays.asList(
+                new GenesForPhenotypeRetriever(hdtReader, PHENOTYPES).withFilter(filter),
+                new GenesForPhenotypeRetriever(hdtReader, PHENOTYPES).withResolvedGdaTypes().withFilter(filter),
+                GenesForPhenotypeRetrieverFactory.SPARQL_ROUTES.create(hdtReader, PHENOTYPES).withFilter(filter),
+                new HdtGenesForPhenotypeRetriever(hdtReader, PHENOTYPES).withFilter(filter),
+                new GdaIndexGenesForPhenotypeRetriever(gdaIndexReader, PHENOTYPES).withFilter(filter)
+        );
+        for(GenesForPhenotypeRetriever retriever : retrievers) {
+            retriever.run();
+            GeneDiseaseCollection actual = retriever.getGeneDiseaseCollection();
+            Assertions.assertAll(retriever.getClass().getSimpleName(),
+                    () -> Assertions.assertEquals(expected, actual),
+                    () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+            );
+        }
+    }
+
+    private static boolean accepts(GdaFilter filter, GdaRow row) {
+        return filter.acceptsScore(row.getScore()) && filter.acceptsSource(row.getSource()) &&
+                (row.getEvidence() == null || filter.acceptsEvidenceYear(row.getEvidence().getReleaseYear()));
+    }
+
+    private static Set<Integer> retrieveGdaScoresTimesTen(GdaFilter filter) {
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(hdtReader, PHENOTYPES).withFilter(filter);
+        retriever.run();
+        Set<Integer> scores = new HashSet<>();
+        for(GeneDiseaseCombination gdc : retriever.getGeneDiseaseCollection()) {
+            scores.add((int) Math.round(gdc.getDisgenetScore() * 10));
+        }
+        return scores;
+    }
+
+    @Test
+    void noFilterSameAsUnfiltered() {
+        assertSameAsFilteredAfterwards(GdaFilter.NONE);
+    }
+
+    @Test
+    void minScoreSameAsFilteredAfterwards() {
+        assertSameAsFilteredAfterwards(GdaFilter.NONE.withMinScore(0.5));
+    }
+
+    @Test
+    void sourceLevelsSameAsFilteredAfterwards() {
+        assertSameAsFilteredAfterwards(GdaFilter.NONE.withSourceLevels(EnumSet.of(Source.Level.CURATED)));
+    }
+
+    @Test
+    void minEvidenceYearSameAsFilteredAfterwards() {
+        assertSameAsFilteredAfterwards(GdaFilter.NONE.withMinEvidenceYear(2011));
+    }
+
+    @Test
+    void combinedFiltersSameAsFilteredAfterwards() {
+        assertSameAsFilteredAfterwards(GdaFilter.NONE.withMinScore(0.3)
+                .withSourceLevels(EnumSet.of(Source.Level.CURATED, Source.Level.LITERATURE)).withMinEvidenceYear(2011));
+    }
+
+    @Test
+    void minScoreIsInclusive() {
+        Assertions.assertTrue(retrieveGdaScoresTimesTen(GdaFilter.NONE.withMinScore(0.6)).stream()
+                .allMatch(score -> score >= 6));
+        Assertions.assertTrue(retrieveGdaScoresTimesTen(GdaFilter.NONE.withMinScore(0.6)).contains(6));
+    }
+
+    @Test
+    void allEvidenceRejectedRemovesResult() {
+        // gda/5 (score 0.9) only has evidence from 2010.
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(retrieveGdaScoresTimesTen(GdaFilter.NONE).contains(9)),
+                () -> Assertions.assertFalse(retrieveGdaScoresTimesTen(GdaFilter.NONE.withMinEvidenceYear(2011))
+                        .contains(9))
+        );
+    }
+
+    @Test
+    void queryContainsFilters() {
+        GdaFilter filter = GdaFilter.NONE.withMinScore(0.5).withMinEvidenceYear(2011);
+        String query = QueryStringGenerator.getGenesForPhenotypes(PHENOTYPES, GeneDiseaseCombinationType.ROOT, filter,
+                null).getQuery();
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(query.contains("FILTER(?gdaScoreNumber >= 0.5)")),
+                () -> Assertions.assertTrue(query.contains(">= 2011)")),
+                () -> Assertions.assertFalse(query.contains("VALUES ?gdaSource"))
+        );
+    }
+
+    @Test
+    void sourceLevelsWithoutRegistry() {
+        GdaFilter filter = GdaFilter.NONE.withSourceLevels(EnumSet.of(Source.Level.CURATED));
+        Assertions.assertThrows(NullPointerException.class, () -> QueryStringGenerator.getGenesForPhenotypes(
+                PHENOTYPES, GeneDiseaseCombinationType.ROOT, filter, null));
+    }
+
+    @Test
+    void invalidMinScore() {
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> GdaFilter.NONE.withMinScore(-0.1)),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> GdaFilter.NONE.withMinScore(1.1)),
+                () -> Assertions.assertThrows(IllegalArgumentException.class,
+                        () -> GdaFilter.NONE.withMinScore(Double.NaN))
+        );
+    }
+
+    @Test
+    void invalidSourceLevels() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GdaFilter.NONE.withSourceLevels(Collections.emptySet()));
+    }
+
+    @Test
+    void invalidMinEvidenceYear() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GdaFilter.NONE.withMinEvidenceYear(-1));
+    }
+
+    @Test
+    void idPerFilter() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("", GdaFilter.NONE.getId()),
+                () -> Assertions.assertEquals("", GdaFilter.NONE.withMinScore(0).withMinEvidenceYear(0).getId()),
+                () -> Assertions.assertEquals("-score0.3-levels_curated_model-year2010", GdaFilter.NONE.withMinScore(0.3)
+                        .withSourceLevels(EnumSet.of(Source.Level.MODEL, Source.Level.CURATED))
+                        .withMinEvidenceYear(2010).getId())
+        );
+    }
+}
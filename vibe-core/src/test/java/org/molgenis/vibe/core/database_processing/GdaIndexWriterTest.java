@@ -0,0 +1,193 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombination;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.*;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.RankedGeneListsPrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+class GdaIndexWriterTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader hdtReader;
+
+    private static GdaIndexReader gdaIndexReader;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        hdtReader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+        Path gdaIndexFile = tempDir.resolve("mini.gda");
+        new GdaIndexWriter(hdtReader, gdaIndexFile).run();
+        gdaIndexReader = new GdaIndexReader(gdaIndexFile);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        hdtReader.close();
+        gdaIndexReader.close();
+    }
+
+    private static void assertSameAsSparql(Set<Phenotype> phenotypes) {
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(hdtReader, phenotypes);
+        sparqlRetriever.run();
+        GenesForPhenotypeRetriever indexRetriever = new GdaIndexGenesForPhenotypeRetriever(gdaIndexReader, phenotypes);
+        indexRetriever.run();
+
+        GeneDiseaseCollection expected = sparqlRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = indexRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(actual.isEmpty()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void onlyPhenotypesWithAssociationsStored() {
+        GdaIndex gdaIndex = gdaIndexReader.getGdaIndex();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(4, gdaIndex.getPhenotypeCount()),
+                () -> Assertions.assertEquals(-1,
+                        gdaIndex.getPhenotype(new Phenotype("hp:9999999").getUri().toString()))
+        );
+    }
+
+    @Test
+    void sameAsSparqlForEachPhenotype() {
+        for(String id : new String[]{"hp:0000001", "hp:0000002", "hp:0000003", "hp:0000004"}) {
+            assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype(id))));
+        }
+    }
+
+    @Test
+    void sameAsSparqlForAllPhenotypes() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004"), new Phenotype("hp:9999999"))));
+    }
+
+    @Test
+    void rankedGenesOrderedOnScore() {
+        GdaIndex gdaIndex = gdaIndexReader.getGdaIndex();
+        for(int phenotype = 0; phenotype < gdaIndex.getPhenotypeCount(); phenotype++) {
+            Assertions.assertTrue(gdaIndex.getRankedGenesStart(phenotype) < gdaIndex.getRankedGenesEnd(phenotype));
+            for(int i = gdaIndex.getRankedGenesStart(phenotype) + 1; i < gdaIndex.getRankedGenesEnd(phenotype); i++) {
+                Assertions.assertTrue(gdaIndex.getRankedGeneScore(i - 1) >= gdaIndex.getRankedGeneScore(i));
+            }
+        }
+    }
+
+    @Test
+    void rankedGenesSameAsTopGenesFromSparql() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+                new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(hdtReader, phenotypes);
+        sparqlRetriever.run();
+        GeneDiseaseCollection collection = sparqlRetriever.getGeneDiseaseCollection();
+
+        RankedGeneListsPrioritizer prioritizer = new RankedGeneListsPrioritizer(gdaIndexReader.getGdaIndex(),
+                gdaIndexReader.getEntityRegistry());
+        for(int limit = 1; limit <= collection.getGenes().size() + 1; limit++) {
+            Assertions.assertEquals(new TopGenesPrioritizer(limit).sort(collection),
+                    prioritizer.sort(phenotypes, limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void rankedGenesWithMinScore() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+                new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(hdtReader, phenotypes)
+                .withFilter(GdaFilter.NONE.withMinScore(0.5));
+        sparqlRetriever.run();
+        GeneDiseaseCollection collection = sparqlRetriever.getGeneDiseaseCollection();
+
+        Assertions.assertEquals(new TopGenesPrioritizer(100).sort(collection),
+                new RankedGeneListsPrioritizer(gdaIndexReader.getGdaIndex(), gdaIndexReader.getEntityRegistry())
+                        .withMinScore(0.5).sort(phenotypes, 100));
+    }
+
+    @Test
+    void geneLimitSameAsTopGenesFromSparql() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+                new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GdaFilter filter = GdaFilter.NONE.withMinEvidenceYear(2011);
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(hdtReader, phenotypes)
+                .withFilter(filter);
+        sparqlRetriever.run();
+        GeneDiseaseCollection collection = sparqlRetriever.getGeneDiseaseCollection();
+
+        for(int limit = 1; limit <= collection.getGenes().size(); limit++) {
+            Set<Gene> topGenes = new HashSet<>(new TopGenesPrioritizer(limit).sort(collection));
+            Set<GeneDiseaseCombination> expectedCombinations = new HashSet<>();
+            for(GeneDiseaseCombination gdc : collection) {
+                if(topGenes.contains(gdc.getGene())) {
+                    expectedCombinations.add(gdc);
+                }
+            }
+            GeneDiseaseCollection expected = new GeneDiseaseCollection(expectedCombinations);
+
+            GenesForPhenotypeRetriever indexRetriever = new GdaIndexGenesForPhenotypeRetriever(gdaIndexReader,
+                    phenotypes).withFilter(filter).withGeneLimit(limit);
+            indexRetriever.run();
+            GeneDiseaseCollection actual = indexRetriever.getGeneDiseaseCollection();
+            Assertions.assertAll("limit " + limit,
+                    () -> Assertions.assertEquals(topGenes, actual.getGenes()),
+                    () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+            );
+        }
+    }
+
+    @Test
+    void diseaseAnnotationsSameAsHdt() {
+        DiseaseAnnotationsRetriever hdtRetriever = new DiseaseAnnotationsRetriever(hdtReader);
+        hdtRetriever.run();
+        DiseaseAnnotationsRetriever indexRetriever = new DiseaseAnnotationsRetriever(gdaIndexReader);
+        indexRetriever.run();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(hdtRetriever.getDiseasePhenotypes().isEmpty()),
+                () -> Assertions.assertEquals(hdtRetriever.getDiseasePhenotypes(), indexRetriever.getDiseasePhenotypes())
+        );
+    }
+
+    @Test
+    void viewSharesIndex() {
+        GdaIndexReader view = gdaIndexReader.createView();
+        view.close();
+        Assertions.assertNotNull(gdaIndexReader.getGdaIndex());
+    }
+
+    @Test
+    void invalidIndexFile() throws IOException {
+        Path invalidFile = Files.write(tempDir.resolve("invalid.gda"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new GdaIndexReader(invalidFile));
+        Assertions.assertEquals("Not a gene-disease association index.", exception.getMessage());
+    }
+
+    @Test
+    void vibeDatabaseRequiresGdaIndexRetriever() {
+        Path gdaIndexFile = tempDir.resolve("mini.gda");
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(GenesForPhenotypeRetrieverFactory.GDA_INDEX,
+                        new VibeDatabase(gdaIndexFile, ModelReaderFactory.GDA_INDEX).getGenesForPhenotypeRetrieverFactory()),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> new VibeDatabase(gdaIndexFile,
+                        ModelReaderFactory.GDA_INDEX, null, GenesForPhenotypeRetrieverFactory.HDT))
+        );
+    }
+}
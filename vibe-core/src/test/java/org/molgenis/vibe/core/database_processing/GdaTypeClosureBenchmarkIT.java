@@ -0,0 +1,79 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.molgenis.vibe.core.TestData;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compares the query matching the gene-disease association types through {@code rdf:type/rdfs:subClassOf*} with the
+ * query matching a {@link GdaTypeClosure} resolved once per database. Besides validating both produce the same output,
+ * the durations are printed so that both approaches can be compared on the full database.
+ *
+ * The full DisGeNET RDF dataset can be downloaded from: http://rdf.disgenet.org/download/
+ * The license can be found on: http://www.disgenet.org/ds/DisGeNET/html/legal.html
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+class GdaTypeClosureBenchmarkIT {
+    private static final int REPEATS = 5;
+
+    private static final Set<Phenotype> PHENOTYPES = new HashSet<>(Arrays.asList(new Phenotype("hp:0008438"),
+            new Phenotype("hp:0002996"), new Phenotype("hp:0001377")));
+
+    private static HdtFileReader reader;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        reader = new HdtFileReader(TestData.HDT.getFullPathString());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    @Test
+    void typeSetSameAsPropertyPath() {
+        // Resolves the closure before timing, as this only happens once per database.
+        reader.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT);
+
+        GeneDiseaseCollection propertyPath = benchmark("rdf:type/rdfs:subClassOf*",
+                () -> new GenesForPhenotypeRetriever(reader, PHENOTYPES));
+        GeneDiseaseCollection typeSet = benchmark("VALUES ?gdaType",
+                () -> new GenesForPhenotypeRetriever(reader, PHENOTYPES).withResolvedGdaTypes());
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(propertyPath, typeSet),
+                () -> Assertions.assertTrue(propertyPath.allFieldsEquals(typeSet))
+        );
+    }
+
+    private static GeneDiseaseCollection benchmark(String name, Supplier<GenesForPhenotypeRetriever> retrieverSupplier) {
+        GeneDiseaseCollection collection = null;
+        long[] durations = new long[REPEATS];
+        for(int i = 0; i < REPEATS; i++) {
+            GenesForPhenotypeRetriever retriever = retrieverSupplier.get();
+            long start = System.nanoTime();
+            retriever.run();
+            durations[i] = (System.nanoTime() - start) / 1_000_000;
+            collection = retriever.getGeneDiseaseCollection();
+        }
+        Arrays.sort(durations);
+        System.out.println(name + ": median " + durations[REPEATS / 2] + " ms (min " + durations[0] + " ms, max " +
+                durations[REPEATS - 1] + " ms)");
+        return collection;
+    }
+}
@@ -0,0 +1,106 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.GeneDiseaseCombinationType;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.*;
+
+class GdaTypeClosureTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    private static final Set<Phenotype> PHENOTYPES = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+            new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    private static Set<URI> sioUris(String... ids) {
+        Set<URI> uris = new TreeSet<>();
+        for(String id : ids) {
+            uris.add(URI.create("http://semanticscience.org/resource/" + id));
+        }
+        return uris;
+    }
+
+    @Test
+    void rootClosure() {
+        Assertions.assertEquals(sioUris("SIO_000983", "SIO_001122", "SIO_001119", "SIO_001343"),
+                reader.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT).getTypeUris());
+    }
+
+    @Test
+    void subTypeClosure() {
+        Assertions.assertEquals(sioUris("SIO_001122", "SIO_001119", "SIO_001343"),
+                reader.getGdaTypeClosure(GeneDiseaseCombinationType.GENETIC_VARIATION).getTypeUris());
+    }
+
+    @Test
+    void typeWithoutSubClassesOnlyContainsItself() {
+        Assertions.assertEquals(sioUris("SIO_001121"),
+                reader.getGdaTypeClosure(GeneDiseaseCombinationType.BIOMARKER).getTypeUris());
+    }
+
+    @Test
+    void resolvedOnceAndSharedWithViews() {
+        try ( ModelReader view = reader.createView() ) {
+            Assertions.assertAll(
+                    () -> Assertions.assertSame(reader.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT),
+                            reader.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT)),
+                    () -> Assertions.assertSame(reader.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT),
+                            view.getGdaTypeClosure(GeneDiseaseCombinationType.ROOT))
+            );
+        }
+    }
+
+    private static void assertSameAsPropertyPath(GeneDiseaseCombinationType gdaType) {
+        GenesForPhenotypeRetriever pathRetriever = new GenesForPhenotypeRetriever(reader, PHENOTYPES)
+                .withGdaType(gdaType);
+        pathRetriever.run();
+        GenesForPhenotypeRetriever typeSetRetriever = new GenesForPhenotypeRetriever(reader, PHENOTYPES)
+                .withGdaType(gdaType).withResolvedGdaTypes();
+        typeSetRetriever.run();
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader, PHENOTYPES)
+                .withGdaType(gdaType);
+        hdtRetriever.run();
+
+        GeneDiseaseCollection expected = pathRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(expected.isEmpty()),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(typeSetRetriever.getGeneDiseaseCollection())),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(hdtRetriever.getGeneDiseaseCollection()))
+        );
+    }
+
+    @Test
+    void sameAsPropertyPathForRoot() {
+        assertSameAsPropertyPath(GeneDiseaseCombinationType.ROOT);
+    }
+
+    @Test
+    void sameAsPropertyPathForSubType() {
+        assertSameAsPropertyPath(GeneDiseaseCombinationType.GENETIC_VARIATION);
+    }
+}
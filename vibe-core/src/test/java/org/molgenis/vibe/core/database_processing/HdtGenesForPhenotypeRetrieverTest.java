@@ -0,0 +1,138 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.query_output_digestion.pipeline.HighestScorePerGeneTracker;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.HighestSingleDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.TopGenesPrioritizer;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class HdtGenesForPhenotypeRetrieverTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    private static void assertSameAsSparql(Set<Phenotype> phenotypes) {
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        sparqlRetriever.run();
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader, phenotypes);
+        hdtRetriever.run();
+
+        GeneDiseaseCollection expected = sparqlRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = hdtRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(actual.isEmpty()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void sameAsSparqlForExactMatch() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"))));
+    }
+
+    @Test
+    void sameAsSparqlForPhenotypeDiseaseAssociations() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000002"))));
+    }
+
+    @Test
+    void sameAsSparqlForOrphanet() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000003"))));
+    }
+
+    @Test
+    void sameAsSparqlForAllPhenotypes() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004"), new Phenotype("hp:9999999"))));
+    }
+
+    @Test
+    void multipleMatchingTypesCountedPerType() {
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader,
+                new HashSet<>(Arrays.asList(new Phenotype("hp:0000004"))));
+        hdtRetriever.run();
+
+        // gda/3 has 2 types that are a subclass of the gene-disease association type.
+        GeneDiseaseCombination gdc = hdtRetriever.getGeneDiseaseCollection().get(new GeneDiseaseCombination(
+                new Gene("ncbigene:1", new GeneSymbol("hgnc:GENEA")), new Disease("umls:C0000002")));
+        Source source = new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/CTD_human"),
+                "CTD_human Comparative Toxicogenomics Database", Source.Level.CURATED);
+        Assertions.assertEquals(2, gdc.getCountForSource(source));
+    }
+
+    @Test
+    void unknownPhenotypeGivesEmptyCollection() {
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader,
+                new HashSet<>(Arrays.asList(new Phenotype("hp:9999999"))));
+        hdtRetriever.run();
+
+        Assertions.assertTrue(hdtRetriever.getGeneDiseaseCollection().isEmpty());
+    }
+
+    @Test
+    void geneLimitSameAsSparql() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GenesForPhenotypeRetriever allRetriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        allRetriever.run();
+        List<Gene> topGenes = new TopGenesPrioritizer(1).sort(allRetriever.getGeneDiseaseCollection());
+
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(reader, phenotypes).withGeneLimit(1);
+        sparqlRetriever.run();
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader, phenotypes).withGeneLimit(1);
+        hdtRetriever.run();
+
+        GeneDiseaseCollection expected = sparqlRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = hdtRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HashSet<>(topGenes), expected.getGenes()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void geneScoresSameAsRows() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        sparqlRetriever.run();
+        HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader, phenotypes)
+                .withGeneScoreConsumer(tracker);
+        hdtRetriever.run();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HighestSingleDisgenetScoreGenePrioritizer()
+                        .sort(sparqlRetriever.getGeneDiseaseCollection()), tracker.getPriority()),
+                () -> Assertions.assertTrue(hdtRetriever.getGeneDiseaseCollection().isEmpty())
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+class ParallelGenesForPhenotypeRetrieverTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    private static final Set<Phenotype> PHENOTYPES = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+            new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    private static void assertSameAsSparql(GenesForPhenotypeRetrieverFactory factory, int threads) {
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(reader, PHENOTYPES);
+        sparqlRetriever.run();
+        GenesForPhenotypeRetriever parallelRetriever = new ParallelGenesForPhenotypeRetriever(reader, PHENOTYPES,
+                factory, threads);
+        parallelRetriever.run();
+
+        GeneDiseaseCollection expected = sparqlRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = parallelRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(actual.isEmpty()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void sameAsSparqlUsingSingleChunk() {
+        assertSameAsSparql(GenesForPhenotypeRetrieverFactory.SPARQL, 1);
+    }
+
+    @Test
+    void sameAsSparqlUsingMultipleChunks() {
+        assertSameAsSparql(GenesForPhenotypeRetrieverFactory.SPARQL, 3);
+    }
+
+    @Test
+    void sameAsSparqlUsingMoreThreadsThanPhenotypes() {
+        assertSameAsSparql(GenesForPhenotypeRetrieverFactory.SPARQL, 8);
+    }
+
+    @Test
+    void sameAsSparqlUsingHdtChunks() {
+        assertSameAsSparql(GenesForPhenotypeRetrieverFactory.HDT, 2);
+    }
+
+    @Test
+    void retrievePerPhenotypeSameAsSeparateRetrievals() {
+        Map<Phenotype, GeneDiseaseCollection> actual = new ParallelGenesForPhenotypeRetriever(reader, PHENOTYPES,
+                GenesForPhenotypeRetrieverFactory.SPARQL, 3).retrievePerPhenotype();
+
+        Assertions.assertEquals(new ArrayList<>(new TreeSet<>(PHENOTYPES)), new ArrayList<>(actual.keySet()));
+        for(Phenotype phenotype : PHENOTYPES) {
+            GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, Collections.singleton(phenotype));
+            retriever.run();
+            Assertions.assertTrue(retriever.getGeneDiseaseCollection().allFieldsEquals(actual.get(phenotype)),
+                    phenotype.getId());
+        }
+    }
+
+    @Test
+    void invalidNumberOfThreads() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelGenesForPhenotypeRetriever(
+                reader, PHENOTYPES, GenesForPhenotypeRetrieverFactory.SPARQL, 0));
+    }
+}
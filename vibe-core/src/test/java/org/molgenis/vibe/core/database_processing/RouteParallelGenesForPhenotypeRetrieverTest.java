@@ -0,0 +1,103 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+class RouteParallelGenesForPhenotypeRetrieverTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    private static void assertSameAsSparql(Set<Phenotype> phenotypes) {
+        GenesForPhenotypeRetriever sparqlRetriever = new GenesForPhenotypeRetriever(reader, phenotypes);
+        sparqlRetriever.run();
+        GenesForPhenotypeRetriever routesRetriever = GenesForPhenotypeRetrieverFactory.SPARQL_ROUTES.create(reader, phenotypes);
+        routesRetriever.run();
+
+        GeneDiseaseCollection expected = sparqlRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = routesRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(actual.isEmpty()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void sameAsSparqlForExactMatch() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"))));
+    }
+
+    @Test
+    void sameAsSparqlForPhenotypeDiseaseAssociations() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000002"))));
+    }
+
+    @Test
+    void sameAsSparqlForOrphanet() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000003"))));
+    }
+
+    /**
+     * Diseases reachable from multiple phenotypes or through multiple routes are only retrieved once, but should still
+     * be counted for each of them.
+     */
+    @Test
+    void sameAsSparqlForAllPhenotypes() {
+        assertSameAsSparql(new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004"), new Phenotype("hp:9999999"))));
+    }
+
+    @Test
+    void geneLimitSameAsHdt() {
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"), new Phenotype("hp:0000002"),
+                new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+        GenesForPhenotypeRetriever hdtRetriever = new HdtGenesForPhenotypeRetriever(reader, phenotypes).withGeneLimit(2);
+        hdtRetriever.run();
+        GenesForPhenotypeRetriever routesRetriever = GenesForPhenotypeRetrieverFactory.SPARQL_ROUTES.create(reader,
+                phenotypes).withGeneLimit(2);
+        routesRetriever.run();
+
+        GeneDiseaseCollection expected = hdtRetriever.getGeneDiseaseCollection();
+        GeneDiseaseCollection actual = routesRetriever.getGeneDiseaseCollection();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, actual.getGenes().size()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    @Test
+    void noDiseasesFound() {
+        GenesForPhenotypeRetriever routesRetriever = GenesForPhenotypeRetrieverFactory.SPARQL_ROUTES.create(reader,
+                new HashSet<>(Arrays.asList(new Phenotype("hp:9999999"))));
+        routesRetriever.run();
+
+        Assertions.assertTrue(routesRetriever.getGeneDiseaseCollection().isEmpty());
+    }
+}
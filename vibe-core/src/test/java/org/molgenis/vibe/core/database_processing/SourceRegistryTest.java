@@ -0,0 +1,73 @@
+package org.molgenis.vibe.core.database_processing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.Source;
+import org.molgenis.vibe.core.io.input.GdaIndexReader;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class SourceRegistryTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    private final Source ctd = new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/CTD_human"), "CTD_human", Source.Level.CURATED);
+    private final Source befree = new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/BEFREE"), "BEFREE", Source.Level.LITERATURE);
+    private final Source mgd = new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/MGD"), "MGD", Source.Level.MODEL);
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    @Test
+    void ordinalsFollowUriOrder() {
+        SourceRegistry registry = new SourceRegistry(Arrays.asList(mgd, ctd, befree, ctd));
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(3, registry.size()),
+                () -> Assertions.assertEquals(Arrays.asList(befree, ctd, mgd), registry.asList()),
+                () -> Assertions.assertEquals(1, registry.getOrdinal(ctd)),
+                () -> Assertions.assertEquals(mgd, registry.get(2)),
+                () -> Assertions.assertEquals(befree, registry.get(befree.getUri())),
+                () -> Assertions.assertEquals(-1, registry.getOrdinal(URI.create("http://rdf.disgenet.org/v6.0.0/void/UNKNOWN"))),
+                () -> Assertions.assertNull(registry.get(URI.create("http://rdf.disgenet.org/v6.0.0/void/UNKNOWN")))
+        );
+    }
+
+    @Test
+    void retrievedOnceAndSharedWithViews() {
+        try ( ModelReader view = reader.createView() ) {
+            Assertions.assertAll(
+                    () -> Assertions.assertFalse(reader.getSourceRegistry().asList().isEmpty()),
+                    () -> Assertions.assertSame(reader.getSourceRegistry(), reader.getSourceRegistry()),
+                    () -> Assertions.assertSame(reader.getSourceRegistry(), view.getSourceRegistry())
+            );
+        }
+    }
+
+    @Test
+    void gdaIndexHasSameOrdinals() throws IOException {
+        Path gdaIndexFile = tempDir.resolve("sources.gda");
+        new GdaIndexWriter(reader, gdaIndexFile).run();
+        try ( GdaIndexReader gdaIndexReader = new GdaIndexReader(gdaIndexFile) ) {
+            Assertions.assertEquals(reader.getSourceRegistry().asList(), gdaIndexReader.getSourceRegistry().asList());
+        }
+    }
+}
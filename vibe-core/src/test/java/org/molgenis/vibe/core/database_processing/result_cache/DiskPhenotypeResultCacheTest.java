@@ -0,0 +1,130 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.GeneDiseaseCollectionRetrievalRunner;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.io.input.ModelReaderFactory;
+import org.molgenis.vibe.core.io.input.VibeDatabase;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+class DiskPhenotypeResultCacheTest {
+    @TempDir
+    static Path tempDir;
+
+    private static Path hdtFile;
+    private static HdtFileReader reader;
+
+    private final Phenotype phenotype1 = new Phenotype("hp:0000001");
+    private final Phenotype phenotype2 = new Phenotype("hp:0000002");
+    private final Phenotype phenotype3 = new Phenotype("hp:0000003");
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        hdtFile = TestHdtGenerator.generateMiniDatabase(tempDir);
+        reader = new HdtFileReader(hdtFile);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    @Test
+    void storedCollectionSameAsRetrieved() throws IOException {
+        DiskPhenotypeResultCache cache = new DiskPhenotypeResultCache(tempDir.resolve("round_trip"), DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        GeneDiseaseCollection expected = new GeneDiseaseCollectionRetrievalRunner(reader,
+                new HashSet<>(Arrays.asList(phenotype1, phenotype2, phenotype3))).call();
+        cache.put("db", phenotype1, expected);
+
+        GeneDiseaseCollection actual = cache.get("db", phenotype1);
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(expected.isEmpty()),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual)),
+                () -> Assertions.assertNull(cache.get("db", phenotype2)),
+                () -> Assertions.assertNull(cache.get("other_db", phenotype1)),
+                () -> Assertions.assertEquals(1, cache.getHits()),
+                () -> Assertions.assertEquals(2, cache.getMisses())
+        );
+    }
+
+    @Test
+    void keptBetweenInstances() throws IOException {
+        Path directory = tempDir.resolve("between_instances");
+        Set<Phenotype> phenotypes = new HashSet<>(Arrays.asList(phenotype1, phenotype3));
+        VibeDatabase vibeDatabase = new VibeDatabase(hdtFile, ModelReaderFactory.HDT);
+
+        DiskPhenotypeResultCache firstCache = new DiskPhenotypeResultCache(directory, DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        GeneDiseaseCollection first = new GeneDiseaseCollectionRetrievalRunner(vibeDatabase, phenotypes)
+                .withResultCache(firstCache).call();
+
+        DiskPhenotypeResultCache secondCache = new DiskPhenotypeResultCache(directory, DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        GeneDiseaseCollection second = new GeneDiseaseCollectionRetrievalRunner(vibeDatabase, phenotypes)
+                .withResultCache(secondCache).call();
+        GeneDiseaseCollection expected = new GeneDiseaseCollectionRetrievalRunner(reader, phenotypes).call();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(reader.getDatabaseId(), vibeDatabase.getDatabaseId()),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(first)),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(second)),
+                () -> Assertions.assertEquals(2, firstCache.getMisses()),
+                () -> Assertions.assertEquals(2, secondCache.getHits()),
+                () -> Assertions.assertEquals(0, secondCache.getMisses())
+        );
+    }
+
+    @Test
+    void unreadableFileIsMiss() throws IOException {
+        DiskPhenotypeResultCache cache = new DiskPhenotypeResultCache(tempDir.resolve("unreadable"), DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        Path file = cache.fileFor("db", phenotype1);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3});
+
+        Assertions.assertNull(cache.get("db", phenotype1));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws IOException {
+        DiskPhenotypeResultCache cache = new DiskPhenotypeResultCache(tempDir.resolve("eviction"), DiskPhenotypeResultCache.DEFAULT_MAX_BYTES);
+        GeneDiseaseCollection geneDiseaseCollection = new GeneDiseaseCollectionRetrievalRunner(reader,
+                Collections.singleton(phenotype1)).call();
+        cache.put("db", phenotype1, geneDiseaseCollection);
+        cache.put("db", phenotype2, geneDiseaseCollection);
+        long fileSize = Files.size(cache.fileFor("db", phenotype1));
+
+        // Ensures phenotype2 is the least recently used.
+        Files.setLastModifiedTime(cache.fileFor("db", phenotype2), FileTime.fromMillis(0));
+
+        // Only room for 2 files.
+        DiskPhenotypeResultCache smallCache = new DiskPhenotypeResultCache(cache.getDirectory(), fileSize * 2);
+        smallCache.put("db", phenotype3, geneDiseaseCollection);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, smallCache.getEvictions()),
+                () -> Assertions.assertNotNull(smallCache.get("db", phenotype1)),
+                () -> Assertions.assertNull(smallCache.get("db", phenotype2)),
+                () -> Assertions.assertNotNull(smallCache.get("db", phenotype3))
+        );
+    }
+
+    @Test
+    void invalidMaxBytes() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new DiskPhenotypeResultCache(tempDir.resolve("invalid"), 0));
+    }
+}
@@ -0,0 +1,100 @@
+package org.molgenis.vibe.core.database_processing.result_cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.GeneDiseaseCollectionRetrievalRunner;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+class LruPhenotypeResultCacheTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    private final Phenotype phenotype1 = new Phenotype("hp:0000001");
+    private final Phenotype phenotype2 = new Phenotype("hp:0000002");
+    private final Phenotype phenotype3 = new Phenotype("hp:0000003");
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruPhenotypeResultCache cache = new LruPhenotypeResultCache(2);
+        cache.put("db", phenotype1, new GeneDiseaseCollection());
+        cache.put("db", phenotype2, new GeneDiseaseCollection());
+        cache.get("db", phenotype1);
+        cache.put("db", phenotype3, new GeneDiseaseCollection());
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, cache.size()),
+                () -> Assertions.assertEquals(1, cache.getEvictions()),
+                () -> Assertions.assertNotNull(cache.get("db", phenotype1)),
+                () -> Assertions.assertNull(cache.get("db", phenotype2)),
+                () -> Assertions.assertNotNull(cache.get("db", phenotype3))
+        );
+    }
+
+    @Test
+    void separatedPerDatabase() {
+        LruPhenotypeResultCache cache = new LruPhenotypeResultCache(10);
+        cache.put("db1", phenotype1, new GeneDiseaseCollection());
+
+        Assertions.assertAll(
+                () -> Assertions.assertNotNull(cache.get("db1", phenotype1)),
+                () -> Assertions.assertNull(cache.get("db2", phenotype1)),
+                () -> Assertions.assertEquals(1, cache.getHits()),
+                () -> Assertions.assertEquals(1, cache.getMisses())
+        );
+    }
+
+    @Test
+    void invalidMaxEntries() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LruPhenotypeResultCache(0));
+    }
+
+    @Test
+    void cachedRetrievalSameAsDirectRetrieval() throws IOException {
+        LruPhenotypeResultCache cache = new LruPhenotypeResultCache(10);
+        Set<Phenotype> firstPhenotypes = new HashSet<>(Arrays.asList(phenotype1, phenotype2));
+        Set<Phenotype> secondPhenotypes = new HashSet<>(Arrays.asList(phenotype1, phenotype2, phenotype3));
+
+        GeneDiseaseCollection firstCached = new GeneDiseaseCollectionRetrievalRunner(reader, firstPhenotypes)
+                .withResultCache(cache).call();
+        GeneDiseaseCollection secondCached = new GeneDiseaseCollectionRetrievalRunner(reader, secondPhenotypes)
+                .withResultCache(cache).call();
+        GeneDiseaseCollection secondCachedAgain = new GeneDiseaseCollectionRetrievalRunner(reader, secondPhenotypes)
+                .withResultCache(cache).call();
+        GeneDiseaseCollection firstExpected = new GeneDiseaseCollectionRetrievalRunner(reader, firstPhenotypes).call();
+        GeneDiseaseCollection secondExpected = new GeneDiseaseCollectionRetrievalRunner(reader, secondPhenotypes).call();
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(firstExpected.allFieldsEquals(firstCached)),
+                () -> Assertions.assertTrue(secondExpected.allFieldsEquals(secondCached)),
+                () -> Assertions.assertTrue(secondExpected.allFieldsEquals(secondCachedAgain)),
+                () -> Assertions.assertEquals(3, cache.size()),
+                () -> Assertions.assertEquals(3, cache.getMisses()),
+                () -> Assertions.assertEquals(5, cache.getHits())
+        );
+    }
+}
@@ -272,6 +272,63 @@ class BiologicalEntityCollectionTest {
         );
     }
 
+    @Test
+    void testRemoveIf() {
+        BiologicalEntityCollectionImpl collection = new BiologicalEntityCollectionImpl();
+        collection.addAll(Arrays.asList(combinations));
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(collection.removeIf(c -> c.getT2().equals(array2[1]) || c.getT1().equals(array1[0]))),
+                () -> Assertions.assertFalse(collection.removeIf(c -> c.getT1().equals(array1[0]))),
+
+                // Validate if full collection is correct.
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[3],combinations[4],combinations[5])), collection.getT3()),
+
+                // Validate if grouped by T1 is correct.
+                () -> Assertions.assertEquals(null, collection.getByT1(array1[0])),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[3],combinations[4],combinations[5])), collection.getByT1(array1[1])),
+
+                // Validate if grouped by T2 is correct.
+                () -> Assertions.assertEquals(null, collection.getByT2(array2[0])),
+                () -> Assertions.assertEquals(null, collection.getByT2(array2[1])),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[3])), collection.getByT2(array2[2])),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[4])), collection.getByT2(array2[3])),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[5])), collection.getByT2(array2[4]))
+        );
+    }
+
+    @Test
+    void testRemoveThroughIterator() {
+        BiologicalEntityCollectionImpl collection = new BiologicalEntityCollectionImpl();
+        collection.addAll(Arrays.asList(combinations));
+
+        Iterator<BiologicalEntityCombinationImpl> iterator = collection.iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next().getT2().equals(array2[1])) {
+                iterator.remove();
+            }
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[0],combinations[3],combinations[4],combinations[5])), collection.getT3()),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[0])), collection.getByT1(array1[0])),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[3],combinations[4],combinations[5])), collection.getByT1(array1[1])),
+                () -> Assertions.assertEquals(null, collection.getByT2(array2[1]))
+        );
+    }
+
+    @Test
+    void testRemoveNonExisting() {
+        BiologicalEntityCollectionImpl collection = new BiologicalEntityCollectionImpl();
+        collection.add(combinations[0]);
+
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(collection.remove(combinations[1])),
+                () -> Assertions.assertFalse(collection.removeAll(Arrays.asList(combinations[1], combinations[2]))),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(combinations[0])), collection.getByT1(array1[0]))
+        );
+    }
+
     @Test
     void testClear() {
         BiologicalEntityCollectionImpl collection = new BiologicalEntityCollectionImpl();
@@ -0,0 +1,139 @@
+package org.molgenis.vibe.core.formats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.*;
+
+class ColumnarGeneDiseaseCollectionTest {
+    private static Gene[] genes;
+    private static Disease[] diseases;
+    private static Source[] sources;
+    private static GeneDiseaseCollection collection;
+
+    @BeforeAll
+    static void beforeAll() {
+        genes = new Gene[]{
+                new Gene("ncbigene:2222222", new GeneSymbol("hgnc:BBB")),
+                new Gene("ncbigene:1111111", new GeneSymbol("hgnc:AAA")),
+                new Gene("ncbigene:3333333", new GeneSymbol("hgnc:CCC"))
+        };
+
+        diseases = new Disease[]{
+                new Disease("umls:C3333333"),
+                new Disease("umls:C1111111"),
+                new Disease("umls:C2222222")
+        };
+
+        sources = new Source[]{
+                new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/ORPHANET"), "Orphanet", Source.Level.CURATED),
+                new Source(URI.create("http://rdf.disgenet.org/v6.0.0/void/BEFREE"), "Befree", Source.Level.LITERATURE)
+        };
+
+        collection = new GeneDiseaseCollection();
+        collection.getOrCreate(genes[0], diseases[0], 0.5).add(sources[0]);
+        collection.getOrCreate(genes[0], diseases[1], 0.3).add(sources[1], evidence(3, 2001));
+        collection.getOrCreate(genes[0], diseases[1], 0.3).add(sources[1], evidence(1, 2010));
+        collection.getOrCreate(genes[0], diseases[1], 0.3).add(sources[0]);
+        collection.getOrCreate(genes[1], diseases[1], 0.6).add(sources[1], evidence(2, 2005));
+        collection.getOrCreate(genes[1], diseases[2], 0.8).add(sources[0]);
+        collection.getOrCreate(genes[1], diseases[2], 0.8).add(sources[0]);
+        collection.getOrCreate(genes[2], diseases[2], 0.1).add(sources[1]);
+    }
+
+    private static PubmedEvidence evidence(int id, int year) {
+        return new PubmedEvidence(URI.create("http://identifiers.org/pubmed/" + id), year);
+    }
+
+    @Test
+    void containsSameData() {
+        ColumnarGeneDiseaseCollection columnar = ColumnarGeneDiseaseCollection.of(collection);
+        GeneDiseaseCollection copy = new GeneDiseaseCollection();
+        copy.merge(columnar);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(collection.size(), columnar.size()),
+                () -> Assertions.assertEquals(collection.getGenes(), columnar.getGenes()),
+                () -> Assertions.assertEquals(collection.getDiseases(), columnar.getDiseases()),
+                () -> Assertions.assertEquals(collection.getGeneDiseaseCombinationsOrdered(), columnar.getGeneDiseaseCombinationsOrdered()),
+                () -> Assertions.assertTrue(collection.allFieldsEquals(copy))
+        );
+    }
+
+    @Test
+    void retrieveByGeneAndDisease() {
+        ColumnarGeneDiseaseCollection columnar = ColumnarGeneDiseaseCollection.of(collection);
+
+        for(Gene gene : genes) {
+            Assertions.assertEquals(collection.getByGene(gene), columnar.getByGene(gene));
+            Assertions.assertEquals(collection.getHighestDisgenetScore(gene), columnar.getHighestDisgenetScore(gene));
+        }
+        for(Disease disease : diseases) {
+            Assertions.assertEquals(collection.getByDisease(disease), columnar.getByDisease(disease));
+        }
+        for(GeneDiseaseCombination gdc : collection) {
+            Assertions.assertTrue(columnar.contains(gdc));
+            Assertions.assertTrue(gdc.allFieldsEquals(columnar.get(gdc)));
+        }
+    }
+
+    @Test
+    void retrieveNonExisting() {
+        ColumnarGeneDiseaseCollection columnar = ColumnarGeneDiseaseCollection.of(collection);
+        Gene gene = new Gene("ncbigene:4444444", new GeneSymbol("hgnc:DDD"));
+        GeneDiseaseCombination gdc = new GeneDiseaseCombination(genes[2], diseases[0]);
+
+        Assertions.assertAll(
+                () -> Assertions.assertNull(columnar.getByGene(gene)),
+                () -> Assertions.assertEquals(0, columnar.getHighestDisgenetScore(gene)),
+                () -> Assertions.assertNull(columnar.get(gdc)),
+                () -> Assertions.assertFalse(columnar.contains(gdc))
+        );
+    }
+
+    @Test
+    void mergedSameAsOriginal() {
+        GeneDiseaseCollection expected = GeneDiseaseCollection.createConcurrent();
+        GeneDiseaseCollection actual = GeneDiseaseCollection.createConcurrent();
+        for(GeneDiseaseCollection target : Arrays.asList(expected, actual)) {
+            target.getOrCreate(genes[0], diseases[1], 0.3).add(sources[1], evidence(2, 2005));
+            target.getOrCreate(genes[2], diseases[0], 0.4).add(sources[0]);
+        }
+
+        expected.merge(collection);
+        actual.merge(ColumnarGeneDiseaseCollection.of(collection));
+
+        Assertions.assertTrue(expected.allFieldsEquals(actual));
+    }
+
+    @Test
+    void equalsWhenSameData() {
+        ColumnarGeneDiseaseCollection columnar1 = ColumnarGeneDiseaseCollection.of(collection);
+        GeneDiseaseCollection copy = new GeneDiseaseCollection();
+        copy.merge(collection);
+        ColumnarGeneDiseaseCollection columnar2 = ColumnarGeneDiseaseCollection.of(copy);
+
+        Assertions.assertAll(
+                () -> Assertions.assertSame(columnar1, ColumnarGeneDiseaseCollection.of(columnar1)),
+                () -> Assertions.assertEquals(columnar1, columnar2),
+                () -> Assertions.assertEquals(columnar1.hashCode(), columnar2.hashCode()),
+                () -> Assertions.assertTrue(columnar1.allFieldsEquals(columnar2)),
+                () -> Assertions.assertNotEquals(columnar1, ColumnarGeneDiseaseCollection.of(new GeneDiseaseCollection()))
+        );
+    }
+
+    @Test
+    void genesAndDiseasesSets() {
+        ColumnarGeneDiseaseCollection columnar = ColumnarGeneDiseaseCollection.of(collection);
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(columnar.getGenes().contains(genes[1])),
+                () -> Assertions.assertFalse(columnar.getGenes().contains(new Gene("ncbigene:4444444", new GeneSymbol("hgnc:DDD")))),
+                () -> Assertions.assertFalse(columnar.getGenes().contains(diseases[0])),
+                () -> Assertions.assertTrue(columnar.getDiseases().contains(diseases[0])),
+                () -> Assertions.assertThrows(UnsupportedOperationException.class, () -> columnar.getGenes().add(genes[0]))
+        );
+    }
+}
@@ -60,6 +60,12 @@ class DiseaseTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> new Disease(uri) );
     }
 
+    @Test
+    void useUriWithInvalidId() {
+        URI uri = URI.create("http://linkedlifedata.com/resource/umls/id/C012345");
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> new Disease(uri) );
+    }
+
     @Test
     void testSort() {
         List<Disease> actualOrder = new ArrayList<>( Arrays.asList(
@@ -0,0 +1,122 @@
+package org.molgenis.vibe.core.formats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Compares creating the entities of each retrieved row directly (parsing and validating each {@link URI} through a
+ * regex) with retrieving them from an {@link EntityRegistry}. Besides validating both produce equal entities, the
+ * duration and allocated bytes per row are printed so that both approaches can be compared.
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+class EntityRegistryBenchmarkIT {
+    private static final int ROWS = 1_000_000;
+    private static final int REPEATS = 5;
+
+    private static final int GENES = 10_000;
+    private static final int DISEASES = 5_000;
+    private static final int EVIDENCE = 50_000;
+
+    // The URI strings are retrieved from the database for both approaches, so they are not part of the comparison.
+    private static final String[] GENE_URIS = uris("http://identifiers.org/ncbigene/%d", GENES);
+    private static final String[] GENE_SYMBOL_URIS = uris("http://identifiers.org/hgnc.symbol/G%d", GENES);
+    private static final String[] DISEASE_URIS = uris("http://linkedlifedata.com/resource/umls/id/C%07d", DISEASES);
+    private static final String[] EVIDENCE_URIS = uris("http://identifiers.org/pubmed/%d", EVIDENCE);
+
+    @Test
+    void compareRowDecoding() {
+        EntityRegistry registry = new EntityRegistry();
+
+        // Warm-up.
+        decodeRows(EntityRegistryBenchmarkIT::createDirectly);
+        decodeRows(i -> retrieveFromRegistry(registry, i));
+
+        Assertions.assertEquals(decodeRows(EntityRegistryBenchmarkIT::createDirectly),
+                decodeRows(i -> retrieveFromRegistry(registry, i)));
+
+        print("direct", EntityRegistryBenchmarkIT::createDirectly);
+        print("registry", i -> retrieveFromRegistry(registry, i));
+    }
+
+    private static void print(String name, IntFunction<Object[]> decoder) {
+        long minNanos = Long.MAX_VALUE;
+        long minBytes = Long.MAX_VALUE;
+        for(int r = 0; r < REPEATS; r++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            decodeRows(decoder);
+            minNanos = Math.min(minNanos, System.nanoTime() - start);
+            minBytes = Math.min(minBytes, allocatedBytes() - bytes);
+        }
+        System.out.printf("%-8s %8.1f ns/row %8.1f bytes/row%n", name, (double) minNanos / ROWS, (double) minBytes / ROWS);
+    }
+
+    /**
+     * @return a sample of the decoded rows (so that the decoding cannot be optimized away)
+     */
+    private static List<Object> decodeRows(IntFunction<Object[]> decoder) {
+        List<Object> sample = new ArrayList<>();
+        for(int i = 0; i < ROWS; i++) {
+            Object[] row = decoder.apply(i);
+            if(i % 10_000 == 0) {
+                for(Object entity : row) {
+                    sample.add(entity);
+                }
+            }
+        }
+        return sample;
+    }
+
+    private static Object[] createDirectly(int i) {
+        return new Object[]{
+                new Gene(URI.create(geneUri(i)), new GeneSymbol(URI.create(geneSymbolUri(i)))),
+                new Disease(URI.create(diseaseUri(i)), "disease"),
+                new PubmedEvidence(URI.create(evidenceUri(i)), 2000)
+        };
+    }
+
+    private static Object[] retrieveFromRegistry(EntityRegistry registry, int i) {
+        return new Object[]{
+                registry.getOrCreateGene(geneUri(i), geneSymbolUri(i)),
+                registry.getOrCreateDisease(diseaseUri(i), "disease"),
+                registry.getOrCreatePubmedEvidence(evidenceUri(i), 2000)
+        };
+    }
+
+    private static String[] uris(String format, int size) {
+        String[] uris = new String[size];
+        for(int i = 0; i < size; i++) {
+            uris[i] = String.format(format, i + 1);
+        }
+        return uris;
+    }
+
+    private static String geneUri(int i) {
+        return GENE_URIS[i % GENES];
+    }
+
+    private static String geneSymbolUri(int i) {
+        return GENE_SYMBOL_URIS[i % GENES];
+    }
+
+    private static String diseaseUri(int i) {
+        return DISEASE_URIS[i % DISEASES];
+    }
+
+    private static String evidenceUri(int i) {
+        return EVIDENCE_URIS[i % EVIDENCE];
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,115 @@
+package org.molgenis.vibe.core.formats;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.io.input.ModelReader;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+class EntityRegistryTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    @Test
+    void returnsCanonicalInstances() {
+        EntityRegistry registry = new EntityRegistry();
+        Gene gene = registry.getOrCreateGene("http://identifiers.org/ncbigene/1311",
+                "http://identifiers.org/hgnc.symbol/COMP");
+        Disease disease = registry.getOrCreateDisease("http://linkedlifedata.com/resource/umls/id/C0410538", "name");
+        PubmedEvidence evidence = registry.getOrCreatePubmedEvidence("http://identifiers.org/pubmed/10405447", 1999);
+        Phenotype phenotype = registry.getOrCreatePhenotype("http://purl.obolibrary.org/obo/HP_0002996");
+
+        Assertions.assertAll(
+                () -> Assertions.assertSame(gene, registry.getOrCreateGene("http://identifiers.org/ncbigene/1311",
+                        "http://identifiers.org/hgnc.symbol/COMP")),
+                () -> Assertions.assertSame(gene.getSymbol(),
+                        registry.getOrCreateGeneSymbol("http://identifiers.org/hgnc.symbol/COMP")),
+                () -> Assertions.assertSame(disease, registry.getOrCreateDisease(
+                        "http://linkedlifedata.com/resource/umls/id/C0410538", "name")),
+                () -> Assertions.assertSame(evidence, registry.getOrCreatePubmedEvidence(
+                        "http://identifiers.org/pubmed/10405447", 1999)),
+                () -> Assertions.assertSame(phenotype, registry.getOrCreatePhenotype(
+                        "http://purl.obolibrary.org/obo/HP_0002996")),
+                () -> Assertions.assertEquals(5, registry.size())
+        );
+    }
+
+    @Test
+    void createdEntitiesEqualDirectlyCreatedOnes() {
+        EntityRegistry registry = new EntityRegistry();
+        Gene expectedGene = new Gene(URI.create("http://identifiers.org/ncbigene/1311"),
+                new GeneSymbol(URI.create("http://identifiers.org/hgnc.symbol/COMP")));
+        Disease expectedDisease = new Disease(URI.create("http://linkedlifedata.com/resource/umls/id/C0410538"), "name");
+        PubmedEvidence expectedEvidence = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/10405447"), 1999);
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(expectedGene.allFieldsEquals(registry.getOrCreateGene(
+                        "http://identifiers.org/ncbigene/1311", "http://identifiers.org/hgnc.symbol/COMP"))),
+                () -> Assertions.assertTrue(expectedDisease.allFieldsEquals(registry.getOrCreateDisease(
+                        "http://linkedlifedata.com/resource/umls/id/C0410538", "name"))),
+                () -> Assertions.assertTrue(expectedEvidence.allFieldsEquals(registry.getOrCreatePubmedEvidence(
+                        "http://identifiers.org/pubmed/10405447", 1999)))
+        );
+    }
+
+    @Test
+    void retrieveByNumericId() {
+        EntityRegistry registry = new EntityRegistry();
+        Gene gene = registry.getOrCreateGene("http://identifiers.org/ncbigene/1311",
+                "http://identifiers.org/hgnc.symbol/COMP");
+        PubmedEvidence evidence = registry.getOrCreatePubmedEvidence("http://identifiers.org/pubmed/10405447", 1999);
+
+        Assertions.assertAll(
+                () -> Assertions.assertSame(gene, registry.getGene(1311)),
+                () -> Assertions.assertSame(evidence, registry.getPubmedEvidence(10405447)),
+                () -> Assertions.assertNull(registry.getGene(4010)),
+                () -> Assertions.assertNull(registry.getPubmedEvidence(1))
+        );
+    }
+
+    @Test
+    void invalidUrisThrowException() {
+        EntityRegistry registry = new EntityRegistry();
+        Assertions.assertAll(
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getOrCreateGene(
+                        "http://identifiers.org/ncbi/1311", "http://identifiers.org/hgnc.symbol/COMP")),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getOrCreateGene(
+                        "http://identifiers.org/ncbigene/13a1", "http://identifiers.org/hgnc.symbol/COMP")),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getOrCreateDisease(
+                        "http://linkedlifedata.com/resource/umls/id/0410538", "name")),
+                () -> Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getOrCreatePubmedEvidence(
+                        "http://identifiers.org/pubmed/", 1999)),
+                () -> Assertions.assertEquals(0, registry.size())
+        );
+    }
+
+    @Test
+    void sharedWithViews() {
+        try ( ModelReader view = reader.createView() ) {
+            Assertions.assertAll(
+                    () -> Assertions.assertSame(reader.getEntityRegistry(), reader.getEntityRegistry()),
+                    () -> Assertions.assertSame(reader.getEntityRegistry(), view.getEntityRegistry())
+            );
+        }
+    }
+}
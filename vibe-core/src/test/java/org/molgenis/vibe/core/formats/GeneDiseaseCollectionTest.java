@@ -6,6 +6,9 @@ import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 class GeneDiseaseCollectionTest {
     private static GeneDiseaseCombination[] gdcs;
@@ -61,6 +64,66 @@ class GeneDiseaseCollectionTest {
         Assertions.assertEquals(new ArrayList<>(Arrays.asList(gdcs[2],gdcs[1])), collection.getByDiseaseOrderedByGdaScore(diseases[1]));
     }
 
+    @Test
+    void testMergeSumsCountsOfExistingCombinations() {
+        GeneDiseaseCollection collection1 = new GeneDiseaseCollection();
+        collection1.getOrCreate(genes[0], diseases[0], 0.5).add(sources[0]);
+
+        GeneDiseaseCollection collection2 = new GeneDiseaseCollection();
+        collection2.getOrCreate(genes[0], diseases[0], 0.5).add(sources[0]);
+        collection2.getOrCreate(genes[1], diseases[1], 0.6).add(sources[1]);
+
+        collection1.merge(collection2);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, collection1.size()),
+                () -> Assertions.assertEquals(2, collection1.get(gdcs[0]).getCountForSource(sources[0])),
+                () -> Assertions.assertEquals(1, collection1.get(gdcs[2]).getCountForSource(sources[1]))
+        );
+    }
+
+    @Test
+    void testConcurrentFillingSameAsSequential() throws Exception {
+        int threads = 4;
+        int repeats = 1000;
+
+        GeneDiseaseCollection expected = new GeneDiseaseCollection();
+        for(int i = 0; i < threads * repeats; i++) {
+            fillCollection(expected, i);
+        }
+
+        GeneDiseaseCollection actual = GeneDiseaseCollection.createConcurrent();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < threads; t++) {
+                int offset = t * repeats;
+                futures.add(executor.submit(() -> {
+                    for(int i = offset; i < offset + repeats; i++) {
+                        fillCollection(actual, i);
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(actual.isConcurrent()),
+                () -> Assertions.assertEquals(expected, actual),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual))
+        );
+    }
+
+    private static void fillCollection(GeneDiseaseCollection collection, int i) {
+        GeneDiseaseCombination gdc = gdcs[i % gdcs.length];
+        collection.getOrCreate(gdc.getGene(), gdc.getDisease(), gdc.getDisgenetScore())
+                .add(sources[i % sources.length], new PubmedEvidence(URI.create("http://identifiers.org/pubmed/" + (i % 100)), 2000));
+    }
+
     @Test
     void testequalsWhenequal() {
         GeneDiseaseCollection collection1 = new GeneDiseaseCollection();
@@ -86,6 +86,54 @@ class GeneDiseaseCombinationTest {
         );
     }
 
+    @Test
+    void mergingSumsCountsAndCombinesEvidence() {
+        PubmedEvidence evidence1 = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/1"), year1);
+        PubmedEvidence evidence2 = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/2"), year2);
+
+        GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        geneDiseaseCombo.add(source1, evidence1);
+        geneDiseaseCombo.add(source1);
+
+        GeneDiseaseCombination otherGeneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        otherGeneDiseaseCombo.add(source1, evidence1);
+        otherGeneDiseaseCombo.add(source1, evidence2);
+        otherGeneDiseaseCombo.add(source2);
+
+        geneDiseaseCombo.merge(otherGeneDiseaseCombo);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Integer.valueOf(4), geneDiseaseCombo.getSourcesCount().get(source1)),
+                () -> Assertions.assertEquals(Integer.valueOf(1), geneDiseaseCombo.getSourcesCount().get(source2)),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(evidence1, evidence2)),
+                        geneDiseaseCombo.getPubmedEvidenceForSource(source1)),
+                () -> Assertions.assertNull(geneDiseaseCombo.getPubmedEvidenceForSource(source2))
+        );
+    }
+
+    @Test
+    void retrieveSameEvidenceInstances() {
+        PubmedEvidence evidence1 = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/2"), year1);
+        PubmedEvidence evidence2 = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/1"), year2);
+        GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        geneDiseaseCombo.add(source1, evidence1);
+        geneDiseaseCombo.add(source1, evidence2);
+        List<PubmedEvidence> sortedEvidence = geneDiseaseCombo.getPubmedEvidenceForSourceSortedByReleaseDate(source1);
+
+        Assertions.assertAll(
+                () -> Assertions.assertSame(evidence2, sortedEvidence.get(0)),
+                () -> Assertions.assertSame(evidence1, sortedEvidence.get(1))
+        );
+    }
+
+    @Test
+    void mergingDifferentCombination() {
+        GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        GeneDiseaseCombination otherGeneDiseaseCombo = new GeneDiseaseCombination(gene2, disease, score1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> geneDiseaseCombo.merge(otherGeneDiseaseCombo));
+    }
+
     @Test
     void retrieveCountsWhenNothingIsStored() {
         GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
@@ -267,4 +315,44 @@ class GeneDiseaseCombinationTest {
         Assertions.assertEquals(geneDiseaseCombo.getAllPubMedEvidenceSortedByYear(),
                 expectedList);
     }
+
+    @Test
+    void addingSameEvidenceTwiceOnlyIncrementsCount() {
+        PubmedEvidence evidence = new PubmedEvidence(URI.create("http://identifiers.org/pubmed/1"), year1);
+
+        GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        geneDiseaseCombo.add(source1, evidence);
+        geneDiseaseCombo.add(source1, evidence);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, geneDiseaseCombo.getCountForSource(source1)),
+                () -> Assertions.assertEquals(Collections.singleton(evidence), geneDiseaseCombo.getPubmedEvidenceForSource(source1)),
+                () -> Assertions.assertTrue(evidence.allFieldsEquals(geneDiseaseCombo.getPubmedEvidenceForSource(source1).iterator().next()))
+        );
+    }
+
+    @Test
+    void addingManyEvidenceInRandomOrder() {
+        List<PubmedEvidence> expectedList = new ArrayList<>();
+        for(int i = 1; i <= 100; i++) {
+            expectedList.add(new PubmedEvidence(URI.create("http://identifiers.org/pubmed/" + i), year1 + i % 3));
+        }
+        List<PubmedEvidence> shuffledList = new ArrayList<>(expectedList);
+        Collections.shuffle(shuffledList, new Random(0));
+
+        GeneDiseaseCombination geneDiseaseCombo = new GeneDiseaseCombination(gene, disease, score1);
+        shuffledList.forEach(evidence -> geneDiseaseCombo.add(source1, evidence));
+        expectedList.sort(PubmedEvidence.RELEASE_YEAR_COMPARATOR);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(100, geneDiseaseCombo.getCountForSource(source1)),
+                () -> Assertions.assertEquals(expectedList, geneDiseaseCombo.getPubmedEvidenceForSourceSortedByReleaseDate(source1)),
+                () -> Assertions.assertEquals(new HashSet<>(expectedList), geneDiseaseCombo.getAllPubmedEvidence())
+        );
+    }
+
+    @Test
+    void retrieveScoreWhenCreatedWithoutScore() {
+        Assertions.assertTrue(Double.isNaN(new GeneDiseaseCombination(gene, disease).getDisgenetScore()));
+    }
 }
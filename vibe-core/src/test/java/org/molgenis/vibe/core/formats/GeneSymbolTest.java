@@ -60,6 +60,12 @@ class GeneSymbolTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> new GeneSymbol(uri) );
     }
 
+    @Test
+    void useUriWithInvalidId() {
+        URI uri = URI.create("http://identifiers.org/hgnc.symbol/AB%20C");
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> new GeneSymbol(uri) );
+    }
+
     @Test
     void testSort() {
         List<GeneSymbol> actualOrder = new ArrayList<>( Arrays.asList(
@@ -62,6 +62,12 @@ class GeneTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> new Gene(uri, symbol) );
     }
 
+    @Test
+    void useUriWithInvalidId() {
+        URI uri = URI.create("http://identifiers.org/ncbigene/12a4");
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> new Gene(uri, symbol) );
+    }
+
     @Test
     void testSort() {
         List<Gene> actualOrder = new ArrayList<>( Arrays.asList(
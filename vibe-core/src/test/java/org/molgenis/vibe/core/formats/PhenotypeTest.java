@@ -60,6 +60,12 @@ class PhenotypeTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> new Phenotype(uri) );
     }
 
+    @Test
+    void useUriWithInvalidId() {
+        URI uri = URI.create("http://purl.obolibrary.org/obo/HP_00123456");
+        Assertions.assertThrows(InvalidStringFormatException.class, () -> new Phenotype(uri) );
+    }
+
     @Test
     void testSort() {
         List<Phenotype> actualOrder = new ArrayList<>( Arrays.asList(
@@ -0,0 +1,55 @@
+package org.molgenis.vibe.core.io.input;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class HdtFileReaderTest {
+    @TempDir
+    static Path tempDir;
+
+    private static Path hdtFile;
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        hdtFile = TestHdtGenerator.generateMiniDatabase(tempDir);
+    }
+
+    @Test
+    void loadedAndMemoryMappedContainSameData() throws IOException {
+        try ( HdtFileReader loaded = new HdtFileReader(hdtFile, false);
+              HdtFileReader mapped = new HdtFileReader(hdtFile, true) ) {
+            Assertions.assertAll(
+                    () -> Assertions.assertFalse(mapped.getModel().isEmpty()),
+                    () -> Assertions.assertEquals(loaded.getModel().size(), mapped.getModel().size()),
+                    () -> Assertions.assertTrue(loaded.getModel().isIsomorphicWith(mapped.getModel()))
+            );
+        }
+    }
+
+    @Test
+    void memoryMappedCreatesIndex() throws IOException {
+        try ( HdtFileReader mapped = new HdtFileReader(hdtFile, true) ) {
+            Assertions.assertTrue(Files.isRegularFile(Paths.get(hdtFile.toString() + ".index.v1-1")));
+        }
+    }
+
+    @Test
+    void closingViewKeepsOriginalUsable() throws IOException {
+        try ( HdtFileReader reader = new HdtFileReader(hdtFile) ) {
+            long size = reader.getModel().size();
+            try ( HdtFileReader view = reader.createView() ) {
+                Assertions.assertEquals(size, view.getModel().size());
+            }
+            Assertions.assertEquals(size, reader.getModel().size());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.molgenis.vibe.core.io.input;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.rdfhdt.hdt.enums.RDFNotation;
+import org.rdfhdt.hdt.exceptions.ParserException;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class HdtIndexBuilderTest {
+    @TempDir
+    Path tempDir;
+
+    private Path dbDir;
+    private Path cacheDir;
+    private Path hdtFile;
+
+    @BeforeEach
+    void beforeEach() throws IOException, ParserException {
+        dbDir = Files.createDirectory(tempDir.resolve("db"));
+        cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        hdtFile = TestHdtGenerator.generateMiniDatabase(dbDir);
+    }
+
+    @Test
+    void buildCreatesIndexNextToHdt() throws IOException {
+        HdtIndexBuilder builder = new HdtIndexBuilder(hdtFile);
+
+        Assertions.assertEquals(hdtFile, builder.build());
+        Assertions.assertAll(
+                () -> Assertions.assertTrue(Files.isRegularFile(HdtIndexBuilder.indexFileFor(hdtFile))),
+                () -> Assertions.assertDoesNotThrow(builder::verify)
+        );
+    }
+
+    @Test
+    void buildWithCacheDirStoresIndexInCacheDir() throws IOException {
+        HdtIndexBuilder builder = new HdtIndexBuilder(hdtFile, cacheDir);
+        Path indexedHdtFile = builder.build();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(cacheDir.resolve(hdtFile.getFileName()), indexedHdtFile),
+                () -> Assertions.assertTrue(Files.isRegularFile(HdtIndexBuilder.indexFileFor(indexedHdtFile))),
+                () -> Assertions.assertFalse(Files.exists(HdtIndexBuilder.indexFileFor(hdtFile))),
+                () -> Assertions.assertDoesNotThrow(builder::verify)
+        );
+
+        // Loading through the link uses the cached index instead of creating one next to the HDT.
+        try (HdtFileReader reader = new HdtFileReader(indexedHdtFile)) {
+            Assertions.assertFalse(reader.getModel().isEmpty());
+        }
+        Assertions.assertFalse(Files.exists(HdtIndexBuilder.indexFileFor(hdtFile)));
+    }
+
+    @Test
+    void buildWithCacheDirPrefersIndexNextToHdt() throws IOException {
+        new HdtIndexBuilder(hdtFile).build();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(hdtFile, new HdtIndexBuilder(hdtFile, cacheDir).build()),
+                () -> Assertions.assertEquals(0, cacheDir.toFile().list().length)
+        );
+    }
+
+    @Test
+    void cacheDirContainingOtherDatabaseWithSameName() throws IOException, ParserException {
+        Path otherDir = Files.createDirectory(tempDir.resolve("other"));
+        Path otherHdtFile = TestHdtGenerator.generateMiniDatabase(otherDir);
+        new HdtIndexBuilder(otherHdtFile, cacheDir).build();
+
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new HdtIndexBuilder(hdtFile, cacheDir).build());
+        Assertions.assertEquals("Index cache directory " + cacheDir + " already contains a different database named " +
+                hdtFile.getFileName() + ".", exception.getMessage());
+    }
+
+    @Test
+    void concurrentBuildsCreateSingleIndex() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> new HdtIndexBuilder(hdtFile, cacheDir).build()));
+            }
+            for (Future<Path> future : futures) {
+                Assertions.assertEquals(cacheDir.resolve(hdtFile.getFileName()), future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Only the link, the index and the lock file should remain (no temporary directories).
+        try (Stream<Path> paths = Files.list(cacheDir)) {
+            Assertions.assertEquals(3, paths.collect(Collectors.toList()).size());
+        }
+        Assertions.assertDoesNotThrow(() -> new HdtIndexBuilder(hdtFile, cacheDir).verify());
+    }
+
+    @Test
+    void verifyWithoutIndex() {
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new HdtIndexBuilder(hdtFile).verify());
+        Assertions.assertEquals("No index file available for " + hdtFile.getFileName() + ".", exception.getMessage());
+    }
+
+    @Test
+    void verifyWithIndexOfOtherHdt() throws IOException, ParserException {
+        // Generates a HDT with different content and uses its index for the mini database.
+        Path otherNt = tempDir.resolve("other.nt");
+        Files.write(otherNt, "<http://example.org/s> <http://example.org/p> <http://example.org/o> .\n".getBytes());
+        Path otherHdtFile = tempDir.resolve("other.hdt");
+        try (HDT hdt = HDTManager.generateHDT(otherNt.toString(), "http://example.org/", RDFNotation.NTRIPLES,
+                new HDTSpecification(), null)) {
+            hdt.saveToHDT(otherHdtFile.toString(), null);
+        }
+        new HdtIndexBuilder(otherHdtFile).build();
+        Files.copy(HdtIndexBuilder.indexFileFor(otherHdtFile), HdtIndexBuilder.indexFileFor(hdtFile));
+
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new HdtIndexBuilder(hdtFile).verify());
+        Assertions.assertEquals("Index file " + HdtIndexBuilder.indexFileFor(hdtFile) + " does not belong to " +
+                hdtFile.getFileName() + ".", exception.getMessage());
+    }
+}
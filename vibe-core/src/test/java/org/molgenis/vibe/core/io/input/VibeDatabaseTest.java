@@ -3,11 +3,20 @@ package org.molgenis.vibe.core.io.input;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.molgenis.vibe.core.TestData;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.database_processing.DiseaseAnnotationsRetriever;
+import org.rdfhdt.hdt.exceptions.ParserException;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Certain tests fail on Jenkins, probably caused by issues setting file/dir permissions.
@@ -19,6 +28,20 @@ class VibeDatabaseTest {
         Assertions.assertDoesNotThrow(() -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT));
     }
 
+    @Test
+    void testWritableDirWithIndexMemoryMapped() {
+        Path hdtFile = TestData.FAKE_HDT_WITH_INDEX.getFullPath();
+        Assertions.assertDoesNotThrow(() -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT_MAPPED));
+    }
+
+    @Test
+    void testOnlyIndexFileGivenAsInputMemoryMapped() {
+        Path hdtFile = TestData.FAKE_HDT_INDEX_ONLY_INDEX.getFullPath();
+
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT_MAPPED) );
+        Assertions.assertEquals("Invalid database. Please check if " + hdtFile.getFileName() + " is a readable .hdt file.", exception.getMessage());
+    }
+
     @Test
     void testWritableDirWithoutIndex() {
         Path hdtFile = TestData.FAKE_HDT_WITHOUT_INDEX.getFullPath();
@@ -86,6 +109,37 @@ class VibeDatabaseTest {
         }
     }
 
+    @Test
+    @Tag("skipOnJenkins")
+    void testReadonlyDirWithoutIndexWithIndexCacheDir(@TempDir Path indexCacheDir) {
+        Path hdtFile = TestData.FAKE_HDT_WITHOUT_INDEX.getFullPath();
+
+        try {
+            hdtFile.getParent().toFile().setWritable(false);
+
+            Assertions.assertDoesNotThrow(() -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT, indexCacheDir));
+        } finally { // Reset any permission changes made.
+            hdtFile.getParent().toFile().setWritable(true);
+        }
+    }
+
+    @Test
+    void testNonExistingIndexCacheDir(@TempDir Path tempDir) {
+        Path hdtFile = TestData.FAKE_HDT_WITHOUT_INDEX.getFullPath();
+        Path indexCacheDir = tempDir.resolve("missing");
+
+        Exception exception = Assertions.assertThrows(IOException.class, () -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT, indexCacheDir));
+        Assertions.assertEquals("Index cache directory " + indexCacheDir + " is not a writable directory.", exception.getMessage());
+    }
+
+    @Test
+    void testIndexCacheDirUsedWithoutIndex(@TempDir Path indexCacheDir) throws IOException {
+        Path hdtFile = TestData.FAKE_HDT_WITHOUT_INDEX.getFullPath();
+
+        VibeDatabase vibeDatabase = new VibeDatabase(hdtFile, ModelReaderFactory.HDT, indexCacheDir);
+        Assertions.assertEquals(indexCacheDir.resolve(hdtFile.getFileName()), vibeDatabase.getIndexBuilder().getIndexedHdtFile());
+    }
+
     @Test
     void testOnlyIndexFileGivenAsInput() {
         Path hdtFile = TestData.FAKE_HDT_INDEX_ONLY_INDEX.getFullPath();
@@ -101,4 +155,36 @@ class VibeDatabaseTest {
         Exception exception = Assertions.assertThrows(IOException.class, () -> new VibeDatabase(hdtFile, ModelReaderFactory.HDT) );
         Assertions.assertEquals("Invalid database. Please check if " + hdtFile.getFileName() + " is a readable .hdt file.", exception.getMessage());
     }
+
+    @Test
+    void testDiseasePhenotypesStored(@TempDir Path tempDir) throws IOException, ParserException {
+        Path hdtFile = TestHdtGenerator.generateMiniDatabase(tempDir);
+        VibeDatabase vibeDatabase = new VibeDatabase(hdtFile, ModelReaderFactory.HDT);
+
+        Map<String, Set<String>> expected;
+        try (ModelReader modelReader = vibeDatabase.getModelReader()) {
+            DiseaseAnnotationsRetriever retriever = new DiseaseAnnotationsRetriever(modelReader);
+            retriever.run();
+            expected = retriever.getDiseasePhenotypes();
+            Assertions.assertEquals(expected, vibeDatabase.getDiseasePhenotypes(modelReader));
+        }
+
+        // A new instance reads the stored file instead of the database.
+        Assertions.assertTrue(Files.isRegularFile(vibeDatabase.getDiseaseAnnotationsFile()));
+        Assertions.assertEquals(expected, new VibeDatabase(hdtFile, ModelReaderFactory.HDT).getDiseasePhenotypes(null));
+    }
+
+    @Test
+    void testDiseasePhenotypesOfDifferentDatabaseReplaced(@TempDir Path tempDir) throws IOException, ParserException {
+        Path hdtFile = TestHdtGenerator.generateMiniDatabase(tempDir);
+        VibeDatabase vibeDatabase = new VibeDatabase(hdtFile, ModelReaderFactory.HDT);
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(vibeDatabase.getDiseaseAnnotationsFile()))) {
+            DiseaseAnnotationsFile.write("other", Collections.singletonMap("disease", Collections.singleton("phenotype")),
+                    output);
+        }
+
+        try (ModelReader modelReader = vibeDatabase.getModelReader()) {
+            Assertions.assertFalse(vibeDatabase.getDiseasePhenotypes(modelReader).containsKey("disease"));
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package org.molgenis.vibe.core.ontology_processing;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.formats.PhenotypeNetwork;
+
+import java.util.*;
+
+class HpoGraphTest {
+    private static final Phenotype ALL = new Phenotype("hp:0000001");
+    private static final Phenotype ABNORMALITY = new Phenotype("hp:0000118");
+    private static final Phenotype FIRST = new Phenotype("hp:0000002");
+    private static final Phenotype SECOND = new Phenotype("hp:0000003");
+    private static final Phenotype BOTH = new Phenotype("hp:0000004");
+    private static final Phenotype UNRELATED = new Phenotype("hp:0000005");
+
+    private static HpoGraph graph;
+
+    /**
+     * HP_0000001 <- HP_0000118 <- HP_0000002/HP_0000003 <- HP_0000004 (child of both), an HP_0000005 without any
+     * relations and an UPHENO_0000001 superclass of HP_0000002 (which should be ignored).
+     */
+    @BeforeAll
+    static void beforeAll() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource all = createClass(model, ALL.getUri().toString());
+        Resource abnormality = createClass(model, ABNORMALITY.getUri().toString());
+        Resource first = createClass(model, FIRST.getUri().toString());
+        Resource second = createClass(model, SECOND.getUri().toString());
+        Resource both = createClass(model, BOTH.getUri().toString());
+        createClass(model, UNRELATED.getUri().toString());
+        Resource upheno = createClass(model, "http://purl.obolibrary.org/obo/UPHENO_0000001");
+        abnormality.addProperty(RDFS.subClassOf, all);
+        first.addProperty(RDFS.subClassOf, abnormality);
+        first.addProperty(RDFS.subClassOf, upheno);
+        second.addProperty(RDFS.subClassOf, abnormality);
+        both.addProperty(RDFS.subClassOf, first);
+        both.addProperty(RDFS.subClassOf, second);
+        graph = new HpoGraph(model);
+    }
+
+    private static Resource createClass(Model model, String uri) {
+        return model.createResource(uri).addProperty(RDF.type, OWL.Class);
+    }
+
+    private static Set<Phenotype> parents(Phenotype phenotype) {
+        Set<Phenotype> parents = new HashSet<>();
+        int term = graph.getTerm(phenotype);
+        for(int i = graph.getParentsStart(term); i < graph.getParentsEnd(term); i++) {
+            parents.add(graph.getPhenotype(graph.getParent(i)));
+        }
+        return parents;
+    }
+
+    private static Set<Phenotype> children(Phenotype phenotype) {
+        Set<Phenotype> children = new HashSet<>();
+        int term = graph.getTerm(phenotype);
+        for(int i = graph.getChildrenStart(term); i < graph.getChildrenEnd(term); i++) {
+            children.add(graph.getPhenotype(graph.getChild(i)));
+        }
+        return children;
+    }
+
+    @Test
+    void onlyHpoTerms() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(6, graph.getTermCount()),
+                () -> Assertions.assertEquals(-1, graph.getTerm(new Phenotype("hp:9999999"))),
+                () -> Assertions.assertEquals(-1, graph.getTerm("http://purl.obolibrary.org/obo/UPHENO_0000001")),
+                () -> Assertions.assertEquals(graph.getTerm(FIRST), graph.getTerm(FIRST.getUri().toString()))
+        );
+    }
+
+    @Test
+    void phenotypeOfTerm() {
+        for(Phenotype phenotype : Arrays.asList(ALL, ABNORMALITY, FIRST, SECOND, BOTH, UNRELATED)) {
+            Assertions.assertEquals(phenotype, graph.getPhenotype(graph.getTerm(phenotype)));
+        }
+    }
+
+    @Test
+    void samePhenotypeInstanceOfTerm() {
+        int term = graph.getTerm(FIRST);
+        Assertions.assertSame(graph.getPhenotype(term), graph.getPhenotype(term));
+    }
+
+    @Test
+    void parentsAndChildren() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Collections.emptySet(), parents(ALL)),
+                () -> Assertions.assertEquals(Collections.singleton(ABNORMALITY), parents(FIRST)),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(FIRST, SECOND)), parents(BOTH)),
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(FIRST, SECOND)), children(ABNORMALITY)),
+                () -> Assertions.assertEquals(Collections.emptySet(), children(BOTH)),
+                () -> Assertions.assertEquals(Collections.emptySet(), parents(UNRELATED)),
+                () -> Assertions.assertEquals(Collections.emptySet(), children(UNRELATED))
+        );
+    }
+
+    @Test
+    void retrieveDistance() {
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(graph,
+                Collections.singleton(FIRST), 2);
+        retriever.run();
+        PhenotypeNetwork network = retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(FIRST);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(FIRST, ABNORMALITY, BOTH, ALL, SECOND)),
+                        network.getPhenotypes()),
+                () -> Assertions.assertEquals(0, network.getDistance(FIRST)),
+                () -> Assertions.assertEquals(1, network.getDistance(BOTH)),
+                () -> Assertions.assertEquals(2, network.getDistance(SECOND))
+        );
+    }
+
+    @Test
+    void retrieveChildren() {
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.CHILDREN.create(graph,
+                Collections.singleton(ABNORMALITY), 5);
+        retriever.run();
+        PhenotypeNetwork network = retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(ABNORMALITY);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HashSet<>(Arrays.asList(ABNORMALITY, FIRST, SECOND, BOTH)),
+                        network.getPhenotypes()),
+                () -> Assertions.assertEquals(2, network.getDistance(BOTH))
+        );
+    }
+
+    @Test
+    void retrieveUnknownPhenotype() {
+        Phenotype unknown = new Phenotype("hp:9999999");
+        PhenotypesRetriever retriever = PhenotypesRetrieverFactory.DISTANCE.create(graph,
+                Collections.singleton(unknown), 2);
+        retriever.run();
+
+        Assertions.assertEquals(Collections.singleton(unknown),
+                retriever.getPhenotypeNetworkCollection().getPhenotypeNetworkBySource(unknown).getPhenotypes());
+    }
+}
@@ -0,0 +1,89 @@
+package org.molgenis.vibe.core.ontology_processing;
+
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.molgenis.vibe.core.formats.Phenotype;
+
+import java.util.*;
+
+class InformationContentTableTest {
+    private static InformationContentTable table;
+
+    /**
+     * HP_0000001 <- HP_0000118 <- HP_0000002/HP_0000003 <- HP_0000004 (child of both), with diseases annotated with
+     * HP_0000002, HP_0000003, HP_0000004 and HP_0000118.
+     */
+    @BeforeAll
+    static void beforeAll() {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        OntClass all = model.createClass(new Phenotype("hp:0000001").getUri().toString());
+        OntClass abnormality = model.createClass(new Phenotype("hp:0000118").getUri().toString());
+        OntClass first = model.createClass(new Phenotype("hp:0000002").getUri().toString());
+        OntClass second = model.createClass(new Phenotype("hp:0000003").getUri().toString());
+        OntClass both = model.createClass(new Phenotype("hp:0000004").getUri().toString());
+        abnormality.addSuperClass(all);
+        first.addSuperClass(abnormality);
+        second.addSuperClass(abnormality);
+        both.addSuperClass(first);
+        both.addSuperClass(second);
+
+        Map<String, Set<String>> diseasePhenotypes = new HashMap<>();
+        diseasePhenotypes.put("disease:1", Collections.singleton(first.getURI()));
+        diseasePhenotypes.put("disease:2", Collections.singleton(second.getURI()));
+        diseasePhenotypes.put("disease:3", Collections.singleton(both.getURI()));
+        diseasePhenotypes.put("disease:4", new HashSet<>(Arrays.asList(abnormality.getURI(),
+                new Phenotype("hp:9999999").getUri().toString())));
+        diseasePhenotypes.put("disease:5", Collections.singleton(new Phenotype("hp:9999999").getUri().toString()));
+        table = new InformationContentTable(new HpoGraph(model), diseasePhenotypes);
+    }
+
+    private static int term(String id) {
+        return table.getTerm(new Phenotype(id));
+    }
+
+    @Test
+    void ancestorsIncludeTermItself() {
+        Set<Integer> ancestors = new HashSet<>();
+        for(int i = table.getAncestorsStart(term("hp:0000004")); i < table.getAncestorsEnd(term("hp:0000004")); i++) {
+            ancestors.add(table.getAncestor(i));
+        }
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(term("hp:0000001"), term("hp:0000118"),
+                term("hp:0000002"), term("hp:0000003"), term("hp:0000004"))), ancestors);
+    }
+
+    @Test
+    void informationContent() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0, table.getInformationContent(term("hp:0000001")), 1e-9),
+                () -> Assertions.assertEquals(0, table.getInformationContent(term("hp:0000118")), 1e-9),
+                () -> Assertions.assertEquals(Math.log(2), table.getInformationContent(term("hp:0000002")), 1e-9),
+                () -> Assertions.assertEquals(Math.log(2), table.getInformationContent(term("hp:0000003")), 1e-9),
+                () -> Assertions.assertEquals(Math.log(4), table.getInformationContent(term("hp:0000004")), 1e-9)
+        );
+    }
+
+    @Test
+    void unknownTermsIgnored() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(-1, term("hp:9999999")),
+                () -> Assertions.assertEquals(4, table.getDiseaseCount()),
+                () -> Assertions.assertEquals(-1, table.getDisease("disease:5")),
+                () -> Assertions.assertEquals(1, table.getDiseaseTermsEnd(table.getDisease("disease:4")) -
+                        table.getDiseaseTermsStart(table.getDisease("disease:4")))
+        );
+    }
+
+    @Test
+    void resnikSimilarity() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(0, table.getResnikSimilarity(term("hp:0000002"), term("hp:0000003")), 1e-9),
+                () -> Assertions.assertEquals(Math.log(2), table.getResnikSimilarity(term("hp:0000004"), term("hp:0000002")), 1e-9),
+                () -> Assertions.assertEquals(Math.log(4), table.getResnikSimilarity(term("hp:0000004"), term("hp:0000004")), 1e-9)
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package org.molgenis.vibe.core.query_output_digestion.pipeline;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.molgenis.vibe.core.GeneDiseaseCollectionRetrievalRunner;
+import org.molgenis.vibe.core.TestHdtGenerator;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetriever;
+import org.molgenis.vibe.core.database_processing.GenesForPhenotypeRetrieverFactory;
+import org.molgenis.vibe.core.formats.Gene;
+import org.molgenis.vibe.core.formats.GeneDiseaseCollection;
+import org.molgenis.vibe.core.formats.Phenotype;
+import org.molgenis.vibe.core.io.input.HdtFileReader;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.HighestSingleDisgenetScoreGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalGenePrioritizer;
+import org.molgenis.vibe.core.query_output_digestion.prioritization.gene.IncrementalHighestDisgenetScoreGenePrioritizer;
+import org.rdfhdt.hdt.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+class GdaRowConsumerTest {
+    @TempDir
+    static Path tempDir;
+
+    private static HdtFileReader reader;
+
+    private static final Set<Phenotype> PHENOTYPES = new HashSet<>(Arrays.asList(new Phenotype("hp:0000001"),
+            new Phenotype("hp:0000002"), new Phenotype("hp:0000003"), new Phenotype("hp:0000004")));
+
+    @BeforeAll
+    static void beforeAll() throws IOException, ParserException {
+        reader = new HdtFileReader(TestHdtGenerator.generateMiniDatabase(tempDir));
+    }
+
+    @AfterAll
+    static void afterAll() {
+        reader.close();
+    }
+
+    private static void assertStreamedSameAsCollected(GenesForPhenotypeRetrieverFactory factory) {
+        GenesForPhenotypeRetriever collectingRetriever = factory.create(reader, PHENOTYPES);
+        collectingRetriever.run();
+        GeneDiseaseCollection expected = collectingRetriever.getGeneDiseaseCollection();
+
+        GeneDiseaseCollectionBuilder collectionBuilder = new GeneDiseaseCollectionBuilder();
+        HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+        GenesForPhenotypeRetriever streamingRetriever = factory.create(reader, PHENOTYPES)
+                .withRowConsumer(collectionBuilder.andThen(tracker));
+        streamingRetriever.run();
+        GeneDiseaseCollection actual = collectionBuilder.getGeneDiseaseCollection();
+
+        List<Gene> priority = tracker.getPriority();
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(actual.isEmpty()),
+                () -> Assertions.assertTrue(expected.allFieldsEquals(actual)),
+                () -> Assertions.assertTrue(streamingRetriever.getGeneDiseaseCollection().isEmpty()),
+                () -> Assertions.assertEquals(expected.getGenes(), new HashSet<>(priority)),
+                () -> Assertions.assertEquals(scores(expected, new HighestSingleDisgenetScoreGenePrioritizer().sort(expected)),
+                        scores(expected, priority))
+        );
+    }
+
+    /**
+     * Genes with an identical score can be ordered differently, so only the order of the scores is compared.
+     */
+    private static List<Double> scores(GeneDiseaseCollection collection, List<Gene> priority) {
+        List<Double> scores = new ArrayList<>();
+        for(Gene gene : priority) {
+            scores.add(collection.getByGeneOrderedByGdaScore(gene).get(0).getDisgenetScore());
+        }
+        return scores;
+    }
+
+    @Test
+    void sparqlStreamedSameAsCollected() {
+        assertStreamedSameAsCollected(GenesForPhenotypeRetrieverFactory.SPARQL);
+    }
+
+    @Test
+    void routesStreamedSameAsCollected() {
+        assertStreamedSameAsCollected(GenesForPhenotypeRetrieverFactory.SPARQL_ROUTES);
+    }
+
+    @Test
+    void hdtStreamedSameAsCollected() {
+        assertStreamedSameAsCollected(GenesForPhenotypeRetrieverFactory.HDT);
+    }
+
+    @Test
+    void trackerKeepsHighestScorePerGene() {
+        HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+        new GenesForPhenotypeRetriever(reader, PHENOTYPES).withRowConsumer(tracker).run();
+
+        GenesForPhenotypeRetriever retriever = new GenesForPhenotypeRetriever(reader, PHENOTYPES);
+        retriever.run();
+        GeneDiseaseCollection collection = retriever.getGeneDiseaseCollection();
+
+        for(Gene gene : collection.getGenes()) {
+            Assertions.assertEquals(collection.getByGeneOrderedByGdaScore(gene).get(0).getDisgenetScore(),
+                    tracker.getScore(gene));
+        }
+    }
+
+    @Test
+    void topGenesSameAsAllRetrieved() throws IOException {
+        HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+        new GenesForPhenotypeRetriever(reader, PHENOTYPES).withRowConsumer(tracker).run();
+
+        GeneDiseaseCollectionRetrievalRunner runner = new GeneDiseaseCollectionRetrievalRunner(reader, PHENOTYPES);
+        for(int limit = 1; limit <= tracker.size() + 1; limit++) {
+            Assertions.assertEquals(tracker.getPriority(limit), runner.retrieveTopGenes(limit));
+        }
+    }
+
+    @Test
+    void incrementalPriorityReadyAfterRetrieval() {
+        HighestScorePerGeneTracker tracker = new HighestScorePerGeneTracker();
+        new GenesForPhenotypeRetriever(reader, PHENOTYPES).withRowConsumer(tracker).run();
+
+        for(GenesForPhenotypeRetrieverFactory factory : GenesForPhenotypeRetrieverFactory.values()) {
+            if(factory == GenesForPhenotypeRetrieverFactory.GDA_INDEX) {
+                continue;
+            }
+            IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+            GenesForPhenotypeRetriever retriever = factory.create(reader, PHENOTYPES).withPrioritizer(prioritizer);
+            retriever.run();
+            Assertions.assertAll(factory.name(),
+                    () -> Assertions.assertFalse(retriever.getGeneDiseaseCollection().isEmpty()),
+                    () -> Assertions.assertEquals(tracker.getPriority(), prioritizer.getPriority())
+            );
+        }
+    }
+}
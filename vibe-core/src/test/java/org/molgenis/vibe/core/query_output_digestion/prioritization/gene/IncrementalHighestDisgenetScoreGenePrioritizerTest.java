@@ -0,0 +1,82 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.molgenis.vibe.core.formats.*;
+
+import java.util.*;
+
+class IncrementalHighestDisgenetScoreGenePrioritizerTest {
+    @Test
+    void testOrdering() {
+        Gene[] genes = new Gene[]{
+                new Gene("ncbigene:1", new GeneSymbol("hgnc:A")),
+                new Gene("ncbigene:2", new GeneSymbol("hgnc:B")),
+                new Gene("ncbigene:3", new GeneSymbol("hgnc:C"))
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C0000001"),
+                new Disease("umls:C0000002"),
+                new Disease("umls:C0000003"),
+                new Disease("umls:C0000004"),
+                new Disease("umls:C0000005"),
+                new Disease("umls:C0000006")
+        };
+
+        List<GeneDiseaseCombination> geneDiseaseCombinations = Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.4),
+                new GeneDiseaseCombination(genes[0], diseases[1], 0.3),
+                new GeneDiseaseCombination(genes[1], diseases[2], 0.6),
+                new GeneDiseaseCombination(genes[1], diseases[3], 0.3),
+                new GeneDiseaseCombination(genes[2], diseases[4], 0.4),
+                new GeneDiseaseCombination(genes[2], diseases[5], 0.5)
+        );
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                genes[1], // highest is 0.6
+                genes[2], // highest is 0.5
+                genes[0] // highest is 0.4
+        ));
+
+        IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+        for(GeneDiseaseCombination gdc : geneDiseaseCombinations) {
+            prioritizer.update(gdc);
+            prioritizer.update(gdc); // Updates of the same combination should not matter.
+        }
+        Assertions.assertEquals(expectedPriority, prioritizer.getPriority());
+    }
+
+    @Test
+    void sameAsGenePrioritizerForManyGenes() {
+        GeneDiseaseCollection collection = new GeneDiseaseCollection();
+        IncrementalGenePrioritizer prioritizer = new IncrementalHighestDisgenetScoreGenePrioritizer();
+        Random random = new Random(0);
+        for(int i = 1; i <= 1000; i++) {
+            Gene gene = new Gene("ncbigene:" + (random.nextInt(300) + 1), new GeneSymbol("hgnc:A"));
+            Disease disease = new Disease("umls:C" + String.format("%07d", i));
+            prioritizer.update(collection.getOrCreate(gene, disease, random.nextInt(1000) / 1000.0));
+        }
+
+        List<Gene> expected = new HighestSingleDisgenetScoreGenePrioritizer().sort(collection);
+        List<Gene> actual = prioritizer.getPriority();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(actual)),
+                () -> Assertions.assertEquals(scores(collection, expected), scores(collection, actual)),
+                () -> Assertions.assertEquals(new TopGenesPrioritizer(actual.size()).sort(collection), actual)
+        );
+    }
+
+    @Test
+    void nothingGiven() {
+        Assertions.assertTrue(new IncrementalHighestDisgenetScoreGenePrioritizer().getPriority().isEmpty());
+    }
+
+    private static List<Double> scores(GeneDiseaseCollection collection, List<Gene> priority) {
+        List<Double> scores = new ArrayList<>();
+        for(Gene gene : priority) {
+            scores.add(collection.getHighestDisgenetScore(gene));
+        }
+        return scores;
+    }
+}
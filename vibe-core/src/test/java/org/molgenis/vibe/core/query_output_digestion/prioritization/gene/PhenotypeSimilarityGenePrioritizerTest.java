@@ -0,0 +1,110 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.molgenis.vibe.core.formats.*;
+import org.molgenis.vibe.core.ontology_processing.HpoGraph;
+import org.molgenis.vibe.core.ontology_processing.InformationContentTable;
+
+import java.util.*;
+
+class PhenotypeSimilarityGenePrioritizerTest {
+    private static final Gene[] GENES = new Gene[]{
+            new Gene("ncbigene:1", new GeneSymbol("hgnc:A")),
+            new Gene("ncbigene:2", new GeneSymbol("hgnc:B")),
+            new Gene("ncbigene:3", new GeneSymbol("hgnc:C")),
+            new Gene("ncbigene:4", new GeneSymbol("hgnc:D"))
+    };
+
+    private static final Disease[] DISEASES = new Disease[]{
+            new Disease("umls:C0000001"),
+            new Disease("umls:C0000002"),
+            new Disease("umls:C0000003"),
+            new Disease("umls:C0000004"),
+            new Disease("umls:C0000005")
+    };
+
+    private static InformationContentTable table;
+
+    /**
+     * HP_0000001 <- HP_0000118 <- HP_0000002/HP_0000003 <- HP_0000004 (child of both). Disease 1 is annotated with
+     * HP_0000002, disease 2 with HP_0000003, disease 3 with HP_0000004 and disease 4 with HP_0000118. Disease 5 has no
+     * annotations.
+     */
+    @BeforeAll
+    static void beforeAll() {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        OntClass all = model.createClass(new Phenotype("hp:0000001").getUri().toString());
+        OntClass abnormality = model.createClass(new Phenotype("hp:0000118").getUri().toString());
+        OntClass first = model.createClass(new Phenotype("hp:0000002").getUri().toString());
+        OntClass second = model.createClass(new Phenotype("hp:0000003").getUri().toString());
+        OntClass both = model.createClass(new Phenotype("hp:0000004").getUri().toString());
+        abnormality.addSuperClass(all);
+        first.addSuperClass(abnormality);
+        second.addSuperClass(abnormality);
+        both.addSuperClass(first);
+        both.addSuperClass(second);
+
+        Map<String, Set<String>> diseasePhenotypes = new HashMap<>();
+        diseasePhenotypes.put(DISEASES[0].getUri().toString(), Collections.singleton(first.getURI()));
+        diseasePhenotypes.put(DISEASES[1].getUri().toString(), Collections.singleton(second.getURI()));
+        diseasePhenotypes.put(DISEASES[2].getUri().toString(), Collections.singleton(both.getURI()));
+        diseasePhenotypes.put(DISEASES[3].getUri().toString(), Collections.singleton(abnormality.getURI()));
+        table = new InformationContentTable(new HpoGraph(model), diseasePhenotypes);
+    }
+
+    @Test
+    void similarityIsBestMatchAverage() {
+        PhenotypeSimilarityGenePrioritizer prioritizer = new PhenotypeSimilarityGenePrioritizer(table,
+                Arrays.asList(new Phenotype("hp:0000002"), new Phenotype("hp:0000003")));
+        Assertions.assertAll(
+                // Both input terms match HP_0000004 through themselves, HP_0000004 matches either.
+                () -> Assertions.assertEquals(Math.log(2), prioritizer.getSimilarity(DISEASES[2]), 1e-9),
+                // HP_0000002 matches itself (ln 2), HP_0000003 only matches through HP_0000118 (0).
+                () -> Assertions.assertEquals((Math.log(2) / 2 + Math.log(2)) / 2,
+                        prioritizer.getSimilarity(DISEASES[0]), 1e-9),
+                () -> Assertions.assertEquals(0, prioritizer.getSimilarity(DISEASES[3]), 1e-9),
+                () -> Assertions.assertEquals(0, prioritizer.getSimilarity(DISEASES[4]), 1e-9)
+        );
+    }
+
+    @Test
+    void testOrdering() {
+        Set<GeneDiseaseCombination> geneDiseaseCombinations = new HashSet<>( Arrays.asList(
+                new GeneDiseaseCombination(GENES[0], DISEASES[2], 0.1),
+                new GeneDiseaseCombination(GENES[1], DISEASES[0], 0.9),
+                new GeneDiseaseCombination(GENES[2], DISEASES[1], 0.5),
+                new GeneDiseaseCombination(GENES[3], DISEASES[3], 1.0),
+                new GeneDiseaseCombination(GENES[3], DISEASES[4], 1.0)
+        ));
+
+        List<Gene> expectedPriority = new ArrayList<>( Arrays.asList(
+                GENES[0], // ln 4 (identical term)
+                GENES[1], // ln 2 (parent), DisGeNET score 0.9
+                GENES[2], // ln 2 (parent), DisGeNET score 0.5
+                GENES[3] // 0 (only root terms in common)
+        ));
+
+        GenePrioritizer prioritizer = new PhenotypeSimilarityGenePrioritizer(table,
+                Collections.singletonList(new Phenotype("hp:0000004")));
+        Assertions.assertEquals(expectedPriority, prioritizer.sort(new GeneDiseaseCollection(geneDiseaseCombinations)));
+    }
+
+    @Test
+    void unknownInputPhenotypesOrderedOnDisgenetScore() {
+        Set<GeneDiseaseCombination> geneDiseaseCombinations = new HashSet<>( Arrays.asList(
+                new GeneDiseaseCombination(GENES[0], DISEASES[2], 0.1),
+                new GeneDiseaseCombination(GENES[1], DISEASES[0], 0.9)
+        ));
+
+        GenePrioritizer prioritizer = new PhenotypeSimilarityGenePrioritizer(table,
+                Collections.singletonList(new Phenotype("hp:9999999")));
+        Assertions.assertEquals(Arrays.asList(GENES[1], GENES[0]),
+                prioritizer.sort(new GeneDiseaseCollection(geneDiseaseCombinations)));
+    }
+}
@@ -0,0 +1,84 @@
+package org.molgenis.vibe.core.query_output_digestion.prioritization.gene;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.molgenis.vibe.core.formats.*;
+
+import java.util.*;
+
+class TopGenesPrioritizerTest {
+    private static Gene[] genes;
+    private static GeneDiseaseCollection collection;
+
+    @BeforeAll
+    static void beforeAll() {
+        genes = new Gene[]{
+                new Gene("ncbigene:1", new GeneSymbol("hgnc:A")),
+                new Gene("ncbigene:2", new GeneSymbol("hgnc:B")),
+                new Gene("ncbigene:3", new GeneSymbol("hgnc:C")),
+                new Gene("ncbigene:4", new GeneSymbol("hgnc:D"))
+        };
+
+        Disease[] diseases = new Disease[]{
+                new Disease("umls:C0000001"),
+                new Disease("umls:C0000002"),
+                new Disease("umls:C0000003"),
+                new Disease("umls:C0000004"),
+                new Disease("umls:C0000005"),
+                new Disease("umls:C0000006")
+        };
+
+        collection = new GeneDiseaseCollection(new HashSet<>(Arrays.asList(
+                new GeneDiseaseCombination(genes[0], diseases[0], 0.4),
+                new GeneDiseaseCombination(genes[0], diseases[1], 0.3),
+                new GeneDiseaseCombination(genes[1], diseases[2], 0.6),
+                new GeneDiseaseCombination(genes[1], diseases[3], 0.3),
+                new GeneDiseaseCombination(genes[2], diseases[4], 0.5),
+                new GeneDiseaseCombination(genes[3], diseases[5], 0.5)
+        )));
+    }
+
+    @Test
+    void topGenesOnly() {
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Collections.singletonList(genes[1]), new TopGenesPrioritizer(1).sort(collection)),
+                () -> Assertions.assertEquals(Arrays.asList(genes[1], genes[2], genes[3]),
+                        new TopGenesPrioritizer(3).sort(collection))
+        );
+    }
+
+    @Test
+    void identicalScoreOrderedOnId() {
+        // genes[2] and genes[3] both have 0.5 as highest score.
+        Assertions.assertEquals(Arrays.asList(genes[1], genes[2]), new TopGenesPrioritizer(2).sort(collection));
+    }
+
+    @Test
+    void limitAboveGeneCount() {
+        List<Gene> priority = new TopGenesPrioritizer(10).sort(collection);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(Arrays.asList(genes[1], genes[2], genes[3], genes[0]), priority),
+                () -> Assertions.assertEquals(scores(new HighestSingleDisgenetScoreGenePrioritizer().sort(collection)),
+                        scores(priority))
+        );
+    }
+
+    @Test
+    void emptyCollection() {
+        Assertions.assertTrue(new TopGenesPrioritizer(5).sort(new GeneDiseaseCollection()).isEmpty());
+    }
+
+    @Test
+    void invalidLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TopGenesPrioritizer(0));
+    }
+
+    private static List<Double> scores(List<Gene> priority) {
+        List<Double> scores = new ArrayList<>();
+        for(Gene gene : priority) {
+            scores.add(collection.getHighestDisgenetScore(gene));
+        }
+        return scores;
+    }
+}